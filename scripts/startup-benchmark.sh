@@ -0,0 +1,69 @@
+#!/usr/bin/env sh
+# Startup benchmark: time to the first answered request and resident memory after it, for the plain jar
+# (before) and for the startup-optimized layout of the Docker image (after): extracted jar, AppCDS archive,
+# AOT bean definitions and the lazy beans of the prod profile.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+# Build first with: ./mvnw -Paot clean package -DskipTests
+# MongoDB is not needed to answer /api/health, but the startup tasks reach it when it is running.
+set -eu
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAR=$(ls target/*.jar | grep -v plain | head -n 1)
+WORK=target/startup-benchmark
+JAVA_ARGS="--add-opens=java.base/java.nio=ALL-UNNAMED -Dspring.profiles.active=prod -Dserver.port=$PORT"
+
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK" > /dev/null
+APP="$WORK/$(basename "$JAR")"
+
+# training run: the archive records the classes loaded until the context is refreshed
+java $JAVA_ARGS -Dspring.aot.enabled=true -XX:ArchiveClassesAtExit="$WORK/app.jsa" \
+    -Dspring.context.exit=onRefresh -jar "$APP" > "$WORK/training.log" 2>&1
+
+now_ms() {
+    date +%s%3N
+}
+
+# prints "<milliseconds to the first request> <RSS in KiB>" of one start
+measure() {
+    start=$(now_ms)
+    java $JAVA_ARGS "$@" > "$WORK/run.log" 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/api/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "startup failed, see $WORK/run.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(($(now_ms) - start))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+report() {
+    label=$1
+    shift
+    results=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        results="$results$(measure "$@")
+"
+        i=$((i + 1))
+    done
+    ttfr=$(printf '%s' "$results" | awk '{ print $1 }' | median)
+    rss=$(printf '%s' "$results" | awk '{ print $2 }' | median)
+    printf '%-10s time to first request %6d ms   RSS %6d MiB\n' "$label" "$ttfr" $((rss / 1024))
+}
+
+echo "Median of $RUNS starts"
+report before -jar "$JAR"
+report after -Dspring.aot.enabled=true -XX:SharedArchiveFile="$WORK/app.jsa" -jar "$APP"
@@ -2,12 +2,14 @@ package com.anteiku.wallet;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Main application class for the Wallet application.
  * This is the entry point of the Spring Boot application.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class WalletApplication {
 
     /**
@@ -0,0 +1,150 @@
+package com.anteiku.wallet.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over keys that are already uniformly distributed hashes, such as a SHA-256 digest.
+ * The first 16 bytes of a key feed the double hashing scheme, so no further hashing is done per lookup.
+ * Answers "definitely absent" or "possibly present"; the false positive rate holds up to the expected
+ * number of insertions.
+ */
+public class BloomFilter {
+
+    private static final int KEY_BYTES = 16;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * Creates a filter sized for the given load.
+     *
+     * @param expectedInsertions number of keys the filter is sized for
+     * @param falsePositiveRate wanted false positive rate at that load, between 0 and 1 exclusive
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((optimalBits + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = (long) bits.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key hash of at least 16 bytes
+     */
+    public void put(byte[] key) {
+        ByteBuffer buffer = wrap(key);
+        long h1 = buffer.getLong();
+        long h2 = buffer.getLong();
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Tells whether a key may have been added.
+     *
+     * @param key hash of at least 16 bytes
+     * @return false if the key was definitely never added
+     */
+    public boolean mightContain(byte[] key) {
+        ByteBuffer buffer = wrap(key);
+        long h1 = buffer.getLong();
+        long h2 = buffer.getLong();
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether more keys than the filter was sized for have been added.
+     *
+     * @return true once the false positive rate is no longer guaranteed
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    /**
+     * Removes every key.
+     */
+    public void clear() {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0);
+        }
+        insertions.set(0);
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Copies the bits and the number of insertions, for instance to persist the filter.
+     * Keys added during the copy may or may not be part of it.
+     *
+     * @param words receives the bits, {@code bitSize() / 64} words
+     * @return number of keys added
+     */
+    public long copyTo(long[] words) {
+        if (words.length != bits.length()) {
+            throw new IllegalArgumentException("expected " + bits.length() + " words");
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] = bits.get(i);
+        }
+        return insertions.get();
+    }
+
+    /**
+     * Replaces the content with bits copied from a filter of the same size.
+     *
+     * @param words bits, {@code bitSize() / 64} words
+     * @param added number of keys added to the copied filter
+     */
+    public void restore(long[] words, long added) {
+        if (words.length != bits.length()) {
+            throw new IllegalArgumentException("expected " + bits.length() + " words");
+        }
+        for (int i = 0; i < words.length; i++) {
+            bits.set(i, words[i]);
+        }
+        insertions.set(added);
+    }
+
+    private static ByteBuffer wrap(byte[] key) {
+        if (key.length < KEY_BYTES) {
+            throw new IllegalArgumentException("key must be at least " + KEY_BYTES + " bytes");
+        }
+        return ByteBuffer.wrap(key, 0, KEY_BYTES);
+    }
+}
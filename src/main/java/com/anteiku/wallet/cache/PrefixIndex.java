@@ -0,0 +1,201 @@
+package com.anteiku.wallet.cache;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory index of terms and their frequencies for type-ahead completion.
+ * Terms are kept in a sorted map under a normalized key (lower case, accents removed), so all completions
+ * of a prefix form one contiguous range, as in a trie walk, and are ranked by frequency.
+ * Once {@code maxTerms} distinct terms are held, new terms are ignored while known ones keep counting.
+ */
+public class PrefixIndex {
+
+    private static final Comparator<Term> BY_FREQUENCY = Comparator.comparingLong((Term t) -> t.count)
+            .thenComparing((Term t) -> t.display, Comparator.reverseOrder());
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxTerms;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxTerms maximum number of distinct terms
+     */
+    public PrefixIndex(int maxTerms) {
+        if (maxTerms <= 0) {
+            throw new IllegalArgumentException("maxTerms must be positive");
+        }
+        this.maxTerms = maxTerms;
+    }
+
+    /**
+     * Counts one occurrence of a term; the first spelling seen is the one suggested.
+     *
+     * @param term term to add
+     */
+    public void add(String term) {
+        add(term, 1);
+    }
+
+    /**
+     * Counts several occurrences of a term at once, such as when restoring a persisted index.
+     *
+     * @param term term to add
+     * @param occurrences number of occurrences
+     */
+    public void add(String term, long occurrences) {
+        String key = normalize(term);
+        if (key.isEmpty() || occurrences <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Term entry = terms.get(key);
+            if (entry == null) {
+                if (terms.size() >= maxTerms) {
+                    return;
+                }
+                entry = new Term(term.trim());
+                terms.put(key, entry);
+            }
+            entry.count += occurrences;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets one occurrence of a term, dropping the term when no occurrence is left.
+     *
+     * @param term term to remove
+     */
+    public void remove(String term) {
+        String key = normalize(term);
+        lock.writeLock().lock();
+        try {
+            Term entry = terms.get(key);
+            if (entry != null && --entry.count <= 0) {
+                terms.remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the most frequent terms starting with a prefix.
+     *
+     * @param prefix prefix, matched ignoring case and accents
+     * @param limit maximum number of terms
+     * @return terms, most frequent first
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Term> top = new PriorityQueue<>(limit + 1, BY_FREQUENCY);
+        lock.readLock().lock();
+        try {
+            SortedMap<String, Term> range = terms.subMap(key, key + Character.MAX_VALUE);
+            for (Term term : range.values()) {
+                top.offer(new Term(term.display, term.count));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> completions = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            completions.add(top.poll().display);
+        }
+        Collections.reverse(completions);
+        return completions;
+    }
+
+    /**
+     * Returns every term with its number of occurrences, in key order.
+     *
+     * @return the terms and their occurrences
+     */
+    public List<Map.Entry<String, Long>> entries() {
+        lock.readLock().lock();
+        try {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(terms.size());
+            terms.values().forEach(term -> entries.add(Map.entry(term.display, term.count)));
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every term.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct terms.
+     *
+     * @return distinct terms
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes a term for matching: trimmed, lower case and without accents.
+     *
+     * @param term term
+     * @return normalized key
+     */
+    public static String normalize(String term) {
+        if (term == null) {
+            return "";
+        }
+        return Normalizer.normalize(term.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Term {
+
+        private final String display;
+        private long count;
+
+        Term(String display) {
+            this(display, 0);
+        }
+
+        Term(String display, long count) {
+            this.display = display;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.anteiku.wallet.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary file persisting in-memory structures between restarts.
+ * The file holds a header (format version, creation time and the position in the data the structures are
+ * current up to), the sections written by the owners of the structures, and a CRC-32 of all of it. It is
+ * written to a temporary file and moved in place, so a crash never leaves a partial snapshot, and read through
+ * a memory mapping, so large arrays such as the bits of a {@link BloomFilter} are copied without a read call
+ * per block.
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x57534E50;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CRC_BYTES = Long.BYTES;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the sections written by a body to a snapshot, replacing the previous one.
+     *
+     * @param path snapshot file
+     * @param createdAt creation time
+     * @param position position the structures are current up to, null for none
+     * @param body writes the sections
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Instant createdAt, String position, Body body) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream file = Files.newOutputStream(temporary);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                            new CheckedOutputStream(file, crc), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(createdAt.toEpochMilli());
+                Writer writer = new Writer(out);
+                writer.writeString(position == null ? "" : position);
+                body.writeTo(writer);
+                out.flush();
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot and checks its format and checksum.
+     *
+     * @param path snapshot file
+     * @return a reader positioned at the first section
+     * @throws IOException if the file cannot be read, is not a snapshot of this version or is corrupted
+     */
+    public static Reader open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.limit() < CRC_BYTES + 2 * Integer.BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            if (buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buffer.getInt(Integer.BYTES));
+            }
+            int contentLength = buffer.limit() - CRC_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, contentLength));
+            if (crc.getValue() != buffer.getLong(contentLength)) {
+                throw new IOException("Corrupted snapshot: " + path);
+            }
+            Reader reader = new Reader(buffer.slice(2 * Integer.BYTES, contentLength - 2 * Integer.BYTES));
+            Instant createdAt = Instant.ofEpochMilli(reader.readLong());
+            String position = reader.readString();
+            return reader.withHeader(createdAt, position.isEmpty() ? null : position);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new IOException("Truncated snapshot: " + path, ex);
+        }
+    }
+
+    /**
+     * Writes the sections of a snapshot.
+     */
+    @FunctionalInterface
+    public interface Body {
+
+        /**
+         * Writes the sections.
+         *
+         * @param writer the snapshot writer
+         * @throws IOException if the file cannot be written
+         */
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    /**
+     * Writes the values of a section, big-endian.
+     */
+    public static final class Writer {
+
+        private final DataOutputStream out;
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        public void writeInt(int value) throws IOException {
+            out.writeInt(value);
+        }
+
+        public void writeLong(long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        /**
+         * Writes an array of longs, preceded by its length.
+         *
+         * @param values the array
+         * @throws IOException if the file cannot be written
+         */
+        public void writeLongs(long[] values) throws IOException {
+            out.writeInt(values.length);
+            for (long value : values) {
+                out.writeLong(value);
+            }
+        }
+
+        /**
+         * Writes a string as UTF-8, preceded by its length in bytes.
+         *
+         * @param value the string
+         * @throws IOException if the file cannot be written
+         */
+        public void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the values of the sections, in the order they were written.
+     * Reading past the end of the snapshot throws {@link java.nio.BufferUnderflowException}.
+     */
+    public static final class Reader {
+
+        private final ByteBuffer buffer;
+        private Instant createdAt;
+        private String position;
+
+        private Reader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private Reader withHeader(Instant createdAt, String position) {
+            this.createdAt = createdAt;
+            this.position = position;
+            return this;
+        }
+
+        public Instant createdAt() {
+            return createdAt;
+        }
+
+        public String position() {
+            return position;
+        }
+
+        public int readInt() {
+            return buffer.getInt();
+        }
+
+        public long readLong() {
+            return buffer.getLong();
+        }
+
+        /**
+         * Reads an array of longs with a single bulk copy from the mapping.
+         *
+         * @return the array
+         */
+        public long[] readLongs() {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() / Long.BYTES) {
+                throw new BufferUnderflowException();
+            }
+            long[] values = new long[length];
+            buffer.asLongBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Long.BYTES);
+            return values;
+        }
+
+        /**
+         * Reads a string.
+         *
+         * @return the string
+         */
+        public String readString() {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.anteiku.wallet.cache;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. Tokens are refilled continuously up to the capacity and taken by compare-and-set
+ * of an immutable state, so concurrent requests of one client never block each other.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param capacity maximum number of tokens, the largest burst allowed
+     * @param tokensPerSecond refill rate
+     * @param now current {@link System#nanoTime()}
+     */
+    public TokenBucket(long capacity, double tokensPerSecond, long now) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, now));
+    }
+
+    /**
+     * Takes tokens if enough are available.
+     *
+     * @param tokens tokens to take, at most the capacity
+     * @param now current {@link System#nanoTime()}
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until enough will be available
+     */
+    public long tryAcquire(long tokens, long now) {
+        while (true) {
+            State current = state.get();
+            long refilledAt = Math.max(now, current.refilledAt());
+            double available = Math.min(capacity,
+                    current.tokens() + (refilledAt - current.refilledAt()) * tokensPerNano);
+            if (available < tokens) {
+                return (long) Math.ceil((tokens - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - tokens, refilledAt))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns when tokens were last taken, or the bucket created.
+     *
+     * @return a {@link System#nanoTime()} value
+     */
+    public long lastUsed() {
+        return state.get().refilledAt();
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    private record State(double tokens, long refilledAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.anteiku.wallet.config;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the Apache Arrow off-heap memory used by the columnar export.
+ */
+@Configuration
+public class ArrowConfig {
+
+    /**
+     * Creates the root allocator every Arrow export allocates from.
+     * The limit caps the off-heap memory of all concurrent exports together.
+     *
+     * @param limit maximum off-heap bytes
+     * @return root allocator, closed on shutdown
+     */
+    @Bean(destroyMethod = "close")
+    public BufferAllocator arrowRootAllocator(@Value("${wallet.export.arrow.memory-limit:268435456}") long limit) {
+        return new RootAllocator(limit);
+    }
+}
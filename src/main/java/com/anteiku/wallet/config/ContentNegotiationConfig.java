@@ -0,0 +1,50 @@
+package com.anteiku.wallet.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration of the binary encodings offered next to JSON.
+ * Clients choose CBOR or Smile with the {@code Accept} and {@code Content-Type} headers; the mappers
+ * share the Spring Boot Jackson settings so that every encoding carries the same fields.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    /**
+     * Media type of the Smile binary JSON encoding.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /**
+     * Creates the CBOR message converter.
+     *
+     * @param builder Spring Boot configured Jackson builder
+     * @return CBOR converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.indentOutput(false)
+                .factory(new CBORFactory())
+                .build());
+    }
+
+    /**
+     * Creates the Smile message converter.
+     *
+     * @param builder Spring Boot configured Jackson builder
+     * @return Smile converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.indentOutput(false)
+                .factory(new SmileFactory())
+                .build());
+    }
+}
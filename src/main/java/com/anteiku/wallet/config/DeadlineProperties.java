@@ -0,0 +1,36 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deadlines of the API requests, applied to their database operations.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.deadline")
+public class DeadlineProperties {
+
+    /**
+     * Deadline of requests that do not set one.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Longest deadline a request can ask for.
+     */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Request header with the deadline in milliseconds, normally the client's own timeout.
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * Ant-style paths of the requests without a deadline, such as uploads whose length is set by the client.
+     */
+    private List<String> excludedPaths = new ArrayList<>(List.of("/api/import"));
+}
@@ -0,0 +1,71 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.service.TransactionCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Converts the transaction amounts stored as strings to Decimal128.
+ * Amounts used to be written with the default BigDecimal mapping, a string, which sorts lexicographically
+ * ("9.00" after "10.00"), so sorted and top-K queries would be wrong until every document is converted.
+ * The conversion runs in the background once the application is ready and is a no-op when nothing is left.
+ * Until it succeeds the aggregations, which skip string amounts, are incomplete, so the warm-up health indicator
+ * keeps the instance out of service and a failed conversion is retried every
+ * {@code wallet.migration.retry-interval}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DecimalAmountMigration {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionCache transactionCache;
+
+    private volatile boolean done;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::migrate);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.migration.retry-interval:PT30S}",
+            initialDelayString = "${wallet.migration.retry-interval:PT30S}")
+    void retry() {
+        if (!done) {
+            migrate();
+        }
+    }
+
+    /**
+     * Converts the remaining string amounts, logging instead of failing when the database is not reachable;
+     * the instance stays unready until a conversion succeeds.
+     */
+    public synchronized void migrate() {
+        try {
+            long converted = transactionRepository.convertStringAmounts();
+            if (converted > 0) {
+                transactionCache.clear();
+                log.info("Converted {} transaction amounts to Decimal128", converted);
+            }
+            done = true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not convert the transaction amounts: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Tells whether every stored amount has been converted.
+     *
+     * @return true once the conversion succeeded
+     */
+    public boolean isDone() {
+        return done;
+    }
+}
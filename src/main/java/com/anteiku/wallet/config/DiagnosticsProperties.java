@@ -0,0 +1,29 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Query diagnostics of the {@code queries} actuator endpoint.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.diagnostics")
+public class DiagnosticsProperties {
+
+    /**
+     * Database commands taking at least this long are kept as slow queries.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(100);
+
+    /**
+     * Number of recent slow queries kept, the oldest are dropped first.
+     */
+    private int slowQueryCapacity = 20;
+
+    /**
+     * Deadline of the explain commands of one call to the endpoint.
+     */
+    private Duration explainTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,25 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+/**
+ * Source of the exchange rates.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.fx")
+public class FxProperties {
+
+    /**
+     * Currency the rates are quoted against, and of summaries that do not request one.
+     */
+    private String baseCurrency = "EUR";
+
+    /**
+     * Properties file of rates (currency code = units per unit of the base currency), used until the
+     * {@code fx_rates} collection has been read, and when it is empty.
+     */
+    private Resource ratesFile = new DefaultResourceLoader().getResource("classpath:fx-rates.properties");
+}
@@ -0,0 +1,52 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning of the statement import pipeline.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.import")
+public class ImportProperties {
+
+    /**
+     * Transactions written with a single insertMany.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Parsed batches waiting to be written; when full the upload is no longer read.
+     */
+    private int queueCapacity = 4;
+
+    /**
+     * Imports allowed to run at the same time.
+     */
+    private int maxConcurrent = 2;
+
+    /**
+     * Finished imports kept for status queries.
+     */
+    private int retainedJobs = 100;
+
+    /**
+     * Rejected entries reported per import.
+     */
+    private int maxErrors = 100;
+
+    /**
+     * Category of imported entries that do not carry one.
+     */
+    private String defaultCategory = "Da classificare";
+
+    /**
+     * Fingerprints the duplicate detection filter is sized for.
+     */
+    private long dedupCapacity = 1_000_000;
+
+    /**
+     * False positive rate of the duplicate detection filter at full capacity.
+     */
+    private double dedupFalsePositiveRate = 0.01;
+}
@@ -0,0 +1,84 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.IdempotencyRecord;
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.model.StatsBucket;
+import com.anteiku.wallet.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates the indexes declared with {@code @Indexed} on the documents.
+ * Spring Data no longer creates them automatically; doing it in the background once the application is
+ * ready keeps startup independent of the database being reachable. Creating an existing index is a no-op.
+ * Indexes that an index of a later version replaced are dropped first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIndexInitializer {
+
+    // every document declaring @Indexed or @CompoundIndex
+    private static final List<Class<?>> DOCUMENTS = List.of(Transaction.class, IdempotencyRecord.class, Category.class,
+            StatsBucket.class, RecurringTransaction.class);
+
+    // replaced by wallet_fingerprint: a unique index without the shard key would block sharding by wallet
+    private static final Map<Class<?>, List<String>> OBSOLETE = Map.of(Transaction.class, List.of("fingerprint"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::ensureIndexes);
+    }
+
+    /**
+     * Creates the missing indexes, logging instead of failing when the database is not reachable.
+     */
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> document : DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(document);
+            dropObsolete(document, indexOps);
+            for (IndexDefinition index : resolver.resolveIndexFor(document)) {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (RuntimeException ex) {
+                    log.warn("Could not create index {} of {}: {}", index.getIndexKeys(),
+                            document.getSimpleName(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void dropObsolete(Class<?> document, IndexOperations indexOps) {
+        List<String> obsolete = OBSOLETE.getOrDefault(document, List.of());
+        if (obsolete.isEmpty()) {
+            return;
+        }
+        try {
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                if (obsolete.contains(info.getName())) {
+                    indexOps.dropIndex(info.getName());
+                    log.info("Dropped obsolete index {} of {}", info.getName(), document.getSimpleName());
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not drop the obsolete indexes of {}: {}", document.getSimpleName(), ex.getMessage());
+        }
+    }
+}
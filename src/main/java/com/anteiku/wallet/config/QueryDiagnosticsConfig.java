@@ -0,0 +1,35 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.repository.SlowQueryListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Captures the slow database commands reported by the {@code queries} actuator endpoint.
+ */
+@Configuration
+public class QueryDiagnosticsConfig {
+
+    /**
+     * Keeps the recent slow commands.
+     *
+     * @param properties threshold and number of commands kept
+     * @return the command listener
+     */
+    @Bean
+    public SlowQueryListener slowQueryListener(DiagnosticsProperties properties) {
+        return new SlowQueryListener(properties.getSlowQueryThreshold(), properties.getSlowQueryCapacity());
+    }
+
+    /**
+     * Registers the slow query listener on the auto-configured client.
+     *
+     * @param listener the command listener
+     * @return the client settings customizer
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryListenerCustomizer(SlowQueryListener listener) {
+        return builder -> builder.addCommandListener(listener);
+    }
+}
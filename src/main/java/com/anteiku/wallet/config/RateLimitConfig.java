@@ -0,0 +1,44 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.controller.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the {@link RateLimitFilter} in front of the API, right after the filters that set the client
+ * address and the encoding, so rejected requests cost as little as possible.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfig {
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties limits and costs
+     * @param registry registry of the rejection metrics
+     * @return the filter
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        return new RateLimitFilter(properties, registry);
+    }
+
+    /**
+     * Maps the filter to the API paths.
+     *
+     * @param filter the filter
+     * @return its registration
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,106 @@
+package com.anteiku.wallet.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Admission control of the API: per-client token buckets and a global limit on the cost of the requests
+ * in progress.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests to /api are rate limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Request header identifying a client; clients without a known key are identified by their address.
+     */
+    private String apiKeyHeader = "X-API-Key";
+
+    /**
+     * API keys that identify a client; a request with any other key is identified by its address, so made-up
+     * keys neither get a fresh bucket each nor grow the bucket map.
+     */
+    private Set<String> apiKeys = new HashSet<>();
+
+    /**
+     * Clients with a bucket of their own; once reached, new clients share one bucket until idle ones are dropped.
+     */
+    private int maxClients = 100_000;
+
+    /**
+     * Tokens of a client's bucket, the largest burst of cost a client can send at once.
+     */
+    private long capacity = 100;
+
+    /**
+     * Tokens added to a client's bucket per second.
+     */
+    private double refillPerSecond = 20;
+
+    /**
+     * Total cost of the requests in progress at the same time, across all clients; requests beyond it are
+     * rejected at once rather than queued for a Tomcat thread or a MongoDB connection.
+     */
+    private int maxInFlightCost = 100;
+
+    /**
+     * Buckets not used for this long are dropped; a bucket idle for longer than its refill time is full, so
+     * dropping it loses nothing.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Cost of the requests, by method and path; the first matching rule applies, and other requests cost 1.
+     */
+    private List<CostRule> costs = new ArrayList<>(List.of(
+            new CostRule(null, "/api/transactions/export*", 20),
+            new CostRule("POST", "/api/import", 20),
+            new CostRule("DELETE", "/api/transactions", 10),
+            new CostRule("GET", "/api/transactions", 5),
+            new CostRule("GET", "/api/transactions/filter", 5),
+            new CostRule("GET", "/api/transactions/top", 5),
+            new CostRule("GET", "/api/transactions/search", 5),
+            new CostRule("POST", "/api/transactions/batch", 5),
+            new CostRule("POST", "/api/transactions/lookup", 5),
+            new CostRule("GET", "/api/wallets/*/transactions", 5),
+            new CostRule("GET", "/api/summary", 5),
+            new CostRule("GET", "/api/stats", 5),
+            new CostRule("POST", "/api/reports", 5)));
+
+    /**
+     * Cost of the requests matching a method and an Ant-style path pattern.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CostRule {
+
+        /**
+         * HTTP method, null for any.
+         */
+        private String method;
+
+        /**
+         * Ant-style path pattern.
+         */
+        private String path;
+
+        /**
+         * Tokens taken and in-flight cost held by a matching request.
+         */
+        private int cost = 1;
+    }
+}
@@ -0,0 +1,70 @@
+package com.anteiku.wallet.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read preference of the API endpoints. Endpoints without a route read from the primary.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.read-routing")
+public class ReadRoutingProperties {
+
+    /**
+     * Whether routes are applied; when false every read goes to the primary.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Largest replication lag of a secondary still used by the routes; MongoDB requires at least 90 seconds.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(120);
+
+    /**
+     * Whether a client that has written reads from the primary for the next {@code max-staleness}, so it sees
+     * its own writes whatever the lag of the secondaries.
+     */
+    private boolean readYourWrites = true;
+
+    /**
+     * Cookie marking a client that has recently written.
+     */
+    private String cookieName = "wallet-read-primary";
+
+    /**
+     * Read preference of the GET requests, by Ant-style path pattern; the first matching route applies.
+     */
+    private List<Route> routes = new ArrayList<>(List.of(
+            new Route("/api/summary", "secondaryPreferred"),
+            new Route("/api/balance", "secondaryPreferred"),
+            new Route("/api/stats", "secondaryPreferred"),
+            new Route("/api/transactions/filter", "secondaryPreferred"),
+            new Route("/api/transactions/top", "secondaryPreferred"),
+            new Route("/api/transactions/search", "secondaryPreferred"),
+            new Route("/api/transactions/export*", "secondaryPreferred")));
+
+    /**
+     * Read preference of the GET requests matching a path pattern.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+
+        /**
+         * Ant-style path pattern.
+         */
+        private String path;
+
+        /**
+         * Read preference mode, e.g. primary, primaryPreferred, secondary, secondaryPreferred or nearest.
+         */
+        private String readPreference;
+    }
+}
@@ -0,0 +1,29 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning of the recurring transactions scheduler.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.recurring")
+public class RecurringProperties {
+
+    /**
+     * Occurrences written with the single insertMany of a run; the rest are left to the next run.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How far back missed occurrences are still materialized after downtime; older ones are skipped.
+     */
+    private Duration catchUp = Duration.ofDays(31);
+
+    /**
+     * Validity of the scheduler lease, longer than a run and than the interval between runs.
+     */
+    private Duration leaseDuration = Duration.ofMinutes(5);
+}
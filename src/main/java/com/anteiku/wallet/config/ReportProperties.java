@@ -0,0 +1,32 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning of the report jobs.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.reports")
+public class ReportProperties {
+
+    /**
+     * Reports computed at the same time, each streaming the transactions of its range from MongoDB.
+     */
+    private int maxConcurrent = 2;
+
+    /**
+     * Reports waiting for a free worker; further submissions are rejected until one starts.
+     */
+    private int queueCapacity = 10;
+
+    /**
+     * Jobs kept for status queries.
+     */
+    private int retainedJobs = 100;
+
+    /**
+     * Computed reports kept by wallet, range and ledger version.
+     */
+    private int cacheSize = 50;
+}
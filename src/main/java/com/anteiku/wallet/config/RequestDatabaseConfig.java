@@ -0,0 +1,94 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.controller.DeadlineFilter;
+import com.anteiku.wallet.controller.ReadRoutingFilter;
+import com.anteiku.wallet.repository.ReadRouting;
+import com.anteiku.wallet.repository.RequestMongoDatabaseFactory;
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Applies request settings to the database operations of every API request: filters set the deadline and
+ * the read preference of the request, the database factory applies them to the driver.
+ */
+@Configuration
+public class RequestDatabaseConfig {
+
+    /**
+     * Wraps the auto-configured database factory, so the client and the factory keep Spring Boot's settings.
+     *
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanPostProcessor deadlineMongoDatabaseFactoryPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof MongoDatabaseFactory factory && !(bean instanceof RequestMongoDatabaseFactory)) {
+                    return new RequestMongoDatabaseFactory(factory);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Maps the deadline filter to the API paths, after admission control.
+     *
+     * @param properties default and maximum deadline
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilterRegistration(DeadlineProperties properties) {
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(
+                new DeadlineFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    /**
+     * Maps the read routing filter to the API paths.
+     *
+     * @param properties routes and staleness bound
+     * @return the filter registration
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "wallet.read-routing", name = "enabled", matchIfMissing = true)
+    public FilterRegistrationBean<ReadRoutingFilter> readRoutingFilterRegistration(
+            ReadRoutingProperties properties) {
+        FilterRegistrationBean<ReadRoutingFilter> registration = new FilterRegistrationBean<>(
+                new ReadRoutingFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+        return registration;
+    }
+
+    /**
+     * Carries the read preference of a request over to the threads writing its streamed response, such as
+     * exports.
+     *
+     * @return the task decorator of the application task executor
+     */
+    @Bean
+    public TaskDecorator readRoutingTaskDecorator() {
+        return task -> {
+            ReadPreference readPreference = ReadRouting.current();
+            return () -> {
+                ReadRouting.use(readPreference);
+                try {
+                    task.run();
+                } finally {
+                    ReadRouting.clear();
+                }
+            };
+        };
+    }
+}
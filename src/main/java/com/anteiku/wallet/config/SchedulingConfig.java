@@ -0,0 +1,12 @@
+package com.anteiku.wallet.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background tasks, such as the periodic flush of the budget spending counters.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,42 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Snapshot of the in-memory read models, used to restart without reading every transaction.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Whether the read models are persisted and restored; when disabled they are rebuilt at every start.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Snapshot file, on a volume kept across restarts.
+     */
+    private Path path = Path.of("data", "read-models.snapshot");
+
+    /**
+     * Interval between snapshots; a snapshot is also written at shutdown.
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Oldest snapshot restored. Changes other than insertions since the snapshot are not replayed, so the age
+     * bounds the drift of the approximate read models.
+     */
+    private Duration maxAge = Duration.ofDays(1);
+
+    /**
+     * How long before a snapshot the replay of the inserted transactions starts, covering the clock skew between
+     * replicas and the inserts still running when the snapshot was written.
+     */
+    private Duration replayWindow = Duration.ofMinutes(5);
+}
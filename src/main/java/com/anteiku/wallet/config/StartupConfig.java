@@ -0,0 +1,53 @@
+package com.anteiku.wallet.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Defers the creation of non-critical beans to their first use, to shorten the startup.
+ * Unlike {@code spring.main.lazy-initialization}, the beans serving requests, the filters and the scheduled
+ * and startup tasks stay eager, so the first request does not pay for them and no task is left unscheduled.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Marks lazy the beans declared by classes of the configured packages.
+     * The settings are bound directly, as the post-processor runs before the properties beans exist.
+     *
+     * @param environment environment with the startup settings
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        List<String> packages = Binder.get(environment).bind("wallet.startup", StartupProperties.class)
+                .orElseGet(StartupProperties::new).getLazyPackages();
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isInPackages(declaringClass(definition), packages)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    static boolean isInPackages(String className, List<String> packages) {
+        return className != null && packages.stream().anyMatch(pkg -> className.startsWith(pkg + "."));
+    }
+
+    private static String declaringClass(BeanDefinition definition) {
+        // @Bean methods count by their configuration class, as they often return types of other libraries
+        if (definition instanceof AnnotatedBeanDefinition annotated && annotated.getFactoryMethodMetadata() != null) {
+            return annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        return definition.getBeanClassName();
+    }
+}
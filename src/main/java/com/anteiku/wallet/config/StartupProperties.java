@@ -0,0 +1,21 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup settings of the application context.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.startup")
+public class StartupProperties {
+
+    /**
+     * Packages of the beans created on first use rather than at startup, for components no request path
+     * depends on, such as the OpenAPI documentation.
+     */
+    private List<String> lazyPackages = new ArrayList<>();
+}
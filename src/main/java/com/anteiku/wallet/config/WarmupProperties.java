@@ -0,0 +1,34 @@
+package com.anteiku.wallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Warm-up run at startup, before the instance reports ready.
+ */
+@Data
+@ConfigurationProperties(prefix = "wallet.warmup")
+public class WarmupProperties {
+
+    /**
+     * Whether the warm-up runs; when disabled the instance is ready as soon as it starts.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Passes over the read paths, enough for the JIT to compile them.
+     */
+    private int iterations = 50;
+
+    /**
+     * Most recent transactions read and serialized by every pass; synthetic ones are used when none is stored.
+     */
+    private int sampleSize = 100;
+
+    /**
+     * Longest warm-up, after which the instance reports ready with the passes done so far.
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+}
@@ -0,0 +1,79 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.BudgetStatus;
+import com.anteiku.wallet.model.Budget;
+import com.anteiku.wallet.service.BudgetService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST controller for category budgets. Budget status is answered from the in-memory spending counters.
+ */
+@RestController
+@RequestMapping("/api/budgets")
+@RequiredArgsConstructor
+@Tag(name = "Budgets", description = "API per i budget di spesa per categoria")
+public class BudgetController {
+
+    private final BudgetService budgetService;
+
+    @PostMapping
+    @Operation(summary = "Crea un budget", description = "Crea un limite di spesa mensile o annuale per una categoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Budget creato"),
+        @ApiResponse(responseCode = "400", description = "Dati non validi")
+    })
+    public ResponseEntity<Budget> createBudget(@Valid @RequestBody Budget budget) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(budgetService.createBudget(budget));
+    }
+
+    @GetMapping
+    @Operation(summary = "Ottieni i budget", description = "Restituisce tutti i budget in ordine di categoria")
+    @ApiResponse(responseCode = "200", description = "Lista dei budget")
+    public ResponseEntity<List<Budget>> getBudgets() {
+        return ResponseEntity.ok(budgetService.getBudgets());
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Elimina un budget", description = "Elimina il budget con l'ID indicato")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Budget eliminato"),
+        @ApiResponse(responseCode = "404", description = "Budget non trovato")
+    })
+    public ResponseEntity<Void> deleteBudget(@PathVariable String id) {
+        return budgetService.deleteBudget(id)
+                .map(deleted -> ResponseEntity.noContent().<Void>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/status")
+    @Operation(summary = "Ottieni lo stato dei budget",
+            description = "Spesa, importo residuo e soglie raggiunte di ogni budget nel periodo che contiene il mese")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stato dei budget"),
+        @ApiResponse(responseCode = "400", description = "Mese non valido")
+    })
+    public ResponseEntity<List<BudgetStatus>> getStatus(
+            @Parameter(description = "Mese, es. 2024-03; predefinito il mese corrente")
+            @RequestParam(required = false) YearMonth month) {
+        return ResponseEntity.ok(budgetService.getStatus(month == null ? YearMonth.now() : month));
+    }
+}
@@ -0,0 +1,62 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.service.CategoryDictionary;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for the category dictionary. Every endpoint is answered from memory.
+ */
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+@Tag(name = "Categories", description = "API per il dizionario delle categorie")
+public class CategoryController {
+
+    static final int MAX_SUGGESTIONS = 50;
+
+    private final CategoryDictionary categoryDictionary;
+
+    @GetMapping
+    @Operation(summary = "Ottieni le categorie",
+            description = "Restituisce tutte le categorie in ordine alfabetico, o quelle che iniziano con un prefisso")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista delle categorie"),
+        @ApiResponse(responseCode = "400", description = "Limite non valido")
+    })
+    public ResponseEntity<List<Category>> getCategories(
+            @Parameter(description = "Prefisso digitato, es. ci") @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(MAX_SUGGESTIONS) int limit) {
+        if (prefix == null) {
+            return ResponseEntity.ok(categoryDictionary.findAll());
+        }
+        return ResponseEntity.ok(categoryDictionary.complete(prefix, limit));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Ottieni una categoria", description = "Restituisce la categoria con l'ID indicato")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Categoria trovata"),
+        @ApiResponse(responseCode = "404", description = "Categoria non trovata")
+    })
+    public ResponseEntity<Category> getCategory(@PathVariable int id) {
+        return categoryDictionary.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.DeadlineProperties;
+import com.anteiku.wallet.repository.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sets the {@link Deadline} of an API request, from its timeout header or the default, so its database
+ * operations give up when the client is no longer waiting for the answer. Responses streamed after the
+ * handler returns, such as exports, run on other threads without the deadline.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineProperties properties;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties default and maximum deadline
+     */
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getExcludedPaths().stream().anyMatch(pattern -> matcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Deadline.start(timeout(request.getHeader(properties.getHeader())));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    Duration timeout(String header) {
+        if (header == null) {
+            return properties.getDefaultTimeout();
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            if (millis <= 0) {
+                return properties.getDefaultTimeout();
+            }
+            Duration requested = Duration.ofMillis(millis);
+            return requested.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : requested;
+        } catch (NumberFormatException ex) {
+            return properties.getDefaultTimeout();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.service.FxRateService;
+import com.anteiku.wallet.service.FxTable;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * REST controller for the exchange rates used to convert the summaries.
+ */
+@RestController
+@RequestMapping("/api/fx-rates")
+@RequiredArgsConstructor
+@Tag(name = "FX rates", description = "API per i tassi di cambio")
+public class FxRateController {
+
+    private final FxRateService fxRateService;
+
+    @GetMapping
+    @Operation(summary = "Ottieni i tassi di cambio",
+            description = "Restituisce la valuta base e le unita' di ogni valuta per unita' della valuta base")
+    @ApiResponse(responseCode = "200", description = "Tassi di cambio correnti")
+    public ResponseEntity<FxTable> getRates() {
+        return ResponseEntity.ok(fxRateService.current());
+    }
+
+    @PutMapping
+    @Operation(summary = "Sostituisci i tassi di cambio",
+            description = "Sostituisce tutti i tassi con quelli indicati, per codice ISO 4217")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tassi di cambio aggiornati"),
+        @ApiResponse(responseCode = "400", description = "Valuta o tasso non validi")
+    })
+    public ResponseEntity<FxTable> replaceRates(@RequestBody Map<String, BigDecimal> rates) {
+        return ResponseEntity.ok(fxRateService.replaceRates(rates));
+    }
+}
@@ -0,0 +1,91 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.service.IdempotencyKeyConflictException;
+import com.anteiku.wallet.service.IdempotencyKeyMismatchException;
+import com.anteiku.wallet.service.ImportRejectedException;
+import com.anteiku.wallet.service.ReportRejectedException;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Maps exceptions raised by the controllers to HTTP responses.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * Invalid request parameters, e.g. an unknown field in {@code fields}.
+     *
+     * @param ex the exception
+     * @return 400 with the error message
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * An import was refused because too many are already running.
+     *
+     * @param ex the exception
+     * @return 429 with the error message
+     */
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleImportRejected(ImportRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * A report was refused because too many are already waiting.
+     *
+     * @param ex the exception
+     * @return 429 with the error message
+     */
+    @ExceptionHandler(ReportRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleReportRejected(ReportRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * A database operation ran out of time, because of the request deadline or a driver timeout.
+     *
+     * @param ex the exception
+     * @return 503 with the error message
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleQueryTimeout(QueryTimeoutException ex) {
+        Metrics.counter("wallet.deadline.exceeded").increment();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Request timed out"));
+    }
+
+    /**
+     * A request with the same idempotency key is still running.
+     *
+     * @param ex the exception
+     * @return 409 with the error message
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyConflict(IdempotencyKeyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * An idempotency key was reused for a different request.
+     *
+     * @param ex the exception
+     * @return 422 with the error message
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyMismatch(IdempotencyKeyMismatchException ex) {
+        return ResponseEntity.unprocessableEntity().body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.anteiku.wallet.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hashes the raw body of requests sent with an {@code Idempotency-Key} while it is being parsed, so a retry
+ * can be told apart from a different request reusing the key. The bytes are hashed rather than the parsed
+ * object because parsing fills in defaults, such as the transaction date, that differ between retries.
+ */
+@ControllerAdvice
+public class IdempotencyRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    /**
+     * Request header carrying the client key.
+     */
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private static final String DIGEST_ATTRIBUTE = IdempotencyRequestBodyAdvice.class.getName() + ".digest";
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        if (!inputMessage.getHeaders().containsKey(IDEMPOTENCY_KEY)) {
+            return inputMessage;
+        }
+        MessageDigest digest = sha256();
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(DIGEST_ATTRIBUTE, digest, RequestAttributes.SCOPE_REQUEST);
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() throws IOException {
+                return new DigestInputStream(inputMessage.getBody(), digest);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+
+    /**
+     * Returns the hash of the body read for the current request.
+     *
+     * @param request current request
+     * @return hex SHA-256 of the body, empty if the request carried no key or no body
+     */
+    public static String requestHash(HttpServletRequest request) {
+        Object digest = request.getAttribute(DIGEST_ATTRIBUTE);
+        if (digest instanceof MessageDigest md) {
+            digest = HexFormat.of().formatHex(md.digest());
+            request.setAttribute(DIGEST_ATTRIBUTE, digest);
+        }
+        return digest instanceof String hash ? hash : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.ImportJobStatus;
+import com.anteiku.wallet.service.ImportService;
+import com.anteiku.wallet.service.statement.StatementFormat;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST controller for bank statement imports.
+ * The statement is read straight from the request body, so uploads of any size are imported with
+ * constant memory.
+ */
+@RestController
+@RequestMapping("/api/import")
+@RequiredArgsConstructor
+@Tag(name = "Import", description = "API per l'importazione degli estratti conto")
+public class ImportController {
+
+    private final ImportService importService;
+
+    @PostMapping
+    @Operation(summary = "Importa un estratto conto",
+            description = "Importa in streaming un estratto conto CSV o OFX, anche compresso con gzip, "
+                    + "inviato come corpo della richiesta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importazione completata"),
+        @ApiResponse(responseCode = "400", description = "Formato non supportato"),
+        @ApiResponse(responseCode = "422", description = "Importazione interrotta"),
+        @ApiResponse(responseCode = "429", description = "Troppe importazioni in corso")
+    })
+    public ResponseEntity<ImportJobStatus> importStatement(
+            @Parameter(description = "csv oppure ofx; se assente viene dedotto dal Content-Type")
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        StatementFormat statementFormat = StatementFormat.resolve(format, request.getContentType());
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+        ImportJobStatus job = importService.importStatement(request.getInputStream(), statementFormat, charset);
+        HttpStatus status = job.status() == ImportJobStatus.Status.COMPLETED
+                ? HttpStatus.OK
+                : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status)
+                .location(URI.create("/api/import/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping
+    @Operation(summary = "Elenca le importazioni",
+            description = "Restituisce le importazioni in corso e quelle concluse di recente")
+    @ApiResponse(responseCode = "200", description = "Importazioni, dalla piu' recente")
+    public ResponseEntity<List<ImportJobStatus>> getJobs() {
+        return ResponseEntity.ok(importService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Stato di un'importazione",
+            description = "Restituisce avanzamento ed errori di un'importazione")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stato dell'importazione"),
+        @ApiResponse(responseCode = "404", description = "Importazione non trovata")
+    })
+    public ResponseEntity<ImportJobStatus> getJob(@PathVariable String id) {
+        return importService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,53 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.DiagnosticsProperties;
+import com.anteiku.wallet.dto.QueryDiagnostics;
+import com.anteiku.wallet.dto.QueryPlan;
+import com.anteiku.wallet.dto.SlowQuery;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.QueryExplainer;
+import com.anteiku.wallet.repository.SlowQueryListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint {@code /actuator/queries}: the plans of the repository query shapes, executed with sample
+ * parameters, and of the recent slow queries, explained without executing them again. All the explain
+ * commands of a call share one deadline.
+ * The endpoint exposes query parameters and loads the database, so it is disabled unless access to it is
+ * granted explicitly with {@code management.endpoint.queries.access}.
+ */
+@Component
+@Endpoint(id = "queries", defaultAccess = Access.NONE)
+@RequiredArgsConstructor
+public class QueryDiagnosticsEndpoint {
+
+    private final QueryExplainer explainer;
+    private final SlowQueryListener slowQueryListener;
+    private final DiagnosticsProperties properties;
+
+    /**
+     * Explains the query shapes and the recent slow queries.
+     *
+     * @return the plans
+     */
+    @ReadOperation
+    public QueryDiagnostics queries() {
+        Deadline.start(properties.getExplainTimeout());
+        try {
+            List<QueryPlan> shapes = explainer.explainShapes();
+            List<SlowQuery> slowQueries = slowQueryListener.slowest().stream()
+                    .map(slow -> new SlowQuery(slow.name(), slow.collection(), slow.duration().toMillis(),
+                            slow.finishedAt(), explainer.explain(slow.name(), slow.command())))
+                    .toList();
+            return new QueryDiagnostics(shapes, slowQueries);
+        } finally {
+            Deadline.clear();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.cache.TokenBucket;
+import com.anteiku.wallet.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of the API.
+ * Every request costs a number of tokens by method and path, so listing or exporting weighs more than reading
+ * one transaction. A client, identified by a configured API key or else by address, takes the tokens from its own
+ * {@link TokenBucket}; the buckets live in a concurrent map, are dropped when idle and are bounded in number,
+ * beyond which new clients share one bucket. The cost is also held
+ * against a global budget while the request runs, so a burst of expensive requests is shed at once instead of
+ * queueing for Tomcat threads and MongoDB connections; a request that goes asynchronous, such as a streamed
+ * export, holds it until the response is complete. Rejected requests get {@code 429} with
+ * {@code Retry-After} and are counted in the {@code wallet.rate_limit.rejected} metric.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String REJECTED_METRIC = "wallet.rate_limit.rejected";
+    // key of the bucket shared by new clients once the map is full; client keys always have a prefix
+    private static final String OVERFLOW = "overflow";
+
+    private final RateLimitProperties properties;
+    private final LongSupplier clock;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Semaphore inFlight;
+    private final Counter rateRejected;
+    private final Counter concurrencyRejected;
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties limits and costs
+     * @param registry registry of the rejection metrics
+     */
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, MeterRegistry registry, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.inFlight = new Semaphore(properties.getMaxInFlightCost());
+        this.rateRejected = Counter.builder(REJECTED_METRIC).tag("reason", "rate")
+                .description("Requests rejected because the client exceeded its rate").register(registry);
+        this.concurrencyRejected = Counter.builder(REJECTED_METRIC).tag("reason", "concurrency")
+                .description("Requests rejected because too many were in progress").register(registry);
+        Gauge.builder("wallet.rate_limit.clients", buckets, Map::size)
+                .description("Clients with a token bucket").register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int cost = cost(request.getMethod(), path);
+
+        long now = clock.getAsLong();
+        TokenBucket bucket = bucket(client(request), now);
+        long wait = bucket.tryAcquire(Math.min(cost, bucket.capacity()), now);
+        if (wait > 0) {
+            rateRejected.increment();
+            reject(response, TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1, "Rate limit exceeded");
+            return;
+        }
+
+        int held = Math.min(cost, properties.getMaxInFlightCost());
+        if (!inFlight.tryAcquire(held)) {
+            concurrencyRejected.increment();
+            reject(response, 1, "Too many requests in progress");
+            return;
+        }
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new Release(held));
+            } else {
+                inFlight.release(held);
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets of the clients idle for longer than the idle timeout and than a full refill.
+     */
+    @Scheduled(fixedDelayString = "${wallet.rate-limit.idle-timeout:PT10M}")
+    public void evictIdle() {
+        long refill = (long) (properties.getCapacity() / properties.getRefillPerSecond() * 1_000_000_000d);
+        long idle = Math.max(properties.getIdleTimeout().toNanos(), refill);
+        long now = clock.getAsLong();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.lastUsed() > idle);
+        log.debug("Dropped {} idle rate limit buckets", before - buckets.size());
+    }
+
+    int cost(String method, String path) {
+        for (RateLimitProperties.CostRule rule : properties.getCosts()) {
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(method))
+                    && matcher.match(rule.getPath(), path)) {
+                return rule.getCost();
+            }
+        }
+        return 1;
+    }
+
+    private TokenBucket bucket(String client, long now) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        String key = buckets.size() < properties.getMaxClients() ? client : OVERFLOW;
+        return buckets.computeIfAbsent(key,
+                k -> new TokenBucket(properties.getCapacity(), properties.getRefillPerSecond(), now));
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null && properties.getApiKeys().contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Gives back the cost of an asynchronous request once, when its response completes, fails or times out.
+     */
+    private final class Release implements AsyncListener {
+
+        private final int held;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Release(int held) {
+            this.held = held;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are dropped when the request goes asynchronous again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.release(held);
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,108 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.ReadRoutingProperties;
+import com.anteiku.wallet.repository.ReadRouting;
+import com.mongodb.ReadPreference;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sets the {@link ReadRouting} of an API request from the configured routes, so analytics reads go to
+ * secondaries with bounded staleness and the other requests to the primary.
+ * A request that writes marks its client with a cookie lasting the staleness bound; while it lasts the
+ * client reads from the primary, so it always sees its own writes: once the cookie expires, any secondary
+ * still eligible is at most the staleness bound behind, and therefore has the write.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    private final ReadRoutingProperties properties;
+    private final LongSupplier clock;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, ReadPreference> routes = new LinkedHashMap<>();
+
+    /**
+     * Creates the filter.
+     *
+     * @param properties routes and staleness bound
+     */
+    public ReadRoutingFilter(ReadRoutingProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    ReadRoutingFilter(ReadRoutingProperties properties, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+        long maxStaleness = properties.getMaxStaleness().toSeconds();
+        for (ReadRoutingProperties.Route route : properties.getRoutes()) {
+            ReadPreference readPreference = "primary".equalsIgnoreCase(route.getReadPreference())
+                    ? ReadPreference.primary()
+                    : ReadPreference.valueOf(route.getReadPreference(), List.of(), maxStaleness, TimeUnit.SECONDS);
+            routes.put(route.getPath(), readPreference);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = clock.getAsLong();
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            if (!readsOwnWrites(request, now)) {
+                ReadRouting.use(route(request.getRequestURI().substring(request.getContextPath().length())));
+            }
+        } else if (properties.isReadYourWrites()) {
+            markWriter(response, now);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.clear();
+        }
+    }
+
+    ReadPreference route(String path) {
+        for (Map.Entry<String, ReadPreference> route : routes.entrySet()) {
+            if (matcher.match(route.getKey(), path)) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+
+    private boolean readsOwnWrites(HttpServletRequest request, long now) {
+        if (!properties.isReadYourWrites() || request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (properties.getCookieName().equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void markWriter(HttpServletResponse response, long now) {
+        long maxStaleness = properties.getMaxStaleness().toMillis();
+        Cookie cookie = new Cookie(properties.getCookieName(), Long.toString(now + maxStaleness));
+        cookie.setPath("/api");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) properties.getMaxStaleness().toSeconds());
+        response.addCookie(cookie);
+    }
+}
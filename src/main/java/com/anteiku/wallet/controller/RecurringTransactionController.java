@@ -0,0 +1,65 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.service.RecurringTransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for recurring transaction templates.
+ */
+@RestController
+@RequestMapping("/api/recurring")
+@RequiredArgsConstructor
+@Tag(name = "Recurring", description = "API per le transazioni ricorrenti")
+public class RecurringTransactionController {
+
+    private final RecurringTransactionService recurringService;
+
+    @PostMapping
+    @Operation(summary = "Crea una transazione ricorrente",
+            description = "Crea un modello le cui occorrenze vengono registrate automaticamente secondo la regola cron")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Modello creato"),
+        @ApiResponse(responseCode = "400", description = "Dati o regola cron non validi")
+    })
+    public ResponseEntity<RecurringTransaction> createTemplate(@Valid @RequestBody RecurringTransaction template) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(recurringService.createTemplate(template));
+    }
+
+    @GetMapping
+    @Operation(summary = "Ottieni le transazioni ricorrenti",
+            description = "Restituisce tutti i modelli in ordine di prossima occorrenza")
+    @ApiResponse(responseCode = "200", description = "Lista dei modelli")
+    public ResponseEntity<List<RecurringTransaction>> getTemplates() {
+        return ResponseEntity.ok(recurringService.getTemplates());
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Elimina una transazione ricorrente",
+            description = "Elimina il modello; le occorrenze gia' registrate restano")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Modello eliminato"),
+        @ApiResponse(responseCode = "404", description = "Modello non trovato")
+    })
+    public ResponseEntity<Void> deleteTemplate(@PathVariable String id) {
+        return recurringService.deleteTemplate(id)
+                .map(deleted -> ResponseEntity.noContent().<Void>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,65 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.ReportJobStatus;
+import com.anteiku.wallet.dto.ReportRequest;
+import com.anteiku.wallet.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+
+/**
+ * REST controller for statement reports. Reports are computed in the background: a submission returns the
+ * job, which is polled until the report is available.
+ */
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "API per i rendiconti di un portafoglio")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @PostMapping
+    @Operation(summary = "Richiedi un rendiconto",
+            description = "Accoda il calcolo di un rendiconto con totali per mese e per categoria; se il "
+                    + "portafoglio non e' cambiato dall'ultimo calcolo lo restituisce subito dalla cache")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rendiconto restituito dalla cache"),
+        @ApiResponse(responseCode = "202", description = "Rendiconto accodato"),
+        @ApiResponse(responseCode = "400", description = "Dati non validi"),
+        @ApiResponse(responseCode = "429", description = "Troppi rendiconti in corso")
+    })
+    public ResponseEntity<ReportJobStatus> submit(@Valid @RequestBody ReportRequest request) {
+        ReportJobStatus job = reportService.submit(request);
+        HttpStatus status = job.status() == ReportJobStatus.Status.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status)
+                .location(URI.create("/api/reports/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Stato di un rendiconto",
+            description = "Restituisce lo stato del calcolo e, quando completato, il rendiconto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stato del rendiconto"),
+        @ApiResponse(responseCode = "404", description = "Rendiconto non trovato")
+    })
+    public ResponseEntity<ReportJobStatus> getJob(@PathVariable String id) {
+        return reportService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
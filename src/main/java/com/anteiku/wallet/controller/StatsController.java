@@ -0,0 +1,42 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.TransactionStats;
+import com.anteiku.wallet.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller for amount statistics.
+ */
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@Tag(name = "Stats", description = "API per le statistiche degli importi")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping
+    @Operation(summary = "Ottieni le statistiche degli importi",
+            description = "Numero, media, minimo, massimo e percentili degli importi per tipo e per categoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistiche del periodo"),
+        @ApiResponse(responseCode = "400", description = "Periodo non valido")
+    })
+    public ResponseEntity<TransactionStats> getStats(
+            @Parameter(description = "Primo giorno, incluso") @RequestParam(required = false) LocalDate from,
+            @Parameter(description = "Ultimo giorno, incluso") @RequestParam(required = false) LocalDate to) {
+        return ResponseEntity.ok(statsService.getStats(from, to));
+    }
+}
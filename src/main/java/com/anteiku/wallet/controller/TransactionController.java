@@ -1,12 +1,26 @@
 package com.anteiku.wallet.controller;
 
+import com.anteiku.wallet.dto.TransactionBatch;
+import com.anteiku.wallet.dto.TransactionLookupRequest;
 import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionQueries;
+import com.anteiku.wallet.service.IdempotencyService;
+import com.anteiku.wallet.service.IdempotentResult;
 import com.anteiku.wallet.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +30,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -35,32 +50,103 @@ import java.util.Map;
 @Tag(name = "Wallet", description = "API per la gestione del wallet personale")
 public class TransactionController {
 
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_TOP = 100;
+
+    /**
+     * Response header set when the body is the stored response of an earlier request with the same key.
+     */
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/transactions")
     @Operation(summary = "Aggiungi una transazione",
             description = "Crea una nuova transazione (entrata o uscita)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Transazione creata con successo"),
-        @ApiResponse(responseCode = "400", description = "Dati non validi")
+        @ApiResponse(responseCode = "400", description = "Dati non validi"),
+        @ApiResponse(responseCode = "409", description = "Richiesta con la stessa chiave ancora in corso"),
+        @ApiResponse(responseCode = "422", description = "Chiave gia' usata per una richiesta diversa")
     })
-    public ResponseEntity<Transaction> addTransaction(@Valid @RequestBody Transaction transaction) {
-        Transaction saved = transactionService.addTransaction(transaction);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    public ResponseEntity<Transaction> addTransaction(
+            @Valid @RequestBody Transaction transaction,
+            @Parameter(description = "Chiave che rende sicuro ripetere la richiesta")
+            @RequestHeader(value = IdempotencyRequestBodyAdvice.IDEMPOTENCY_KEY, required = false) String key,
+            HttpServletRequest request) {
+        return created(idempotencyService.execute(key, "POST /api/transactions",
+                IdempotencyRequestBodyAdvice.requestHash(request), new TypeReference<Transaction>() { },
+                () -> transactionService.addTransaction(transaction)));
+    }
+
+    @PostMapping("/transactions/batch")
+    @Operation(summary = "Aggiungi piu' transazioni",
+            description = "Crea piu' transazioni con un'unica operazione; accetta JSON, CBOR o Smile")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Transazioni create con successo"),
+        @ApiResponse(responseCode = "400", description = "Dati non validi"),
+        @ApiResponse(responseCode = "409", description = "Richiesta con la stessa chiave ancora in corso"),
+        @ApiResponse(responseCode = "422", description = "Chiave gia' usata per una richiesta diversa")
+    })
+    public ResponseEntity<List<Transaction>> addTransactions(
+            @RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid Transaction> transactions,
+            @Parameter(description = "Chiave che rende sicuro ripetere la richiesta")
+            @RequestHeader(value = IdempotencyRequestBodyAdvice.IDEMPOTENCY_KEY, required = false) String key,
+            HttpServletRequest request) {
+        return created(idempotencyService.execute(key, "POST /api/transactions/batch",
+                IdempotencyRequestBodyAdvice.requestHash(request), new TypeReference<List<Transaction>>() { },
+                () -> transactionService.addTransactions(transactions)));
     }
 
     @GetMapping("/transactions")
     @Operation(summary = "Ottieni tutte le transazioni", description = "Fornisce la lista completa delle transazioni")
-    @ApiResponse(responseCode = "200", description = "Lista delle transazioni")
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        return ResponseEntity.ok(transactionService.getAllTransactions());
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista delle transazioni"),
+        @ApiResponse(responseCode = "400", description = "Campo richiesto sconosciuto")
+    })
+    public ResponseEntity<List<Transaction>> getAllTransactions(
+            @Parameter(description = "Campi da restituire, es. id,amount,date")
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(transactionService.getAllTransactions(TransactionField.parse(fields)));
+    }
+
+    @GetMapping(value = "/transactions", params = "ids")
+    @Operation(summary = "Ottieni piu' transazioni per ID",
+            description = "Restituisce le transazioni richieste nell'ordine indicato e gli ID non trovati")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transazioni trovate e ID mancanti"),
+        @ApiResponse(responseCode = "400", description = "Troppi ID richiesti")
+    })
+    public ResponseEntity<TransactionBatch> getTransactionsByIds(@RequestParam List<String> ids) {
+        if (ids.size() > TransactionLookupRequest.MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(ids));
+    }
+
+    @PostMapping("/transactions/lookup")
+    @Operation(summary = "Cerca piu' transazioni per ID",
+            description = "Variante POST della ricerca per ID, per liste troppo lunghe per la query string")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transazioni trovate e ID mancanti"),
+        @ApiResponse(responseCode = "400", description = "Dati non validi")
+    })
+    public ResponseEntity<TransactionBatch> lookupTransactions(@Valid @RequestBody TransactionLookupRequest request) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(request.ids()));
     }
 
     @GetMapping("/balance")
-    @Operation(summary = "Ottieni il saldo", description = "Calcola e restituisce il saldo corrente del wallet")
-    @ApiResponse(responseCode = "200", description = "Saldo corrente")
-    public ResponseEntity<Map<String, BigDecimal>> getBalance() {
-        BigDecimal balance = transactionService.getBalance();
+    @Operation(summary = "Ottieni il saldo",
+            description = "Calcola e restituisce il saldo corrente del wallet, convertito in una valuta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Saldo corrente"),
+        @ApiResponse(responseCode = "400", description = "Valuta non valida o senza tasso di cambio")
+    })
+    public ResponseEntity<Map<String, BigDecimal>> getBalance(
+            @Parameter(description = "Valuta ISO 4217, quella base dei tassi se assente")
+            @RequestParam(required = false) @Pattern(regexp = "[A-Z]{3}") String currency) {
+        BigDecimal balance = transactionService.getBalance(currency);
         return ResponseEntity.ok(Map.of("balance", balance));
     }
 
@@ -90,8 +176,31 @@ public class TransactionController {
         @ApiResponse(responseCode = "404", description = "Transazione non trovata")
     })
     public ResponseEntity<Void> deleteTransaction(@PathVariable String id) {
-        transactionService.deleteTransaction(id);
-        return ResponseEntity.noContent().build();
+        return transactionService.deleteTransaction(id)
+                .map(deleted -> ResponseEntity.noContent().<Void>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping(value = "/transactions", params = "ids")
+    @Operation(summary = "Elimina piu' transazioni",
+            description = "Elimina le transazioni indicate, al massimo " + MAX_BATCH_SIZE + " per richiesta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Numero di transazioni eliminate"),
+        @ApiResponse(responseCode = "400", description = "Troppi ID")
+    })
+    public ResponseEntity<Map<String, Long>> deleteTransactions(
+            @RequestParam @Size(max = MAX_BATCH_SIZE) List<String> ids) {
+        return ResponseEntity.ok(Map.of("deleted", transactionService.deleteTransactions(ids)));
+    }
+
+    @DeleteMapping(value = "/transactions", params = {"startDate", "endDate"})
+    @Operation(summary = "Elimina le transazioni di un periodo",
+            description = "Elimina tutte le transazioni comprese tra due date (incluse) in un'unica operazione")
+    @ApiResponse(responseCode = "200", description = "Numero di transazioni eliminate")
+    public ResponseEntity<Map<String, Long>> purgeTransactions(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        return ResponseEntity.ok(Map.of("deleted", transactionService.purgeTransactions(startDate, endDate)));
     }
 
     @PutMapping("/transactions/{id}")
@@ -104,25 +213,72 @@ public class TransactionController {
     public ResponseEntity<Transaction> updateTransaction(
             @PathVariable String id,
             @Valid @RequestBody Transaction transaction) {
-        Transaction updated = transactionService.updateTransaction(id, transaction);
-        return ResponseEntity.ok(updated);
+        return transactionService.updateTransaction(id, transaction)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/transactions/filter")
-    @Operation(summary = "Filtra le transazioni", description = "Filtra le transazioni per tipo e/o periodo")
-    @ApiResponse(responseCode = "200", description = "Lista delle transazioni filtrate")
+    @Operation(summary = "Filtra le transazioni",
+            description = "Filtra le transazioni per tipo e/o periodo, eventualmente ordinate e limitate")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista delle transazioni filtrate"),
+        @ApiResponse(responseCode = "400", description = "Campo richiesto, ordinamento o limite non validi")
+    })
     public ResponseEntity<List<Transaction>> filterTransactions(
             @RequestParam(required = false) Transaction.TransactionType type,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        List<Transaction> filtered = transactionService.filterTransactions(type, startDate, endDate);
+            @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "Campi da restituire, es. id,amount,date")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Ordinamento per amount o date, es. amount,desc")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Numero massimo di transazioni")
+            @RequestParam(required = false) @Min(1) @Max(MAX_BATCH_SIZE) Integer limit) {
+        List<Transaction> filtered = transactionService.filterTransactions(TransactionFilter.builder()
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .fields(TransactionField.parse(fields))
+                .sort(TransactionQueries.parseSort(sort))
+                .limit(limit)
+                .build());
         return ResponseEntity.ok(filtered);
     }
 
+    @GetMapping("/transactions/top")
+    @Operation(summary = "Transazioni piu' grandi",
+            description = "Restituisce le k transazioni di importo maggiore di un tipo, eventualmente in un periodo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transazioni dalla piu' grande"),
+        @ApiResponse(responseCode = "400", description = "Parametri non validi")
+    })
+    public ResponseEntity<List<Transaction>> getTopTransactions(
+            @RequestParam(defaultValue = "EXPENSE") Transaction.TransactionType type,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(MAX_TOP) int k,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to) {
+        return ResponseEntity.ok(transactionService.getTopTransactions(type, k, from, to));
+    }
+
     @GetMapping("/summary")
-    @Operation(summary = "Ottieni statistiche", description = "Restituisce totale entrate, uscite e saldo")
-    @ApiResponse(responseCode = "200", description = "Statistiche del wallet")
-    public ResponseEntity<Map<String, BigDecimal>> getSummary() {
-        return ResponseEntity.ok(transactionService.getSummary());
+    @Operation(summary = "Ottieni statistiche",
+            description = "Restituisce totale entrate, uscite e saldo, convertiti in una valuta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Statistiche del wallet"),
+        @ApiResponse(responseCode = "400", description = "Valuta non valida o senza tasso di cambio")
+    })
+    public ResponseEntity<Map<String, BigDecimal>> getSummary(
+            @Parameter(description = "Valuta ISO 4217, quella base dei tassi se assente")
+            @RequestParam(required = false) @Pattern(regexp = "[A-Z]{3}") String currency) {
+        return ResponseEntity.ok(transactionService.getSummary(currency));
+    }
+
+    static <T> ResponseEntity<T> created(IdempotentResult<T> result) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return response.body(result.body());
     }
 }
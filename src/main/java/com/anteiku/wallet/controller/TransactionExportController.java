@@ -0,0 +1,151 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.ContentNegotiationConfig;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.service.TransactionArrowExporter;
+import com.anteiku.wallet.service.TransactionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * REST controller for bulk export of transactions.
+ * Results are streamed from a database cursor, so memory use does not grow with the export size,
+ * and encoded as JSON, CBOR or Smile according to the Accept header.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@Tag(name = "Export", description = "API per l'esportazione delle transazioni")
+public class TransactionExportController {
+
+    /**
+     * Media type of the Arrow IPC streaming format.
+     */
+    public static final String APACHE_ARROW_STREAM_VALUE = "application/vnd.apache.arrow.stream";
+
+    private static final Map<MediaType, String> EXTENSIONS = new LinkedHashMap<>();
+
+    static {
+        EXTENSIONS.put(MediaType.APPLICATION_JSON, "json");
+        EXTENSIONS.put(MediaType.APPLICATION_CBOR, "cbor");
+        EXTENSIONS.put(ContentNegotiationConfig.APPLICATION_SMILE, "smile");
+    }
+
+    private final TransactionService transactionService;
+    private final TransactionArrowExporter arrowExporter;
+    private final HttpMessageConverters messageConverters;
+
+    @GetMapping(value = "/export", produces = {
+        MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, "application/x-jackson-smile"
+    })
+    @Operation(summary = "Esporta le transazioni",
+            description = "Esporta in streaming le transazioni, eventualmente filtrate e con i soli campi richiesti")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transazioni esportate"),
+        @ApiResponse(responseCode = "400", description = "Campo richiesto sconosciuto")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "Campi da restituire, es. id,amount,date")
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        TransactionFilter filter = TransactionFilter.builder()
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .fields(TransactionField.parse(fields))
+                .build();
+
+        MediaType mediaType = negotiate(accept);
+        ObjectMapper objectMapper = objectMapperFor(mediaType);
+        StreamingResponseBody body = out -> {
+            try (Stream<Transaction> transactions = transactionService.streamTransactions(filter);
+                    JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                for (Iterator<Transaction> it = transactions.iterator(); it.hasNext();) {
+                    objectMapper.writeValue(generator, it.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + EXTENSIONS.get(mediaType) + "\"")
+                .contentType(mediaType)
+                .body(body);
+    }
+
+    @GetMapping(value = "/export.arrow", produces = APACHE_ARROW_STREAM_VALUE)
+    @Operation(summary = "Esporta le transazioni in formato Apache Arrow",
+            description = "Esporta in streaming importo, data, tipo, categoria e descrizione come record batch "
+                    + "Arrow IPC, pronti per strumenti di analisi colonnari")
+    @ApiResponse(responseCode = "200", description = "Stream Arrow IPC delle transazioni")
+    public ResponseEntity<StreamingResponseBody> exportTransactionsAsArrow(
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        TransactionFilter filter = TransactionFilter.builder()
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build();
+        StreamingResponseBody body = out -> arrowExporter.export(filter, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.arrows\"")
+                .contentType(MediaType.valueOf(APACHE_ARROW_STREAM_VALUE))
+                .body(body);
+    }
+
+    /**
+     * Picks the first encoding of the Accept header this endpoint can produce, JSON by default.
+     */
+    private static MediaType negotiate(String accept) {
+        if (accept != null) {
+            for (MediaType requested : MediaType.parseMediaTypes(accept)) {
+                for (MediaType supported : EXTENSIONS.keySet()) {
+                    if (!requested.isWildcardType() && requested.isCompatibleWith(supported)) {
+                        return supported;
+                    }
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private ObjectMapper objectMapperFor(MediaType mediaType) {
+        return messageConverters.getConverters().stream()
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(AbstractJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.canWrite(Transaction.class, mediaType))
+                .findFirst()
+                .map(AbstractJackson2HttpMessageConverter::getObjectMapper)
+                .orElseThrow(() -> new IllegalStateException("No Jackson converter for " + mediaType));
+    }
+}
@@ -0,0 +1,61 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.TransactionPage;
+import com.anteiku.wallet.service.TransactionSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for searching transactions by description and category.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "API per la ricerca delle transazioni")
+public class TransactionSearchController {
+
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_SUGGESTIONS = 50;
+
+    private final TransactionSearchService searchService;
+
+    @GetMapping("/search")
+    @Operation(summary = "Cerca le transazioni",
+            description = "Ricerca full-text su descrizione e categoria, con i risultati piu' pertinenti per primi")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pagina di risultati"),
+        @ApiResponse(responseCode = "400", description = "Testo o paginazione non validi")
+    })
+    public ResponseEntity<TransactionPage> search(
+            @Parameter(description = "Parole da cercare, es. supermercato") @RequestParam String q,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(searchService.search(q, page, size));
+    }
+
+    @GetMapping("/suggestions")
+    @Operation(summary = "Suggerimenti di ricerca",
+            description = "Completa un prefisso con le categorie e le parole delle descrizioni piu' frequenti")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggerimenti, dal piu' frequente"),
+        @ApiResponse(responseCode = "400", description = "Limite non valido")
+    })
+    public ResponseEntity<List<String>> suggest(
+            @Parameter(description = "Prefisso digitato, es. sup") @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(MAX_SUGGESTIONS) int limit) {
+        return ResponseEntity.ok(searchService.suggest(prefix, limit));
+    }
+}
@@ -0,0 +1,104 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.WalletSummary;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.service.IdempotencyService;
+import com.anteiku.wallet.service.TransactionService;
+import com.anteiku.wallet.service.WalletService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for the transactions and the balance of a single wallet.
+ * Every query is scoped by wallet ID, so it is served by the indexes led by {@code walletId} and, on a
+ * sharded cluster, by the wallet's shard only.
+ */
+@RestController
+@RequestMapping("/api/wallets/{walletId}")
+@RequiredArgsConstructor
+@Tag(name = "Wallets", description = "API per le transazioni e il saldo di un portafoglio")
+public class WalletController {
+
+    static final String WALLET_ID = "[A-Za-z0-9_-]{1,64}";
+
+    private final TransactionService transactionService;
+    private final WalletService walletService;
+    private final IdempotencyService idempotencyService;
+
+    @PostMapping("/transactions")
+    @Operation(summary = "Aggiungi una transazione al portafoglio",
+            description = "Crea una nuova transazione nel portafoglio indicato")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Transazione creata"),
+        @ApiResponse(responseCode = "400", description = "Dati o ID del portafoglio non validi"),
+        @ApiResponse(responseCode = "409", description = "Richiesta con la stessa chiave ancora in corso"),
+        @ApiResponse(responseCode = "422", description = "Chiave gia' usata per una richiesta diversa")
+    })
+    public ResponseEntity<Transaction> addTransaction(
+            @Parameter(description = "ID del portafoglio") @PathVariable @Pattern(regexp = WALLET_ID) String walletId,
+            @Valid @RequestBody Transaction transaction,
+            @Parameter(description = "Chiave che rende sicuro ripetere la richiesta")
+            @RequestHeader(value = IdempotencyRequestBodyAdvice.IDEMPOTENCY_KEY, required = false) String key,
+            HttpServletRequest request) {
+        transaction.setWalletId(walletId);
+        return TransactionController.created(idempotencyService.execute(key,
+                "POST /api/wallets/" + walletId + "/transactions", IdempotencyRequestBodyAdvice.requestHash(request),
+                new TypeReference<Transaction>() { }, () -> transactionService.addTransaction(transaction)));
+    }
+
+    @GetMapping("/transactions")
+    @Operation(summary = "Ottieni le transazioni del portafoglio",
+            description = "Restituisce le transazioni del portafoglio dalla piu' recente, filtrate per tipo e periodo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista delle transazioni"),
+        @ApiResponse(responseCode = "400", description = "Parametri non validi")
+    })
+    public ResponseEntity<List<Transaction>> getTransactions(
+            @Parameter(description = "ID del portafoglio") @PathVariable @Pattern(regexp = WALLET_ID) String walletId,
+            @Parameter(description = "Tipo di transazione") @RequestParam(required = false)
+            Transaction.TransactionType type,
+            @Parameter(description = "Primo giorno, incluso") @RequestParam(required = false) LocalDate startDate,
+            @Parameter(description = "Ultimo giorno, incluso") @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "Numero massimo di transazioni")
+            @RequestParam(defaultValue = "100") @Min(1) @Max(TransactionController.MAX_BATCH_SIZE) int limit) {
+        return ResponseEntity.ok(transactionService.getWalletTransactions(walletId, type, startDate, endDate,
+                limit));
+    }
+
+    @GetMapping("/balance")
+    @Operation(summary = "Ottieni il saldo del portafoglio",
+            description = "Entrate, uscite e saldo del portafoglio, letti dai totali per valuta mantenuti a ogni "
+                    + "scrittura e convertiti in una valuta")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Saldo del portafoglio"),
+        @ApiResponse(responseCode = "400", description = "ID del portafoglio o valuta non validi")
+    })
+    public ResponseEntity<WalletSummary> getBalance(
+            @Parameter(description = "ID del portafoglio") @PathVariable @Pattern(regexp = WALLET_ID) String walletId,
+            @Parameter(description = "Valuta ISO 4217, quella base dei tassi se assente")
+            @RequestParam(required = false) @Pattern(regexp = "[A-Z]{3}") String currency) {
+        return ResponseEntity.ok(walletService.getBalance(walletId, currency));
+    }
+}
@@ -0,0 +1,30 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Distribution of a set of amounts. Count, total, mean, minimum and maximum are exact; percentiles are
+ * estimated from t-digest sketches.
+ *
+ * @param count number of transactions
+ * @param total sum of the amounts
+ * @param mean average amount
+ * @param min smallest amount
+ * @param max largest amount
+ * @param p50 median amount
+ * @param p90 90th percentile
+ * @param p99 99th percentile
+ */
+@Schema(description = "Distribuzione degli importi")
+public record AmountStats(
+        @Schema(description = "Numero di transazioni", example = "42") long count,
+        @Schema(description = "Totale degli importi", example = "1260.00") BigDecimal total,
+        @Schema(description = "Importo medio", example = "30.00") BigDecimal mean,
+        @Schema(description = "Importo minimo", example = "1.50") BigDecimal min,
+        @Schema(description = "Importo massimo", example = "250.00") BigDecimal max,
+        @Schema(description = "Mediana stimata", example = "18.40") BigDecimal p50,
+        @Schema(description = "90esimo percentile stimato", example = "75.00") BigDecimal p90,
+        @Schema(description = "99esimo percentile stimato", example = "240.00") BigDecimal p99) {
+}
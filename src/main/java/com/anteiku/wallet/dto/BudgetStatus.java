@@ -0,0 +1,34 @@
+package com.anteiku.wallet.dto;
+
+import com.anteiku.wallet.model.Budget;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Spending of a budget in a period.
+ *
+ * @param id budget ID
+ * @param category category of the budget
+ * @param period length of the budget period
+ * @param periodLabel the period, e.g. 2024-03 or 2024
+ * @param limit spending limit
+ * @param spent spending so far, converted to the base currency
+ * @param remaining limit minus spending, negative when exceeded
+ * @param percentUsed spending in percent of the limit
+ * @param crossedThresholds alert thresholds reached, in percent
+ */
+@Schema(description = "Stato di un budget nel periodo")
+public record BudgetStatus(
+        @Schema(description = "ID del budget") String id,
+        @Schema(description = "Categoria", example = "Divertimento") String category,
+        @Schema(description = "Periodo del budget", example = "MONTHLY") Budget.Period period,
+        @Schema(description = "Periodo considerato", example = "2024-03") String periodLabel,
+        @Schema(description = "Spesa massima", example = "200.00") BigDecimal limit,
+        @Schema(description = "Spesa nel periodo, convertita nella valuta base", example = "170.00")
+        BigDecimal spent,
+        @Schema(description = "Spesa residua", example = "30.00") BigDecimal remaining,
+        @Schema(description = "Percentuale del limite gia' spesa", example = "85.0") BigDecimal percentUsed,
+        @Schema(description = "Soglie di avviso superate", example = "[80]") List<Integer> crossedThresholds) {
+}
@@ -0,0 +1,62 @@
+package com.anteiku.wallet.dto;
+
+import com.anteiku.wallet.service.statement.StatementFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress and outcome of a statement import.
+ *
+ * @param id job ID
+ * @param format statement format
+ * @param status current state
+ * @param startedAt when the upload started
+ * @param finishedAt when the import ended, null while running
+ * @param rowsRead entries read from the statement so far
+ * @param rowsImported transactions written so far
+ * @param rowsRejected entries that could not be mapped or failed validation
+ * @param rowsDuplicated entries skipped because they had already been imported
+ * @param errors first rejected entries and the reason, or the cause of a failure
+ */
+@Schema(description = "Stato di un'importazione di estratto conto")
+public record ImportJobStatus(
+        @Schema(description = "ID dell'importazione") String id,
+        @Schema(description = "Formato dell'estratto conto") StatementFormat format,
+        @Schema(description = "Stato dell'importazione") Status status,
+        @Schema(description = "Inizio dell'importazione") LocalDateTime startedAt,
+        @Schema(description = "Fine dell'importazione") LocalDateTime finishedAt,
+        @Schema(description = "Righe lette") long rowsRead,
+        @Schema(description = "Transazioni importate") long rowsImported,
+        @Schema(description = "Righe scartate") long rowsRejected,
+        @Schema(description = "Righe gia' importate in precedenza") long rowsDuplicated,
+        @Schema(description = "Primi errori riscontrati") List<ImportError> errors) {
+
+    /**
+     * State of an import.
+     */
+    public enum Status {
+        /**
+         * The statement is still being read.
+         */
+        RUNNING,
+        /**
+         * Every entry has been read; rejected entries are listed in the errors.
+         */
+        COMPLETED,
+        /**
+         * The import stopped early; transactions written before the failure are kept.
+         */
+        FAILED
+    }
+
+    /**
+     * A rejected entry or the cause of a failure.
+     *
+     * @param line statement line, 0 when the error is not tied to an entry
+     * @param message reason
+     */
+    public record ImportError(long line, String message) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.anteiku.wallet.dto;
+
+import java.util.List;
+
+/**
+ * Query diagnostics of the {@code queries} actuator endpoint.
+ *
+ * @param shapes plans of the repository query shapes, executed with sample parameters
+ * @param slowQueries recent slow database commands, slowest first
+ */
+public record QueryDiagnostics(List<QueryPlan> shapes, List<SlowQuery> slowQueries) {
+}
@@ -0,0 +1,49 @@
+package com.anteiku.wallet.dto;
+
+import java.util.List;
+
+/**
+ * Execution plan of a query, from the {@code explain} command.
+ *
+ * @param shape name of the query shape, or of the command of a slow query
+ * @param query filter and sort of the query, as JSON
+ * @param stages stages of the winning plan, from the root
+ * @param index index used by the plan, null for a collection scan
+ * @param collectionScan whether the plan reads the whole collection
+ * @param inMemorySort whether the results are sorted in memory instead of read in index order
+ * @param returned documents returned, null when the query was not executed
+ * @param docsExamined documents read, null when the query was not executed
+ * @param keysExamined index keys read, null when the query was not executed
+ * @param executionTimeMillis execution time, null when the query was not executed
+ * @param missingIndex whether no index supports the filter or the sort
+ * @param suggestedIndex keys of an index supporting the query, when one is missing
+ * @param error cause of a failed explain
+ */
+public record QueryPlan(
+        String shape,
+        String query,
+        List<String> stages,
+        String index,
+        boolean collectionScan,
+        boolean inMemorySort,
+        Long returned,
+        Long docsExamined,
+        Long keysExamined,
+        Long executionTimeMillis,
+        boolean missingIndex,
+        String suggestedIndex,
+        String error) {
+
+    /**
+     * Creates the plan of a query that could not be explained.
+     *
+     * @param shape name of the query shape
+     * @param query the query, as JSON
+     * @param error cause of the failure
+     * @return the plan, with only the error
+     */
+    public static QueryPlan failed(String shape, String query, String error) {
+        return new QueryPlan(shape, query, List.of(), null, false, false, null, null, null, null, false, null,
+                error);
+    }
+}
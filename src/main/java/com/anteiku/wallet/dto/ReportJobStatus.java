@@ -0,0 +1,58 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * State of a report job, with the report once it is completed.
+ *
+ * @param id job ID
+ * @param status current state
+ * @param walletId wallet of the report
+ * @param from first day of the report
+ * @param to last day of the report
+ * @param ledgerVersion version of the wallet when the job was submitted
+ * @param cached whether the report was served from the cache without computing it
+ * @param submittedAt when the job was submitted
+ * @param finishedAt when the job ended, null while queued or running
+ * @param error cause of a failure
+ * @param report the report, null until completed
+ */
+@Schema(description = "Stato di un rendiconto")
+public record ReportJobStatus(
+        @Schema(description = "ID del rendiconto") String id,
+        @Schema(description = "Stato del rendiconto") Status status,
+        @Schema(description = "ID del portafoglio") String walletId,
+        @Schema(description = "Primo giorno") LocalDate from,
+        @Schema(description = "Ultimo giorno") LocalDate to,
+        @Schema(description = "Versione del registro alla richiesta") long ledgerVersion,
+        @Schema(description = "Rendiconto restituito dalla cache") boolean cached,
+        @Schema(description = "Momento della richiesta") LocalDateTime submittedAt,
+        @Schema(description = "Fine del calcolo") LocalDateTime finishedAt,
+        @Schema(description = "Causa dell'errore") String error,
+        @Schema(description = "Rendiconto calcolato") StatementReport report) {
+
+    /**
+     * State of a report job.
+     */
+    public enum Status {
+        /**
+         * Waiting for a free worker.
+         */
+        QUEUED,
+        /**
+         * Being computed.
+         */
+        RUNNING,
+        /**
+         * The report is available.
+         */
+        COMPLETED,
+        /**
+         * The report could not be computed.
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,22 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.time.LocalDate;
+
+/**
+ * Statement report to compute.
+ *
+ * @param walletId wallet of the report, the default wallet if null
+ * @param from first day of the report
+ * @param to last day of the report
+ */
+@Schema(description = "Richiesta di un rendiconto")
+public record ReportRequest(
+        @Schema(description = "ID del portafoglio, quello predefinito se assente", example = "famiglia")
+        @Pattern(regexp = "[A-Za-z0-9_-]{1,64}") String walletId,
+        @Schema(description = "Primo giorno", example = "2024-01-01") @NotNull LocalDate from,
+        @Schema(description = "Ultimo giorno", example = "2024-12-31") @NotNull LocalDate to) {
+}
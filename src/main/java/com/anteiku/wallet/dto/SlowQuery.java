@@ -0,0 +1,16 @@
+package com.anteiku.wallet.dto;
+
+import java.time.Instant;
+
+/**
+ * A recent slow database command with its current plan.
+ *
+ * @param command command name, such as {@code find}
+ * @param collection collection of the command
+ * @param durationMillis time the command took
+ * @param finishedAt when the command ended
+ * @param plan plan of the command, without executing it again
+ */
+public record SlowQuery(String command, String collection, long durationMillis, Instant finishedAt,
+                        QueryPlan plan) {
+}
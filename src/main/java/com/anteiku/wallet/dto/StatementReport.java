@@ -0,0 +1,55 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Statement of a wallet over a date range, with monthly and category breakdowns.
+ * Amounts are summed per currency, as stored, so every group has one totals entry for each of its currencies
+ * and no amount depends on the exchange rates.
+ *
+ * @param walletId wallet ID
+ * @param from first day
+ * @param to last day
+ * @param ledgerVersion version of the wallet the report was computed at
+ * @param generatedAt when the report was computed
+ * @param totals totals of the whole range, by currency
+ * @param months totals of every month with transactions, in order, then of the undated ones under "undated"
+ * @param categories totals of every category with transactions, by name
+ */
+@Schema(description = "Rendiconto di un portafoglio in un periodo")
+public record StatementReport(
+        @Schema(description = "ID del portafoglio") String walletId,
+        @Schema(description = "Primo giorno") LocalDate from,
+        @Schema(description = "Ultimo giorno") LocalDate to,
+        @Schema(description = "Versione del registro su cui e' stato calcolato") long ledgerVersion,
+        @Schema(description = "Momento del calcolo") LocalDateTime generatedAt,
+        @Schema(description = "Totali del periodo, per valuta") List<Totals> totals,
+        @Schema(description = "Totali per mese") List<Breakdown> months,
+        @Schema(description = "Totali per categoria") List<Breakdown> categories) {
+
+    /**
+     * Totals of the transactions of a group in one currency.
+     *
+     * @param currency ISO 4217 code of the amounts
+     * @param income sum of the income transactions
+     * @param expense sum of the expense transactions
+     * @param balance income minus expense
+     * @param count number of transactions
+     */
+    public record Totals(String currency, BigDecimal income, BigDecimal expense, BigDecimal balance, long count) {
+    }
+
+    /**
+     * Totals of a month or a category.
+     *
+     * @param key the month, e.g. 2024-03, or the category
+     * @param totals totals of its transactions, by currency
+     */
+    public record Breakdown(String key, List<Totals> totals) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.anteiku.wallet.dto;
+
+import com.anteiku.wallet.model.Transaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Result of a lookup of several transactions by ID.
+ *
+ * @param transactions transactions found, in the order they were requested
+ * @param missing requested IDs that do not exist
+ */
+@Schema(description = "Risultato della ricerca di piu' transazioni per ID")
+public record TransactionBatch(
+        @Schema(description = "Transazioni trovate, nell'ordine richiesto") List<Transaction> transactions,
+        @Schema(description = "ID richiesti ma non esistenti") List<String> missing) {
+}
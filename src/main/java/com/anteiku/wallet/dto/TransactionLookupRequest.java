@@ -0,0 +1,24 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request body for looking up several transactions by ID.
+ *
+ * @param ids transaction IDs to resolve
+ */
+@Schema(description = "Richiesta di ricerca di piu' transazioni per ID")
+public record TransactionLookupRequest(
+        @NotEmpty(message = "Ids are required")
+        @Size(max = MAX_IDS, message = "Too many ids")
+        @Schema(description = "ID delle transazioni", example = "[\"abc123\", \"def456\"]") List<String> ids) {
+
+    /**
+     * Maximum number of IDs accepted by a single lookup.
+     */
+    public static final int MAX_IDS = 1000;
+}
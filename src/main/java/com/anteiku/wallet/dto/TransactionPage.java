@@ -0,0 +1,22 @@
+package com.anteiku.wallet.dto;
+
+import com.anteiku.wallet.model.Transaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * One page of a ranked result.
+ *
+ * @param content transactions of the page
+ * @param page page number, from 0
+ * @param size requested page size
+ * @param hasNext whether a further page exists
+ */
+@Schema(description = "Pagina di risultati")
+public record TransactionPage(
+        @Schema(description = "Transazioni della pagina") List<Transaction> content,
+        @Schema(description = "Numero di pagina, da 0") int page,
+        @Schema(description = "Dimensione della pagina") int size,
+        @Schema(description = "Indica se esiste una pagina successiva") boolean hasNext) {
+}
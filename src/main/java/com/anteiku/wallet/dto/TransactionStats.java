@@ -0,0 +1,24 @@
+package com.anteiku.wallet.dto;
+
+import com.anteiku.wallet.model.Transaction;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Amount distributions of the transactions in a date range.
+ *
+ * @param from first day, null if unbounded
+ * @param to last day, null if unbounded
+ * @param byType distribution per transaction type
+ * @param byCategory distribution per category, in alphabetical order
+ */
+@Schema(description = "Statistiche degli importi per tipo e categoria")
+public record TransactionStats(
+        @Schema(description = "Primo giorno, incluso") LocalDate from,
+        @Schema(description = "Ultimo giorno, incluso") LocalDate to,
+        @Schema(description = "Statistiche per tipo di transazione")
+        Map<Transaction.TransactionType, AmountStats> byType,
+        @Schema(description = "Statistiche per categoria") Map<String, AmountStats> byCategory) {
+}
@@ -0,0 +1,27 @@
+package com.anteiku.wallet.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals of one wallet, converted to one currency.
+ *
+ * @param walletId wallet ID
+ * @param currency currency of the totals
+ * @param totalIncome sum of the income transactions
+ * @param totalExpense sum of the expense transactions
+ * @param balance income minus expense
+ * @param transactionCount number of transactions
+ * @param version ledger version, which changes with every write to the wallet
+ */
+@Schema(description = "Saldo di un portafoglio")
+public record WalletSummary(
+        @Schema(description = "ID del portafoglio", example = "famiglia") String walletId,
+        @Schema(description = "Valuta dei totali, codice ISO 4217", example = "EUR") String currency,
+        @Schema(description = "Totale delle entrate", example = "1500.00") BigDecimal totalIncome,
+        @Schema(description = "Totale delle uscite", example = "1050.00") BigDecimal totalExpense,
+        @Schema(description = "Saldo", example = "450.00") BigDecimal balance,
+        @Schema(description = "Numero di transazioni", example = "42") long transactionCount,
+        @Schema(description = "Versione del registro, cambia a ogni scrittura", example = "57") long version) {
+}
@@ -0,0 +1,98 @@
+package com.anteiku.wallet.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Spending limit for a category over a month or a year.
+ * An event is raised as soon as the spending of a period crosses each of the alert thresholds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "budgets")
+@Schema(description = "Budget di spesa per categoria")
+public class Budget {
+
+    @Id
+    @Schema(description = "ID univoco del budget", accessMode = Schema.AccessMode.READ_ONLY)
+    private String id;
+
+    @NotBlank(message = "Category is required")
+    @Schema(description = "Categoria a cui si applica il budget", example = "Divertimento")
+    private String category;
+
+    @NotNull(message = "Limit is required")
+    @DecimalMin(value = "0.01", message = "Limit must be greater than 0")
+    @Field(targetType = FieldType.DECIMAL128)
+    @Schema(description = "Spesa massima nel periodo, nella valuta base dei tassi di cambio", example = "200.00",
+            minimum = "0.01")
+    private BigDecimal limit;
+
+    @NotNull(message = "Period is required")
+    @Builder.Default
+    @Schema(description = "Periodo del budget", example = "MONTHLY")
+    private Period period = Period.MONTHLY;
+
+    @NotEmpty(message = "At least one threshold is required")
+    @Builder.Default
+    @Schema(description = "Soglie di avviso in percentuale del limite", example = "[80, 100]")
+    private List<@NotNull @Positive Integer> thresholds = List.of(80, 100);
+
+    /**
+     * Length of a budget period.
+     */
+    @Schema(description = "Periodo del budget: MONTHLY (mensile) o YEARLY (annuale)")
+    public enum Period {
+        /**
+         * Calendar month.
+         */
+        MONTHLY,
+        /**
+         * Calendar year.
+         */
+        YEARLY;
+
+        /**
+         * Returns the label of the period containing a month, e.g. 2024-03 or 2024.
+         *
+         * @param month month within the period
+         * @return period label
+         */
+        public String label(YearMonth month) {
+            return this == MONTHLY ? month.toString() : String.valueOf(month.getYear());
+        }
+
+        /**
+         * Returns the months of the period containing a month.
+         *
+         * @param month month within the period
+         * @return months in chronological order
+         */
+        public List<YearMonth> months(YearMonth month) {
+            if (this == MONTHLY) {
+                return List.of(month);
+            }
+            return IntStream.rangeClosed(1, 12).mapToObj(m -> YearMonth.of(month.getYear(), m))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+/**
+ * Persisted spending of a category in a month and currency, in cents.
+ * Counted again from the expenses whenever the month changes, and read back at startup.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "budget_spend")
+public class BudgetSpend {
+
+    // month, category and currency, e.g. "2024-01|Cibo|EUR"; saved before currencies as "2024-01|Cibo"
+    @Id
+    private String id;
+
+    private String month;
+
+    private String category;
+
+    // ISO 4217 code, missing when saved before currencies, meaning the default currency
+    private String currency;
+
+    private long cents;
+
+    // budget ID, period label and threshold of the alerts raised, kept in the row of the first month of the period
+    private List<String> alerts;
+}
@@ -0,0 +1,37 @@
+package com.anteiku.wallet.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Entry of the category dictionary. Every spelling of a category that normalizes to the same key maps to one
+ * entry, whose compact ID is stored on the transactions of that category.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "categories")
+@Schema(description = "Categoria del dizionario")
+public class Category {
+
+    @Id
+    @Schema(description = "ID compatto della categoria", example = "1")
+    private Integer id;
+
+    // name trimmed, lower case and without accents, so that "Caffè " and "caffe" are the same category
+    @JsonIgnore
+    @Indexed(unique = true)
+    @Schema(hidden = true)
+    private String key;
+
+    @Schema(description = "Nome della categoria, con la grafia con cui e' stata registrata", example = "Cibo")
+    private String name;
+}
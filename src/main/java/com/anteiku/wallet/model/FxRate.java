@@ -0,0 +1,30 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Exchange rate of a currency: units of the currency worth one unit of the base currency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "fx_rates")
+public class FxRate {
+
+    // ISO 4217 currency code
+    @Id
+    private String id;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal rate;
+}
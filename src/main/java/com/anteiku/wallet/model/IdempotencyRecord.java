@@ -0,0 +1,57 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}, kept so that retries of the same request are
+ * answered without executing it again. Records expire through a TTL index.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * How long a key is remembered; matches the TTL index on {@link #createdAt}.
+     */
+    public static final String TTL = "24h";
+
+    // endpoint and client key, so the same key may be used on different endpoints
+    @Id
+    private String id;
+
+    // SHA-256 of the request body, to detect a key reused for a different request
+    private String requestHash;
+
+    private Status status;
+
+    // JSON of the response body, set once the request has completed
+    private String response;
+
+    @Indexed(expireAfter = TTL)
+    private Instant createdAt;
+
+    /**
+     * Progress of the request that claimed the key.
+     */
+    public enum Status {
+        /**
+         * The request is being executed.
+         */
+        IN_PROGRESS,
+        /**
+         * The request succeeded and its response is stored.
+         */
+        COMPLETED
+    }
+}
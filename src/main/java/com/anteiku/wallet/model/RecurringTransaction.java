@@ -0,0 +1,65 @@
+package com.anteiku.wallet.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Template of a transaction repeated on a cron schedule, such as rent or salary.
+ * The scheduler finds the templates due through the index on the next run time and materializes their
+ * occurrences as ordinary transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "recurring_transactions")
+@Schema(description = "Modello di una transazione ricorrente")
+public class RecurringTransaction {
+
+    @Id
+    @Schema(description = "ID univoco del modello", accessMode = Schema.AccessMode.READ_ONLY)
+    private String id;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Field(targetType = FieldType.DECIMAL128)
+    @Schema(description = "Importo di ogni occorrenza", example = "750.00", minimum = "0.01")
+    private BigDecimal amount;
+
+    @NotBlank(message = "Category is required")
+    @Schema(description = "Categoria di ogni occorrenza", example = "Affitto")
+    private String category;
+
+    @NotBlank(message = "Description is required")
+    @Schema(description = "Descrizione di ogni occorrenza", example = "Affitto appartamento")
+    private String description;
+
+    @NotNull(message = "Type is required")
+    @Builder.Default
+    @Schema(description = "Tipo di transazione", example = "EXPENSE")
+    private Transaction.TransactionType type = Transaction.TransactionType.EXPENSE;
+
+    @NotBlank(message = "Cron expression is required")
+    @Schema(description = "Regola cron (secondi minuti ore giorno mese giorno-settimana) o macro come @monthly",
+            example = "0 0 9 1 * *")
+    private String cron;
+
+    // null once the cron expression has no further occurrence
+    @Indexed
+    @Schema(description = "Data e ora della prossima occorrenza", accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime nextRun;
+}
@@ -0,0 +1,30 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on a scheduled task, so that only one of several replicas runs it at a time.
+ * The holder renews the lease on every run; another replica can take it over once it expires.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scheduler_leases")
+public class SchedulerLease {
+
+    // name of the scheduled task
+    @Id
+    private String id;
+
+    private String owner;
+
+    private Instant expiresAt;
+}
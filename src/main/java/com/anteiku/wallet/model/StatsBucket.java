@@ -0,0 +1,56 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Amount statistics of the transactions of one type and category in one month.
+ * Besides exact count, sum, minimum and maximum it holds a serialized t-digest of the amounts, a small
+ * quantile sketch that can be merged with those of other buckets to estimate percentiles of any set of months.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stats_buckets")
+public class StatsBucket {
+
+    // month, type and category, e.g. "2024-01|EXPENSE|Cibo"
+    @Id
+    private String id;
+
+    // ISO year-month, which sorts chronologically as a string
+    @Indexed
+    private String month;
+
+    private Transaction.TransactionType type;
+
+    private String category;
+
+    private long count;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal sum;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal min;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal max;
+
+    private byte[] digest;
+
+    // concurrent updates of the same bucket are detected and retried
+    @Version
+    private Long version;
+}
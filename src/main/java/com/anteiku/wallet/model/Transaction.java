@@ -1,45 +1,96 @@
 package com.anteiku.wallet.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
  * Entity representing a wallet transaction.
  * Contains information about income or expense transactions.
+ * Null properties are not serialized, so a projected transaction only carries the selected fields.
+ * Imported transactions also carry a {@link TransactionFingerprint}, which is never exposed by the API and is
+ * unique within a wallet.
+ * The category is stored both by name and by the compact ID of its {@link Category} dictionary entry.
+ * The amount is stored as Decimal128, so that it sorts numerically; the {@code (type, amount)} and
+ * {@code (type, date)} indexes serve sorted and top-K queries.
+ * Every transaction belongs to a wallet; wallet-scoped queries are served by compound indexes led by
+ * {@code walletId}, which is also the shard key of the collection.
+ * Amounts are in the transaction's currency, {@link #DEFAULT_CURRENCY} when none was given.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "transactions")
+@Document(collection = "transactions", language = "italian")
+@CompoundIndex(name = "type_amount", def = "{'type': 1, 'amount': -1}")
+@CompoundIndex(name = "type_date", def = "{'type': 1, 'date': -1}")
+@CompoundIndex(name = "wallet_date", def = "{'walletId': 1, 'date': -1}")
+@CompoundIndex(name = "wallet_type_amount", def = "{'walletId': 1, 'type': 1, 'amount': -1}")
+@CompoundIndex(name = "wallet_fingerprint", def = "{'walletId': 1, 'fingerprint': 1}", unique = true,
+        partialFilter = "{'fingerprint': {'$exists': true}}")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Modello di una transazione del wallet")
 public class Transaction {
 
+    /**
+     * Wallet of the transactions written without one, and of those stored before wallets existed.
+     */
+    public static final String DEFAULT_WALLET = "default";
+
+    /**
+     * Currency of the transactions written without one, and of those stored before currencies existed.
+     */
+    public static final String DEFAULT_CURRENCY = "EUR";
+
     @Id
     @Schema(description = "ID univoco della transazione", accessMode = Schema.AccessMode.READ_ONLY)
     private String id;
 
+    // set to DEFAULT_WALLET on write when missing, see TransactionService
+    @Schema(description = "ID del portafoglio a cui appartiene la transazione", example = "default")
+    private String walletId;
+
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Field(targetType = FieldType.DECIMAL128)
     @Schema(description = "Importo della transazione", example = "50.00", minimum = "0.01")
     private BigDecimal amount;
 
+    // set to DEFAULT_CURRENCY on write when missing, see TransactionService
+    @Pattern(regexp = "[A-Z]{3}", message = "Currency must be an ISO 4217 code")
+    @Schema(description = "Valuta dell'importo, codice ISO 4217", example = "EUR")
+    private String currency;
+
     @NotBlank(message = "Category is required")
+    @TextIndexed
     @Schema(description = "Categoria della transazione", example = "Cibo")
     private String category;  // e.g. "Cibo", "Affitto", "Divertimento"
 
+    // set from the category dictionary on write, see CategoryDictionary
+    @Indexed
+    @Schema(description = "ID della categoria nel dizionario", accessMode = Schema.AccessMode.READ_ONLY)
+    private Integer categoryId;
+
     @NotBlank(message = "Description is required")
+    @TextIndexed(weight = 2)
     @Schema(description = "Descrizione della transazione", example = "Spesa al supermercato")
     private String description;
 
@@ -53,6 +104,11 @@ public class Transaction {
     @Schema(description = "Tipo di transazione", example = "EXPENSE")
     private TransactionType type = TransactionType.EXPENSE;
 
+    // set on imported transactions only, hence the partial wallet_fingerprint index
+    @JsonIgnore
+    @Schema(hidden = true)
+    private String fingerprint;
+
     /**
      * Enum representing the type of transaction.
      */
@@ -0,0 +1,103 @@
+package com.anteiku.wallet.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Transaction properties a client can select with the {@code fields} parameter.
+ * Each field maps to a Mongo projection key and knows how to clear itself from a document,
+ * so that unselected properties are left out of the serialized response.
+ */
+public enum TransactionField {
+    /**
+     * Transaction ID.
+     */
+    ID("id", t -> t.setId(null)),
+    /**
+     * Wallet ID.
+     */
+    WALLET_ID("walletId", t -> t.setWalletId(null)),
+    /**
+     * Amount.
+     */
+    AMOUNT("amount", t -> t.setAmount(null)),
+    /**
+     * Currency.
+     */
+    CURRENCY("currency", t -> t.setCurrency(null)),
+    /**
+     * Category.
+     */
+    CATEGORY("category", t -> t.setCategory(null)),
+    /**
+     * Description.
+     */
+    DESCRIPTION("description", t -> t.setDescription(null)),
+    /**
+     * Date.
+     */
+    DATE("date", t -> t.setDate(null)),
+    /**
+     * Type.
+     */
+    TYPE("type", t -> t.setType(null));
+
+    private final String property;
+    private final Consumer<Transaction> clearer;
+
+    TransactionField(String property, Consumer<Transaction> clearer) {
+        this.property = property;
+        this.clearer = clearer;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated field list such as {@code id,amount,date}.
+     *
+     * @param fields field list, null or blank for all fields
+     * @return the selected fields, empty when every field is requested
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    public static Set<TransactionField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<TransactionField> selected = EnumSet.noneOf(TransactionField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim().toLowerCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                selected.add(Arrays.stream(values())
+                        .filter(f -> f.property.equalsIgnoreCase(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed)));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Clears every property not in {@code fields}.
+     * Needed because entity defaults (date, type) would otherwise reappear on projected documents.
+     *
+     * @param transaction projected transaction
+     * @param fields selected fields, empty for all fields
+     * @return the same transaction
+     */
+    public static Transaction retainOnly(Transaction transaction, Set<TransactionField> fields) {
+        if (!fields.isEmpty()) {
+            for (TransactionField field : values()) {
+                if (!fields.contains(field)) {
+                    field.clearer.accept(transaction);
+                }
+            }
+        }
+        return transaction;
+    }
+}
@@ -0,0 +1,98 @@
+package com.anteiku.wallet.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Content fingerprint of an imported transaction, used to recognize rows already imported from an
+ * overlapping statement.
+ * It covers wallet, date, amount, type and normalized description, plus the occurrence number of identical rows
+ * within the same statement, so two genuine identical payments on the same day are both kept while a
+ * re-import of either is still detected. The value is the first 128 bits of the SHA-256 digest, encoded as
+ * 22 URL-safe Base64 characters.
+ * Occurrences materialized from a recurring template are fingerprinted by wallet, template and scheduled time
+ * instead, so the same occurrence is never stored twice. Fingerprints are unique within a wallet, so the
+ * wallet is part of the digest and of the unique index; it is left out for {@link Transaction#DEFAULT_WALLET},
+ * whose transactions keep the fingerprints stored before wallets were part of them.
+ */
+public final class TransactionFingerprint {
+
+    private static final int BYTES = 16;
+
+    private TransactionFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of a transaction.
+     *
+     * @param transaction transaction with date, amount, type and description set, in
+     *                    {@link Transaction#DEFAULT_WALLET} if it has no wallet yet
+     * @param occurrence number of identical rows that precede this one in the same statement
+     * @return encoded fingerprint
+     */
+    public static String of(Transaction transaction, int occurrence) {
+        String content = walletPrefix(transaction.getWalletId())
+                + transaction.getDate() + "|"
+                + transaction.getAmount().stripTrailingZeros().toPlainString() + "|"
+                + transaction.getType() + "|"
+                + normalize(transaction.getDescription()) + "|"
+                + occurrence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest(content));
+    }
+
+    /**
+     * Computes the fingerprint of an occurrence of a recurring template.
+     *
+     * @param walletId wallet of the occurrence, null for {@link Transaction#DEFAULT_WALLET}
+     * @param templateId ID of the recurring template
+     * @param scheduledAt scheduled time of the occurrence
+     * @return encoded fingerprint
+     */
+    public static String ofOccurrence(String walletId, String templateId, LocalDateTime scheduledAt) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest("recurring|" + walletPrefix(walletId)
+                + templateId + "|" + scheduledAt));
+    }
+
+    /**
+     * Decodes a fingerprint back to its hash bytes.
+     *
+     * @param fingerprint encoded fingerprint
+     * @return 16 hash bytes
+     */
+    public static byte[] decode(String fingerprint) {
+        return Base64.getUrlDecoder().decode(fingerprint);
+    }
+
+    /**
+     * Returns the wallet a transaction is stored in, {@link Transaction#DEFAULT_WALLET} when it has none.
+     *
+     * @param walletId wallet ID, possibly null
+     * @return the wallet ID
+     */
+    public static String walletOf(String walletId) {
+        return walletId != null ? walletId : Transaction.DEFAULT_WALLET;
+    }
+
+    private static String walletPrefix(String walletId) {
+        String wallet = walletOf(walletId);
+        return wallet.equals(Transaction.DEFAULT_WALLET) ? "" : wallet + "|";
+    }
+
+    static String normalize(String description) {
+        return description == null ? "" : description.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static byte[] digest(String content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(hash, BYTES);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
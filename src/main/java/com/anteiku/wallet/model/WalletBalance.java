@@ -0,0 +1,67 @@
+package com.anteiku.wallet.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals of the transactions of one wallet.
+ * The document is keyed by wallet ID, so it can be sharded on the same key as the transactions, and is
+ * updated with {@code $inc} on every write, so reading a balance costs one lookup whatever the size of the
+ * ledger. Income and expense are kept per currency and only converted when read, so the totals never depend
+ * on the exchange rates of the time they were written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "wallet_balances")
+public class WalletBalance {
+
+    // wallet ID
+    @Id
+    private String id;
+
+    // income and expense by ISO 4217 currency code
+    @Builder.Default
+    private Map<String, Totals> currencies = new HashMap<>();
+
+    private long count;
+
+    // ledger version, incremented by every write to the wallet's transactions
+    private long version;
+
+    /**
+     * Returns the totals of a currency, adding them if the wallet has none yet.
+     *
+     * @param currency ISO 4217 code
+     * @return the totals of the currency
+     */
+    public Totals totals(String currency) {
+        return currencies.computeIfAbsent(currency, code -> new Totals());
+    }
+
+    /**
+     * Income and expense of a wallet in one currency.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Totals {
+
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal income = BigDecimal.ZERO;
+
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal expense = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,12 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.Budget;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for Budget entity.
+ */
+@Repository
+public interface BudgetRepository extends MongoRepository<Budget, String> {
+}
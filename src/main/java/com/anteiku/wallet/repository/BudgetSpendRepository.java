@@ -0,0 +1,24 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.BudgetSpend;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository of the persisted monthly spending per category.
+ */
+@Repository
+public interface BudgetSpendRepository extends MongoRepository<BudgetSpend, String>, BudgetSpendRepositoryCustom {
+
+    /**
+     * Finds the spending of some categories in some months.
+     *
+     * @param months ISO year-months
+     * @param categories category names
+     * @return the matching rows
+     */
+    List<BudgetSpend> findByMonthInAndCategoryIn(Collection<String> months, Collection<String> categories);
+}
@@ -0,0 +1,40 @@
+package com.anteiku.wallet.repository;
+
+/**
+ * Custom operations on the persisted monthly spending.
+ */
+public interface BudgetSpendRepositoryCustom {
+
+    /**
+     * Stores the spending of a category in a month and currency, counted from its expenses, with a single
+     * upsert. Setting a total rather than adding to it lets several replicas store the same month.
+     *
+     * @param month ISO year-month
+     * @param category category name
+     * @param currency ISO 4217 code
+     * @param cents total spending
+     */
+    void setCents(String month, String category, String currency, long cents);
+
+    /**
+     * Records a budget alert in a spending row with a single conditional upsert, so that of several replicas
+     * reaching the same threshold only one raises it.
+     *
+     * @param month ISO year-month
+     * @param category category name
+     * @param currency ISO 4217 code
+     * @param alert budget ID, period label and threshold
+     * @return true if the alert was not recorded yet
+     */
+    boolean addAlert(String month, String category, String currency, String alert);
+
+    /**
+     * Removes a budget alert from a spending row, so that it is raised again the next time it is reached.
+     *
+     * @param month ISO year-month
+     * @param category category name
+     * @param currency ISO 4217 code
+     * @param alert budget ID, period label and threshold
+     */
+    void removeAlert(String month, String category, String currency, String alert);
+}
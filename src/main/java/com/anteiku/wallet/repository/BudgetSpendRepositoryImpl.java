@@ -0,0 +1,57 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.BudgetSpend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link BudgetSpendRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class BudgetSpendRepositoryImpl implements BudgetSpendRepositoryCustom {
+
+    private static final String ALERTS = "alerts";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void setCents(String month, String category, String currency, long cents) {
+        Query query = Query.query(where("id").is(id(month, category, currency)));
+        mongoTemplate.upsert(query, onInsert(month, category, currency).set("cents", cents), BudgetSpend.class);
+    }
+
+    @Override
+    public boolean addAlert(String month, String category, String currency, String alert) {
+        Query query = Query.query(where("id").is(id(month, category, currency)).and(ALERTS).ne(alert));
+        Update update = onInsert(month, category, currency).setOnInsert("cents", 0L).addToSet(ALERTS, alert);
+        try {
+            mongoTemplate.upsert(query, update, BudgetSpend.class);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // already recorded: the upsert tried to insert a second row with the same ID
+            return false;
+        }
+    }
+
+    @Override
+    public void removeAlert(String month, String category, String currency, String alert) {
+        mongoTemplate.updateFirst(Query.query(where("id").is(id(month, category, currency))),
+                new Update().pull(ALERTS, alert), BudgetSpend.class);
+    }
+
+    private static String id(String month, String category, String currency) {
+        return month + "|" + category + "|" + currency;
+    }
+
+    private static Update onInsert(String month, String category, String currency) {
+        return new Update()
+                .setOnInsert("month", month)
+                .setOnInsert("category", category)
+                .setOnInsert("currency", currency);
+    }
+}
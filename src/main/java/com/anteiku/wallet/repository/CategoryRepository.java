@@ -0,0 +1,24 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.Category;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository of the category dictionary. The unique index on the normalized key makes concurrent
+ * registrations of the same category fail with a duplicate key error.
+ */
+@Repository
+public interface CategoryRepository extends MongoRepository<Category, Integer> {
+
+    Optional<Category> findByKey(String key);
+
+    /**
+     * Finds the category with the highest ID, to allocate the next one.
+     *
+     * @return the last registered category, empty if the dictionary is empty
+     */
+    Optional<Category> findFirstByOrderByIdDesc();
+}
@@ -0,0 +1,82 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.client.MongoDatabase;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline of the database operations run by the current thread, usually set for the duration of an HTTP
+ * request. Threads without a deadline, such as scheduled tasks and background jobs, are not bounded.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    /**
+     * Sets the deadline of the current thread.
+     *
+     * @param timeout time left from now
+     */
+    public static void start(Duration timeout) {
+        CURRENT.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Removes the deadline of the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs a task on the current thread without its deadline, then restores it. Used for work that must
+     * complete once the request's own writes have succeeded, whether or not the client is still waiting.
+     *
+     * @param task task to run
+     */
+    public static void runWithout(Runnable task) {
+        Long deadline = CURRENT.get();
+        CURRENT.remove();
+        try {
+            task.run();
+        } finally {
+            if (deadline != null) {
+                CURRENT.set(deadline);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the current thread has a deadline.
+     *
+     * @return true if a deadline is set
+     */
+    public static boolean isSet() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Bounds the operations on a database by the time left before the deadline of the current thread. The
+     * driver sends the time left as {@code maxTimeMS} and applies it to server selection, connection checkout
+     * and socket reads as well.
+     *
+     * @param database database to bound
+     * @return the bounded database, the same database if the thread has no deadline
+     * @throws DeadlineExceededException if the deadline has already passed
+     */
+    static MongoDatabase apply(MongoDatabase database) {
+        Long deadline = CURRENT.get();
+        if (deadline == null) {
+            return database;
+        }
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded");
+        }
+        return database.withTimeout(remaining, TimeUnit.MILLISECONDS);
+    }
+}
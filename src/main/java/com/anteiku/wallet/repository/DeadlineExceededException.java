@@ -0,0 +1,18 @@
+package com.anteiku.wallet.repository;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Thrown when a database operation is attempted after the deadline of its request has passed.
+ */
+public class DeadlineExceededException extends QueryTimeoutException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message reason
+     */
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.FxRate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the exchange rates.
+ */
+@Repository
+public interface FxRateRepository extends MongoRepository<FxRate, String> {
+}
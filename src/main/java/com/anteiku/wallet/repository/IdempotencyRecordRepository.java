@@ -0,0 +1,25 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository of idempotency records. Inserting a record claims its key: the unique {@code _id} makes
+ * concurrent claims of the same key fail with a duplicate key error.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+
+    /**
+     * Deletes a claim that has stayed in the given state since before the cutoff, with a single deleteOne.
+     *
+     * @param id record ID
+     * @param status expected state
+     * @param cutoff claims created before this instant are deleted
+     * @return 1 if the claim was deleted, 0 otherwise
+     */
+    long deleteByIdAndStatusAndCreatedAtBefore(String id, IdempotencyRecord.Status status, Instant cutoff);
+}
@@ -0,0 +1,227 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.dto.QueryPlan;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.mongodb.ExplainVerbosity;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Explains the queries of the transaction repository.
+ * Every query shape the application issues, the derived finders and the {@link TransactionQueries} filters, is
+ * run with {@code executionStats} on parameters taken from the most recent transaction, so the plan reflects the
+ * stored data. A plan that scans the collection for a filter, or sorts in memory, is flagged with an index that
+ * would support it: the equality fields, then the sort, then the range fields.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryExplainer {
+
+    private static final int TOP_LIMIT = 10;
+    private static final int SAMPLE_DAYS = 30;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Explains every query shape of the transaction repository, executing it.
+     *
+     * @return the plan of every shape, in a fixed order
+     */
+    public List<QueryPlan> explainShapes() {
+        List<QueryPlan> plans = new ArrayList<>();
+        shapes().forEach((shape, query) -> plans.add(explain(shape, query)));
+        return plans;
+    }
+
+    /**
+     * Explains a transaction query, executing it.
+     *
+     * @param shape name of the query shape
+     * @param query the query
+     * @return the plan, with the error if it could not be explained
+     */
+    public QueryPlan explain(String shape, Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getPersistentEntity(Transaction.class);
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = mapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = mapper.getMappedSort(query.getSortObject(), entity);
+        String json = describe(filter, sort);
+        try {
+            Document explain = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                    .find(filter)
+                    .sort(sort)
+                    .projection(mapper.getMappedFields(query.getFieldsObject(), entity))
+                    .limit(query.getLimit())
+                    .explain(Document.class, ExplainVerbosity.EXECUTION_STATS);
+            return toPlan(shape, json, filter, sort, explain);
+        } catch (RuntimeException ex) {
+            return QueryPlan.failed(shape, json, ex.getMessage());
+        }
+    }
+
+    /**
+     * Explains a command captured by the {@link SlowQueryListener}, without executing it again.
+     *
+     * @param name command name
+     * @param command the command
+     * @return the plan, with the error if it could not be explained
+     */
+    public QueryPlan explain(String name, BsonDocument command) {
+        BsonDocument filter = "find".equals(name) ? command.getDocument("filter", new BsonDocument())
+                : new BsonDocument();
+        BsonDocument sort = "find".equals(name) ? command.getDocument("sort", new BsonDocument())
+                : new BsonDocument();
+        String json = command.toJson();
+        try {
+            Document explain = mongoTemplate.getDb().runCommand(new Document("explain", command)
+                    .append("verbosity", "queryPlanner"));
+            return toPlan(name, json, filter, sort, explain);
+        } catch (RuntimeException ex) {
+            return QueryPlan.failed(name, json, ex.getMessage());
+        }
+    }
+
+    private Map<String, Query> shapes() {
+        Transaction sample = mongoTemplate.findOne(new Query().with(Sort.by(Sort.Direction.DESC,
+                TransactionField.DATE.getProperty())), Transaction.class);
+        String walletId = sample != null && sample.getWalletId() != null ? sample.getWalletId()
+                : Transaction.DEFAULT_WALLET;
+        String category = sample != null && sample.getCategory() != null ? sample.getCategory() : "Cibo";
+        Integer categoryId = sample != null && sample.getCategoryId() != null ? sample.getCategoryId() : 1;
+        LocalDate to = sample != null && sample.getDate() != null ? sample.getDate().toLocalDate() : LocalDate.now();
+        LocalDate from = to.minusDays(SAMPLE_DAYS);
+        Transaction.TransactionType type = Transaction.TransactionType.EXPENSE;
+        Sort byDate = Sort.by(Sort.Direction.DESC, TransactionField.DATE.getProperty());
+        Sort byAmount = Sort.by(Sort.Direction.DESC, TransactionField.AMOUNT.getProperty());
+
+        Map<String, Query> shapes = new LinkedHashMap<>();
+        shapes.put("findAll", new Query());
+        shapes.put("findByType", Query.query(where("type").is(type)));
+        shapes.put("findByCategory", Query.query(where("category").is(category)));
+        shapes.put("findByCategoryId", Query.query(where("categoryId").is(categoryId)));
+        shapes.put("filter(type, date range, sort=date)", TransactionQueries.toQuery(TransactionFilter.builder()
+                .type(type).startDate(from).endDate(to).sort(byDate).build()));
+        shapes.put("filter(category, date range)", TransactionQueries.toQuery(TransactionFilter.builder()
+                .category(category).startDate(from).endDate(to).build()));
+        shapes.put("top(type, sort=amount)", TransactionQueries.toQuery(TransactionFilter.builder()
+                .type(type).sort(byAmount).limit(TOP_LIMIT).build()));
+        shapes.put("wallet(date range, sort=date)", TransactionQueries.toQuery(TransactionFilter.builder()
+                .walletId(walletId).startDate(from).endDate(to).sort(byDate).build()));
+        shapes.put("wallet top(type, sort=amount)", TransactionQueries.toQuery(TransactionFilter.builder()
+                .walletId(walletId).type(type).sort(byAmount).limit(TOP_LIMIT).build()));
+        return shapes;
+    }
+
+    static QueryPlan toPlan(String shape, String query, Map<String, ?> filter, Map<String, ?> sort,
+                            Document explain) {
+        Document winning = winningPlan(explain);
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        collectStages(winning, stages, indexes);
+        Document stats = explain.get("executionStats", Document.class);
+        boolean collectionScan = stages.contains("COLLSCAN");
+        boolean inMemorySort = stages.contains("SORT");
+        boolean missingIndex = collectionScan && !filter.isEmpty() || inMemorySort;
+        return new QueryPlan(shape, query, stages, indexes.isEmpty() ? null : indexes.get(0), collectionScan,
+                inMemorySort, number(stats, "nReturned"), number(stats, "totalDocsExamined"),
+                number(stats, "totalKeysExamined"), number(stats, "executionTimeMillis"), missingIndex,
+                missingIndex ? suggestIndex(filter, sort) : null, null);
+    }
+
+    /**
+     * Suggests the keys of an index supporting a query, following the equality, sort, range rule.
+     *
+     * @param filter filter of the query
+     * @param sort sort of the query
+     * @return index keys as JSON, null if the filter has operators on the whole document, such as $text
+     */
+    static String suggestIndex(Map<String, ?> filter, Map<String, ?> sort) {
+        Document equality = new Document();
+        Document range = new Document();
+        for (Map.Entry<String, ?> condition : filter.entrySet()) {
+            if (condition.getKey().startsWith("$")) {
+                return null;
+            }
+            (isRange(condition.getValue()) ? range : equality).put(condition.getKey(), 1);
+        }
+        Document keys = new Document(equality);
+        sort.forEach((field, direction) -> keys.putIfAbsent(field, direction(direction)));
+        range.forEach(keys::putIfAbsent);
+        return keys.isEmpty() ? null : keys.toJson();
+    }
+
+    private static int direction(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        return value instanceof BsonValue bson && bson.isNumber() ? bson.asNumber().intValue() : 1;
+    }
+
+    private static boolean isRange(Object value) {
+        return value instanceof Map<?, ?> operators && !operators.isEmpty()
+                && operators.keySet().stream().allMatch(key -> key.toString().startsWith("$"))
+                && !operators.containsKey("$eq") && !operators.containsKey("$in");
+    }
+
+    private static Document winningPlan(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        if (planner == null && explain.get("stages") instanceof List<?> pipeline && !pipeline.isEmpty()
+                && pipeline.get(0) instanceof Document first && first.get("$cursor") instanceof Document cursor) {
+            // aggregation: the plan of the initial $match is in the $cursor stage
+            planner = cursor.get("queryPlanner", Document.class);
+        }
+        Document winning = planner == null ? null : planner.get("winningPlan", Document.class);
+        if (winning != null && winning.get("queryPlan") instanceof Document queryPlan) {
+            // slot-based engine
+            return queryPlan;
+        }
+        return winning;
+    }
+
+    private static void collectStages(Document stage, List<String> stages, List<String> indexes) {
+        if (stage == null) {
+            return;
+        }
+        stages.add(stage.getString("stage"));
+        if (stage.getString("indexName") != null) {
+            indexes.add(stage.getString("indexName"));
+        }
+        if (stage.get("inputStage") instanceof Document input) {
+            collectStages(input, stages, indexes);
+        }
+        if (stage.get("inputStages") instanceof List<?> inputs) {
+            inputs.stream().filter(Document.class::isInstance)
+                    .forEach(input -> collectStages((Document) input, stages, indexes));
+        }
+    }
+
+    private static Long number(Document stats, String key) {
+        return stats != null && stats.get(key) instanceof Number n ? n.longValue() : null;
+    }
+
+    private static String describe(Document filter, Document sort) {
+        Document query = new Document("filter", filter);
+        if (!sort.isEmpty()) {
+            query.append("sort", sort);
+        }
+        return query.toJson();
+    }
+}
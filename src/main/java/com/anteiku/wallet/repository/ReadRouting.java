@@ -0,0 +1,50 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoDatabase;
+
+/**
+ * Read preference of the database operations run by the current thread, usually set for the duration of an
+ * HTTP request. Threads without one read as the client is configured, from the primary by default.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<ReadPreference> CURRENT = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Sets the read preference of the current thread.
+     *
+     * @param readPreference read preference, null to read as the client is configured
+     */
+    public static void use(ReadPreference readPreference) {
+        if (readPreference == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(readPreference);
+        }
+    }
+
+    /**
+     * Returns the read preference of the current thread.
+     *
+     * @return the read preference, null if none is set
+     */
+    public static ReadPreference current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Removes the read preference of the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    static MongoDatabase apply(MongoDatabase database) {
+        ReadPreference readPreference = CURRENT.get();
+        return readPreference == null ? database : database.withReadPreference(readPreference);
+    }
+}
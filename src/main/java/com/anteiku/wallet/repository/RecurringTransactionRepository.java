@@ -0,0 +1,26 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.RecurringTransaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository of the recurring transaction templates.
+ */
+@Repository
+public interface RecurringTransactionRepository extends MongoRepository<RecurringTransaction, String>,
+        RecurringTransactionRepositoryCustom {
+
+    /**
+     * Finds the templates due at a time, earliest first, reading only those from the next run index.
+     *
+     * @param now current time
+     * @param limit maximum number of templates
+     * @return templates whose next run is not after now
+     */
+    List<RecurringTransaction> findByNextRunLessThanEqualOrderByNextRunAsc(LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,30 @@
+package com.anteiku.wallet.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recurring template operations that need MongoTemplate.
+ */
+public interface RecurringTransactionRepositoryCustom {
+
+    /**
+     * Moves the next run of several templates with a single unordered bulk write. Each template is only
+     * moved if its next run is still the one the scheduler read, so a template deleted or edited in the
+     * meantime is left alone.
+     *
+     * @param moves templates to move
+     * @return number of templates moved
+     */
+    int advanceNextRuns(List<NextRunMove> moves);
+
+    /**
+     * Move of the next run of one template.
+     *
+     * @param id template ID
+     * @param from next run read by the scheduler
+     * @param to new next run, null if there is none
+     */
+    record NextRunMove(String id, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.RecurringTransaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link RecurringTransactionRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class RecurringTransactionRepositoryImpl implements RecurringTransactionRepositoryCustom {
+
+    private static final String NEXT_RUN = "nextRun";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public int advanceNextRuns(List<NextRunMove> moves) {
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RecurringTransaction.class);
+        for (NextRunMove move : moves) {
+            bulk.updateOne(Query.query(where("id").is(move.id()).and(NEXT_RUN).is(move.from())),
+                    new Update().set(NEXT_RUN, move.to()));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+}
@@ -0,0 +1,85 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoOperationTimeoutException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+/**
+ * Database factory applying the settings of the calling thread's request to every operation: its
+ * {@link Deadline} and its {@link ReadRouting}. MongoTemplate and the repositories obtain the database from
+ * the factory for each operation, so every query, write and cursor of a request shares them. Operations that
+ * run out of time surface as {@link QueryTimeoutException}.
+ */
+public class RequestMongoDatabaseFactory implements MongoDatabaseFactory {
+
+    private final MongoDatabaseFactory delegate;
+    private final PersistenceExceptionTranslator exceptionTranslator;
+
+    /**
+     * Wraps a database factory.
+     *
+     * @param delegate factory providing the databases
+     */
+    public RequestMongoDatabaseFactory(MongoDatabaseFactory delegate) {
+        this.delegate = delegate;
+        this.exceptionTranslator = new TimeoutExceptionTranslator(delegate.getExceptionTranslator());
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        return Deadline.apply(ReadRouting.apply(delegate.getMongoDatabase()));
+    }
+
+    @Override
+    public MongoDatabase getMongoDatabase(String dbName) throws DataAccessException {
+        return Deadline.apply(ReadRouting.apply(delegate.getMongoDatabase(dbName)));
+    }
+
+    @Override
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return exceptionTranslator;
+    }
+
+    @Override
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    public ClientSession getSession(ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    public MongoDatabaseFactory withSession(ClientSession session) {
+        return new RequestMongoDatabaseFactory(delegate.withSession(session));
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+
+    /**
+     * Translates the client-side and server-side operation timeouts to {@link QueryTimeoutException}, and
+     * every other exception as the wrapped factory does.
+     */
+    record TimeoutExceptionTranslator(PersistenceExceptionTranslator delegate)
+            implements PersistenceExceptionTranslator {
+
+        @Override
+        public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+            if (ex instanceof MongoOperationTimeoutException || ex instanceof MongoExecutionTimeoutException) {
+                return new QueryTimeoutException(ex.getMessage(), ex);
+            }
+            return delegate.translateExceptionIfPossible(ex);
+        }
+    }
+}
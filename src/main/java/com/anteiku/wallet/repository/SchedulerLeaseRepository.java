@@ -0,0 +1,13 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.SchedulerLease;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the scheduled task leases.
+ */
+@Repository
+public interface SchedulerLeaseRepository extends MongoRepository<SchedulerLease, String>,
+        SchedulerLeaseRepositoryCustom {
+}
@@ -0,0 +1,22 @@
+package com.anteiku.wallet.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Lease operations that need a conditional upsert.
+ */
+public interface SchedulerLeaseRepositoryCustom {
+
+    /**
+     * Takes or renews a lease with a single conditional upsert. The lease is granted if nobody holds it,
+     * if it has expired, or if the owner already holds it.
+     *
+     * @param name name of the scheduled task
+     * @param owner ID of the requesting replica
+     * @param now current time
+     * @param duration validity of the lease from now
+     * @return true if the owner now holds the lease
+     */
+    boolean tryAcquire(String name, String owner, Instant now, Duration duration);
+}
@@ -0,0 +1,39 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.SchedulerLease;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link SchedulerLeaseRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class SchedulerLeaseRepositoryImpl implements SchedulerLeaseRepositoryCustom {
+
+    private static final String OWNER = "owner";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean tryAcquire(String name, String owner, Instant now, Duration duration) {
+        Query query = Query.query(where("id").is(name)
+                .orOperator(where(EXPIRES_AT).lte(now), where(OWNER).is(owner)));
+        Update update = new Update().set(OWNER, owner).set(EXPIRES_AT, now.plus(duration));
+        try {
+            mongoTemplate.upsert(query, update, SchedulerLease.class);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            // held by another replica: the upsert tried to insert a second lease with the same name
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the most recent slow database commands, as the database profiler would, but without enabling it on
+ * the server. Queries and writes with a filter are copied when they start, without the session and cluster
+ * fields, so they can be explained later; the copy is kept only if the command takes at least the threshold.
+ */
+public class SlowQueryListener implements CommandListener {
+
+    /**
+     * Commands the {@code explain} command accepts.
+     */
+    static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "findAndModify",
+            "update", "delete");
+
+    private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "autocommit",
+            "startTransaction");
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final Map<Integer, BsonDocument> running = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> recent = new ArrayDeque<>();
+
+    /**
+     * Creates the listener.
+     *
+     * @param threshold shortest duration of a slow command
+     * @param capacity number of slow commands kept
+     */
+    public SlowQueryListener(Duration threshold, int capacity) {
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (EXPLAINABLE.contains(event.getCommandName())) {
+            running.put(event.getRequestId(), copy(event.getCommand()));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument command = running.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (command != null && elapsed >= thresholdNanos) {
+            add(new SlowCommand(event.getCommandName(), event.getDatabaseName(), command, Duration.ofNanos(elapsed),
+                    Instant.now()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        running.remove(event.getRequestId());
+    }
+
+    /**
+     * Returns the slow commands kept, slowest first.
+     *
+     * @return recent slow commands
+     */
+    public synchronized List<SlowCommand> slowest() {
+        return recent.stream().sorted(Comparator.comparing(SlowCommand::duration).reversed()).toList();
+    }
+
+    private synchronized void add(SlowCommand command) {
+        if (recent.size() == capacity) {
+            recent.removeFirst();
+        }
+        recent.addLast(command);
+    }
+
+    private static BsonDocument copy(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !SESSION_FIELDS.contains(key)) {
+                copy.put(key, value);
+            }
+        });
+        return copy.clone();
+    }
+
+    /**
+     * A slow database command.
+     *
+     * @param name command name, such as {@code find}
+     * @param database database of the command
+     * @param command the command, without session fields
+     * @param duration time the command took
+     * @param finishedAt when the command ended
+     */
+    public record SlowCommand(String name, String database, BsonDocument command, Duration duration,
+                              Instant finishedAt) {
+
+        /**
+         * Returns the collection the command ran on.
+         *
+         * @return collection name, null for database-wide aggregations
+         */
+        public String collection() {
+            return command.isString(name) ? command.getString(name).getValue() : null;
+        }
+    }
+}
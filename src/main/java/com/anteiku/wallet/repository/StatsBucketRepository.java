@@ -0,0 +1,25 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.StatsBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository of the monthly amount statistics buckets.
+ */
+@Repository
+public interface StatsBucketRepository extends MongoRepository<StatsBucket, String> {
+
+    /**
+     * Finds the buckets of the months in [from, to], both inclusive.
+     *
+     * @param from first month, as ISO year-month
+     * @param to last month, as ISO year-month
+     * @return the buckets of those months
+     */
+    @Query("{ 'month': { '$gte': ?0, '$lte': ?1 } }")
+    List<StatsBucket> findByMonthRange(String from, String to);
+}
@@ -0,0 +1,39 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Criteria and projection of a transaction list query.
+ * Every property is optional; an empty filter matches all transactions with all fields, in natural order.
+ */
+@Value
+@Builder
+public class TransactionFilter {
+
+    String walletId;
+
+    Transaction.TransactionType type;
+
+    String category;
+
+    LocalDate startDate;
+
+    LocalDate endDate;
+
+    @Builder.Default
+    Set<TransactionField> fields = Collections.emptySet();
+
+    @Builder.Default
+    Sort sort = Sort.unsorted();
+
+    // maximum number of transactions returned, null for no limit
+    Integer limit;
+}
@@ -0,0 +1,94 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.TransactionField;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Translates a {@link TransactionFilter} into a MongoDB query.
+ */
+public final class TransactionQueries {
+
+    /**
+     * Properties a list can be sorted by; each is the second key of a {@code (type, ...)} compound index.
+     */
+    public static final Set<String> SORTABLE = Set.of(TransactionField.AMOUNT.getProperty(),
+            TransactionField.DATE.getProperty());
+
+    private TransactionQueries() {
+    }
+
+    /**
+     * Builds the query for a filter.
+     * Date bounds are inclusive days: startDate from midnight, endDate up to the next midnight (exclusive).
+     * When the ID is not requested it is excluded from the projection, so that a query whose
+     * fields are all part of an index can be answered from the index alone.
+     * With a type, a sort on amount or date walks the matching compound index, so a limited query reads
+     * only the documents it returns. With a wallet, the {@code (walletId, ...)} indexes play the same role and
+     * the query is routed to a single shard.
+     *
+     * @param filter criteria and projection
+     * @return the query
+     */
+    public static Query toQuery(TransactionFilter filter) {
+        Query query = new Query();
+        if (filter.getWalletId() != null) {
+            query.addCriteria(Criteria.where("walletId").is(filter.getWalletId()));
+        }
+        if (filter.getType() != null) {
+            query.addCriteria(Criteria.where("type").is(filter.getType()));
+        }
+        if (filter.getCategory() != null) {
+            query.addCriteria(Criteria.where("category").is(filter.getCategory()));
+        }
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            Criteria date = Criteria.where("date");
+            if (filter.getStartDate() != null) {
+                date.gte(filter.getStartDate().atStartOfDay());
+            }
+            if (filter.getEndDate() != null) {
+                date.lt(filter.getEndDate().plusDays(1).atStartOfDay());
+            }
+            query.addCriteria(date);
+        }
+        if (!filter.getFields().isEmpty()) {
+            filter.getFields().forEach(field -> query.fields().include(field.getProperty()));
+            if (!filter.getFields().contains(TransactionField.ID)) {
+                query.fields().exclude(TransactionField.ID.getProperty());
+            }
+        }
+        query.with(filter.getSort());
+        if (filter.getLimit() != null) {
+            query.limit(filter.getLimit());
+        }
+        return query;
+    }
+
+    /**
+     * Parses a sort such as {@code amount,desc}: a sortable property, optionally followed by {@code asc}
+     * (the default) or {@code desc}.
+     *
+     * @param sort sort expression, null or blank for natural order
+     * @return the sort
+     * @throws IllegalArgumentException if the property is not sortable or the direction is unknown
+     */
+    public static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.unsorted();
+        }
+        String[] parts = sort.split(",", -1);
+        String property = parts[0].trim().toLowerCase(Locale.ROOT);
+        if (!SORTABLE.contains(property) || parts.length > 2) {
+            throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+        Sort.Direction direction = parts.length == 1
+                ? Sort.Direction.ASC
+                : Sort.Direction.fromOptionalString(parts[1].trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Unsupported sort direction: " + sort));
+        return Sort.by(direction, property);
+    }
+}
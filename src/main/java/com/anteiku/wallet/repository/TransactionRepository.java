@@ -1,9 +1,12 @@
 package com.anteiku.wallet.repository;
 
 import com.anteiku.wallet.model.Transaction;
+import org.springframework.data.mongodb.repository.DeleteQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -11,9 +14,29 @@ import java.util.List;
  * Provides database operations for transaction management.
  */
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
 
     List<Transaction> findByType(Transaction.TransactionType type);
 
     List<Transaction> findByCategory(String category);
-}
\ No newline at end of file
+
+    List<Transaction> findByCategoryId(Integer categoryId);
+
+    /**
+     * Deletes the given transactions with a single deleteMany command.
+     *
+     * @param ids transaction IDs
+     * @return number of deleted transactions
+     */
+    long deleteByIdIn(Collection<String> ids);
+
+    /**
+     * Deletes every transaction dated in [from, to) with a single deleteMany command.
+     *
+     * @param from inclusive lower bound
+     * @param to exclusive upper bound
+     * @return number of deleted transactions
+     */
+    @DeleteQuery("{ 'date': { '$gte': ?0, '$lt': ?1 } }")
+    long deleteByDateRange(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,177 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository operations for Transaction entity.
+ * Each method maps to a single MongoDB command, so the caller learns whether the
+ * document existed without issuing a separate read.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Removes a transaction with a single findAndModify command.
+     *
+     * @param id transaction ID
+     * @return the removed transaction, empty if no document matched
+     */
+    Optional<Transaction> findAndDeleteById(String id);
+
+    /**
+     * Replaces a transaction with a single findAndModify command. Only a transaction of the replacement's
+     * wallet matches, so a transaction cannot be moved to another wallet. A replacement without a wallet keeps
+     * the wallet of the stored transaction, read first.
+     *
+     * @param id transaction ID
+     * @param replacement new content for the transaction
+     * @return the transaction as it was before the replacement, empty if no document matched
+     */
+    Optional<Transaction> findAndReplaceById(String id, Transaction replacement);
+
+    /**
+     * Runs a filtered query, projecting only the selected fields.
+     *
+     * @param filter criteria and projection
+     * @return matching transactions, with unselected fields left null
+     */
+    List<Transaction> findFiltered(TransactionFilter filter);
+
+    /**
+     * Streams a filtered query from a server-side cursor instead of materializing the result.
+     * The caller must close the stream.
+     *
+     * @param filter criteria and projection
+     * @return matching transactions, with unselected fields left null
+     */
+    Stream<Transaction> streamFiltered(TransactionFilter filter);
+
+    /**
+     * Inserts transactions with a single unordered insertMany, skipping those whose fingerprint is already
+     * stored instead of failing the whole batch. IDs are assigned before the insert.
+     *
+     * @param transactions transactions to insert
+     * @return the transactions actually inserted
+     */
+    List<Transaction> insertIgnoringDuplicates(List<Transaction> transactions);
+
+    /**
+     * Finds which of the given fingerprints are already stored in a wallet, with a single $in query answered
+     * from the wallet fingerprint index.
+     *
+     * @param walletId wallet the fingerprints belong to
+     * @param fingerprints fingerprints to check
+     * @return the stored ones
+     */
+    Set<String> findExistingFingerprints(String walletId, Collection<String> fingerprints);
+
+    /**
+     * Streams every stored fingerprint, of every wallet, in the order of the wallet fingerprint index.
+     * The caller must close the stream.
+     *
+     * @return stored fingerprints
+     */
+    Stream<String> streamFingerprints();
+
+    /**
+     * Streams the transactions whose ObjectId was generated at or after an instant, read from the ID index, with
+     * only their ID, category, description and fingerprint. ObjectIds carry the clock of the replica that
+     * generated them, so callers replay a window before the instant they need. Transactions with IDs that are
+     * not ObjectIds, which the application never generates, are not streamed. The caller must close the stream.
+     *
+     * @param since earliest generation time, null to stream all transactions
+     * @return transactions generated since the instant
+     */
+    Stream<Transaction> streamInsertedSince(Instant since);
+
+    /**
+     * Runs a full-text search on description and category, best matches first.
+     *
+     * @param text words to search, in MongoDB text search syntax
+     * @param skip matches to skip
+     * @param limit maximum number of matches
+     * @return matching transactions
+     */
+    List<Transaction> search(String text, int skip, int limit);
+
+    /**
+     * Lists the distinct category names of the transactions stored before the category dictionary, which
+     * carry no category ID.
+     *
+     * @return category names as stored
+     */
+    List<String> findCategoriesWithoutId();
+
+    /**
+     * Links the transactions stored under a category name and without a category ID to a dictionary entry,
+     * rewriting the name to its canonical spelling, with a single updateMany.
+     *
+     * @param storedName category name as stored
+     * @param category dictionary entry
+     * @return number of updated transactions
+     */
+    long assignCategory(String storedName, Category category);
+
+    /**
+     * Converts the amounts stored as strings, as written before amounts were mapped to Decimal128, with a
+     * single pipeline updateMany.
+     *
+     * @return number of converted transactions
+     */
+    long convertStringAmounts();
+
+    /**
+     * Moves the transactions stored before wallets existed to the default wallet, with a single updateMany.
+     *
+     * @return number of updated transactions
+     */
+    long assignDefaultWallet();
+
+    /**
+     * Sums the amounts of every transaction by type and currency with a single $group aggregation, so the
+     * caller converts one total per currency rather than every transaction.
+     *
+     * @return one total per type and currency
+     */
+    List<CurrencyTotal> sumByTypeAndCurrency();
+
+    /**
+     * Sum of the amounts of one type in one currency.
+     *
+     * @param type transaction type
+     * @param currency ISO 4217 code, the default currency for transactions stored without one
+     * @param total sum of the amounts
+     */
+    record CurrencyTotal(Transaction.TransactionType type, String currency, BigDecimal total) {
+    }
+
+    /**
+     * Sums the amounts of the transactions of one wallet, or of every wallet, by wallet, type and currency with
+     * a single {@code $group} aggregation, counting them as well. Transactions without an amount are skipped.
+     *
+     * @param walletId wallet ID, null for every wallet
+     * @return one total per wallet, type and currency
+     */
+    List<WalletTotal> sumByWallet(String walletId);
+
+    /**
+     * Sum and count of the amounts of one type in one currency of a wallet.
+     *
+     * @param walletId wallet ID, the default wallet for transactions stored without one
+     * @param type     transaction type
+     * @param currency currency of the amounts, the default currency for transactions stored without one
+     * @param total    sum of the amounts
+     * @param count    number of transactions
+     */
+    record WalletTotal(String walletId, Transaction.TransactionType type, String currency, BigDecimal total,
+                       long count) {
+    }
+}
@@ -0,0 +1,228 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link TransactionRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String CATEGORY = "category";
+    private static final String AMOUNT = "amount";
+    private static final String CATEGORY_ID = "categoryId";
+    private static final String WALLET_ID = "walletId";
+    private static final String CURRENCY = "currency";
+    private static final String TYPE = "type";
+    private static final String TOTAL = "total";
+    private static final String COUNT = "count";
+    private static final String ID = "id";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Transaction> findAndDeleteById(String id) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(byId(id), Transaction.class));
+    }
+
+    @Override
+    public Optional<Transaction> findAndReplaceById(String id, Transaction replacement) {
+        replacement.setId(id);
+        if (replacement.getWalletId() == null) {
+            Query stored = byId(id);
+            stored.fields().include(WALLET_ID);
+            Transaction current = mongoTemplate.findOne(stored, Transaction.class);
+            if (current == null) {
+                return Optional.empty();
+            }
+            replacement.setWalletId(current.getWalletId());
+        }
+        Query query = byId(id).addCriteria(where(WALLET_ID).is(replacement.getWalletId()));
+        return Optional.ofNullable(mongoTemplate.findAndReplace(query, replacement));
+    }
+
+    @Override
+    public List<Transaction> findFiltered(TransactionFilter filter) {
+        List<Transaction> found = mongoTemplate.find(TransactionQueries.toQuery(filter), Transaction.class);
+        found.forEach(t -> TransactionField.retainOnly(t, filter.getFields()));
+        return found;
+    }
+
+    @Override
+    public Stream<Transaction> streamFiltered(TransactionFilter filter) {
+        return mongoTemplate.stream(TransactionQueries.toQuery(filter), Transaction.class)
+                .map(t -> TransactionField.retainOnly(t, filter.getFields()));
+    }
+
+    @Override
+    public List<Transaction> insertIgnoringDuplicates(List<Transaction> transactions) {
+        transactions.stream()
+                .filter(t -> t.getId() == null)
+                .forEach(t -> t.setId(new ObjectId().toHexString()));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                    .insert(transactions)
+                    .execute();
+            return transactions;
+        } catch (BulkOperationException ex) {
+            Set<Integer> rejected = new HashSet<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw ex;
+                }
+                rejected.add(error.getIndex());
+            }
+            List<Transaction> inserted = new ArrayList<>(transactions.size() - rejected.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                if (!rejected.contains(i)) {
+                    inserted.add(transactions.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    @Override
+    public Set<String> findExistingFingerprints(String walletId, Collection<String> fingerprints) {
+        Query query = Query.query(where(WALLET_ID).is(walletId).and(FINGERPRINT).in(fingerprints));
+        query.fields().include(FINGERPRINT).exclude(ID);
+        return mongoTemplate.find(query, Transaction.class).stream()
+                .map(Transaction::getFingerprint)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public Stream<String> streamFingerprints() {
+        // sorted by the index keys, so that the partial wallet_fingerprint index can serve the scan
+        Query query = Query.query(where(FINGERPRINT).exists(true))
+                .with(Sort.by(WALLET_ID, FINGERPRINT));
+        query.fields().include(FINGERPRINT).exclude(ID);
+        return mongoTemplate.stream(query, Transaction.class).map(Transaction::getFingerprint);
+    }
+
+    @Override
+    public Stream<Transaction> streamInsertedSince(Instant since) {
+        Query query = since == null ? new Query()
+                : Query.query(where(ID).gte(ObjectId.getSmallestWithDate(Date.from(since))));
+        query.fields().include(ID, CATEGORY, "description", FINGERPRINT);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    @Override
+    public List<Transaction> search(String text, int skip, int limit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip(skip)
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public List<String> findCategoriesWithoutId() {
+        return mongoTemplate.findDistinct(Query.query(where(CATEGORY_ID).exists(false)), CATEGORY,
+                Transaction.class, String.class);
+    }
+
+    @Override
+    public long assignCategory(String storedName, Category category) {
+        Query query = Query.query(where(CATEGORY).is(storedName).and(CATEGORY_ID).exists(false));
+        Update update = new Update().set(CATEGORY, category.getName()).set(CATEGORY_ID, category.getId());
+        return mongoTemplate.updateMulti(query, update, Transaction.class).getModifiedCount();
+    }
+
+    @Override
+    public long convertStringAmounts() {
+        // sent through the driver: the query mapper would convert the operands to Decimal128 like the field
+        Document stringAmount = new Document(AMOUNT, new Document("$type", "string"));
+        Document toDecimal = new Document("$set", new Document(AMOUNT, new Document("$toDecimal", "$" + AMOUNT)));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                .updateMany(stringAmount, List.of(toDecimal))
+                .getModifiedCount();
+    }
+
+    @Override
+    public long assignDefaultWallet() {
+        Query query = Query.query(where(WALLET_ID).exists(false));
+        return mongoTemplate.updateMulti(query, Update.update(WALLET_ID, Transaction.DEFAULT_WALLET), Transaction.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public List<CurrencyTotal> sumByTypeAndCurrency() {
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.group(TYPE, CURRENCY).sum(AMOUNT).as(TOTAL));
+        return mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).getMappedResults().stream()
+                .map(TransactionRepositoryImpl::toCurrencyTotal)
+                .toList();
+    }
+
+    @Override
+    public List<WalletTotal> sumByWallet(String walletId) {
+        Criteria criteria = where(AMOUNT).ne(null);
+        if (walletId != null) {
+            criteria = criteria.and(WALLET_ID).is(walletId);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(criteria),
+                Aggregation.group(WALLET_ID, TYPE, CURRENCY).sum(AMOUNT).as(TOTAL).count().as(COUNT));
+        return mongoTemplate.aggregate(aggregation, Transaction.class, Document.class).getMappedResults().stream()
+                .map(TransactionRepositoryImpl::toWalletTotal)
+                .toList();
+    }
+
+    private static CurrencyTotal toCurrencyTotal(Document group) {
+        Document key = group.get("_id", Document.class);
+        String currency = key.getString(CURRENCY);
+        return new CurrencyTotal(Transaction.TransactionType.valueOf(key.getString(TYPE)),
+                currency == null ? Transaction.DEFAULT_CURRENCY : currency, toDecimal(group.get(TOTAL)));
+    }
+
+    private static WalletTotal toWalletTotal(Document group) {
+        Document key = group.get("_id", Document.class);
+        String wallet = key.getString(WALLET_ID);
+        String currency = key.getString(CURRENCY);
+        return new WalletTotal(wallet == null ? Transaction.DEFAULT_WALLET : wallet,
+                Transaction.TransactionType.valueOf(key.getString(TYPE)),
+                currency == null ? Transaction.DEFAULT_CURRENCY : currency, toDecimal(group.get(TOTAL)),
+                ((Number) group.get(COUNT)).longValue());
+    }
+
+    private static BigDecimal toDecimal(Object total) {
+        return total instanceof Decimal128 decimal ? decimal.bigDecimalValue() : new BigDecimal(total.toString());
+    }
+
+    private static Query byId(String id) {
+        return Query.query(where(ID).is(id));
+    }
+}
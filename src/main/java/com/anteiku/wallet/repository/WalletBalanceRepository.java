@@ -0,0 +1,21 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.WalletBalance;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository of the per-wallet running totals.
+ */
+@Repository
+public interface WalletBalanceRepository extends MongoRepository<WalletBalance, String>,
+        WalletBalanceRepositoryCustom {
+
+    /**
+     * Tells whether any wallet still has totals written before they were kept per currency.
+     *
+     * @param exists false to look for wallets without per-currency totals
+     * @return true if there is at least one
+     */
+    boolean existsByCurrenciesExists(boolean exists);
+}
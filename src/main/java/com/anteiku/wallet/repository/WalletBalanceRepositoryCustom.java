@@ -0,0 +1,29 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.WalletBalance;
+
+import java.util.Collection;
+
+/**
+ * Wallet total operations that need MongoTemplate.
+ */
+public interface WalletBalanceRepositoryCustom {
+
+    /**
+     * Adds changes to the totals of several wallets with a single unordered bulk of {@code $inc} upserts,
+     * incrementing the ledger version of each.
+     *
+     * @param deltas changes of income and expense per currency and of count, one per wallet
+     */
+    void applyDeltas(Collection<WalletBalance> deltas);
+
+    /**
+     * Replaces the totals of a wallet only while they are still at the version they were read at, so an
+     * {@code $inc} applied in the meantime is never overwritten.
+     *
+     * @param balance         new totals, with the version they are stored at
+     * @param expectedVersion version read before the totals were computed, null if the wallet had no totals
+     * @return true if the totals were replaced, false if another write changed them first
+     */
+    boolean replaceIfVersion(WalletBalance balance, Long expectedVersion);
+}
@@ -0,0 +1,55 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.WalletBalance;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoTemplate based implementation of {@link WalletBalanceRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class WalletBalanceRepositoryImpl implements WalletBalanceRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void applyDeltas(Collection<WalletBalance> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WalletBalance.class);
+        for (WalletBalance delta : deltas) {
+            Update update = new Update()
+                    .inc("count", delta.getCount())
+                    .inc("version", 1);
+            delta.getCurrencies().forEach((currency, totals) -> update
+                    .inc("currencies." + currency + ".income", new Decimal128(totals.getIncome()))
+                    .inc("currencies." + currency + ".expense", new Decimal128(totals.getExpense())));
+            bulk.upsert(Query.query(where("id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public boolean replaceIfVersion(WalletBalance balance, Long expectedVersion) {
+        if (expectedVersion == null) {
+            try {
+                mongoTemplate.insert(balance);
+                return true;
+            } catch (DuplicateKeyException ex) {
+                return false;
+            }
+        }
+        Query query = Query.query(where("id").is(balance.getId()).and("version").is(expectedVersion));
+        return mongoTemplate.replace(query, balance).getMatchedCount() == 1;
+    }
+}
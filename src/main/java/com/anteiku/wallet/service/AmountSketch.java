@@ -0,0 +1,97 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.AmountStats;
+import com.anteiku.wallet.model.StatsBucket;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable summary of a set of amounts: exact count, sum, minimum and maximum plus a t-digest for
+ * percentiles. Not thread-safe.
+ */
+final class AmountSketch {
+
+    // centroids kept by the digest; 100 gives quantile errors well under 1% in a few KB
+    static final double COMPRESSION = 100;
+
+    private static final int SCALE = 2;
+
+    private final TDigest digest;
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private BigDecimal min;
+    private BigDecimal max;
+
+    AmountSketch() {
+        this(TDigest.createMergingDigest(COMPRESSION));
+    }
+
+    private AmountSketch(TDigest digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Restores the sketch stored in a bucket.
+     */
+    static AmountSketch of(StatsBucket bucket) {
+        if (bucket.getDigest() == null || bucket.getCount() == 0) {
+            return new AmountSketch();
+        }
+        AmountSketch sketch = new AmountSketch(MergingDigest.fromBytes(ByteBuffer.wrap(bucket.getDigest())));
+        sketch.count = bucket.getCount();
+        sketch.sum = bucket.getSum();
+        sketch.min = bucket.getMin();
+        sketch.max = bucket.getMax();
+        return sketch;
+    }
+
+    void add(BigDecimal amount) {
+        digest.add(amount.doubleValue());
+        count++;
+        sum = sum.add(amount);
+        min = min == null || amount.compareTo(min) < 0 ? amount : min;
+        max = max == null || amount.compareTo(max) > 0 ? amount : max;
+    }
+
+    void merge(AmountSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        digest.add(other.digest);
+        count += other.count;
+        sum = sum.add(other.sum);
+        min = min == null || other.min.compareTo(min) < 0 ? other.min : min;
+        max = max == null || other.max.compareTo(max) > 0 ? other.max : max;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Stores the sketch in a bucket, with the digest in its compact encoding.
+     */
+    void writeTo(StatsBucket bucket) {
+        ByteBuffer bytes = ByteBuffer.allocate(digest.smallByteSize());
+        digest.asSmallBytes(bytes);
+        bucket.setDigest(bytes.array());
+        bucket.setCount(count);
+        bucket.setSum(sum);
+        bucket.setMin(min);
+        bucket.setMax(max);
+    }
+
+    AmountStats toStats() {
+        return new AmountStats(count, sum,
+                sum.divide(BigDecimal.valueOf(count), SCALE, RoundingMode.HALF_EVEN),
+                min, max, quantile(0.5), quantile(0.9), quantile(0.99));
+    }
+
+    private BigDecimal quantile(double q) {
+        return BigDecimal.valueOf(digest.quantile(q)).setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,565 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.BudgetStatus;
+import com.anteiku.wallet.model.Budget;
+import com.anteiku.wallet.model.BudgetSpend;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.BudgetRepository;
+import com.anteiku.wallet.repository.BudgetSpendRepository;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.SchedulerLeaseRepository;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Spending budgets per category.
+ * The spending of every category and month is kept in memory in a {@link LongAdder} of cents, updated from
+ * the {@link TransactionsChangedEvent}s of every write, so budget status never aggregates the transactions.
+ * After each write the budgets of the affected categories are evaluated, and a
+ * {@link BudgetThresholdCrossedEvent} is published for every alert threshold the spending has just reached, by
+ * the one replica that records the alert first in the spending row of the period.
+ * Spending is counted per currency, and converted to the base currency of the exchange rates, the currency
+ * of the budget limits, whenever a budget is evaluated.
+ * The persisted spending is never incremented: the periodic flush counts every category and month changed
+ * since the previous one again from its expenses and stores the total, so replicas writing the same month
+ * agree and a count can be repeated. Every flush then reads back the persisted totals of the budget categories
+ * in the current periods, so the counters of each replica include the spending written through the others.
+ * At startup the persisted totals are loaded and the current month, whose last changes a crash may have lost,
+ * is counted again; on the first start the expenses are scanned and only the replica holding the seed lease
+ * stores them. Write events received while the spending is loaded are held, and their months counted again
+ * once the load completes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BudgetService {
+
+    static final String SEED_LEASE = "budget-spend-seed";
+    static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final int SCALE = 2;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final Duration SEED_LEASE_DURATION = Duration.ofMinutes(10);
+
+    private final BudgetRepository budgetRepository;
+    private final BudgetSpendRepository spendRepository;
+    private final TransactionRepository transactionRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRateService fxRateService;
+    private final SchedulerLeaseRepository leaseRepository;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final ConcurrentMap<SpendKey, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Budget> budgets = new ConcurrentHashMap<>();
+
+    // budget ID, period label and threshold of every alert this replica saw reached
+    private final Set<String> crossed = ConcurrentHashMap.newKeySet();
+
+    // write events received during the startup load, null when no load is running
+    private final Object loading = new Object();
+    private List<Object> heldEvents;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        holdEvents();
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Holds the write events until the next {@link #load()} completes.
+     */
+    void holdEvents() {
+        synchronized (loading) {
+            heldEvents = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Loads the budgets and the persisted spending, counting the current month again from its expenses.
+     * On the first start the spending is computed from all the stored expenses. Thresholds already reached
+     * are marked without raising events again.
+     */
+    public void load() {
+        try {
+            budgetRepository.findAll().forEach(budget -> budgets.put(budget.getId(), budget));
+            List<BudgetSpend> persisted = spendRepository.findAll();
+            YearMonth current = YearMonth.now();
+            if (persisted.isEmpty()) {
+                seed();
+            } else {
+                persisted.forEach(this::restore);
+                recount(current, current, null);
+            }
+            budgets.values().forEach(budget -> evaluate(budget, current, false));
+            log.info("Loaded {} budgets and {} spending counters", budgets.size(), counters.size());
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the budgets: {}", ex.getMessage());
+        } finally {
+            releaseEvents();
+            ready = true;
+        }
+    }
+
+    /**
+     * Counts the spending of all the stored expenses. Every replica starting together scans them for its own
+     * counters, but only the one that takes the seed lease stores the totals.
+     */
+    private void seed() {
+        readExpenses(null, null, null, (key, cents) -> counter(key).cents.add(cents));
+        if (leaseRepository.tryAcquire(SEED_LEASE, owner, Instant.now(), SEED_LEASE_DURATION)) {
+            counters.forEach((key, counter) -> spendRepository.setCents(key.month().toString(), key.category(),
+                    key.currency(), counter.cents.sum()));
+            log.info("Stored {} budget spending counters computed from the expenses", counters.size());
+        }
+    }
+
+    private void restore(BudgetSpend spend) {
+        SpendKey key = new SpendKey(spend.getCategory(), YearMonth.parse(spend.getMonth()),
+                currencyOf(spend.getCurrency()));
+        Counter counter = counter(key);
+        counter.cents.add(spend.getCents());
+        if (spend.getCurrency() == null) {
+            // saved before currencies: move it to the row of the default currency, which stores the total
+            spendRepository.setCents(spend.getMonth(), spend.getCategory(), key.currency(), counter.cents.sum());
+            spendRepository.deleteById(spend.getId());
+        }
+    }
+
+    /**
+     * Tells whether the startup load is over, even if it failed.
+     *
+     * @return true once the instance can take traffic
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Counts again the months touched by the events held during the load, since the load may already have
+     * read their writes.
+     */
+    private void releaseEvents() {
+        while (true) {
+            List<Object> held;
+            synchronized (loading) {
+                if (heldEvents == null || heldEvents.isEmpty()) {
+                    heldEvents = null;
+                    return;
+                }
+                held = heldEvents;
+                heldEvents = new ArrayList<>();
+            }
+            for (Object event : held) {
+                if (event instanceof TransactionsChangedEvent changed) {
+                    Stream.concat(changed.removed().stream(), changed.added().stream())
+                            .filter(transaction -> transaction.getDate() != null)
+                            .map(transaction -> YearMonth.from(transaction.getDate()))
+                            .distinct()
+                            .forEach(month -> recountAndEvaluate(month, month));
+                } else if (event instanceof TransactionsPurgedEvent purged) {
+                    recountAndEvaluate(YearMonth.from(purged.startDate()), YearMonth.from(purged.endDate()));
+                }
+            }
+        }
+    }
+
+    private boolean hold(Object event) {
+        synchronized (loading) {
+            if (heldEvents == null) {
+                return false;
+            }
+            heldEvents.add(event);
+            return true;
+        }
+    }
+
+    /**
+     * Creates a budget for a category, resolved through the category dictionary.
+     *
+     * @param budget budget to create
+     * @return the saved budget
+     */
+    public Budget createBudget(Budget budget) {
+        budget.setId(null);
+        budget.setCategory(categoryDictionary.resolve(budget.getCategory()).getName());
+        Budget saved = budgetRepository.save(budget);
+        budgets.put(saved.getId(), saved);
+        evaluate(saved, YearMonth.now(), false);
+        return saved;
+    }
+
+    /**
+     * Returns every budget, by category.
+     *
+     * @return all budgets
+     */
+    public List<Budget> getBudgets() {
+        return budgets.values().stream().sorted(Comparator.comparing(Budget::getCategory)).toList();
+    }
+
+    /**
+     * Deletes a budget.
+     *
+     * @param id budget ID
+     * @return the deleted budget, empty if it did not exist
+     */
+    public Optional<Budget> deleteBudget(String id) {
+        Optional<Budget> found = budgetRepository.findById(id);
+        found.ifPresent(budget -> {
+            budgetRepository.deleteById(id);
+            budgets.remove(id);
+            crossed.removeIf(alert -> alert.startsWith(id + "|"));
+        });
+        return found;
+    }
+
+    /**
+     * Returns the spending of every budget in the period containing a month, from the in-memory counters.
+     *
+     * @param month month within the periods
+     * @return status of every budget, by category
+     */
+    public List<BudgetStatus> getStatus(YearMonth month) {
+        return getBudgets().stream().map(budget -> status(budget, month)).toList();
+    }
+
+    @EventListener
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        if (!hold(event)) {
+            apply(event);
+        }
+    }
+
+    @EventListener
+    void onTransactionsPurged(TransactionsPurgedEvent event) {
+        if (!hold(event)) {
+            recountAndEvaluate(YearMonth.from(event.startDate()), YearMonth.from(event.endDate()));
+        }
+    }
+
+    private void apply(TransactionsChangedEvent event) {
+        Map<SpendKey, Long> deltas = new HashMap<>();
+        event.removed().forEach(transaction -> addExpense(deltas, transaction, -1));
+        event.added().forEach(transaction -> addExpense(deltas, transaction, 1));
+        deltas.forEach((key, cents) -> {
+            Counter counter = counter(key);
+            counter.cents.add(cents);
+            counter.dirty.set(true);
+        });
+        evaluate(deltas.keySet());
+    }
+
+    private void recountAndEvaluate(YearMonth first, YearMonth last) {
+        try {
+            evaluate(recount(first, last, null));
+        } catch (RuntimeException ex) {
+            log.warn("Could not update the budget spending: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Counts the spending of the months in [first, last] again from the stored expenses, and stores the totals.
+     *
+     * @param category category to count, null for all
+     * @return the keys counted
+     */
+    private Set<SpendKey> recount(YearMonth first, YearMonth last, String category) {
+        Map<SpendKey, Long> totals = new HashMap<>();
+        readExpenses(first.atDay(1), last.atEndOfMonth(), category,
+                (key, cents) -> totals.merge(key, cents, Long::sum));
+        Set<SpendKey> recounted = new HashSet<>(totals.keySet());
+        counters.keySet().stream()
+                .filter(key -> !key.month().isBefore(first) && !key.month().isAfter(last))
+                .filter(key -> category == null || key.category().equals(category))
+                .forEach(recounted::add);
+        for (SpendKey key : recounted) {
+            long cents = totals.getOrDefault(key, 0L);
+            spendRepository.setCents(key.month().toString(), key.category(), key.currency(), cents);
+            Counter counter = counter(key);
+            counter.cents.add(cents - counter.cents.sum());
+        }
+        return recounted;
+    }
+
+    /**
+     * Counts again and stores the spending of every category and month changed since the previous flush, then
+     * reads the persisted totals back to include the spending stored by the other replicas. Skipped while the
+     * spending is still being loaded.
+     */
+    @Scheduled(fixedDelayString = "${wallet.budgets.flush-interval:PT30S}")
+    public synchronized void flush() {
+        if (persist()) {
+            refresh();
+        }
+    }
+
+    private synchronized boolean persist() {
+        synchronized (loading) {
+            if (heldEvents != null) {
+                return false;
+            }
+        }
+        Map<YearMonth, Set<String>> changed = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            if (counter.dirty.getAndSet(false)) {
+                changed.computeIfAbsent(key.month(), month -> new HashSet<>()).add(key.category());
+            }
+        });
+        try {
+            changed.forEach((month, categories) -> categories.forEach(category -> recount(month, month, category)));
+        } catch (RuntimeException ex) {
+            // count them again at the next flush
+            changed.forEach((month, categories) -> counters.forEach((key, counter) -> {
+                if (key.month().equals(month) && categories.contains(key.category())) {
+                    counter.dirty.set(true);
+                }
+            }));
+            log.warn("Could not persist the budget spending: {}", ex.getMessage());
+            return false;
+        }
+        if (!changed.isEmpty()) {
+            log.debug("Persisted the budget spending of {} months", changed.size());
+        }
+        return true;
+    }
+
+    /**
+     * Sets the counters of the budget categories in the current periods, unless they have unpersisted changes,
+     * to the persisted total, which includes the spending written through the other replicas, and evaluates
+     * the budgets whose spending changed.
+     */
+    private void refresh() {
+        YearMonth current = YearMonth.now();
+        Set<String> months = new HashSet<>();
+        Set<String> categories = new HashSet<>();
+        budgets.values().forEach(budget -> {
+            budget.getPeriod().months(current).forEach(month -> months.add(month.toString()));
+            categories.add(budget.getCategory());
+        });
+        if (categories.isEmpty()) {
+            return;
+        }
+        Map<SpendKey, Long> persisted = new HashMap<>();
+        try {
+            for (BudgetSpend spend : spendRepository.findByMonthInAndCategoryIn(months, categories)) {
+                persisted.merge(new SpendKey(spend.getCategory(), YearMonth.parse(spend.getMonth()),
+                        currencyOf(spend.getCurrency())), spend.getCents(), Long::sum);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not read the budget spending: {}", ex.getMessage());
+            return;
+        }
+        Set<SpendKey> changed = new HashSet<>();
+        persisted.forEach((key, cents) -> {
+            Counter counter = counter(key);
+            long others = cents - counter.cents.sum();
+            if (others != 0 && !counter.dirty.get()) {
+                counter.cents.add(others);
+                changed.add(key);
+            }
+        });
+        evaluate(changed);
+    }
+
+    /**
+     * Stores the changed spending without reading back the other replicas, within {@link #SHUTDOWN_TIMEOUT}, so an
+     * unreachable database cannot hold up the shutdown; whatever is lost is counted again at the next start.
+     */
+    @PreDestroy
+    void onShutdown() {
+        Deadline.start(SHUTDOWN_TIMEOUT);
+        try {
+            persist();
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    private void evaluate(Set<SpendKey> changed) {
+        for (SpendKey key : changed) {
+            for (Budget budget : budgets.values()) {
+                if (budget.getCategory().equals(key.category())) {
+                    evaluate(budget, key.month(), true);
+                }
+            }
+        }
+    }
+
+    private void evaluate(Budget budget, YearMonth month, boolean publish) {
+        String period = budget.getPeriod().label(month);
+        long spent = spentCents(budget, month);
+        for (int threshold : budget.getThresholds()) {
+            String alert = budget.getId() + "|" + period + "|" + threshold;
+            if (spent >= thresholdCents(budget, threshold)) {
+                if (crossed.add(alert) && publish && claim(budget, month, alert)) {
+                    BigDecimal amount = BigDecimal.valueOf(spent, SCALE);
+                    log.info("Budget {} for {} reached {}% in {}: {}", budget.getId(), budget.getCategory(),
+                            threshold, period, amount);
+                    eventPublisher.publishEvent(new BudgetThresholdCrossedEvent(budget, period, threshold, amount));
+                }
+            } else if (crossed.remove(alert)) {
+                release(budget, month, alert);
+            }
+        }
+    }
+
+    /**
+     * Records an alert in the spending row of the period, unless another replica recorded it first.
+     *
+     * @return true if this replica raises the alert
+     */
+    private boolean claim(Budget budget, YearMonth month, String alert) {
+        SpendKey row = alertRow(budget, month);
+        try {
+            return spendRepository.addAlert(row.month().toString(), row.category(), row.currency(), alert);
+        } catch (RuntimeException ex) {
+            // evaluated again at the next change
+            crossed.remove(alert);
+            log.warn("Could not record the budget alert {}: {}", alert, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void release(Budget budget, YearMonth month, String alert) {
+        SpendKey row = alertRow(budget, month);
+        try {
+            spendRepository.removeAlert(row.month().toString(), row.category(), row.currency(), alert);
+        } catch (RuntimeException ex) {
+            log.warn("Could not clear the budget alert {}: {}", alert, ex.getMessage());
+        }
+    }
+
+    // alerts are kept in the row of the first month of the period, in the currency of the limits
+    private SpendKey alertRow(Budget budget, YearMonth month) {
+        return new SpendKey(budget.getCategory(), budget.getPeriod().months(month).get(0),
+                fxRateService.current().baseCurrency());
+    }
+
+    private BudgetStatus status(Budget budget, YearMonth month) {
+        long spent = spentCents(budget, month);
+        BigDecimal spentAmount = BigDecimal.valueOf(spent, SCALE);
+        List<Integer> reached = new ArrayList<>();
+        for (int threshold : budget.getThresholds()) {
+            if (spent >= thresholdCents(budget, threshold)) {
+                reached.add(threshold);
+            }
+        }
+        return new BudgetStatus(budget.getId(), budget.getCategory(), budget.getPeriod(),
+                budget.getPeriod().label(month), budget.getLimit(), spentAmount,
+                budget.getLimit().subtract(spentAmount),
+                spentAmount.multiply(HUNDRED).divide(budget.getLimit(), 1, RoundingMode.HALF_EVEN),
+                reached);
+    }
+
+    private long spentCents(Budget budget, YearMonth month) {
+        FxTable fx = fxRateService.current();
+        BigDecimal spent = BigDecimal.ZERO;
+        for (YearMonth periodMonth : budget.getPeriod().months(month)) {
+            // writes are rejected in currencies without a rate, so these are all the currencies spent in
+            for (String currency : fx.rates().keySet()) {
+                Counter counter = counters.get(new SpendKey(budget.getCategory(), periodMonth, currency));
+                if (counter != null) {
+                    spent = spent.add(fx.convert(BigDecimal.valueOf(counter.cents.sum(), SCALE), currency,
+                            fx.baseCurrency()));
+                }
+            }
+        }
+        return toCents(spent);
+    }
+
+    private static long thresholdCents(Budget budget, int threshold) {
+        return toCents(budget.getLimit().multiply(BigDecimal.valueOf(threshold)).divide(HUNDRED));
+    }
+
+    private Counter counter(SpendKey key) {
+        return counters.computeIfAbsent(key, k -> new Counter());
+    }
+
+    private static void addExpense(Map<SpendKey, Long> deltas, Transaction transaction, int sign) {
+        if (transaction.getType() == Transaction.TransactionType.EXPENSE && transaction.getAmount() != null) {
+            deltas.merge(SpendKey.of(transaction), sign * toCents(transaction.getAmount()), Long::sum);
+        }
+    }
+
+    private void readExpenses(LocalDate from, LocalDate to, String category, BiConsumer<SpendKey, Long> consumer) {
+        TransactionFilter filter = TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .category(category)
+                .startDate(from)
+                .endDate(to)
+                .fields(EnumSet.of(TransactionField.AMOUNT, TransactionField.CATEGORY, TransactionField.DATE,
+                        TransactionField.CURRENCY))
+                .build();
+        Consumer<Transaction> add = transaction -> consumer.accept(SpendKey.of(transaction),
+                toCents(transaction.getAmount()));
+        try (Stream<Transaction> stored = transactionRepository.streamFiltered(filter)) {
+            stored.filter(transaction -> transaction.getAmount() != null).forEach(add);
+        }
+    }
+
+    private static String currencyOf(String currency) {
+        return currency != null ? currency : Transaction.DEFAULT_CURRENCY;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Category, month and currency of a spending counter.
+     */
+    record SpendKey(String category, YearMonth month, String currency) {
+
+        static SpendKey of(Transaction transaction) {
+            return new SpendKey(transaction.getCategory(), YearMonth.from(transaction.getDate()),
+                    currencyOf(transaction.getCurrency()));
+        }
+    }
+
+    /**
+     * Spending of a category in a month, and whether it changed since it was last persisted.
+     */
+    private static final class Counter {
+
+        private final LongAdder cents = new LongAdder();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,17 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Budget;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link BudgetService} as soon as a write brings the spending of a budget period to one of its
+ * alert thresholds. Each threshold is reported once per period, until the spending drops below it again.
+ *
+ * @param budget the budget
+ * @param period period label, e.g. 2024-03 or 2024
+ * @param threshold crossed threshold, in percent of the limit
+ * @param spent spending of the period
+ */
+public record BudgetThresholdCrossedEvent(Budget budget, String period, int threshold, BigDecimal spent) {
+}
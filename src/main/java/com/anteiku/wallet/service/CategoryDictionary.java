@@ -0,0 +1,185 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.PrefixIndex;
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.CategoryRepository;
+import com.anteiku.wallet.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dictionary of transaction categories.
+ * Category names are normalized (trimmed, case and accents folded) so that variant spellings map to one
+ * {@link Category} with a compact ID. The whole dictionary is kept in memory: it is loaded at startup,
+ * grows as transactions with new categories are written, and answers lookups and completions without
+ * querying the database. Transactions read from the database share the dictionary's name instances, see
+ * {@link CategoryInterningCallback}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CategoryDictionary {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionCache transactionCache;
+
+    private final ConcurrentNavigableMap<String, Category> byKey = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Category> byId = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Loads the dictionary, then links the transactions stored before it existed to their entries.
+     */
+    public void load() {
+        try {
+            categoryRepository.findAll().forEach(this::remember);
+            long linked = 0;
+            for (String storedName : transactionRepository.findCategoriesWithoutId()) {
+                if (storedName != null && !storedName.isBlank()) {
+                    linked += transactionRepository.assignCategory(storedName, resolve(storedName));
+                }
+            }
+            if (linked > 0) {
+                transactionCache.clear();
+            }
+            log.info("Loaded {} categories", byId.size());
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the categories: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the dictionary entry of a category name, registering it if the name is new.
+     * Concurrent registrations of the same name, also from other instances, end up with the same entry.
+     *
+     * @param name category name in any spelling
+     * @return the dictionary entry
+     * @throws IllegalArgumentException if the name is blank
+     */
+    public Category resolve(String name) {
+        String key = key(name);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Category is required");
+        }
+        Category known = byKey.get(key);
+        if (known != null) {
+            return known;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Optional<Category> stored = categoryRepository.findByKey(key);
+            if (stored.isPresent()) {
+                return remember(stored.get());
+            }
+            int id = categoryRepository.findFirstByOrderByIdDesc().map(last -> last.getId() + 1).orElse(1);
+            try {
+                return remember(categoryRepository.insert(new Category(id, key, display(name))));
+            } catch (DuplicateKeyException ex) {
+                // another writer registered the same name or took the same ID first: look again
+            }
+        }
+        throw new IllegalStateException("Could not register category " + name);
+    }
+
+    /**
+     * Sets the category ID of a transaction and rewrites its category to the canonical spelling.
+     *
+     * @param transaction transaction about to be written
+     * @return the same transaction
+     */
+    public Transaction assign(Transaction transaction) {
+        if (transaction.getCategory() != null) {
+            Category category = resolve(transaction.getCategory());
+            transaction.setCategory(category.getName());
+            transaction.setCategoryId(category.getId());
+        }
+        return transaction;
+    }
+
+    /**
+     * Finds a category by ID.
+     *
+     * @param id category ID
+     * @return the category, empty if it does not exist
+     */
+    public Optional<Category> findById(int id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Returns every category, in alphabetical order of the normalized name.
+     *
+     * @return all categories
+     */
+    public List<Category> findAll() {
+        return new ArrayList<>(byKey.values());
+    }
+
+    /**
+     * Completes a prefix with the categories whose normalized name starts with it.
+     *
+     * @param prefix typed prefix, case and accents are ignored
+     * @param limit maximum number of categories
+     * @return matching categories in alphabetical order
+     */
+    public List<Category> complete(String prefix, int limit) {
+        String key = key(prefix);
+        return byKey.subMap(key, key + Character.MAX_VALUE).values().stream().limit(limit).toList();
+    }
+
+    /**
+     * Replaces the category name of a transaction read with its category ID by the dictionary's instance,
+     * so that a large result set holds one string per category instead of one per document.
+     *
+     * @param transaction transaction read from the database
+     * @return the same transaction
+     */
+    public Transaction intern(Transaction transaction) {
+        if (transaction.getCategory() != null && transaction.getCategoryId() != null) {
+            Category category = byId.get(transaction.getCategoryId());
+            if (category != null) {
+                transaction.setCategory(category.getName());
+            }
+        }
+        return transaction;
+    }
+
+    private Category remember(Category category) {
+        Category previous = byKey.putIfAbsent(category.getKey(), category);
+        if (previous != null) {
+            return previous;
+        }
+        byId.put(category.getId(), category);
+        return category;
+    }
+
+    static String key(String name) {
+        return PrefixIndex.normalize(display(name));
+    }
+
+    private static String display(String name) {
+        return name == null ? "" : WHITESPACE.matcher(name.trim()).replaceAll(" ");
+    }
+}
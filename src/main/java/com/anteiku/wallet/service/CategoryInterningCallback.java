@@ -0,0 +1,25 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes every transaction read from the database share the {@link CategoryDictionary}'s category names.
+ * The dictionary is looked up on first use: it depends on repositories, which in turn need the template
+ * this callback is registered with.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryInterningCallback implements AfterConvertCallback<Transaction> {
+
+    private final ObjectFactory<CategoryDictionary> categoryDictionary;
+
+    @Override
+    public Transaction onAfterConvert(Transaction entity, Document document, String collection) {
+        return categoryDictionary.getObject().intern(entity);
+    }
+}
@@ -0,0 +1,127 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.BloomFilter;
+import com.anteiku.wallet.cache.SnapshotFile;
+import com.anteiku.wallet.config.ImportProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recognizes imported transactions that are already stored.
+ * A Bloom filter of the stored fingerprints answers most rows from memory; only the rows it flags as
+ * possible duplicates are checked in the database, with one $in query per batch and wallet. The unique
+ * wallet fingerprint index remains the final guard, so a row missed here, e.g. before the filter is loaded,
+ * is still skipped at insert time. The filter is loaded at startup by {@link ReadModelSnapshotService}.
+ */
+@Slf4j
+@Component
+public class DuplicateDetector {
+
+    private final TransactionRepository transactionRepository;
+    private final BloomFilter fingerprints;
+
+    /**
+     * Creates the detector with an empty filter.
+     *
+     * @param transactionRepository where stored fingerprints are looked up
+     * @param properties filter sizing
+     */
+    public DuplicateDetector(TransactionRepository transactionRepository, ImportProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.fingerprints = new BloomFilter(properties.getDedupCapacity(), properties.getDedupFalsePositiveRate());
+    }
+
+    /**
+     * Loads the stored fingerprints into the filter, replacing its content.
+     */
+    public void load() {
+        fingerprints.clear();
+        try (Stream<String> stored = transactionRepository.streamFingerprints()) {
+            stored.forEach(fingerprint -> fingerprints.put(TransactionFingerprint.decode(fingerprint)));
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the stored fingerprints: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes the filter to a snapshot section.
+     *
+     * @param writer snapshot writer
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeSnapshot(SnapshotFile.Writer writer) throws IOException {
+        long[] words = new long[Math.toIntExact(fingerprints.bitSize() / Long.SIZE)];
+        long insertions = fingerprints.copyTo(words);
+        writer.writeInt(fingerprints.hashCount());
+        writer.writeLong(insertions);
+        writer.writeLongs(words);
+    }
+
+    /**
+     * Replaces the filter with a snapshot section.
+     *
+     * @param reader snapshot reader
+     * @throws IllegalStateException if the snapshot was taken with a different filter sizing
+     */
+    public void readSnapshot(SnapshotFile.Reader reader) {
+        int hashCount = reader.readInt();
+        long insertions = reader.readLong();
+        long[] words = reader.readLongs();
+        if (hashCount != fingerprints.hashCount() || (long) words.length * Long.SIZE != fingerprints.bitSize()) {
+            throw new IllegalStateException("The snapshot filter is sized differently");
+        }
+        fingerprints.restore(words, insertions);
+    }
+
+    /**
+     * Removes from a batch the transactions whose fingerprint is already stored.
+     *
+     * @param batch fingerprinted transactions
+     * @return the transactions not stored yet, the batch itself if there are none to remove
+     */
+    public List<Transaction> withoutDuplicates(List<Transaction> batch) {
+        Map<String, List<String>> candidates = batch.stream()
+                .filter(transaction -> fingerprints.mightContain(TransactionFingerprint.decode(
+                        transaction.getFingerprint())))
+                .collect(Collectors.groupingBy(
+                        transaction -> TransactionFingerprint.walletOf(transaction.getWalletId()),
+                        Collectors.mapping(Transaction::getFingerprint, Collectors.toList())));
+        if (candidates.isEmpty()) {
+            return batch;
+        }
+        Set<String> stored = new HashSet<>();
+        candidates.forEach((walletId, walletCandidates) ->
+                stored.addAll(transactionRepository.findExistingFingerprints(walletId, walletCandidates)));
+        if (stored.isEmpty()) {
+            return batch;
+        }
+        return batch.stream()
+                .filter(transaction -> !stored.contains(transaction.getFingerprint()))
+                .toList();
+    }
+
+    /**
+     * Adds the fingerprints of newly stored transactions to the filter.
+     * A saturated filter is emptied first, since its false positive rate would otherwise keep growing.
+     *
+     * @param stored transactions just inserted
+     */
+    public void record(Collection<Transaction> stored) {
+        if (fingerprints.isSaturated()) {
+            fingerprints.clear();
+        }
+        stored.forEach(transaction -> fingerprints.put(TransactionFingerprint.decode(transaction.getFingerprint())));
+    }
+}
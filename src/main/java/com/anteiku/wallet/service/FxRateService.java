@@ -0,0 +1,125 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.FxProperties;
+import com.anteiku.wallet.model.FxRate;
+import com.anteiku.wallet.repository.FxRateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the exchange rates as an immutable {@link FxTable} snapshot swapped atomically, so conversions never
+ * lock nor see a half-updated table. The rates come from the {@code fx_rates} collection, refreshed
+ * periodically so that every replica picks up changes, and from a local properties file until the
+ * collection has been read or when it is empty.
+ */
+@Slf4j
+@Service
+public class FxRateService {
+
+    private static final Pattern CURRENCY = Pattern.compile("[A-Z]{3}");
+
+    private final FxRateRepository fxRateRepository;
+    private final FxProperties properties;
+    private final AtomicReference<FxTable> snapshot;
+
+    /**
+     * Creates the service with the rates of the local file.
+     *
+     * @param fxRateRepository repository of the stored rates
+     * @param properties source of the rates
+     */
+    public FxRateService(FxRateRepository fxRateRepository, FxProperties properties) {
+        this.fxRateRepository = fxRateRepository;
+        this.properties = properties;
+        this.snapshot = new AtomicReference<>(new FxTable(properties.getBaseCurrency(), readFile(), Instant.now()));
+    }
+
+    /**
+     * Returns the current snapshot of the rates.
+     *
+     * @return the rates
+     */
+    public FxTable current() {
+        return snapshot.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::refresh);
+    }
+
+    /**
+     * Reloads the rates from the collection, keeping the current snapshot if it is empty or not reachable.
+     */
+    @Scheduled(fixedDelayString = "${wallet.fx.refresh-interval:PT10M}",
+            initialDelayString = "${wallet.fx.refresh-interval:PT10M}")
+    public void refresh() {
+        try {
+            List<FxRate> stored = fxRateRepository.findAll();
+            if (!stored.isEmpty()) {
+                Map<String, BigDecimal> rates = new HashMap<>();
+                stored.forEach(rate -> rates.put(rate.getId(), rate.getRate()));
+                snapshot.set(new FxTable(properties.getBaseCurrency(), rates, Instant.now()));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the exchange rates: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Replaces every stored rate and swaps in the new snapshot.
+     *
+     * @param rates units of each currency per unit of the base currency
+     * @return the new snapshot
+     * @throws IllegalArgumentException if a currency code is not valid or a rate is not positive
+     */
+    public FxTable replaceRates(Map<String, BigDecimal> rates) {
+        rates.forEach((currency, rate) -> {
+            if (!CURRENCY.matcher(currency).matches()) {
+                throw new IllegalArgumentException("Invalid currency: " + currency);
+            }
+            if (rate == null || rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate of " + currency + " must be greater than 0");
+            }
+        });
+        FxTable table = new FxTable(properties.getBaseCurrency(), rates, Instant.now());
+        fxRateRepository.deleteAll();
+        fxRateRepository.saveAll(table.rates().entrySet().stream()
+                .map(rate -> new FxRate(rate.getKey(), rate.getValue()))
+                .toList());
+        snapshot.set(table);
+        log.info("Replaced the exchange rates of {} currencies", table.rates().size());
+        return table;
+    }
+
+    private Map<String, BigDecimal> readFile() {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        if (!properties.getRatesFile().exists()) {
+            return rates;
+        }
+        Properties file = new Properties();
+        try (InputStream in = properties.getRatesFile().getInputStream()) {
+            file.load(in);
+        } catch (IOException ex) {
+            log.warn("Could not read the exchange rates file: {}", ex.getMessage());
+            return rates;
+        }
+        file.stringPropertyNames().forEach(currency -> rates.put(currency, new BigDecimal(file.getProperty(currency))));
+        return rates;
+    }
+}
@@ -0,0 +1,62 @@
+package com.anteiku.wallet.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the exchange rates, replaced as a whole when the rates change.
+ *
+ * @param baseCurrency currency the rates are quoted against
+ * @param rates units of each currency per unit of the base currency, by ISO 4217 code
+ * @param loadedAt when the snapshot was loaded
+ */
+public record FxTable(String baseCurrency, Map<String, BigDecimal> rates, Instant loadedAt) {
+
+    private static final int SCALE = 2;
+
+    /**
+     * Copies the rates into an unmodifiable sorted map and sets the base currency rate to one.
+     */
+    public FxTable {
+        TreeMap<String, BigDecimal> copy = new TreeMap<>(rates);
+        copy.put(baseCurrency, BigDecimal.ONE);
+        rates = Collections.unmodifiableSortedMap(copy);
+    }
+
+    /**
+     * Converts an amount between two currencies through the base currency, rounded to cents.
+     *
+     * @param amount amount in the source currency
+     * @param from source currency
+     * @param to target currency
+     * @return the amount in the target currency
+     * @throws IllegalArgumentException if either currency has no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        return amount.multiply(rate(to)).divide(rate(from), MathContext.DECIMAL64)
+                .setScale(SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Returns the rate of a currency.
+     *
+     * @param currency ISO 4217 code
+     * @return units of the currency per unit of the base currency
+     * @throws IllegalArgumentException if the currency has no rate
+     */
+    public BigDecimal rate(String currency) {
+        BigDecimal rate = rates.get(currency);
+        if (rate == null) {
+            throw new IllegalArgumentException("No exchange rate for " + currency);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,17 @@
+package com.anteiku.wallet.service;
+
+/**
+ * Thrown when a request reuses an idempotency key while the original request is still running, or after
+ * it failed and released the key in the meantime; the client should retry.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message reason
+     */
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.anteiku.wallet.service;
+
+/**
+ * Thrown when an idempotency key is reused with a different request body.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message reason
+     */
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
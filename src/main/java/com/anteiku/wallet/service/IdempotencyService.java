@@ -0,0 +1,195 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.LruCache;
+import com.anteiku.wallet.model.IdempotencyRecord;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Executes write operations at most once per {@code Idempotency-Key}.
+ * The first request claims the key by inserting a record, runs the operation and stores its response;
+ * retries get the stored response back without running the operation again. Completed records are also
+ * kept in an in-process LRU cache, so most retries are answered without a database round trip.
+ * Once the operation has run, its completion is stored without the request deadline and retried, since a
+ * claim left in progress would be taken over, and the operation run again, after {@code ABANDONED_AFTER}.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    /**
+     * Longest accepted key.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final Duration TTL = DurationStyle.SIMPLE.parse(IdempotencyRecord.TTL);
+    private static final Duration ABANDONED_AFTER = Duration.ofMinutes(1);
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final LruCache<String, IdempotencyRecord> completed;
+
+    /**
+     * Creates the service.
+     *
+     * @param repository store of the records
+     * @param objectMapper serializer of the stored responses
+     * @param cacheSize completed records kept in memory
+     */
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              @Value("${wallet.idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.completed = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Runs an operation unless a request with the same key already ran it.
+     * If the operation fails the key is released, so the client can retry.
+     *
+     * @param key client key, null to run the operation unconditionally
+     * @param scope endpoint the key belongs to
+     * @param requestHash hash of the request body
+     * @param responseType type of the response, to read back a stored response
+     * @param operation the operation
+     * @param <T> response type
+     * @return the response, fresh or replayed
+     * @throws IllegalArgumentException if the key is blank or too long
+     * @throws IdempotencyKeyConflictException if a request with the same key is still running
+     * @throws IdempotencyKeyMismatchException if the key was used for a different request
+     */
+    public <T> IdempotentResult<T> execute(String key, String scope, String requestHash,
+                                           TypeReference<T> responseType, Supplier<T> operation) {
+        if (key == null) {
+            return new IdempotentResult<>(operation.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + " " + key;
+        Optional<IdempotencyRecord> cached = completed.get(id).filter(IdempotencyService::isLive);
+        if (cached.isPresent()) {
+            return replay(cached.get(), requestHash, responseType);
+        }
+
+        Instant now = Instant.now();
+        if (!claim(id, requestHash, now)) {
+            IdempotencyRecord existing = repository.findById(id)
+                    .orElseThrow(() -> new IdempotencyKeyConflictException("Request with this key failed, retry"));
+            if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                completed.put(id, existing);
+                return replay(existing, requestHash, responseType);
+            }
+            checkSameRequest(existing, requestHash);
+            throw new IdempotencyKeyConflictException("Request with this key is still in progress");
+        }
+
+        T response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException ex) {
+            release(id, ex);
+            throw ex;
+        }
+        IdempotencyRecord record = new IdempotencyRecord(id, requestHash, IdempotencyRecord.Status.COMPLETED,
+                write(response), now);
+        completed.put(id, record);
+        Deadline.runWithout(() -> complete(record));
+        return new IdempotentResult<>(response, false);
+    }
+
+    /**
+     * Stores the completed record, retrying failed writes; the response is returned to the client anyway, and
+     * replayed by this instance from the cache, since the operation already ran.
+     */
+    private void complete(IdempotencyRecord record) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                repository.save(record);
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Could not store the response of {} (attempt {}): {}", record.getId(), attempt,
+                        ex.getMessage());
+            }
+        }
+        log.error("Response of {} not stored after {} attempts, the claim will be taken over after {}",
+                record.getId(), MAX_ATTEMPTS, ABANDONED_AFTER);
+    }
+
+    /**
+     * Releases the key of a failed operation, keeping the failure of the operation as the thrown exception.
+     */
+    private void release(String id, RuntimeException failure) {
+        try {
+            Deadline.runWithout(() -> repository.deleteById(id));
+        } catch (RuntimeException ex) {
+            failure.addSuppressed(ex);
+        }
+    }
+
+    /**
+     * Claims a key by inserting its record; a claim abandoned by a request that never finished is taken over.
+     */
+    private boolean claim(String id, String requestHash, Instant now) {
+        IdempotencyRecord claim = new IdempotencyRecord(id, requestHash, IdempotencyRecord.Status.IN_PROGRESS,
+                null, now);
+        try {
+            repository.insert(claim);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            if (repository.deleteByIdAndStatusAndCreatedAtBefore(id, IdempotencyRecord.Status.IN_PROGRESS,
+                    now.minus(ABANDONED_AFTER)) == 0) {
+                return false;
+            }
+        }
+        try {
+            repository.insert(claim);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    private <T> IdempotentResult<T> replay(IdempotencyRecord record, String requestHash, TypeReference<T> type) {
+        checkSameRequest(record, requestHash);
+        try {
+            return new IdempotentResult<>(objectMapper.readValue(record.getResponse(), type), true);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable stored response for " + record.getId(), ex);
+        }
+    }
+
+    private static void checkSameRequest(IdempotencyRecord record, String requestHash) {
+        if (!Objects.equals(record.getRequestHash(), requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key already used for a different request");
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unserializable response", ex);
+        }
+    }
+
+    private static boolean isLive(IdempotencyRecord record) {
+        return record.getCreatedAt().isAfter(Instant.now().minus(TTL));
+    }
+}
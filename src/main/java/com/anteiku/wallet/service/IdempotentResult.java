@@ -0,0 +1,11 @@
+package com.anteiku.wallet.service;
+
+/**
+ * Response of an idempotent operation.
+ *
+ * @param body response body
+ * @param replayed true if the body is the stored response of an earlier request with the same key
+ * @param <T> response body type
+ */
+public record IdempotentResult<T>(T body, boolean replayed) {
+}
@@ -0,0 +1,79 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.ImportJobStatus;
+import com.anteiku.wallet.service.statement.StatementFormat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live state of an import, updated by the reading and the writing stage and read by status queries.
+ */
+class ImportJob {
+
+    private final String id;
+    private final StatementFormat format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final int maxErrors;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsDuplicated = new AtomicLong();
+    private final List<ImportJobStatus.ImportError> errors = new ArrayList<>();
+    private volatile ImportJobStatus.Status status = ImportJobStatus.Status.RUNNING;
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(String id, StatementFormat format, int maxErrors) {
+        this.id = id;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    void read() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int count) {
+        rowsImported.addAndGet(count);
+    }
+
+    void duplicated(int count) {
+        rowsDuplicated.addAndGet(count);
+    }
+
+    void reject(long line, String message) {
+        rowsRejected.incrementAndGet();
+        addError(line, message);
+    }
+
+    void complete() {
+        finish(ImportJobStatus.Status.COMPLETED);
+    }
+
+    synchronized void fail(String message) {
+        errors.add(new ImportJobStatus.ImportError(0, message));
+        finish(ImportJobStatus.Status.FAILED);
+    }
+
+    synchronized ImportJobStatus toStatus() {
+        return new ImportJobStatus(id, format, status, startedAt, finishedAt, rowsRead.get(),
+                rowsImported.get(), rowsRejected.get(), rowsDuplicated.get(), List.copyOf(errors));
+    }
+
+    private synchronized void addError(long line, String message) {
+        if (errors.size() < maxErrors) {
+            errors.add(new ImportJobStatus.ImportError(line, message));
+        }
+    }
+
+    private synchronized void finish(ImportJobStatus.Status outcome) {
+        finishedAt = LocalDateTime.now();
+        status = outcome;
+    }
+}
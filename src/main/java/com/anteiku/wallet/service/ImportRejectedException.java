@@ -0,0 +1,16 @@
+package com.anteiku.wallet.service;
+
+/**
+ * Thrown when an import cannot start because too many are already running.
+ */
+public class ImportRejectedException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message reason
+     */
+    public ImportRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,253 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.LruCache;
+import com.anteiku.wallet.config.ImportProperties;
+import com.anteiku.wallet.dto.ImportJobStatus;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.service.statement.StatementFormat;
+import com.anteiku.wallet.service.statement.StatementReader;
+import com.anteiku.wallet.service.statement.StatementRecord;
+import com.anteiku.wallet.service.statement.StatementRecordMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports bank statements as a two-stage pipeline.
+ * The calling thread reads the statement incrementally, maps and validates every entry and groups the valid
+ * ones into batches; a writer thread inserts each batch with a single insertMany. The stages are joined by a
+ * small bounded queue: when the database is slower than the upload the queue fills up, the caller stops
+ * reading the request body and the client is slowed down by TCP flow control, so memory stays flat whatever
+ * the size of the statement. Rows already imported from an overlapping statement are recognized by their
+ * {@link TransactionFingerprint} and skipped.
+ */
+@Service
+public class ImportService {
+
+    private static final List<Transaction> END_OF_INPUT = List.of();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final TransactionService transactionService;
+    private final DuplicateDetector duplicateDetector;
+    private final Validator validator;
+    private final ImportProperties properties;
+    private final StatementRecordMapper mapper;
+    private final LruCache<String, ImportJob> jobs;
+    private final Semaphore permits;
+    private final ExecutorService writers;
+
+    /**
+     * Creates the service and its writer threads.
+     *
+     * @param transactionService where imported transactions are saved
+     * @param duplicateDetector filter of transactions imported before
+     * @param validator bean validator applied to every entry
+     * @param properties pipeline tuning
+     */
+    public ImportService(TransactionService transactionService, DuplicateDetector duplicateDetector,
+                         Validator validator, ImportProperties properties) {
+        this.transactionService = transactionService;
+        this.duplicateDetector = duplicateDetector;
+        this.validator = validator;
+        this.properties = properties;
+        this.mapper = new StatementRecordMapper(properties.getDefaultCategory());
+        this.jobs = new LruCache<>(properties.getRetainedJobs());
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(properties.getMaxConcurrent(), task -> {
+            Thread thread = new Thread(task, "import-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Imports a statement, returning when it has been read completely or the import has failed.
+     * Gzip-compressed statements are recognized from their first bytes.
+     *
+     * @param body statement bytes
+     * @param format statement format
+     * @param charset text encoding of the statement
+     * @return final state of the import
+     * @throws ImportRejectedException if too many imports are already running
+     */
+    public ImportJobStatus importStatement(InputStream body, StatementFormat format, Charset charset) {
+        if (!permits.tryAcquire()) {
+            throw new ImportRejectedException("Too many imports in progress");
+        }
+        try {
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), format, properties.getMaxErrors());
+            jobs.put(job.id(), job);
+            run(job, body, format, charset);
+            return job.toStatus();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Optional<ImportJobStatus> getJob(String id) {
+        return jobs.get(id).map(ImportJob::toStatus);
+    }
+
+    /**
+     * Returns the running and recently finished imports, newest first.
+     *
+     * @return import states
+     */
+    public List<ImportJobStatus> getJobs() {
+        return jobs.values().stream()
+                .map(ImportJob::toStatus)
+                .sorted(Comparator.comparing(ImportJobStatus::startedAt).reversed())
+                .toList();
+    }
+
+    private void run(ImportJob job, InputStream body, StatementFormat format, Charset charset) {
+        BlockingQueue<List<Transaction>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Future<?> writer = writers.submit(() -> write(queue, job));
+        try (StatementReader reader = format.open(new BufferedReader(
+                new InputStreamReader(decompress(body), charset), BUFFER_SIZE))) {
+            Occurrences occurrences = new Occurrences();
+            List<Transaction> batch = new ArrayList<>(properties.getBatchSize());
+            for (StatementRecord record = reader.next(); record != null; record = reader.next()) {
+                job.read();
+                Transaction transaction = toTransaction(record, job);
+                if (transaction != null) {
+                    occurrences.fingerprint(transaction);
+                    batch.add(transaction);
+                }
+                if (batch.size() == properties.getBatchSize()) {
+                    enqueue(queue, batch, writer);
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+            if (!batch.isEmpty()) {
+                enqueue(queue, batch, writer);
+            }
+            enqueue(queue, END_OF_INPUT, writer);
+            writer.get();
+            job.complete();
+        } catch (IOException ex) {
+            job.fail("Unreadable statement: " + ex.getMessage());
+        } catch (ExecutionException ex) {
+            job.fail("Write failed: " + ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } finally {
+            writer.cancel(true);
+        }
+    }
+
+    /**
+     * Maps and validates an entry, recording it as rejected when either step fails.
+     */
+    private Transaction toTransaction(StatementRecord record, ImportJob job) {
+        Transaction transaction;
+        try {
+            transaction = mapper.map(record);
+        } catch (IllegalArgumentException ex) {
+            job.reject(record.line(), ex.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
+        if (!violations.isEmpty()) {
+            job.reject(record.line(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return transaction;
+    }
+
+    /**
+     * Hands a batch to the writer, blocking while the queue is full and failing fast if the writer stopped.
+     */
+    private static void enqueue(BlockingQueue<List<Transaction>> queue, List<Transaction> batch, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        do {
+            if (writer.isDone()) {
+                writer.get();
+                throw new ExecutionException(new IllegalStateException("Writer stopped"));
+            }
+        } while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private Void write(BlockingQueue<List<Transaction>> queue, ImportJob job) throws InterruptedException {
+        for (List<Transaction> batch = queue.take(); batch != END_OF_INPUT; batch = queue.take()) {
+            List<Transaction> fresh = duplicateDetector.withoutDuplicates(batch);
+            List<Transaction> saved = fresh.isEmpty() ? List.of() : transactionService.importTransactions(fresh);
+            duplicateDetector.record(saved);
+            job.imported(saved.size());
+            job.duplicated(batch.size() - saved.size());
+        }
+        return null;
+    }
+
+    static InputStream decompress(InputStream body) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body, BUFFER_SIZE);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Fingerprints the rows of a statement, numbering identical rows so that genuine repeated payments are
+     * not mistaken for duplicates. Statements are chronological, so only the rows of the current day are
+     * remembered and memory does not grow with the statement.
+     */
+    private static final class Occurrences {
+
+        private final Map<String, Integer> seen = new HashMap<>();
+        private LocalDate day;
+
+        void fingerprint(Transaction transaction) {
+            LocalDate date = transaction.getDate().toLocalDate();
+            if (!date.equals(day)) {
+                seen.clear();
+                day = date;
+            }
+            String first = TransactionFingerprint.of(transaction, 0);
+            int occurrence = seen.merge(first, 1, Integer::sum) - 1;
+            transaction.setFingerprint(occurrence == 0 ? first : TransactionFingerprint.of(transaction, occurrence));
+        }
+    }
+}
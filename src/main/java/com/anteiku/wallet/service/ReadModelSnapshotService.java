@@ -0,0 +1,191 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.SnapshotFile;
+import com.anteiku.wallet.config.SnapshotProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Loads the in-memory read models built from every transaction, the search completion index and the
+ * duplicate detection filter, and persists them to a {@link SnapshotFile}.
+ * At startup a recent snapshot is mapped into memory and only the transactions whose ObjectId was generated since
+ * shortly before it are replayed, read from the ID index, instead of scanning the whole collection. ObjectIds come
+ * from the clocks of the replicas and inserts commit out of order, so the replay starts
+ * {@code wallet.snapshot.replay-window} before the snapshot; the snapshot lists the IDs of that window already in
+ * the models, which are skipped. Updates and deletions since the snapshot are not replayed: both
+ * models are approximate by design (completion counts, a filter backed by a database check), and snapshots
+ * older than {@code wallet.snapshot.max-age} are ignored in favour of a full rebuild.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadModelSnapshotService {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionSearchService searchService;
+    private final DuplicateDetector duplicateDetector;
+    private final SnapshotProperties properties;
+
+    // IDs of the transactions recently added to the read models, with the time they were added
+    private final Map<String, Instant> included = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+    private volatile boolean ready;
+    private volatile boolean changed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Restores the read models from the snapshot, or rebuilds them from every transaction when the snapshot
+     * is disabled, missing, too old or unreadable.
+     */
+    public void load() {
+        try {
+            if (!properties.isEnabled() || !restore()) {
+                rebuild();
+            }
+            loaded = true;
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the read models: {}", ex.getMessage());
+        } finally {
+            ready = true;
+        }
+    }
+
+    /**
+     * Tells whether the startup load is over, even if it failed.
+     *
+     * @return true once the instance can take traffic
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Writes a snapshot of the read models, if they changed since the previous one.
+     */
+    @Scheduled(fixedDelayString = "${wallet.snapshot.interval:PT5M}")
+    public void write() {
+        if (!properties.isEnabled() || !loaded || !changed) {
+            return;
+        }
+        changed = false;
+        Instant now = Instant.now();
+        Instant replayFrom = now.minus(properties.getReplayWindow());
+        // kept for twice the window, as the replay compares the clocks of other replicas with this one
+        included.values().removeIf(added -> added.isBefore(replayFrom.minus(properties.getReplayWindow())));
+        List<String> recent = List.copyOf(included.keySet());
+        long start = System.nanoTime();
+        try {
+            SnapshotFile.write(properties.getPath(), now, replayFrom.toString(), writer -> {
+                searchService.writeSnapshot(writer);
+                duplicateDetector.writeSnapshot(writer);
+                writer.writeInt(recent.size());
+                for (String id : recent) {
+                    writer.writeString(id);
+                }
+            });
+            log.debug("Wrote the read model snapshot in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (IOException | RuntimeException ex) {
+            changed = true;
+            log.warn("Could not write the read model snapshot: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        write();
+    }
+
+    @EventListener
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        event.added().forEach(transaction -> include(transaction.getId()));
+        changed = true;
+    }
+
+    private boolean restore() {
+        if (!Files.exists(properties.getPath())) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            SnapshotFile.Reader reader = SnapshotFile.open(properties.getPath());
+            if (reader.createdAt().isBefore(Instant.now().minus(properties.getMaxAge()))) {
+                log.info("Ignoring the read model snapshot of {}, older than {}", reader.createdAt(),
+                        properties.getMaxAge());
+                return false;
+            }
+            searchService.readSnapshot(reader);
+            duplicateDetector.readSnapshot(reader);
+            Set<String> recent = new HashSet<>();
+            for (int i = reader.readInt(); i > 0; i--) {
+                recent.add(reader.readString());
+            }
+            recent.forEach(this::include);
+            long replayed = replay(Instant.parse(reader.position()), recent);
+            changed = replayed > 0;
+            log.info("Restored the read models from the snapshot of {} and {} newer transactions in {} ms",
+                    reader.createdAt(), replayed, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not restore the read models from {}: {}", properties.getPath(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private long replay(Instant since, Set<String> recent) {
+        AtomicLong replayed = new AtomicLong();
+        try (Stream<Transaction> newer = transactionRepository.streamInsertedSince(since)) {
+            newer.filter(transaction -> !recent.contains(transaction.getId())).forEach(transaction -> {
+                searchService.index(transaction);
+                if (transaction.getFingerprint() != null) {
+                    duplicateDetector.record(List.of(transaction));
+                }
+                include(transaction.getId());
+                replayed.incrementAndGet();
+            });
+        }
+        return replayed.get();
+    }
+
+    private void rebuild() {
+        Instant start = Instant.now();
+        searchService.load();
+        duplicateDetector.load();
+        // the transactions of the window are in the models, read by the scan or added by an event since
+        try (Stream<Transaction> recent = transactionRepository.streamInsertedSince(
+                start.minus(properties.getReplayWindow()))) {
+            recent.forEach(transaction -> include(transaction.getId()));
+        }
+        changed = true;
+    }
+
+    private void include(String id) {
+        if (id != null) {
+            included.put(id, Instant.now());
+        }
+    }
+}
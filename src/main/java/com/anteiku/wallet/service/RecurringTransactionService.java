@@ -0,0 +1,139 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.RecurringProperties;
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.repository.RecurringTransactionRepository;
+import com.anteiku.wallet.repository.RecurringTransactionRepositoryCustom.NextRunMove;
+import com.anteiku.wallet.repository.SchedulerLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Recurring transaction templates and the scheduler that materializes their occurrences.
+ * Each run takes the scheduler lease, so that only one replica generates occurrences, reads the due templates
+ * from the next run index and writes all their occurrences with a single insertMany. Occurrences are
+ * fingerprinted by template and scheduled time, so a run interrupted between the insert and the move of the
+ * next runs does not store them twice. After downtime, occurrences older than the catch-up window are skipped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecurringTransactionService {
+
+    static final String LEASE = "recurring-transactions";
+
+    private final RecurringTransactionRepository recurringRepository;
+    private final SchedulerLeaseRepository leaseRepository;
+    private final TransactionService transactionService;
+    private final RecurringProperties properties;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    /**
+     * Saves a new template, scheduled from the first occurrence after now.
+     *
+     * @param template template to save
+     * @return the saved template
+     * @throws IllegalArgumentException if the cron expression is not valid
+     */
+    public RecurringTransaction createTemplate(RecurringTransaction template) {
+        if (!CronExpression.isValidExpression(template.getCron())) {
+            throw new IllegalArgumentException("Invalid cron expression: " + template.getCron());
+        }
+        template.setId(null);
+        template.setNextRun(CronExpression.parse(template.getCron()).next(LocalDateTime.now()));
+        return recurringRepository.save(template);
+    }
+
+    public List<RecurringTransaction> getTemplates() {
+        return recurringRepository.findAll(Sort.by("nextRun"));
+    }
+
+    /**
+     * Deletes a template. Occurrences already materialized are kept.
+     *
+     * @param id template ID
+     * @return the deleted template, empty if it did not exist
+     */
+    public Optional<RecurringTransaction> deleteTemplate(String id) {
+        Optional<RecurringTransaction> found = recurringRepository.findById(id);
+        found.ifPresent(template -> recurringRepository.deleteById(id));
+        return found;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.recurring.interval:PT1M}")
+    void run() {
+        try {
+            int saved = materialize(LocalDateTime.now());
+            if (saved > 0) {
+                log.info("Materialized {} recurring transactions", saved);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not materialize the recurring transactions: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Materializes the occurrences due at a time, if this replica holds the scheduler lease.
+     *
+     * @param now current time
+     * @return number of transactions stored
+     */
+    int materialize(LocalDateTime now) {
+        if (!leaseRepository.tryAcquire(LEASE, owner, Instant.now(), properties.getLeaseDuration())) {
+            return 0;
+        }
+        List<RecurringTransaction> due = recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(now,
+                Limit.of(properties.getBatchSize()));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime cutoff = now.minus(properties.getCatchUp());
+        List<Transaction> occurrences = new ArrayList<>();
+        List<NextRunMove> moves = new ArrayList<>(due.size());
+        for (RecurringTransaction template : due) {
+            CronExpression cron = CronExpression.parse(template.getCron());
+            LocalDateTime next = template.getNextRun();
+            if (next.isBefore(cutoff)) {
+                log.warn("Skipping occurrences of recurring transaction {} before {}", template.getId(), cutoff);
+                next = cron.next(cutoff.minusNanos(1));
+            }
+            while (next != null && !next.isAfter(now) && occurrences.size() < properties.getBatchSize()) {
+                occurrences.add(occurrence(template, next));
+                next = cron.next(next);
+            }
+            moves.add(new NextRunMove(template.getId(), template.getNextRun(), next));
+        }
+
+        List<Transaction> saved = occurrences.isEmpty() ? List.of()
+                : transactionService.importTransactions(occurrences);
+        recurringRepository.advanceNextRuns(moves);
+        return saved.size();
+    }
+
+    private static Transaction occurrence(RecurringTransaction template, LocalDateTime scheduledAt) {
+        return Transaction.builder()
+                .amount(template.getAmount())
+                .category(template.getCategory())
+                .description(template.getDescription())
+                .type(template.getType())
+                .date(scheduledAt)
+                .fingerprint(TransactionFingerprint.ofOccurrence(null, template.getId(), scheduledAt))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.ReportJobStatus;
+import com.anteiku.wallet.dto.StatementReport;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live state of a report job, updated by its worker and read by status queries.
+ */
+class ReportJob {
+
+    private final String id;
+    private final ReportService.ReportKey key;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private ReportJobStatus.Status status = ReportJobStatus.Status.QUEUED;
+    private boolean cached;
+    private LocalDateTime finishedAt;
+    private String error;
+    private StatementReport report;
+
+    ReportJob(String id, ReportService.ReportKey key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ReportService.ReportKey key() {
+        return key;
+    }
+
+    synchronized void start() {
+        status = ReportJobStatus.Status.RUNNING;
+    }
+
+    synchronized void complete(StatementReport result, boolean fromCache) {
+        report = result;
+        cached = fromCache;
+        finish(ReportJobStatus.Status.COMPLETED);
+    }
+
+    synchronized void fail(String message) {
+        error = message;
+        finish(ReportJobStatus.Status.FAILED);
+    }
+
+    synchronized ReportJobStatus toStatus() {
+        return new ReportJobStatus(id, status, key.walletId(), key.from(), key.to(), key.version(), cached,
+                submittedAt, finishedAt, error, report);
+    }
+
+    private void finish(ReportJobStatus.Status outcome) {
+        finishedAt = LocalDateTime.now();
+        status = outcome;
+    }
+}
@@ -0,0 +1,16 @@
+package com.anteiku.wallet.service;
+
+/**
+ * Thrown when a report cannot be queued because too many are already waiting.
+ */
+public class ReportRejectedException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message reason
+     */
+    public ReportRejectedException(String message) {
+        super(message);
+    }
+}
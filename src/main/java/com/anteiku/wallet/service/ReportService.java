@@ -0,0 +1,231 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.LruCache;
+import com.anteiku.wallet.config.ReportProperties;
+import com.anteiku.wallet.dto.ReportJobStatus;
+import com.anteiku.wallet.dto.ReportRequest;
+import com.anteiku.wallet.dto.StatementReport;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Computes statement reports in the background.
+ * Reports run on a small fixed pool of workers fed by a bounded queue, so however many are requested at most
+ * {@code wallet.reports.max-concurrent} read from the database at a time and submissions beyond the queue are
+ * rejected. Finished reports are cached by wallet, range and ledger version: the version changes with every
+ * write to the wallet, so a cached report is served as long as the wallet has not changed, and a report
+ * requested again while it is still being computed joins the running job.
+ */
+@Slf4j
+@Service
+public class ReportService {
+
+    /**
+     * Month key of the transactions without a date, listed after the dated months.
+     */
+    public static final String UNDATED = "undated";
+
+    private final TransactionRepository transactionRepository;
+    private final WalletService walletService;
+    private final LruCache<String, ReportJob> jobs;
+    private final LruCache<ReportKey, StatementReport> reports;
+    private final ConcurrentMap<ReportKey, ReportJob> running = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * Creates the service and its workers.
+     *
+     * @param transactionRepository source of the transactions
+     * @param walletService source of the ledger versions
+     * @param properties concurrency and cache sizes
+     */
+    public ReportService(TransactionRepository transactionRepository, WalletService walletService,
+                         ReportProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.walletService = walletService;
+        this.jobs = new LruCache<>(properties.getRetainedJobs());
+        this.reports = new LruCache<>(properties.getCacheSize());
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(properties.getMaxConcurrent(), properties.getMaxConcurrent(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()), task -> {
+                    Thread thread = new Thread(task, "report-worker-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Submits a report. A report of an unchanged wallet is answered from the cache, already completed.
+     *
+     * @param request wallet and range of the report
+     * @return state of the job
+     * @throws IllegalArgumentException if the range is inverted
+     * @throws ReportRejectedException if too many reports are already waiting
+     */
+    public ReportJobStatus submit(ReportRequest request) {
+        if (request.from().isAfter(request.to())) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        String walletId = request.walletId() == null ? Transaction.DEFAULT_WALLET : request.walletId();
+        ReportKey key = new ReportKey(walletId, request.from(), request.to(),
+                walletService.getBalance(walletId).version());
+
+        Optional<StatementReport> cached = reports.get(key);
+        if (cached.isPresent()) {
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key);
+            job.complete(cached.get(), true);
+            jobs.put(job.id(), job);
+            return job.toStatus();
+        }
+
+        ReportJob created = new ReportJob(UUID.randomUUID().toString(), key);
+        ReportJob job = running.putIfAbsent(key, created);
+        if (job != null) {
+            return job.toStatus();
+        }
+        jobs.put(created.id(), created);
+        try {
+            workers.execute(() -> run(created));
+        } catch (RejectedExecutionException ex) {
+            running.remove(key, created);
+            jobs.remove(created.id());
+            throw new ReportRejectedException("Too many reports in progress");
+        }
+        return created.toStatus();
+    }
+
+    /**
+     * Returns the state of a job, with the report once completed.
+     *
+     * @param id job ID
+     * @return the state, empty if the job is unknown or no longer retained
+     */
+    public Optional<ReportJobStatus> getJob(String id) {
+        return jobs.get(id).map(ReportJob::toStatus);
+    }
+
+    private void run(ReportJob job) {
+        job.start();
+        try {
+            StatementReport report = compute(job.key());
+            reports.put(job.key(), report);
+            job.complete(report, false);
+        } catch (RuntimeException ex) {
+            log.warn("Report {} failed: {}", job.id(), ex.getMessage());
+            job.fail(ex.getMessage());
+        } finally {
+            running.remove(job.key(), job);
+        }
+    }
+
+    private StatementReport compute(ReportKey key) {
+        TransactionFilter filter = TransactionFilter.builder()
+                .walletId(key.walletId())
+                .startDate(key.from())
+                .endDate(key.to())
+                .fields(EnumSet.of(TransactionField.AMOUNT, TransactionField.TYPE, TransactionField.CATEGORY,
+                        TransactionField.DATE, TransactionField.CURRENCY))
+                .build();
+        Accumulator total = new Accumulator();
+        Map<String, Accumulator> months = new TreeMap<>();
+        Map<String, Accumulator> categories = new TreeMap<>();
+        try (Stream<Transaction> stored = transactionRepository.streamFiltered(filter)) {
+            stored.filter(transaction -> transaction.getAmount() != null).forEach(transaction -> {
+                total.add(transaction);
+                months.computeIfAbsent(monthOf(transaction), k -> new Accumulator()).add(transaction);
+                categories.computeIfAbsent(String.valueOf(transaction.getCategory()), k -> new Accumulator())
+                        .add(transaction);
+            });
+        }
+        return new StatementReport(key.walletId(), key.from(), key.to(), key.version(), LocalDateTime.now(),
+                total.toTotals(), breakdown(months), breakdown(categories));
+    }
+
+    private static String monthOf(Transaction transaction) {
+        return transaction.getDate() == null ? UNDATED : YearMonth.from(transaction.getDate()).toString();
+    }
+
+    private static List<StatementReport.Breakdown> breakdown(Map<String, Accumulator> groups) {
+        return groups.entrySet().stream()
+                .map(group -> new StatementReport.Breakdown(group.getKey(), group.getValue().toTotals()))
+                .toList();
+    }
+
+    /**
+     * Wallet, range and ledger version a report is cached by.
+     */
+    record ReportKey(String walletId, LocalDate from, LocalDate to, long version) {
+    }
+
+    /**
+     * Running totals of a group of transactions, by currency.
+     */
+    private static final class Accumulator {
+
+        private final Map<String, Sums> currencies = new TreeMap<>();
+
+        void add(Transaction transaction) {
+            String currency = transaction.getCurrency() == null ? Transaction.DEFAULT_CURRENCY
+                    : transaction.getCurrency();
+            currencies.computeIfAbsent(currency, code -> new Sums()).add(transaction);
+        }
+
+        List<StatementReport.Totals> toTotals() {
+            return currencies.entrySet().stream()
+                    .map(entry -> entry.getValue().toTotals(entry.getKey()))
+                    .toList();
+        }
+    }
+
+    /**
+     * Running totals of a group of transactions in one currency.
+     */
+    private static final class Sums {
+
+        private BigDecimal income = BigDecimal.ZERO;
+        private BigDecimal expense = BigDecimal.ZERO;
+        private long count;
+
+        void add(Transaction transaction) {
+            if (transaction.getType() == Transaction.TransactionType.INCOME) {
+                income = income.add(transaction.getAmount());
+            } else {
+                expense = expense.add(transaction.getAmount());
+            }
+            count++;
+        }
+
+        StatementReport.Totals toTotals(String currency) {
+            return new StatementReport.Totals(currency, income, expense, income.subtract(expense), count);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.AmountStats;
+import com.anteiku.wallet.dto.TransactionStats;
+import com.anteiku.wallet.model.StatsBucket;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.StatsBucketRepository;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Amount statistics per transaction type and category.
+ * Every (month, type, category) has a {@link StatsBucket} holding a mergeable sketch of its amounts, updated
+ * as transactions are written. A date range is answered by merging the buckets of its whole months; only the
+ * days of partially covered months are read from the transactions. Inserts are added to the sketches
+ * incrementally; since a sketch cannot forget a value, deletes and updates rebuild the affected buckets.
+ * Amounts are converted to the base currency of the exchange rates when they enter a sketch, at the rates of
+ * that moment, so statistics mixing currencies are approximate once the rates change.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsService {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final String FIRST_MONTH = "0000-01";
+    private static final String LAST_MONTH = "9999-12";
+    private static final Set<TransactionField> FIELDS =
+            EnumSet.of(TransactionField.AMOUNT, TransactionField.TYPE, TransactionField.CATEGORY,
+                    TransactionField.DATE, TransactionField.CURRENCY);
+
+    private final StatsBucketRepository bucketRepository;
+    private final TransactionRepository transactionRepository;
+    private final FxRateService fxRateService;
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Builds the buckets from the stored transactions if there are none yet, e.g. on the first start.
+     */
+    public void load() {
+        try {
+            if (bucketRepository.count() == 0) {
+                rebuild(null, null);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not build the amount statistics: {}", ex.getMessage());
+        } finally {
+            ready = true;
+        }
+    }
+
+    /**
+     * Tells whether the startup load is over, even if it failed.
+     *
+     * @return true once the instance can take traffic
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Computes the amount statistics of the transactions dated in a range.
+     *
+     * @param from first day, null for no start limit
+     * @param to last day, null for no end limit
+     * @return statistics per type and per category
+     * @throws IllegalArgumentException if the range ends before it starts
+     */
+    public TransactionStats getStats(LocalDate from, LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends before it starts");
+        }
+        Map<Transaction.TransactionType, AmountSketch> byType = new EnumMap<>(Transaction.TransactionType.class);
+        Map<String, AmountSketch> byCategory = new TreeMap<>();
+        FxTable fx = fxRateService.current();
+        Consumer<Transaction> addTransaction = transaction -> {
+            BigDecimal amount = baseAmount(fx, transaction);
+            byType.computeIfAbsent(transaction.getType(), type -> new AmountSketch()).add(amount);
+            byCategory.computeIfAbsent(transaction.getCategory(), category -> new AmountSketch()).add(amount);
+        };
+
+        boolean partialStart = from != null && from.getDayOfMonth() != 1;
+        boolean partialEnd = to != null && !to.equals(YearMonth.from(to).atEndOfMonth());
+        YearMonth firstMonth = from == null ? null : YearMonth.from(from);
+        YearMonth lastMonth = to == null ? null : YearMonth.from(to);
+        if (firstMonth != null && firstMonth.equals(lastMonth) && (partialStart || partialEnd)) {
+            readTransactions(from, to, addTransaction);
+        } else {
+            if (partialStart) {
+                readTransactions(from, firstMonth.atEndOfMonth(), addTransaction);
+                firstMonth = firstMonth.plusMonths(1);
+            }
+            if (partialEnd) {
+                readTransactions(lastMonth.atDay(1), to, addTransaction);
+                lastMonth = lastMonth.minusMonths(1);
+            }
+            if (firstMonth == null || lastMonth == null || !firstMonth.isAfter(lastMonth)) {
+                for (StatsBucket bucket : bucketRepository.findByMonthRange(
+                        firstMonth == null ? FIRST_MONTH : firstMonth.toString(),
+                        lastMonth == null ? LAST_MONTH : lastMonth.toString())) {
+                    AmountSketch sketch = AmountSketch.of(bucket);
+                    byType.computeIfAbsent(bucket.getType(), type -> new AmountSketch()).merge(sketch);
+                    byCategory.computeIfAbsent(bucket.getCategory(), category -> new AmountSketch()).merge(sketch);
+                }
+            }
+        }
+
+        Map<Transaction.TransactionType, AmountStats> typeStats = new EnumMap<>(Transaction.TransactionType.class);
+        byType.forEach((type, sketch) -> typeStats.put(type, sketch.toStats()));
+        Map<String, AmountStats> categoryStats = new TreeMap<>();
+        byCategory.forEach((category, sketch) -> categoryStats.put(category, sketch.toStats()));
+        return new TransactionStats(from, to, typeStats, categoryStats);
+    }
+
+    @EventListener
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        try {
+            Set<BucketKey> stale = new HashSet<>();
+            event.removed().forEach(transaction -> stale.add(BucketKey.of(transaction)));
+            stale.forEach(this::rebuildBucket);
+
+            // a rebuilt bucket already includes the new content of the transactions that were replaced
+            Map<BucketKey, AmountSketch> additions = new HashMap<>();
+            FxTable fx = fxRateService.current();
+            for (Transaction transaction : event.added()) {
+                BucketKey key = BucketKey.of(transaction);
+                if (!stale.contains(key)) {
+                    additions.computeIfAbsent(key, k -> new AmountSketch()).add(baseAmount(fx, transaction));
+                }
+            }
+            additions.forEach(this::mergeInto);
+        } catch (RuntimeException ex) {
+            log.warn("Could not update the amount statistics: {}", ex.getMessage());
+        }
+    }
+
+    @EventListener
+    void onTransactionsPurged(TransactionsPurgedEvent event) {
+        try {
+            rebuild(YearMonth.from(event.startDate()), YearMonth.from(event.endDate()));
+        } catch (RuntimeException ex) {
+            log.warn("Could not update the amount statistics: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the buckets of every month in [from, to] from the stored transactions.
+     * Each bucket is replaced, or deleted, on its own, so readers never see the months empty. A bucket that
+     * another writer changed since it was read is rebuilt alone instead, so no concurrent update is lost.
+     *
+     * @param from first month, null for no start limit
+     * @param to last month, null for no end limit
+     */
+    public void rebuild(YearMonth from, YearMonth to) {
+        Map<String, StatsBucket> previous = new HashMap<>();
+        bucketRepository.findByMonthRange(from == null ? FIRST_MONTH : from.toString(),
+                to == null ? LAST_MONTH : to.toString()).forEach(bucket -> previous.put(bucket.getId(), bucket));
+
+        Map<BucketKey, AmountSketch> sketches = new HashMap<>();
+        FxTable fx = fxRateService.current();
+        readTransactions(from == null ? null : from.atDay(1), to == null ? null : to.atEndOfMonth(),
+                transaction -> sketches.computeIfAbsent(BucketKey.of(transaction), key -> new AmountSketch())
+                        .add(baseAmount(fx, transaction)));
+
+        sketches.forEach((key, sketch) -> {
+            StatsBucket bucket = previous.remove(key.id());
+            replace(key, bucket == null ? key.newBucket() : bucket, sketch::writeTo);
+        });
+        previous.values().forEach(bucket -> replace(BucketKey.of(bucket), bucket, null));
+        log.info("Rebuilt {} amount statistics buckets", sketches.size());
+    }
+
+    /**
+     * Writes a rebuilt bucket, or deletes it when {@code change} is null, unless another writer changed it
+     * since it was read; then only that bucket is rebuilt again from its transactions.
+     */
+    private void replace(BucketKey key, StatsBucket bucket, Consumer<StatsBucket> change) {
+        try {
+            if (change == null) {
+                bucketRepository.delete(bucket);
+            } else {
+                change.accept(bucket);
+                bucketRepository.save(bucket);
+            }
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException ex) {
+            rebuildBucket(key);
+        }
+    }
+
+    private void rebuildBucket(BucketKey key) {
+        TransactionFilter filter = TransactionFilter.builder()
+                .type(key.type())
+                .category(key.category())
+                .startDate(key.month().atDay(1))
+                .endDate(key.month().atEndOfMonth())
+                .fields(EnumSet.of(TransactionField.AMOUNT, TransactionField.CURRENCY))
+                .build();
+        AmountSketch sketch = new AmountSketch();
+        FxTable fx = fxRateService.current();
+        try (Stream<Transaction> stored = transactionRepository.streamFiltered(filter)) {
+            stored.forEach(transaction -> sketch.add(baseAmount(fx, transaction)));
+        }
+        update(key, sketch::writeTo, sketch.count() == 0);
+    }
+
+    private void mergeInto(BucketKey key, AmountSketch added) {
+        update(key, bucket -> {
+            AmountSketch sketch = AmountSketch.of(bucket);
+            sketch.merge(added);
+            sketch.writeTo(bucket);
+        }, false);
+    }
+
+    /**
+     * Applies a change to a bucket, retrying when another writer updated or created it concurrently.
+     */
+    private void update(BucketKey key, Consumer<StatsBucket> change, boolean delete) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            StatsBucket bucket = bucketRepository.findById(key.id()).orElseGet(key::newBucket);
+            try {
+                if (delete) {
+                    if (bucket.getVersion() != null) {
+                        bucketRepository.delete(bucket);
+                    }
+                } else {
+                    change.accept(bucket);
+                    bucketRepository.save(bucket);
+                }
+                return;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException ex) {
+                // another writer changed the bucket first: apply the change to its version
+            }
+        }
+        log.warn("Could not update the amount statistics bucket {}", key.id());
+    }
+
+    private static BigDecimal baseAmount(FxTable fx, Transaction transaction) {
+        if (transaction.getAmount() == null || transaction.getCurrency() == null) {
+            return transaction.getAmount();
+        }
+        return fx.convert(transaction.getAmount(), transaction.getCurrency(), fx.baseCurrency());
+    }
+
+    private void readTransactions(LocalDate from, LocalDate to, Consumer<Transaction> consumer) {
+        TransactionFilter filter = TransactionFilter.builder().startDate(from).endDate(to).fields(FIELDS).build();
+        try (Stream<Transaction> stored = transactionRepository.streamFiltered(filter)) {
+            stored.filter(transaction -> transaction.getAmount() != null).forEach(consumer);
+        }
+    }
+
+    /**
+     * Identifies the bucket of a transaction.
+     */
+    record BucketKey(YearMonth month, Transaction.TransactionType type, String category) {
+
+        static BucketKey of(Transaction transaction) {
+            return new BucketKey(YearMonth.from(transaction.getDate()), transaction.getType(),
+                    transaction.getCategory());
+        }
+
+        static BucketKey of(StatsBucket bucket) {
+            return new BucketKey(YearMonth.parse(bucket.getMonth()), bucket.getType(), bucket.getCategory());
+        }
+
+        String id() {
+            return month + "|" + type + "|" + category;
+        }
+
+        StatsBucket newBucket() {
+            return StatsBucket.builder().id(id()).month(month.toString()).type(type).category(category).build();
+        }
+    }
+}
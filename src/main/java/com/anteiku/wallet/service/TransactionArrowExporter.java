@@ -0,0 +1,167 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionFilter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes transactions as an Apache Arrow IPC stream.
+ * Rows are read from a database cursor and flushed in record batches of a fixed size, so memory use is
+ * bounded by one batch whatever the number of exported transactions.
+ * The currency is dictionary encoded: the dictionary grows with the currencies met so far and is sent again,
+ * as a replacement dictionary batch, before the first record batch that uses a new one.
+ */
+@Component
+public class TransactionArrowExporter {
+
+    /**
+     * Decimal scale of the amount column.
+     */
+    public static final int AMOUNT_SCALE = 2;
+
+    /**
+     * Dictionary encoding of the currency column: 32-bit indices into the currency codes.
+     */
+    public static final DictionaryEncoding CURRENCY_ENCODING =
+            new DictionaryEncoding(0, false, new ArrowType.Int(32, true));
+
+    // the field of a dictionary-encoded column holds the indices; the IPC schema takes the type of the dictionary
+    private static final FieldType CURRENCY_TYPE =
+            new FieldType(true, CURRENCY_ENCODING.getIndexType(), CURRENCY_ENCODING);
+
+    /**
+     * Arrow schema of the export: wallet, amount, currency, date, type, category and description.
+     * Dates are wall-clock timestamps without time zone, stored as UTC epoch milliseconds.
+     */
+    public static final Schema SCHEMA = new Schema(List.of(
+            new Field("walletId", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            Field.nullable("amount", new ArrowType.Decimal(38, AMOUNT_SCALE, 128)),
+            new Field("currency", CURRENCY_TYPE, null),
+            Field.nullable("date", new ArrowType.Timestamp(TimeUnit.MILLISECOND, null)),
+            new Field("type", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("category", FieldType.nullable(ArrowType.Utf8.INSTANCE), null),
+            new Field("description", FieldType.nullable(ArrowType.Utf8.INSTANCE), null)));
+
+    private final TransactionService transactionService;
+    private final BufferAllocator rootAllocator;
+    private final int batchSize;
+
+    /**
+     * Creates the exporter.
+     *
+     * @param transactionService source of the transactions
+     * @param rootAllocator allocator of the off-heap batch buffers
+     * @param batchSize rows per record batch
+     */
+    public TransactionArrowExporter(TransactionService transactionService,
+                                    BufferAllocator rootAllocator,
+                                    @Value("${wallet.export.arrow.batch-size:4096}") int batchSize) {
+        this.transactionService = transactionService;
+        this.rootAllocator = rootAllocator;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Streams the transactions matching the filter to {@code out}.
+     *
+     * @param filter criteria of the exported transactions; the projection is ignored
+     * @param out destination of the Arrow IPC stream
+     * @throws IOException if writing fails
+     */
+    public void export(TransactionFilter filter, OutputStream out) throws IOException {
+        try (BufferAllocator allocator = rootAllocator.newChildAllocator("transaction-export", 0, Long.MAX_VALUE);
+                VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+                VarCharVector currencyCodes = new VarCharVector("currency", allocator);
+                Stream<Transaction> transactions = transactionService.streamTransactions(filter);
+                ArrowStreamWriter writer = new ArrowStreamWriter(root,
+                        new DictionaryProvider.MapDictionaryProvider(new Dictionary(currencyCodes, CURRENCY_ENCODING)),
+                        Channels.newChannel(out))) {
+            Map<String, Integer> currencyIndex = new HashMap<>();
+            currencyCodes.allocateNew();
+            currencyCodes.setValueCount(0);
+            VarCharVector walletId = (VarCharVector) root.getVector("walletId");
+            DecimalVector amount = (DecimalVector) root.getVector("amount");
+            IntVector currency = (IntVector) root.getVector("currency");
+            TimeStampMilliVector date = (TimeStampMilliVector) root.getVector("date");
+            VarCharVector type = (VarCharVector) root.getVector("type");
+            VarCharVector category = (VarCharVector) root.getVector("category");
+            VarCharVector description = (VarCharVector) root.getVector("description");
+
+            writer.start();
+            Iterator<Transaction> it = transactions.iterator();
+            while (it.hasNext()) {
+                root.allocateNew();
+                int row = 0;
+                while (row < batchSize && it.hasNext()) {
+                    Transaction t = it.next();
+                    setText(walletId, row, t.getWalletId());
+                    setAmount(amount, row, t.getAmount());
+                    setCurrency(currency, currencyCodes, currencyIndex, row, t.getCurrency());
+                    if (t.getDate() != null) {
+                        date.setSafe(row, t.getDate().toInstant(ZoneOffset.UTC).toEpochMilli());
+                    }
+                    setText(type, row, t.getType() == null ? null : t.getType().name());
+                    setText(category, row, t.getCategory());
+                    setText(description, row, t.getDescription());
+                    row++;
+                }
+                root.setRowCount(row);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+    }
+
+    private static void setAmount(DecimalVector vector, int row, BigDecimal amount) {
+        if (amount != null) {
+            vector.setSafe(row, amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN));
+        }
+    }
+
+    private static void setCurrency(IntVector vector, VarCharVector codes, Map<String, Integer> index, int row,
+                                    String currency) {
+        if (currency != null) {
+            vector.setSafe(row, index.computeIfAbsent(currency, code -> {
+                int next = codes.getValueCount();
+                codes.setSafe(next, code.getBytes(StandardCharsets.UTF_8));
+                codes.setValueCount(next + 1);
+                return next;
+            }));
+        }
+    }
+
+    private static void setText(VarCharVector vector, int row, String value) {
+        if (value != null) {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.LruCache;
+import com.anteiku.wallet.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache of transactions keyed by ID, local to each replica and only eventually consistent.
+ * Writes through {@link TransactionService} evict what they change and the bulk updates run at startup clear
+ * the cache, but writes of other replicas are not seen here, so entries expire after a short time to live.
+ * A reader takes a {@link #stamp()} before loading a transaction and {@link #put(Transaction, long)} drops the
+ * copy if anything was evicted since, so a copy loaded before a write cannot be cached after the write evicted it.
+ */
+@Component
+public class TransactionCache {
+
+    private final LruCache<String, Entry> cache;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // guarded by this; incremented by every eviction
+    private long evictions;
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxSize maximum number of cached transactions
+     * @param ttl     how long a cached transaction is served
+     */
+    @Autowired
+    public TransactionCache(@Value("${wallet.cache.transactions.max-size:10000}") int maxSize,
+                            @Value("${wallet.cache.transactions.ttl:PT30S}") Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    TransactionCache(int maxSize, Duration ttl, LongSupplier clock) {
+        this.cache = new LruCache<>(maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a cached transaction that has not expired yet.
+     *
+     * @param id transaction ID
+     * @return the transaction, empty if it is not cached or expired
+     */
+    public Optional<Transaction> get(String id) {
+        long now = clock.getAsLong();
+        return cache.get(id).filter(entry -> entry.expiresAt() - now > 0).map(Entry::transaction);
+    }
+
+    /**
+     * Returns the current eviction stamp, to be taken before reading the transactions to cache.
+     *
+     * @return the stamp
+     */
+    public synchronized long stamp() {
+        return evictions;
+    }
+
+    /**
+     * Caches a transaction unless an eviction happened since the stamp was taken, ignoring transactions without
+     * an ID.
+     *
+     * @param transaction transaction to cache
+     * @param stamp       stamp taken before the transaction was read or written
+     */
+    public synchronized void put(Transaction transaction, long stamp) {
+        if (transaction != null && transaction.getId() != null && stamp == evictions) {
+            cache.put(transaction.getId(), new Entry(transaction, clock.getAsLong() + ttlNanos));
+        }
+    }
+
+    public synchronized void evict(String id) {
+        evictions++;
+        cache.remove(id);
+    }
+
+    public synchronized void evictAll(Collection<String> ids) {
+        evictions++;
+        ids.forEach(cache::remove);
+    }
+
+    public synchronized void clear() {
+        evictions++;
+        cache.clear();
+    }
+
+    private record Entry(Transaction transaction, long expiresAt) {
+    }
+}
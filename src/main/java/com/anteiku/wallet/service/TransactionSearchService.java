@@ -0,0 +1,169 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.PrefixIndex;
+import com.anteiku.wallet.cache.SnapshotFile;
+import com.anteiku.wallet.dto.TransactionPage;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Search over transaction descriptions and categories.
+ * Full-text queries are answered by the MongoDB text index; type-ahead completion is answered from an
+ * in-memory {@link PrefixIndex} of categories and description words, loaded at startup by
+ * {@link ReadModelSnapshotService} and kept current through {@link TransactionsChangedEvent}s; a
+ * {@link TransactionsPurgedEvent} does not list the deleted transactions, so it reloads the index.
+ */
+@Slf4j
+@Service
+public class TransactionSearchService {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final TransactionRepository transactionRepository;
+    private final PrefixIndex terms;
+
+    /**
+     * Creates the service with an empty completion index.
+     *
+     * @param transactionRepository repository searched and used to load the index
+     * @param maxTerms maximum number of distinct terms kept for completion
+     */
+    public TransactionSearchService(TransactionRepository transactionRepository,
+                                    @Value("${wallet.search.max-terms:200000}") int maxTerms) {
+        this.transactionRepository = transactionRepository;
+        this.terms = new PrefixIndex(maxTerms);
+    }
+
+    /**
+     * Searches descriptions and categories, best matches first.
+     *
+     * @param text words to search
+     * @param page page number, from 0
+     * @param size page size
+     * @return the requested page
+     * @throws IllegalArgumentException if the text is blank or the page is too far
+     */
+    public TransactionPage search(String text, int page, int size) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text is required");
+        }
+        int skip;
+        try {
+            skip = Math.multiplyExact(page, size);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Page " + page + " is out of range", ex);
+        }
+        List<Transaction> found = transactionRepository.search(text.trim(), skip, size + 1);
+        boolean hasNext = found.size() > size;
+        return new TransactionPage(hasNext ? found.subList(0, size) : found, page, size, hasNext);
+    }
+
+    /**
+     * Completes a prefix with the most frequent matching categories and description words.
+     *
+     * @param prefix typed prefix
+     * @param limit maximum number of suggestions
+     * @return suggestions, most frequent first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return terms.complete(prefix, limit);
+    }
+
+    /**
+     * Loads the completion index from the stored categories and descriptions, replacing its content.
+     */
+    public void load() {
+        TransactionFilter filter = TransactionFilter.builder()
+                .fields(EnumSet.of(TransactionField.CATEGORY, TransactionField.DESCRIPTION))
+                .build();
+        terms.clear();
+        try (Stream<Transaction> stored = transactionRepository.streamFiltered(filter)) {
+            stored.forEach(this::index);
+            log.info("Loaded {} search terms", terms.size());
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the search terms: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds the terms of a stored transaction to the completion index.
+     *
+     * @param transaction transaction with its category and description
+     */
+    public void index(Transaction transaction) {
+        termsOf(transaction).forEach(terms::add);
+    }
+
+    /**
+     * Writes the completion index to a snapshot section.
+     *
+     * @param writer snapshot writer
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void writeSnapshot(SnapshotFile.Writer writer) throws IOException {
+        List<Map.Entry<String, Long>> entries = terms.entries();
+        writer.writeInt(entries.size());
+        for (Map.Entry<String, Long> entry : entries) {
+            writer.writeString(entry.getKey());
+            writer.writeLong(entry.getValue());
+        }
+    }
+
+    /**
+     * Replaces the completion index with a snapshot section.
+     *
+     * @param reader snapshot reader
+     */
+    public void readSnapshot(SnapshotFile.Reader reader) {
+        terms.clear();
+        int count = reader.readInt();
+        for (int i = 0; i < count; i++) {
+            terms.add(reader.readString(), reader.readLong());
+        }
+    }
+
+    @EventListener
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        event.removed().forEach(transaction -> termsOf(transaction).forEach(terms::remove));
+        event.added().forEach(this::index);
+    }
+
+    @EventListener
+    void onTransactionsPurged(TransactionsPurgedEvent event) {
+        load();
+    }
+
+    /**
+     * Returns the completion terms of a transaction: its category and every description word of at least
+     * three characters that is not a number.
+     */
+    static List<String> termsOf(Transaction transaction) {
+        List<String> found = new ArrayList<>();
+        if (transaction.getCategory() != null) {
+            found.add(transaction.getCategory());
+        }
+        if (transaction.getDescription() != null) {
+            for (String word : WORD_SEPARATOR.split(transaction.getDescription())) {
+                if (word.length() >= MIN_WORD_LENGTH && !word.chars().allMatch(Character::isDigit)) {
+                    found.add(word);
+                }
+            }
+        }
+        return found;
+    }
+}
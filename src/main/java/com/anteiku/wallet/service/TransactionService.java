@@ -1,32 +1,98 @@
 package com.anteiku.wallet.service;
 
+import com.anteiku.wallet.dto.TransactionBatch;
 import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.TransactionFilter;
 import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.repository.TransactionRepositoryCustom.CurrencyTotal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing wallet transactions.
  * Provides business logic for transaction operations and calculations.
+ * Every write publishes a {@link TransactionsChangedEvent}, except purges by date range, which publish a
+ * {@link TransactionsPurgedEvent}. Events are published without the request {@link Deadline}: the write has
+ * already been stored, so the listeners keeping balances, budgets and statistics must not give up halfway.
+ * Categories of written transactions are resolved through the {@link CategoryDictionary}, and transactions
+ * created without a wallet or currency get {@link Transaction#DEFAULT_WALLET} and
+ * {@link Transaction#DEFAULT_CURRENCY}. Transactions in a currency without an exchange rate are rejected.
+ * Cached transactions are evicted once the database write returns, even if it failed, since a timed-out write
+ * may still apply; a read running alongside the write does not cache the content it replaced, see
+ * {@link TransactionCache}.
  */
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionCache transactionCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryDictionary categoryDictionary;
+    private final FxRateService fxRateService;
 
+    /**
+     * Saves a new transaction.
+     *
+     * @param transaction transaction to save
+     * @return the saved transaction
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
     public Transaction addTransaction(Transaction transaction) {
-        return transactionRepository.save(transaction);
+        long stamp = transactionCache.stamp();
+        Transaction saved = transactionRepository.save(prepare(transaction));
+        transactionCache.put(saved, stamp);
+        publish(TransactionsChangedEvent.added(List.of(saved)));
+        return saved;
+    }
+
+    /**
+     * Saves several new transactions with a single insertMany.
+     *
+     * @param transactions transactions to save
+     * @return the saved transactions
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public List<Transaction> addTransactions(List<Transaction> transactions) {
+        transactions.forEach(this::prepare);
+        long stamp = transactionCache.stamp();
+        List<Transaction> saved = transactionRepository.insert(transactions);
+        saved.forEach(t -> transactionCache.put(t, stamp));
+        publish(TransactionsChangedEvent.added(saved));
+        return saved;
+    }
+
+    /**
+     * Saves imported transactions with a single unordered insertMany, skipping any whose fingerprint is
+     * already stored.
+     *
+     * @param transactions fingerprinted transactions to save
+     * @return the transactions actually saved
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public List<Transaction> importTransactions(List<Transaction> transactions) {
+        transactions.forEach(this::prepare);
+        long stamp = transactionCache.stamp();
+        List<Transaction> saved = transactionRepository.insertIgnoringDuplicates(transactions);
+        saved.forEach(t -> transactionCache.put(t, stamp));
+        publish(TransactionsChangedEvent.added(saved));
+        return saved;
     }
 
     public List<Transaction> getAllTransactions() {
@@ -34,35 +100,169 @@ public class TransactionService {
     }
 
     /**
-     * balance = sum(INCOME) - sum(EXPENSE)
+     * Returns all transactions, projecting only the selected fields.
+     *
+     * @param fields fields to return, empty for all fields
+     * @return all transactions
      */
-    public BigDecimal getBalance() {
-        List<Transaction> all = transactionRepository.findAll();
+    public List<Transaction> getAllTransactions(Set<TransactionField> fields) {
+        if (fields.isEmpty()) {
+            return getAllTransactions();
+        }
+        return transactionRepository.findFiltered(TransactionFilter.builder().fields(fields).build());
+    }
 
-        BigDecimal income = all.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Calculates the balance, income minus expense, in a reporting currency, converting the totals of each
+     * currency as {@link #getSummary(String)} does.
+     *
+     * @param currency reporting currency, null for the base currency of the rates
+     * @return the balance
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public BigDecimal getBalance(String currency) {
+        return getSummary(currency).get("balance");
+    }
 
-        BigDecimal expense = all.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Finds a transaction by ID, reading through the in-process cache.
+     *
+     * @param id transaction ID
+     * @return the transaction, empty if it does not exist
+     */
+    public Optional<Transaction> getTransactionById(String id) {
+        Optional<Transaction> cached = transactionCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = transactionCache.stamp();
+        Optional<Transaction> found = transactionRepository.findById(id);
+        found.ifPresent(t -> transactionCache.put(t, stamp));
+        return found;
+    }
+
+    /**
+     * Resolves several transactions by ID.
+     * Cached transactions are served from memory and every miss is fetched with a single $in query.
+     *
+     * @param ids transaction IDs, duplicates are ignored
+     * @return transactions in request order plus the IDs that do not exist
+     */
+    public TransactionBatch getTransactionsByIds(List<String> ids) {
+        Map<String, Transaction> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            transactionCache.get(id).ifPresentOrElse(t -> resolved.put(id, t), () -> misses.add(id));
+        }
+        if (!misses.isEmpty()) {
+            long stamp = transactionCache.stamp();
+            for (Transaction found : transactionRepository.findAllById(misses)) {
+                resolved.put(found.getId(), found);
+                transactionCache.put(found, stamp);
+            }
+        }
 
-        return income.subtract(expense);
+        List<Transaction> transactions = new ArrayList<>(resolved.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Transaction transaction = resolved.get(id);
+            if (transaction != null) {
+                transactions.add(transaction);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new TransactionBatch(transactions, missing);
     }
 
-    public Optional<Transaction> getTransactionById(String id) {
-        return transactionRepository.findById(id);
+    /**
+     * Deletes a transaction with a single round trip.
+     *
+     * @param id transaction ID
+     * @return the deleted transaction, empty if it did not exist
+     */
+    public Optional<Transaction> deleteTransaction(String id) {
+        Optional<Transaction> deleted;
+        try {
+            deleted = transactionRepository.findAndDeleteById(id);
+        } finally {
+            transactionCache.evict(id);
+        }
+        deleted.ifPresent(t -> publish(TransactionsChangedEvent.removed(List.of(t))));
+        return deleted;
     }
 
-    public void deleteTransaction(String id) {
-        transactionRepository.deleteById(id);
+    /**
+     * Deletes several transactions with one findAndModify each, so that listeners learn exactly what this call
+     * removed: a transaction deleted by a concurrent request is not reported twice, and one replaced meanwhile
+     * is reported with the content it had when it was removed. The transactions removed before a failure are
+     * still reported.
+     *
+     * @param ids transaction IDs
+     * @return number of deleted transactions
+     */
+    public long deleteTransactions(Collection<String> ids) {
+        List<Transaction> removed = new ArrayList<>();
+        try {
+            for (String id : new LinkedHashSet<>(ids)) {
+                transactionRepository.findAndDeleteById(id).ifPresent(removed::add);
+            }
+        } finally {
+            transactionCache.evictAll(ids);
+            if (!removed.isEmpty()) {
+                publish(TransactionsChangedEvent.removed(removed));
+            }
+        }
+        return removed.size();
     }
 
-    public Transaction updateTransaction(String id, Transaction transaction) {
-        transaction.setId(id);
-        return transactionRepository.save(transaction);
+    /**
+     * Deletes every transaction dated between the two days, both inclusive, with a single deleteMany.
+     * The deleted transactions are not read back; listeners are told the purged range instead.
+     *
+     * @param startDate first day to purge
+     * @param endDate last day to purge
+     * @return number of deleted transactions
+     */
+    public long purgeTransactions(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        long deleted;
+        try {
+            deleted = transactionRepository.deleteByDateRange(startDate.atStartOfDay(),
+                    endDate.plusDays(1).atStartOfDay());
+        } finally {
+            transactionCache.clear();
+        }
+        if (deleted > 0) {
+            publish(new TransactionsPurgedEvent(startDate, endDate));
+        }
+        return deleted;
+    }
+
+    /**
+     * Replaces a transaction with a single round trip, or two if the new content has no wallet: the
+     * transaction then stays in the wallet it is stored in.
+     *
+     * @param id transaction ID
+     * @param transaction new content
+     * @return the updated transaction, empty if it did not exist
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public Optional<Transaction> updateTransaction(String id, Transaction transaction) {
+        Transaction prepared = prepareContent(transaction);
+        Optional<Transaction> previous;
+        try {
+            previous = transactionRepository.findAndReplaceById(id, prepared);
+        } finally {
+            transactionCache.evict(id);
+        }
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+        publish(new TransactionsChangedEvent(List.of(transaction), List.of(previous.get())));
+        return Optional.of(transaction);
     }
 
     /**
@@ -76,53 +276,129 @@ public class TransactionService {
     public List<Transaction> filterTransactions(Transaction.TransactionType type,
                                                  LocalDate startDate,
                                                  LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findAll();
-
-        return transactions.stream()
-                .filter(t -> type == null || t.getType() == type)
-                .filter(t -> {
-                    if (startDate == null && endDate == null) {
-                        return true;
-                    }
-                    LocalDateTime txDate = t.getDate();
-                    if (startDate != null && endDate != null) {
-                        LocalDateTime start = startDate.atStartOfDay();
-                        LocalDateTime end = endDate.atTime(LocalTime.MAX);
-                        return !txDate.isBefore(start) && !txDate.isAfter(end);
-                    }
-                    if (startDate != null) {
-                        return !txDate.isBefore(startDate.atStartOfDay());
-                    }
-                    return !txDate.isAfter(endDate.atTime(LocalTime.MAX));
-                })
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Calculates summary statistics including total income, expense, and balance.
+        return filterTransactions(TransactionFilter.builder()
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .build());
+    }
+
+    /**
+     * Filters transactions in the database, returning only the selected fields.
      *
-     * @return map containing totalIncome, totalExpense, and balance
+     * @param filter criteria and projection
+     * @return list of filtered transactions
+     */
+    public List<Transaction> filterTransactions(TransactionFilter filter) {
+        return transactionRepository.findFiltered(filter);
+    }
+
+    /**
+     * Finds the largest transactions of a type in a date range, reading only those from the
+     * {@code (type, amount)} index.
+     *
+     * @param type transaction type
+     * @param k number of transactions
+     * @param startDate first day, null for no start limit
+     * @param endDate last day, null for no end limit
+     * @return at most k transactions, largest amount first
+     */
+    public List<Transaction> getTopTransactions(Transaction.TransactionType type, int k,
+                                                LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .sort(Sort.by(Sort.Direction.DESC, TransactionField.AMOUNT.getProperty()))
+                .limit(k)
+                .build());
+    }
+
+    /**
+     * Streams the transactions matching a filter from a database cursor.
+     * The caller must close the returned stream.
+     *
+     * @param filter criteria and projection
+     * @return stream of matching transactions
      */
-    public Map<String, BigDecimal> getSummary() {
-        List<Transaction> all = transactionRepository.findAll();
+    public Stream<Transaction> streamTransactions(TransactionFilter filter) {
+        return transactionRepository.streamFiltered(filter);
+    }
 
-        BigDecimal income = all.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Lists the transactions of a wallet, most recent first, reading them from the {@code (walletId, date)}
+     * index.
+     *
+     * @param walletId wallet ID
+     * @param type transaction type, null for all types
+     * @param startDate first day, null for no start limit
+     * @param endDate last day, null for no end limit
+     * @param limit maximum number of transactions
+     * @return the wallet's transactions
+     */
+    public List<Transaction> getWalletTransactions(String walletId, Transaction.TransactionType type,
+                                                   LocalDate startDate, LocalDate endDate, int limit) {
+        return transactionRepository.findFiltered(TransactionFilter.builder()
+                .walletId(walletId)
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .sort(Sort.by(Sort.Direction.DESC, TransactionField.DATE.getProperty()))
+                .limit(limit)
+                .build());
+    }
 
-        BigDecimal expense = all.stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Calculates total income, expense and balance in a reporting currency.
+     * Amounts are summed per type and currency in the database; only those few totals are converted, with
+     * the current snapshot of the exchange rates.
+     *
+     * @param currency reporting currency, null for the base currency of the rates
+     * @return map containing totalIncome, totalExpense, and balance
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public Map<String, BigDecimal> getSummary(String currency) {
+        FxTable fx = fxRateService.current();
+        String reporting = currency == null ? fx.baseCurrency() : currency;
+        fx.rate(reporting);
 
-        BigDecimal balance = income.subtract(expense);
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        for (CurrencyTotal total : transactionRepository.sumByTypeAndCurrency()) {
+            BigDecimal converted = fx.convert(total.total(), total.currency(), reporting);
+            if (total.type() == Transaction.TransactionType.INCOME) {
+                income = income.add(converted);
+            } else if (total.type() == Transaction.TransactionType.EXPENSE) {
+                expense = expense.add(converted);
+            }
+        }
 
         Map<String, BigDecimal> summary = new HashMap<>();
         summary.put("totalIncome", income);
         summary.put("totalExpense", expense);
-        summary.put("balance", balance);
+        summary.put("balance", income.subtract(expense));
 
         return summary;
     }
+
+    private void publish(Object event) {
+        Deadline.runWithout(() -> eventPublisher.publishEvent(event));
+    }
+
+    private Transaction prepare(Transaction transaction) {
+        if (transaction.getWalletId() == null) {
+            transaction.setWalletId(Transaction.DEFAULT_WALLET);
+        }
+        return prepareContent(transaction);
+    }
+
+    // everything but the wallet, which an update without one keeps from the stored transaction
+    private Transaction prepareContent(Transaction transaction) {
+        if (transaction.getCurrency() == null) {
+            transaction.setCurrency(Transaction.DEFAULT_CURRENCY);
+        }
+        // an amount that cannot be converted would make every converted total fail
+        fxRateService.current().rate(transaction.getCurrency());
+        return categoryDictionary.assign(transaction);
+    }
 }
@@ -0,0 +1,37 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Published by {@link TransactionService} after transactions are written, so that in-memory indexes can be
+ * kept up to date without reading the collection again.
+ * Purges by date range are reported with a {@link TransactionsPurgedEvent} instead, since the deleted documents
+ * are not read back.
+ *
+ * @param added transactions inserted, or new content of updated ones
+ * @param removed transactions deleted, or previous content of updated ones
+ */
+public record TransactionsChangedEvent(List<Transaction> added, List<Transaction> removed) {
+
+    /**
+     * Event for inserted transactions.
+     *
+     * @param added inserted transactions
+     * @return the event
+     */
+    public static TransactionsChangedEvent added(List<Transaction> added) {
+        return new TransactionsChangedEvent(added, List.of());
+    }
+
+    /**
+     * Event for deleted transactions.
+     *
+     * @param removed deleted transactions
+     * @return the event
+     */
+    public static TransactionsChangedEvent removed(List<Transaction> removed) {
+        return new TransactionsChangedEvent(List.of(), removed);
+    }
+}
@@ -0,0 +1,13 @@
+package com.anteiku.wallet.service;
+
+import java.time.LocalDate;
+
+/**
+ * Published by {@link TransactionService} after every transaction dated in a range has been deleted.
+ * The deleted documents are not read back, so listeners have to recompute what they derived from that range.
+ *
+ * @param startDate first purged day
+ * @param endDate last purged day
+ */
+public record TransactionsPurgedEvent(LocalDate startDate, LocalDate endDate) {
+}
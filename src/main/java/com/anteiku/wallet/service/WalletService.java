@@ -0,0 +1,225 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.WalletSummary;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.WalletBalance;
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.repository.TransactionRepositoryCustom;
+import com.anteiku.wallet.repository.WalletBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-wallet running totals.
+ * Every {@link TransactionsChangedEvent} is turned into one {@code $inc} per affected wallet, so a balance is
+ * read from a single document keyed by wallet ID, and never by scanning the wallet's transactions. Totals are
+ * kept per currency and converted when read, as the global summary is. The totals are rebuilt from the
+ * transactions when they are first created and after a purge by date range, which can touch any wallet, with
+ * writes conditional on the version so concurrent increments are kept. A wallet whose increment fails is rebuilt
+ * by the next reconciliation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalletService {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    private final WalletBalanceRepository balanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final FxRateService fxRateService;
+    private final TransactionCache transactionCache;
+    // wallets whose $inc failed, rebuilt by the next reconciliation
+    private final Set<String> unreconciled = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    /**
+     * Moves the transactions stored before wallets existed to the default wallet, then builds the totals if
+     * they do not exist, do not include those transactions or are not kept per currency yet.
+     */
+    public void load() {
+        try {
+            long moved = transactionRepository.assignDefaultWallet();
+            if (moved > 0) {
+                transactionCache.clear();
+            }
+            if (moved > 0 || balanceRepository.count() == 0 || balanceRepository.existsByCurrenciesExists(false)) {
+                rebuild();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not load the wallet balances: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the totals of a wallet with a single lookup, in the base currency of the exchange rates.
+     *
+     * @param walletId wallet ID
+     * @return the totals, all zero for a wallet without transactions
+     */
+    public WalletSummary getBalance(String walletId) {
+        return getBalance(walletId, null);
+    }
+
+    /**
+     * Returns the totals of a wallet with a single lookup, converting the totals of each currency with the
+     * current snapshot of the exchange rates.
+     *
+     * @param walletId wallet ID
+     * @param currency reporting currency, null for the base currency of the rates
+     * @return the totals, all zero for a wallet without transactions
+     * @throws IllegalArgumentException if a currency has no exchange rate
+     */
+    public WalletSummary getBalance(String walletId, String currency) {
+        FxTable fx = fxRateService.current();
+        String reporting = currency == null ? fx.baseCurrency() : currency;
+        fx.rate(reporting);
+        WalletBalance totals = balanceRepository.findById(walletId)
+                .orElseGet(() -> WalletBalance.builder().id(walletId).build());
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        for (Map.Entry<String, WalletBalance.Totals> entry : totals.getCurrencies().entrySet()) {
+            income = income.add(fx.convert(entry.getValue().getIncome(), entry.getKey(), reporting));
+            expense = expense.add(fx.convert(entry.getValue().getExpense(), entry.getKey(), reporting));
+        }
+        return new WalletSummary(walletId, reporting, income, expense, income.subtract(expense), totals.getCount(),
+                totals.getVersion());
+    }
+
+    @EventListener
+    void onTransactionsChanged(TransactionsChangedEvent event) {
+        Map<String, WalletBalance> deltas = new HashMap<>();
+        event.removed().forEach(transaction -> add(deltas, transaction, -1));
+        event.added().forEach(transaction -> add(deltas, transaction, 1));
+        try {
+            balanceRepository.applyDeltas(deltas.values());
+        } catch (RuntimeException ex) {
+            unreconciled.addAll(deltas.keySet());
+            log.warn("Could not update the wallet balances, rebuilding them later: {}", ex.getMessage());
+        }
+    }
+
+    @EventListener
+    void onTransactionsPurged(TransactionsPurgedEvent event) {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Could not rebuild the wallet balances: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the wallets whose {@code $inc} failed, keeping those that still cannot be rebuilt for the next
+     * run.
+     */
+    @Scheduled(fixedDelayString = "${wallet.balances.reconcile-interval:PT1M}")
+    public void reconcile() {
+        for (String walletId : List.copyOf(unreconciled)) {
+            unreconciled.remove(walletId);
+            try {
+                if (!rebuild(walletId)) {
+                    unreconciled.add(walletId);
+                }
+            } catch (RuntimeException ex) {
+                unreconciled.add(walletId);
+                log.warn("Could not reconcile the balance of wallet {}: {}", walletId, ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recomputes the totals of every wallet with a single aggregation and stores each with a replace conditional
+     * on the version read before it, so an {@code $inc} applied meanwhile is not lost: the wallet is rebuilt again
+     * on its own instead. Versions keep increasing, and wallets left without transactions keep their document
+     * with zero totals.
+     */
+    void rebuild() {
+        Map<String, Long> versions = new HashMap<>();
+        balanceRepository.findAll().forEach(balance -> versions.put(balance.getId(), balance.getVersion()));
+        Map<String, WalletBalance> totals = balances(transactionRepository.sumByWallet(null));
+        Set<String> wallets = new HashSet<>(versions.keySet());
+        wallets.addAll(totals.keySet());
+        for (String walletId : wallets) {
+            WalletBalance balance = totals.getOrDefault(walletId, WalletBalance.builder().id(walletId).build());
+            if (!replace(balance, versions.get(walletId)) && !rebuild(walletId)) {
+                unreconciled.add(walletId);
+            }
+        }
+        log.info("Rebuilt the balances of {} wallets", wallets.size());
+    }
+
+    /**
+     * Recomputes the totals of one wallet, reading its version again whenever another write changed it first.
+     *
+     * @param walletId wallet ID
+     * @return true if the totals were stored, false if they kept changing
+     */
+    boolean rebuild(String walletId) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Long version = balanceRepository.findById(walletId).map(WalletBalance::getVersion).orElse(null);
+            WalletBalance balance = balances(transactionRepository.sumByWallet(walletId))
+                    .getOrDefault(walletId, WalletBalance.builder().id(walletId).build());
+            if (replace(balance, version)) {
+                return true;
+            }
+        }
+        log.warn("Could not rebuild the balance of wallet {} after {} attempts", walletId, MAX_ATTEMPTS);
+        return false;
+    }
+
+    private boolean replace(WalletBalance balance, Long version) {
+        balance.setVersion(version == null ? 0 : version + 1);
+        return balanceRepository.replaceIfVersion(balance, version);
+    }
+
+    private static Map<String, WalletBalance> balances(List<TransactionRepositoryCustom.WalletTotal> totals) {
+        Map<String, WalletBalance> balances = new HashMap<>();
+        for (TransactionRepositoryCustom.WalletTotal total : totals) {
+            WalletBalance balance = balances.computeIfAbsent(total.walletId(),
+                    id -> WalletBalance.builder().id(id).build());
+            WalletBalance.Totals currency = balance.totals(total.currency());
+            if (total.type() == Transaction.TransactionType.INCOME) {
+                currency.setIncome(currency.getIncome().add(total.total()));
+            } else {
+                currency.setExpense(currency.getExpense().add(total.total()));
+            }
+            balance.setCount(balance.getCount() + total.count());
+        }
+        return balances;
+    }
+
+    private static void add(Map<String, WalletBalance> totals, Transaction transaction, int sign) {
+        if (transaction.getAmount() == null) {
+            return;
+        }
+        String walletId = transaction.getWalletId() == null ? Transaction.DEFAULT_WALLET : transaction.getWalletId();
+        WalletBalance balance = totals.computeIfAbsent(walletId, id -> WalletBalance.builder().id(id).build());
+        WalletBalance.Totals currency = balance.totals(transaction.getCurrency() == null
+                ? Transaction.DEFAULT_CURRENCY : transaction.getCurrency());
+        BigDecimal amount = sign < 0 ? transaction.getAmount().negate() : transaction.getAmount();
+        if (transaction.getType() == Transaction.TransactionType.INCOME) {
+            currency.setIncome(currency.getIncome().add(amount));
+        } else {
+            currency.setExpense(currency.getExpense().add(amount));
+        }
+        balance.setCount(balance.getCount() + sign);
+    }
+}
@@ -0,0 +1,37 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.DecimalAmountMigration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} while the {@link WarmupRunner} is running, the stored amounts are not all
+ * converted by the {@link DecimalAmountMigration}, or the budget counters, the amount statistics and the read
+ * models are still being loaded. Included in the readiness group, it keeps the
+ * instance out of the load balancer until it is warm and answers from complete models.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupRunner warmupRunner;
+    private final BudgetService budgetService;
+    private final StatsService statsService;
+    private final ReadModelSnapshotService readModelSnapshotService;
+    private final DecimalAmountMigration decimalAmountMigration;
+
+    @Override
+    public Health health() {
+        boolean loaded = decimalAmountMigration.isDone() && budgetService.isReady() && statsService.isReady()
+                && readModelSnapshotService.isReady();
+        Health.Builder builder = warmupRunner.isDone() && loaded ? Health.up() : Health.outOfService();
+        return builder.withDetail("iterations", warmupRunner.getIterationsDone())
+                .withDetail("amounts", decimalAmountMigration.isDone())
+                .withDetail("budgets", budgetService.isReady())
+                .withDetail("stats", statsService.isReady())
+                .withDetail("readModels", readModelSnapshotService.isReady())
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.WarmupProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Warms up the instance before it takes traffic.
+ * Right after a deploy the read paths run interpreted and the caches are empty, so the first requests are the
+ * slowest. At startup the runner repeats the reads of the API on the most recent transactions, or on synthetic
+ * ones when none is stored: lookups by ID through the transaction cache and the JSON round trip of the results.
+ * The summary aggregation reads every transaction, so only the first passes run it. Until it is done, and the
+ * in-memory models are loaded, {@link WarmupHealthIndicator} keeps the readiness group {@code OUT_OF_SERVICE}.
+ * The total time and the time of the first and last pass, whose ratio is the effect of the warm-up, are
+ * recorded in the {@code wallet.warmup.duration} and {@code wallet.warmup.iteration} metrics.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmupRunner {
+
+    // passes that run the summary aggregation, enough to compile it without scanning the collection every time
+    private static final int SUMMARY_PASSES = 2;
+
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+    private final WarmupProperties properties;
+    private final MeterRegistry registry;
+
+    private volatile boolean finished;
+    private volatile int iterationsDone;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onApplicationReady() {
+        if (properties.isEnabled()) {
+            CompletableFuture.runAsync(this::run);
+        }
+    }
+
+    /**
+     * Runs the warm-up passes, until all are done or the time limit is reached, then marks the instance warm.
+     * A failing pass, such as with the database down, ends the warm-up early.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        long first = 0;
+        long last = 0;
+        try {
+            List<Transaction> sample = sample();
+            while (iterationsDone < properties.getIterations() && System.nanoTime() < deadline) {
+                long passStart = System.nanoTime();
+                exercise(sample, iterationsDone < SUMMARY_PASSES);
+                last = System.nanoTime() - passStart;
+                if (iterationsDone == 0) {
+                    first = last;
+                }
+                iterationsDone++;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up stopped after {} passes: {}", iterationsDone, ex.getMessage());
+        } finally {
+            long total = System.nanoTime() - start;
+            record(total, first, last);
+            finished = true;
+        }
+    }
+
+    /**
+     * Tells whether the warm-up is over, or disabled.
+     *
+     * @return true once the instance can take traffic
+     */
+    public boolean isDone() {
+        return finished || !properties.isEnabled();
+    }
+
+    /**
+     * Returns the number of warm-up passes done so far.
+     *
+     * @return completed passes
+     */
+    public int getIterationsDone() {
+        return iterationsDone;
+    }
+
+    private List<Transaction> sample() {
+        List<Transaction> recent = transactionService.filterTransactions(TransactionFilter.builder()
+                .sort(Sort.by(Sort.Direction.DESC, TransactionField.DATE.getProperty()))
+                .limit(properties.getSampleSize())
+                .build());
+        return recent.isEmpty() ? synthetic(properties.getSampleSize()) : recent;
+    }
+
+    private void exercise(List<Transaction> sample, boolean summary) {
+        List<String> ids = new ArrayList<>();
+        for (Transaction transaction : sample) {
+            if (transaction.getId() != null) {
+                transactionService.getTransactionById(transaction.getId());
+                ids.add(transaction.getId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            transactionService.getTransactionsByIds(ids);
+        }
+        if (summary) {
+            transactionService.getSummary(null);
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(sample);
+            objectMapper.readValue(json, Transaction[].class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void record(long total, long first, long last) {
+        Timer.builder("wallet.warmup.duration").register(registry).record(total, TimeUnit.NANOSECONDS);
+        if (iterationsDone > 0) {
+            Timer.builder("wallet.warmup.iteration").tag("phase", "first").register(registry)
+                    .record(first, TimeUnit.NANOSECONDS);
+            Timer.builder("wallet.warmup.iteration").tag("phase", "last").register(registry)
+                    .record(last, TimeUnit.NANOSECONDS);
+        }
+        log.info("Warm-up done in {} ms, {} passes, pass time from {} to {} µs",
+                TimeUnit.NANOSECONDS.toMillis(total), iterationsDone,
+                TimeUnit.NANOSECONDS.toMicros(first), TimeUnit.NANOSECONDS.toMicros(last));
+    }
+
+    static List<Transaction> synthetic(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        return IntStream.range(0, Math.max(count, 1))
+                .mapToObj(i -> Transaction.builder()
+                        .walletId(Transaction.DEFAULT_WALLET)
+                        .amount(BigDecimal.valueOf(100 + i, 2))
+                        .currency(Transaction.DEFAULT_CURRENCY)
+                        .category("Warm-up")
+                        .categoryId(0)
+                        .description("Warm-up " + i)
+                        .date(now.minusHours(i))
+                        .type(i % 2 == 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.anteiku.wallet.service.statement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental reader of CSV statements.
+ * The first row is the header; columns may be named in English or Italian ({@code data}, {@code importo},
+ * {@code tipo}, {@code categoria}, {@code descrizione}). The delimiter is a comma or, as exported by most
+ * Italian banks, a semicolon, and is detected from the header. Quoted cells may contain delimiters,
+ * doubled quotes and line breaks.
+ */
+public class CsvStatementReader implements StatementReader {
+
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+            Map.entry("data", "date"),
+            Map.entry("data operazione", "date"),
+            Map.entry("importo", "amount"),
+            Map.entry("tipo", "type"),
+            Map.entry("categoria", "category"),
+            Map.entry("descrizione", "description"));
+
+    private static final int HEADER_LOOKAHEAD = 8192;
+
+    private final BufferedReader in;
+    private final char delimiter;
+    private final List<String> header;
+    private long line = 1;
+
+    /**
+     * Opens the reader and consumes the header row.
+     *
+     * @param in statement text
+     * @throws IOException if the header cannot be read or is missing
+     */
+    public CsvStatementReader(BufferedReader in) throws IOException {
+        this.in = in;
+        this.delimiter = detectDelimiter(in);
+        List<String> names = readRow();
+        if (names == null) {
+            throw new IOException("Empty CSV statement");
+        }
+        this.header = names.stream().map(CsvStatementReader::normalize).toList();
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        while (true) {
+            final long start = line;
+            List<String> cells = readRow();
+            if (cells == null) {
+                return null;
+            }
+            if (cells.size() == 1 && cells.get(0).isBlank()) {
+                continue;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < Math.min(cells.size(), header.size()); i++) {
+                fields.put(header.get(i), cells.get(i));
+            }
+            return new StatementRecord(start, fields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads one row, honouring quotes; returns null at the end of the input.
+     */
+    private List<String> readRow() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    cell.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                cell.append((char) c);
+            }
+            c = in.read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static char detectDelimiter(BufferedReader in) throws IOException {
+        in.mark(HEADER_LOOKAHEAD);
+        String first = in.readLine();
+        in.reset();
+        if (first == null) {
+            return ',';
+        }
+        long semicolons = first.chars().filter(c -> c == ';').count();
+        long commas = first.chars().filter(c -> c == ',').count();
+        return semicolons > commas ? ';' : ',';
+    }
+
+    private static String normalize(String name) {
+        String key = name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+        return ALIASES.getOrDefault(key, key);
+    }
+}
@@ -0,0 +1,149 @@
+package com.anteiku.wallet.service.statement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental reader of OFX statements.
+ * Both the SGML dialect of OFX 1.x, where leaf elements are not closed, and the XML dialect of OFX 2.x
+ * are handled by reading a flat sequence of tags and text: every {@code <STMTTRN>} aggregate becomes one
+ * entry, so only the transaction being read is held in memory.
+ */
+public class OfxStatementReader implements StatementReader {
+
+    private static final String TRANSACTION = "STMTTRN";
+
+    private final BufferedReader in;
+    private long line = 1;
+
+    /**
+     * Creates the reader; the OFX header is skipped while looking for the first transaction.
+     *
+     * @param in statement text
+     */
+    public OfxStatementReader(BufferedReader in) {
+        this.in = in;
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        Map<String, String> element = null;
+        long start = line;
+        String tag;
+        while ((tag = readTag()) != null) {
+            if (TRANSACTION.equals(tag)) {
+                element = new HashMap<>();
+                start = line;
+            } else if (("/" + TRANSACTION).equals(tag) && element != null) {
+                return toRecord(start, element);
+            } else if (element != null && !tag.startsWith("/")) {
+                String text = readText();
+                if (!text.isEmpty()) {
+                    element.put(tag, text);
+                }
+            }
+        }
+        if (element != null) {
+            throw new IOException("Unterminated " + TRANSACTION + " at line " + start);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Skips to the next tag and returns its upper-case name, with a leading slash for closing tags.
+     */
+    private String readTag() throws IOException {
+        int c;
+        while ((c = in.read()) != '<') {
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+            }
+        }
+        StringBuilder name = new StringBuilder();
+        while ((c = in.read()) != '>') {
+            if (c == -1) {
+                throw new IOException("Unterminated tag at line " + line);
+            }
+            name.append((char) c);
+        }
+        return name.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the text up to, but not including, the next tag.
+     */
+    private String readText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (true) {
+            in.mark(1);
+            int c = in.read();
+            if (c == -1) {
+                break;
+            }
+            if (c == '<') {
+                in.reset();
+                break;
+            }
+            if (c == '\n') {
+                line++;
+            }
+            text.append((char) c);
+        }
+        return unescape(text.toString().trim());
+    }
+
+    private static StatementRecord toRecord(long line, Map<String, String> element) {
+        Map<String, String> fields = new HashMap<>();
+        String posted = element.get("DTPOSTED");
+        if (posted != null) {
+            fields.put("date", toIsoDate(posted));
+        }
+        fields.put("amount", element.get("TRNAMT"));
+        String name = element.get("NAME");
+        String memo = element.get("MEMO");
+        if (name != null && memo != null && !memo.equals(name)) {
+            fields.put("description", name + " - " + memo);
+        } else {
+            fields.put("description", name != null ? name : memo);
+        }
+        return new StatementRecord(line, fields);
+    }
+
+    /**
+     * Converts an OFX date ({@code yyyyMMdd[HHmmss[.XXX]][[offset:TZ]]}) to ISO local date or date-time,
+     * dropping the time zone. Malformed values are passed through for the mapper to reject.
+     */
+    private static String toIsoDate(String value) {
+        int length = 0;
+        while (length < value.length() && length < 14 && Character.isDigit(value.charAt(length))) {
+            length++;
+        }
+        if (length != 8 && length != 14) {
+            return value;
+        }
+        String date = value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6, 8);
+        if (length == 8) {
+            return date;
+        }
+        return date + "T" + value.substring(8, 10) + ":" + value.substring(10, 12) + ":" + value.substring(12, 14);
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+}
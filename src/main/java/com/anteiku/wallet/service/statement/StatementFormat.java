@@ -0,0 +1,52 @@
+package com.anteiku.wallet.service.statement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Supported bank statement formats.
+ */
+public enum StatementFormat {
+    /**
+     * Comma or semicolon separated values with a header row.
+     */
+    CSV,
+    /**
+     * Open Financial Exchange, SGML (1.x) or XML (2.x).
+     */
+    OFX;
+
+    /**
+     * Opens a reader of this format.
+     *
+     * @param in statement text
+     * @return incremental reader
+     * @throws IOException if the statement header cannot be read
+     */
+    public StatementReader open(BufferedReader in) throws IOException {
+        return this == CSV ? new CsvStatementReader(in) : new OfxStatementReader(in);
+    }
+
+    /**
+     * Resolves the format from an explicit name or, failing that, from the request content type.
+     *
+     * @param name format name, may be null
+     * @param contentType request content type, may be null
+     * @return the format, CSV by default
+     * @throws IllegalArgumentException if the name is not a supported format
+     */
+    public static StatementFormat resolve(String name, String contentType) {
+        if (name != null && !name.isBlank()) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unsupported statement format: " + name);
+            }
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("ofx")) {
+            return OFX;
+        }
+        return CSV;
+    }
+}
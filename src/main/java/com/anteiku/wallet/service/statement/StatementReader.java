@@ -0,0 +1,19 @@
+package com.anteiku.wallet.service.statement;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Incremental reader of a bank statement.
+ * Implementations pull from a character stream and never hold more than the current entry in memory.
+ */
+public interface StatementReader extends Closeable {
+
+    /**
+     * Reads the next entry.
+     *
+     * @return the next entry, null at the end of the statement
+     * @throws IOException if reading fails or the statement is malformed beyond recovery
+     */
+    StatementRecord next() throws IOException;
+}
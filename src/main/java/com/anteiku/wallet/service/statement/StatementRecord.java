@@ -0,0 +1,25 @@
+package com.anteiku.wallet.service.statement;
+
+import java.util.Map;
+
+/**
+ * One raw entry of a bank statement, before mapping and validation.
+ * Field names are normalized to {@code date}, {@code amount}, {@code type}, {@code category} and
+ * {@code description}; values are the untouched text of the statement.
+ *
+ * @param line line of the statement where the entry starts, for error reporting
+ * @param fields normalized field name to raw value
+ */
+public record StatementRecord(long line, Map<String, String> fields) {
+
+    /**
+     * Returns the trimmed value of a field.
+     *
+     * @param name normalized field name
+     * @return the value, null if absent or blank
+     */
+    public String get(String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
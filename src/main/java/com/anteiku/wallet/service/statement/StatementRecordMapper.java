@@ -0,0 +1,111 @@
+package com.anteiku.wallet.service.statement;
+
+import com.anteiku.wallet.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Maps raw statement entries onto {@link Transaction}s.
+ * Amounts may use a comma or a dot as decimal separator; when the statement has no type column the sign
+ * of the amount decides between income and expense.
+ */
+public class StatementRecordMapper {
+
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm[:ss]"));
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+            DateTimeFormatter.ofPattern("dd-MM-yyyy"));
+
+    private final String defaultCategory;
+
+    /**
+     * Creates a mapper.
+     *
+     * @param defaultCategory category of entries that do not carry one
+     */
+    public StatementRecordMapper(String defaultCategory) {
+        this.defaultCategory = defaultCategory;
+    }
+
+    /**
+     * Maps an entry; the result still has to be validated.
+     *
+     * @param record raw entry
+     * @return the transaction
+     * @throws IllegalArgumentException if a value cannot be parsed
+     */
+    public Transaction map(StatementRecord record) {
+        BigDecimal amount = parseAmount(record.get("amount"));
+        String type = record.get("type");
+        String category = record.get("category");
+        return Transaction.builder()
+                .amount(amount.abs())
+                .type(type != null ? parseType(type) : signedType(amount))
+                .category(category != null ? category : defaultCategory)
+                .description(record.get("description"))
+                .date(parseDate(record.get("date")))
+                .build();
+    }
+
+    static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        String number = value.replace(" ", "").replace("€", "").replace("+", "");
+        int comma = number.lastIndexOf(',');
+        int dot = number.lastIndexOf('.');
+        if (comma > dot) {
+            number = number.replace(".", "").replace(',', '.');
+        } else if (dot > comma && comma >= 0) {
+            number = number.replace(",", "");
+        }
+        try {
+            return new BigDecimal(number);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        throw new IllegalArgumentException("Invalid date: " + value);
+    }
+
+    private static Transaction.TransactionType parseType(String value) {
+        return switch (value.toUpperCase(Locale.ROOT)) {
+            case "INCOME", "ENTRATA", "CREDIT", "CREDITO" -> Transaction.TransactionType.INCOME;
+            case "EXPENSE", "USCITA", "DEBIT", "DEBITO" -> Transaction.TransactionType.EXPENSE;
+            default -> throw new IllegalArgumentException("Invalid type: " + value);
+        };
+    }
+
+    private static Transaction.TransactionType signedType(BigDecimal amount) {
+        return amount.signum() < 0 ? Transaction.TransactionType.EXPENSE : Transaction.TransactionType.INCOME;
+    }
+}
@@ -1,13 +1,29 @@
 package com.anteiku.wallet;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 class WalletApplicationTests {
 
+	@Autowired
+	private MockMvc mockMvc;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void queryDiagnosticsShouldBeOptIn() throws Exception {
+		mockMvc.perform(get("/actuator/queries")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk());
+	}
+
 }
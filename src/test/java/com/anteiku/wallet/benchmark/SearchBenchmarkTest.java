@@ -0,0 +1,83 @@
+package com.anteiku.wallet.benchmark;
+
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.service.TransactionSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures type-ahead latency over the terms of a large ledger.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Search Benchmark")
+class SearchBenchmarkTest {
+
+    private static final int TRANSACTIONS = Integer.getInteger("benchmark.transactions", 1_000_000);
+    private static final int VOCABULARY = Integer.getInteger("benchmark.vocabulary", 20_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 20_000);
+    private static final String[] CATEGORIES = {"Cibo", "Affitto", "Svago", "Trasporti", "Salute", "Stipendio"};
+
+    @Test
+    @DisplayName("p99 dei suggerimenti sotto i 20 ms con un milione di transazioni")
+    void suggestionLatency() {
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = randomWord(random);
+        }
+        TransactionRepository repository = mock(TransactionRepository.class);
+        when(repository.streamFiltered(any())).thenReturn(Stream.generate(() -> Transaction.builder()
+                .amount(BigDecimal.TEN)
+                .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                .description(words[zipf(random)] + " " + words[zipf(random)] + " " + words[zipf(random)])
+                .build()).limit(TRANSACTIONS));
+        TransactionSearchService searchService = new TransactionSearchService(repository, 200_000);
+
+        long loadStart = System.nanoTime();
+        searchService.load();
+        long loadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String prefix = words[random.nextInt(VOCABULARY)].substring(0, 1 + random.nextInt(3));
+            long start = System.nanoTime();
+            searchService.suggest(prefix, 10);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[QUERIES / 2] / 1e6;
+        double p99 = latencies[QUERIES * 99 / 100] / 1e6;
+        System.out.printf("%nload %d transactions: %d ms, suggest p50 %.3f ms, p99 %.3f ms%n",
+                TRANSACTIONS, loadMs, p50, p99);
+
+        assertThat(p99).isLessThan(20.0);
+    }
+
+    /**
+     * Skewed word choice, so that some terms are much more frequent than others as in real descriptions.
+     */
+    private static int zipf(Random random) {
+        return (int) (VOCABULARY * Math.pow(random.nextDouble(), 3));
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+}
@@ -0,0 +1,84 @@
+package com.anteiku.wallet.benchmark;
+
+import com.anteiku.wallet.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the response size and serialization cost of a transaction list in every supported encoding.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Serialization Benchmark")
+class SerializationBenchmarkTest {
+
+    private static final int LIST_SIZE = Integer.getInteger("benchmark.listSize", 1000);
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("benchmark.warmup", 2000);
+    private static final int MEASURED_ITERATIONS = Integer.getInteger("benchmark.iterations", 2000);
+
+    @Test
+    @DisplayName("Byte per risposta e ns/op di JSON indentato, JSON compatto, CBOR e Smile")
+    void compareEncodings() throws Exception {
+        List<Transaction> transactions = sampleTransactions();
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json-indented", Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.INDENT_OUTPUT).build());
+        mappers.put("json-compact", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        System.out.printf("%n%-14s %12s %14s%n", "encoding", "bytes/resp", "ns/op");
+        for (Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            int size = 0;
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                size = mapper.writeValueAsBytes(transactions).length;
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                size += mapper.writeValueAsBytes(transactions).length & 1;
+            }
+            long nsPerOp = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+            int bytes = mapper.writeValueAsBytes(transactions).length;
+            sizes.put(entry.getKey(), bytes);
+            System.out.printf("%-14s %12d %14d%n", entry.getKey(), bytes, nsPerOp);
+        }
+
+        assertThat(sizes.get("json-compact")).isLessThan(sizes.get("json-indented"));
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json-compact"));
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json-compact"));
+    }
+
+    private static List<Transaction> sampleTransactions() {
+        String[] categories = {"Cibo", "Affitto", "Divertimento", "Stipendio", "Trasporti"};
+        List<Transaction> transactions = new ArrayList<>(LIST_SIZE);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            transactions.add(Transaction.builder()
+                    .id(String.format("65a1f0c2e4b0%012d", i))
+                    .amount(BigDecimal.valueOf(100 + i * 37L, 2))
+                    .category(categories[i % categories.length])
+                    .description("Spesa al supermercato numero " + i)
+                    .type(i % 10 == 0 ? Transaction.TransactionType.INCOME : Transaction.TransactionType.EXPENSE)
+                    .date(base.plusHours(i))
+                    .build());
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,126 @@
+package com.anteiku.wallet.benchmark;
+
+import com.anteiku.wallet.config.FxProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.WalletBalance;
+import com.anteiku.wallet.repository.FxRateRepository;
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.repository.WalletBalanceRepository;
+import com.anteiku.wallet.service.FxRateService;
+import com.anteiku.wallet.service.TransactionCache;
+import com.anteiku.wallet.service.WalletService;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures per-wallet balance latency as the number of wallets and transactions grows a hundredfold.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataMongoTest
+@DisplayName("Wallet Balance Benchmark")
+class WalletBalanceBenchmarkTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static final int WALLETS = Integer.getInteger("benchmark.wallets", 100_000);
+    private static final int TRANSACTIONS_PER_WALLET = Integer.getInteger("benchmark.transactionsPerWallet", 5);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 5_000);
+    private static final int CHUNK = 10_000;
+
+    @Autowired
+    private WalletBalanceRepository balanceRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/personal_wallet");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("p99 del saldo di un portafoglio indipendente dal numero di portafogli e transazioni")
+    void balanceLatency() {
+        WalletService walletService = new WalletService(balanceRepository, transactionRepository,
+                new FxRateService(mock(FxRateRepository.class), new FxProperties()), mock(TransactionCache.class));
+        Random random = new Random(42);
+        int small = WALLETS / 100;
+
+        populate(0, small, random);
+        double smallP99 = p99(walletService, small, random);
+        populate(small, WALLETS, random);
+        double largeP99 = p99(walletService, WALLETS, random);
+
+        System.out.printf("%nbalance p99: %.3f ms with %d wallets, %.3f ms with %d wallets (%d transactions)%n",
+                smallP99, small, largeP99, WALLETS, (long) WALLETS * TRANSACTIONS_PER_WALLET);
+        assertThat(largeP99).isLessThan(smallP99 * 3 + 0.5);
+    }
+
+    private void populate(int from, int to, Random random) {
+        for (int start = from; start < to; start += CHUNK) {
+            int end = Math.min(to, start + CHUNK);
+            List<Document> transactions = new ArrayList<>();
+            List<WalletBalance> balances = new ArrayList<>();
+            for (int wallet = start; wallet < end; wallet++) {
+                BigDecimal expense = BigDecimal.ZERO;
+                for (int i = 0; i < TRANSACTIONS_PER_WALLET; i++) {
+                    BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(10_000), 2);
+                    expense = expense.add(amount);
+                    transactions.add(new Document("walletId", "w" + wallet)
+                            .append("amount", new Decimal128(amount))
+                            .append("type", Transaction.TransactionType.EXPENSE.name()));
+                }
+                WalletBalance balance = WalletBalance.builder().id("w" + wallet).count(TRANSACTIONS_PER_WALLET).build();
+                balance.totals(Transaction.DEFAULT_CURRENCY).setExpense(expense);
+                balances.add(balance);
+            }
+            mongoTemplate.getCollection("transactions").insertMany(transactions);
+            mongoTemplate.insertAll(balances);
+        }
+    }
+
+    private static double p99(WalletService walletService, int wallets, Random random) {
+        for (int i = 0; i < QUERIES / 10; i++) {
+            walletService.getBalance("w" + random.nextInt(wallets));
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            walletService.getBalance("w" + random.nextInt(wallets));
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies[QUERIES * 99 / 100] / 1e6;
+    }
+}
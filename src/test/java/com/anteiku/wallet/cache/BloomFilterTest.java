@@ -0,0 +1,81 @@
+package com.anteiku.wallet.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BloomFilter Test")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Dovrebbe riconoscere sempre le chiavi inserite e rispettare il tasso di falsi positivi")
+    void shouldHaveNoFalseNegativesAndBoundedFalsePositives() throws Exception {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(hash("in-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(hash("in-" + i))).isTrue();
+            if (filter.mightContain(hash("out-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(filter.bitSize()).isBetween(95_000L, 97_000L);
+        assertThat(filter.isSaturated()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe svuotarsi e segnalare la saturazione")
+    void shouldClearAndReportSaturation() throws Exception {
+        BloomFilter filter = new BloomFilter(1, 0.01);
+        filter.put(hash("a"));
+        filter.put(hash("b"));
+
+        assertThat(filter.isSaturated()).isTrue();
+
+        filter.clear();
+
+        assertThat(filter.isSaturated()).isFalse();
+        assertThat(filter.mightContain(hash("a"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ripristinare i bit copiati da un filtro delle stesse dimensioni")
+    void shouldRestoreCopiedBits() throws Exception {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put(hash("a"));
+        long[] words = new long[(int) (filter.bitSize() / Long.SIZE)];
+        long insertions = filter.copyTo(words);
+
+        BloomFilter restored = new BloomFilter(100, 0.01);
+        restored.restore(words, insertions);
+
+        assertThat(insertions).isEqualTo(1);
+        assertThat(restored.mightContain(hash("a"))).isTrue();
+        assertThat(restored.mightContain(hash("b"))).isFalse();
+        assertThatThrownBy(() -> restored.restore(new long[1], 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> filter.copyTo(new long[1])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare parametri e chiavi non validi")
+    void shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> new BloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(10, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(10, 0.01).put(new byte[8]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] hash(String key) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+package com.anteiku.wallet.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LruCache Test")
+class LruCacheTest {
+
+    @Test
+    @DisplayName("Dovrebbe eliminare l'elemento usato meno di recente oltre la capacita'")
+    void shouldEvictLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        cache.put("c", 3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).contains(1);
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).contains(3);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rimuovere e svuotare gli elementi")
+    void shouldRemoveAndClearEntries() {
+        LruCache<String, Integer> cache = new LruCache<>(4);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        cache.remove("a");
+        assertThat(cache.get("a")).isEmpty();
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare una capacita' non positiva")
+    void shouldRejectNonPositiveSize() {
+        assertThatThrownBy(() -> new LruCache<String, Integer>(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
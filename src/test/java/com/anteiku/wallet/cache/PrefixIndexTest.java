@@ -0,0 +1,78 @@
+package com.anteiku.wallet.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PrefixIndex Test")
+class PrefixIndexTest {
+
+    @Test
+    @DisplayName("Dovrebbe completare un prefisso con i termini piu' frequenti, ignorando maiuscole e accenti")
+    void shouldCompleteByFrequencyIgnoringCaseAndAccents() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("Supermercato");
+        index.add("supermercato");
+        index.add("Supplemento");
+        index.add("Caffè");
+        index.add("Sushi");
+        index.add("Sushi");
+        index.add("Sushi");
+
+        assertThat(index.complete("SU", 10)).containsExactly("Sushi", "Supermercato", "Supplemento");
+        assertThat(index.complete("sup", 1)).containsExactly("Supermercato");
+        assertThat(index.complete("caffe", 10)).containsExactly("Caffè");
+        assertThat(index.complete("  ", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rimuovere un termine quando non ha piu' occorrenze")
+    void shouldDropTermWithoutOccurrences() {
+        PrefixIndex index = new PrefixIndex(100);
+        index.add("Affitto");
+        index.add("Affitto");
+
+        index.remove("affitto");
+        assertThat(index.complete("aff", 10)).containsExactly("Affitto");
+
+        index.remove("Affitto");
+        assertThat(index.complete("aff", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare nuovi termini oltre la capacita'")
+    void shouldIgnoreNewTermsOverCapacity() {
+        PrefixIndex index = new PrefixIndex(1);
+        index.add("Cibo");
+        index.add("Casa");
+        index.add("Cibo");
+
+        assertThat(index.complete("c", 10)).containsExactly("Cibo");
+        assertThatThrownBy(() -> new PrefixIndex(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe esportare e reimportare i termini con le loro occorrenze")
+    void shouldExportAndImportTermsWithCounts() {
+        PrefixIndex index = new PrefixIndex(10);
+        index.add("Cibo");
+        index.add("cibo");
+        index.add("Casa");
+
+        PrefixIndex copy = new PrefixIndex(10);
+        index.entries().forEach(entry -> copy.add(entry.getKey(), entry.getValue()));
+        copy.add("Cinema", 0);
+
+        assertThat(index.entries()).containsExactly(Map.entry("Casa", 1L), Map.entry("Cibo", 2L));
+        assertThat(copy.entries()).isEqualTo(index.entries());
+
+        copy.clear();
+        assertThat(copy.size()).isZero();
+    }
+}
@@ -0,0 +1,101 @@
+package com.anteiku.wallet.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SnapshotFile Test")
+class SnapshotFileTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-01-15T10:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Dovrebbe rileggere intestazione e sezioni scritte")
+    void shouldReadBackHeaderAndSections() throws IOException {
+        Path path = directory.resolve("nested").resolve("models.snapshot");
+        long[] words = {1L, -1L, Long.MAX_VALUE};
+
+        SnapshotFile.write(path, CREATED_AT, "65a4f0c2e4b0a1b2c3d4e5f6", writer -> {
+            writer.writeInt(42);
+            writer.writeString("Caffè");
+            writer.writeLongs(words);
+            writer.writeLong(7L);
+        });
+        SnapshotFile.Reader reader = SnapshotFile.open(path);
+
+        assertThat(reader.createdAt()).isEqualTo(CREATED_AT);
+        assertThat(reader.position()).isEqualTo("65a4f0c2e4b0a1b2c3d4e5f6");
+        assertThat(reader.readInt()).isEqualTo(42);
+        assertThat(reader.readString()).isEqualTo("Caffè");
+        assertThat(reader.readLongs()).containsExactly(words);
+        assertThat(reader.readLong()).isEqualTo(7L);
+        try (var files = Files.list(path.getParent())) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sostituire lo snapshot precedente e accettare una posizione assente")
+    void shouldReplacePreviousSnapshot() throws IOException {
+        Path path = directory.resolve("models.snapshot");
+        SnapshotFile.write(path, CREATED_AT, "first", writer -> writer.writeInt(1));
+
+        SnapshotFile.write(path, CREATED_AT.plusSeconds(60), null, writer -> writer.writeInt(2));
+        SnapshotFile.Reader reader = SnapshotFile.open(path);
+
+        assertThat(reader.position()).isNull();
+        assertThat(reader.createdAt()).isEqualTo(CREATED_AT.plusSeconds(60));
+        assertThat(reader.readInt()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare file corrotti, troncati o di altro formato")
+    void shouldRejectInvalidFiles() throws IOException {
+        Path path = directory.resolve("models.snapshot");
+        SnapshotFile.write(path, CREATED_AT, "position", writer -> writer.writeLongs(new long[64]));
+        byte[] content = Files.readAllBytes(path);
+
+        byte[] corrupted = content.clone();
+        corrupted[content.length / 2] ^= 1;
+        Files.write(path, corrupted);
+        assertThatThrownBy(() -> SnapshotFile.open(path)).isInstanceOf(IOException.class).hasMessageContaining(
+                "Corrupted");
+
+        Files.write(path, Arrays.copyOf(content, content.length - 3));
+        assertThatThrownBy(() -> SnapshotFile.open(path)).isInstanceOf(IOException.class);
+
+        Files.writeString(path, "not a snapshot at all");
+        assertThatThrownBy(() -> SnapshotFile.open(path)).isInstanceOf(IOException.class).hasMessageContaining(
+                "Not a snapshot");
+
+        byte[] otherVersion = content.clone();
+        otherVersion[Integer.BYTES + 3] = 9;
+        Files.write(path, otherVersion);
+        assertThatThrownBy(() -> SnapshotFile.open(path)).isInstanceOf(IOException.class).hasMessageContaining(
+                "version");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnalare come troncata una sezione letta oltre la fine")
+    void shouldReportReadsPastTheEnd() throws IOException {
+        Path path = directory.resolve("models.snapshot");
+        SnapshotFile.write(path, CREATED_AT, null, writer -> writer.writeInt(Integer.MAX_VALUE));
+
+        SnapshotFile.Reader reader = SnapshotFile.open(path);
+
+        assertThatThrownBy(reader::readLongs).isInstanceOf(BufferUnderflowException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.anteiku.wallet.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TokenBucket Test")
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Dovrebbe consumare la raffica e ricaricarsi nel tempo")
+    void shouldAllowBurstThenRefill() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.tryAcquire(10, 0)).isZero();
+        assertThat(bucket.tryAcquire(5, 0)).isEqualTo(SECOND);
+        assertThat(bucket.tryAcquire(5, SECOND)).isZero();
+        assertThat(bucket.lastUsed()).isEqualTo(SECOND);
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe superare la capacita' dopo una lunga inattivita'")
+    void shouldCapTokensAtCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.tryAcquire(10, 100 * SECOND)).isZero();
+        assertThat(bucket.tryAcquire(1, 100 * SECOND)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe concedere esattamente la capacita' a richieste concorrenti")
+    void shouldGrantCapacityUnderContention() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 0.001, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            threads.execute(() -> {
+                if (bucket.tryAcquire(1, 0) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        threads.shutdown();
+        assertThat(threads.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare capacita' o ricarica non positive")
+    void shouldRejectInvalidSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.anteiku.wallet.config;
+
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.service.TransactionCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DecimalAmountMigration Test")
+class DecimalAmountMigrationTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionCache transactionCache;
+
+    @InjectMocks
+    private DecimalAmountMigration migration;
+
+    @Test
+    @DisplayName("Dovrebbe riprovare la conversione fallita e segnarla conclusa solo quando riesce")
+    void shouldRetryUntilConverted() {
+        when(transactionRepository.convertStringAmounts())
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(3L);
+
+        migration.migrate();
+        assertThat(migration.isDone()).isFalse();
+
+        migration.retry();
+        migration.retry();
+
+        assertThat(migration.isDone()).isTrue();
+        verify(transactionRepository, times(2)).convertStringAmounts();
+        verify(transactionCache).clear();
+    }
+}
@@ -0,0 +1,117 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.BudgetStatus;
+import com.anteiku.wallet.model.Budget;
+import com.anteiku.wallet.service.BudgetService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BudgetController.class)
+@DisplayName("BudgetController Tests")
+class BudgetControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BudgetService budgetService;
+
+    @Test
+    @DisplayName("POST /api/budgets - Dovrebbe creare un budget")
+    void shouldCreateBudget() throws Exception {
+        // Given
+        when(budgetService.createBudget(any(Budget.class))).thenAnswer(inv -> {
+            Budget budget = inv.getArgument(0);
+            budget.setId("b-1");
+            return budget;
+        });
+
+        // When & Then
+        mockMvc.perform(post("/api/budgets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\":\"Cibo\",\"limit\":200.00,\"period\":\"YEARLY\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("b-1"))
+                .andExpect(jsonPath("$.period").value("YEARLY"))
+                .andExpect(jsonPath("$.thresholds[0]").value(80));
+    }
+
+    @Test
+    @DisplayName("POST /api/budgets - Dovrebbe restituire 400 con limite non positivo")
+    void shouldRejectInvalidBudget() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/budgets")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\":\"Cibo\",\"limit\":0}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(budgetService);
+    }
+
+    @Test
+    @DisplayName("GET /api/budgets - Dovrebbe restituire tutti i budget")
+    void shouldGetBudgets() throws Exception {
+        // Given
+        when(budgetService.getBudgets()).thenReturn(List.of(Budget.builder().id("b-1").category("Cibo")
+                .limit(new BigDecimal("100.00")).build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/budgets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Cibo"));
+    }
+
+    @Test
+    @DisplayName("GET /api/budgets/status - Dovrebbe restituire lo stato dei budget nel mese")
+    void shouldGetStatus() throws Exception {
+        // Given
+        when(budgetService.getStatus(YearMonth.of(2024, 3))).thenReturn(List.of(new BudgetStatus("b-1", "Cibo",
+                Budget.Period.MONTHLY, "2024-03", new BigDecimal("100.00"), new BigDecimal("85.00"),
+                new BigDecimal("15.00"), new BigDecimal("85.0"), List.of(80))));
+
+        // When & Then
+        mockMvc.perform(get("/api/budgets/status").param("month", "2024-03"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].spent").value(85.00))
+                .andExpect(jsonPath("$[0].crossedThresholds[0]").value(80));
+    }
+
+    @Test
+    @DisplayName("GET /api/budgets/status - Dovrebbe usare il mese corrente se non indicato")
+    void shouldDefaultToCurrentMonth() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/budgets/status"))
+                .andExpect(status().isOk());
+        verify(budgetService).getStatus(YearMonth.now());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/budgets/{id} - Dovrebbe restituire 204 o 404 se non esiste")
+    void shouldDeleteBudget() throws Exception {
+        // Given
+        when(budgetService.deleteBudget("b-1")).thenReturn(Optional.of(new Budget()));
+        when(budgetService.deleteBudget("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(delete("/api/budgets/b-1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/budgets/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,85 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.service.CategoryDictionary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CategoryController.class)
+@DisplayName("CategoryController Tests")
+class CategoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CategoryDictionary categoryDictionary;
+
+    @Test
+    @DisplayName("GET /api/categories - Dovrebbe restituire tutte le categorie")
+    void shouldGetAllCategories() throws Exception {
+        // Given
+        when(categoryDictionary.findAll()).thenReturn(List.of(new Category(2, "affitto", "Affitto"),
+                new Category(1, "cibo", "Cibo")));
+
+        // When & Then
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].name").value("Affitto"))
+                .andExpect(jsonPath("$[0].key").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/categories?prefix= - Dovrebbe completare il prefisso")
+    void shouldCompletePrefix() throws Exception {
+        // Given
+        when(categoryDictionary.complete("ci", 5)).thenReturn(List.of(new Category(1, "cibo", "Cibo")));
+
+        // When & Then
+        mockMvc.perform(get("/api/categories").param("prefix", "ci").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Cibo"));
+        verify(categoryDictionary).complete("ci", 5);
+    }
+
+    @Test
+    @DisplayName("GET /api/categories?prefix= - Dovrebbe restituire 400 con limite troppo alto")
+    void shouldRejectOversizedLimit() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/categories").param("prefix", "ci").param("limit", "51"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(categoryDictionary);
+    }
+
+    @Test
+    @DisplayName("GET /api/categories/{id} - Dovrebbe restituire la categoria o 404 se non esiste")
+    void shouldGetCategoryById() throws Exception {
+        // Given
+        when(categoryDictionary.findById(anyInt())).thenReturn(Optional.empty());
+        when(categoryDictionary.findById(1)).thenReturn(Optional.of(new Category(1, "cibo", "Cibo")));
+
+        // When & Then
+        mockMvc.perform(get("/api/categories/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cibo"));
+        mockMvc.perform(get("/api/categories/99"))
+                .andExpect(status().isNotFound());
+    }
+}
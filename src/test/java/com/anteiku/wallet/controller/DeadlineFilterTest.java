@@ -0,0 +1,52 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.DeadlineProperties;
+import com.anteiku.wallet.repository.Deadline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DeadlineFilter Tests")
+class DeadlineFilterTest {
+
+    private final DeadlineFilter filter = new DeadlineFilter(new DeadlineProperties());
+
+    @Test
+    @DisplayName("Dovrebbe usare la scadenza richiesta entro il massimo consentito")
+    void shouldUseRequestedTimeoutUpToMaximum() {
+        assertThat(filter.timeout(null)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(filter.timeout("2500")).isEqualTo(Duration.ofMillis(2500));
+        assertThat(filter.timeout("600000")).isEqualTo(Duration.ofSeconds(30));
+        assertThat(filter.timeout("0")).isEqualTo(Duration.ofSeconds(10));
+        assertThat(filter.timeout("soon")).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe impostare la scadenza solo per la durata della richiesta")
+    void shouldSetDeadlineForRequestOnly() throws Exception {
+        AtomicBoolean duringRequest = new AtomicBoolean();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/transactions"), new MockHttpServletResponse(),
+                (request, response) -> duringRequest.set(Deadline.isSet()));
+
+        assertThat(duringRequest).isTrue();
+        assertThat(Deadline.isSet()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe impostare la scadenza per i percorsi esclusi")
+    void shouldSkipExcludedPaths() throws Exception {
+        AtomicBoolean duringRequest = new AtomicBoolean(true);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/import"), new MockHttpServletResponse(),
+                (request, response) -> duringRequest.set(Deadline.isSet()));
+
+        assertThat(duringRequest).isFalse();
+    }
+}
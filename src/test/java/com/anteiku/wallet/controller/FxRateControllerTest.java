@@ -0,0 +1,59 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.service.FxRateService;
+import com.anteiku.wallet.service.FxTable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FxRateController.class)
+@DisplayName("FxRateController Tests")
+class FxRateControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private FxRateService fxRateService;
+
+    @Test
+    @DisplayName("GET /api/fx-rates - Dovrebbe restituire i tassi correnti")
+    void shouldGetRates() throws Exception {
+        // Given
+        when(fxRateService.current()).thenReturn(new FxTable("EUR", Map.of("USD", new BigDecimal("1.08")),
+                Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/fx-rates"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.baseCurrency").value("EUR"))
+                .andExpect(jsonPath("$.rates.EUR").value(1))
+                .andExpect(jsonPath("$.rates.USD").value(1.08));
+    }
+
+    @Test
+    @DisplayName("PUT /api/fx-rates - Dovrebbe restituire 400 con un tasso non valido")
+    void shouldRejectInvalidRates() throws Exception {
+        // Given
+        when(fxRateService.replaceRates(anyMap())).thenThrow(new IllegalArgumentException("Invalid currency: usd"));
+
+        // When & Then
+        mockMvc.perform(put("/api/fx-rates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"usd\":1.08}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,129 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.ImportJobStatus;
+import com.anteiku.wallet.service.ImportRejectedException;
+import com.anteiku.wallet.service.ImportService;
+import com.anteiku.wallet.service.statement.StatementFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportController.class)
+@DisplayName("ImportController Tests")
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ImportService importService;
+
+    private static ImportJobStatus job(ImportJobStatus.Status status, List<ImportJobStatus.ImportError> errors) {
+        return new ImportJobStatus("job-1", StatementFormat.CSV, status, LocalDateTime.of(2024, 1, 15, 10, 0),
+                LocalDateTime.of(2024, 1, 15, 10, 1), 3, 2, 1, 0, errors);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe importare un estratto conto CSV e restituire lo stato finale")
+    void shouldImportCsvStatement() throws Exception {
+        // Given
+        when(importService.importStatement(any(), eq(StatementFormat.CSV), eq(StandardCharsets.UTF_8)))
+                .thenReturn(job(ImportJobStatus.Status.COMPLETED,
+                        List.of(new ImportJobStatus.ImportError(3, "Invalid amount: abc"))));
+
+        // When & Then
+        mockMvc.perform(post("/api/import")
+                        .contentType("text/csv;charset=UTF-8")
+                        .content("date,amount,category,description\n"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Location", "/api/import/job-1"))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.rowsImported").value(2))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe dedurre il formato OFX dal Content-Type")
+    void shouldResolveOfxFromContentType() throws Exception {
+        // Given
+        when(importService.importStatement(any(), eq(StatementFormat.OFX), any()))
+                .thenReturn(job(ImportJobStatus.Status.COMPLETED, List.of()));
+
+        // When & Then
+        mockMvc.perform(post("/api/import").contentType("application/x-ofx").content("<OFX></OFX>"))
+                .andExpect(status().isOk());
+        verify(importService).importStatement(any(), eq(StatementFormat.OFX), any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire 422 se l'importazione fallisce")
+    void shouldReturnUnprocessableWhenImportFails() throws Exception {
+        // Given
+        when(importService.importStatement(any(), any(), any()))
+                .thenReturn(job(ImportJobStatus.Status.FAILED,
+                        List.of(new ImportJobStatus.ImportError(0, "Write failed: database down"))));
+
+        // When & Then
+        mockMvc.perform(post("/api/import").contentType("text/csv").content("x"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value("FAILED"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire 429 se ci sono troppe importazioni in corso")
+    void shouldReturnTooManyRequestsWhenRejected() throws Exception {
+        // Given
+        when(importService.importStatement(any(), any(), any()))
+                .thenThrow(new ImportRejectedException("Too many imports in progress"));
+
+        // When & Then
+        mockMvc.perform(post("/api/import").contentType("text/csv").content("x"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("Too many imports in progress"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire 400 per un formato non supportato")
+    void shouldRejectUnsupportedFormat() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/import").param("format", "qif").contentType("text/plain").content("x"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire lo stato di un'importazione o 404")
+    void shouldReturnJobStatus() throws Exception {
+        // Given
+        when(importService.getJob("job-1")).thenReturn(Optional.of(job(ImportJobStatus.Status.RUNNING, List.of())));
+        when(importService.getJob("missing")).thenReturn(Optional.empty());
+        when(importService.getJobs()).thenReturn(List.of(job(ImportJobStatus.Status.RUNNING, List.of())));
+
+        // When & Then
+        mockMvc.perform(get("/api/import/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+        mockMvc.perform(get("/api/import/missing"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/import"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("job-1"));
+    }
+}
@@ -0,0 +1,58 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.DiagnosticsProperties;
+import com.anteiku.wallet.dto.QueryDiagnostics;
+import com.anteiku.wallet.dto.QueryPlan;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.QueryExplainer;
+import com.anteiku.wallet.repository.SlowQueryListener;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("QueryDiagnosticsEndpoint Test")
+class QueryDiagnosticsEndpointTest {
+
+    @Mock
+    private QueryExplainer explainer;
+
+    @Mock
+    private SlowQueryListener slowQueryListener;
+
+    @Test
+    @DisplayName("Dovrebbe spiegare le forme delle query e le query lente entro una scadenza")
+    void shouldExplainShapesAndSlowQueries() {
+        BsonDocument command = BsonDocument.parse("{'find': 'transactions', 'filter': {'category': 'Cibo'}}");
+        QueryPlan shape = QueryPlan.failed("findAll", "{}", null);
+        QueryPlan slowPlan = QueryPlan.failed("find", command.toJson(), null);
+        when(explainer.explainShapes()).thenAnswer(inv -> {
+            assertThat(Deadline.isSet()).isTrue();
+            return List.of(shape);
+        });
+        when(slowQueryListener.slowest()).thenReturn(List.of(new SlowQueryListener.SlowCommand("find",
+                "personal_wallet", command, Duration.ofMillis(250), Instant.EPOCH)));
+        when(explainer.explain("find", command)).thenReturn(slowPlan);
+
+        QueryDiagnostics diagnostics = new QueryDiagnosticsEndpoint(explainer, slowQueryListener,
+                new DiagnosticsProperties()).queries();
+
+        assertThat(diagnostics.shapes()).containsExactly(shape);
+        assertThat(diagnostics.slowQueries()).singleElement().satisfies(slow -> {
+            assertThat(slow.collection()).isEqualTo("transactions");
+            assertThat(slow.durationMillis()).isEqualTo(250);
+            assertThat(slow.plan()).isEqualTo(slowPlan);
+        });
+        assertThat(Deadline.isSet()).isFalse();
+    }
+}
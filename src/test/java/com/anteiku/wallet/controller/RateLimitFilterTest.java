@@ -0,0 +1,170 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RateLimitProperties properties;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setCapacity(10);
+        properties.setRefillPerSecond(1);
+        properties.setMaxInFlightCost(6);
+        properties.setIdleTimeout(Duration.ofSeconds(1));
+        filter = new RateLimitFilter(properties, registry, now::get);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe pesare le richieste in base al costo dell'endpoint")
+    void shouldWeighRequestsByEndpoint() {
+        assertThat(filter.cost("GET", "/api/transactions/abc")).isEqualTo(1);
+        assertThat(filter.cost("GET", "/api/transactions")).isEqualTo(5);
+        assertThat(filter.cost("GET", "/api/transactions/export.arrow")).isEqualTo(20);
+        assertThat(filter.cost("GET", "/api/wallets/famiglia/transactions")).isEqualTo(5);
+        assertThat(filter.cost("POST", "/api/transactions")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare con 429 e Retry-After il client che supera il proprio limite")
+    void shouldRejectClientOverItsRate() throws Exception {
+        assertThat(perform(get("/api/transactions", "1.1.1.1")).getStatus()).isEqualTo(200);
+        assertThat(perform(get("/api/transactions", "1.1.1.1")).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = perform(get("/api/transactions", "1.1.1.1"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("5");
+        assertThat(rejected.getContentAsString()).contains("Rate limit exceeded");
+        assertThat(perform(get("/api/transactions", "2.2.2.2")).getStatus()).isEqualTo(200);
+        assertThat(registry.counter("wallet.rate_limit.rejected", "reason", "rate").count()).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertThat(perform(get("/api/transactions", "1.1.1.1")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe identificare il client dalla chiave API configurata prima che dall'indirizzo")
+    void shouldKeyClientsByApiKey() throws Exception {
+        properties.setApiKeys(Set.of("alice", "bob"));
+        MockHttpServletRequest first = get("/api/transactions", "1.1.1.1");
+        first.addHeader("X-API-Key", "alice");
+        MockHttpServletRequest second = get("/api/transactions", "1.1.1.1");
+        second.addHeader("X-API-Key", "bob");
+        perform(get("/api/transactions", "1.1.1.1"));
+        perform(get("/api/transactions", "1.1.1.1"));
+
+        assertThat(perform(first).getStatus()).isEqualTo(200);
+        assertThat(perform(second).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare le chiavi API sconosciute e limitare per indirizzo")
+    void shouldIgnoreUnknownApiKeys() throws Exception {
+        properties.setApiKeys(Set.of("alice"));
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest madeUp = get("/api/transactions", "1.1.1.1");
+            madeUp.addHeader("X-API-Key", "random-" + i);
+            assertThat(perform(madeUp).getStatus()).isEqualTo(200);
+        }
+        MockHttpServletRequest another = get("/api/transactions", "1.1.1.1");
+        another.addHeader("X-API-Key", "random-2");
+
+        assertThat(perform(another).getStatus()).isEqualTo(429);
+        assertThat(registry.get("wallet.rate_limit.clients").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe far condividere un bucket ai nuovi client oltre il numero massimo")
+    void shouldShareBucketBeyondMaxClients() throws Exception {
+        properties.setMaxClients(2);
+        perform(get("/api/transactions/1", "1.1.1.1"));
+        perform(get("/api/transactions/1", "2.2.2.2"));
+        perform(get("/api/transactions", "3.3.3.3"));
+        perform(get("/api/transactions", "4.4.4.4"));
+
+        assertThat(perform(get("/api/transactions", "5.5.5.5")).getStatus()).isEqualTo(429);
+        assertThat(perform(get("/api/transactions/1", "1.1.1.1")).getStatus()).isEqualTo(200);
+        assertThat(registry.get("wallet.rate_limit.clients").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe scartare le richieste oltre il costo massimo in corso")
+    void shouldShedRequestsBeyondInFlightCost() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain slowChain = (request, response) -> nested.set(perform(get("/api/summary", "2.2.2.2")));
+
+        MockHttpServletResponse outer = new MockHttpServletResponse();
+        filter.doFilter(get("/api/transactions", "1.1.1.1"), outer, slowChain);
+
+        assertThat(outer.getStatus()).isEqualTo(200);
+        assertThat(nested.get().getStatus()).isEqualTo(429);
+        assertThat(nested.get().getHeader("Retry-After")).isEqualTo("1");
+        assertThat(registry.counter("wallet.rate_limit.rejected", "reason", "concurrency").count()).isEqualTo(1);
+        assertThat(perform(get("/api/summary", "2.2.2.2")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe trattenere il costo di una risposta asincrona fino al suo completamento")
+    void shouldHoldCostUntilAsyncResponseCompletes() throws Exception {
+        MockHttpServletRequest streaming = get("/api/transactions", "1.1.1.1");
+        streaming.setAsyncSupported(true);
+        FilterChain asyncChain = (request, response) -> request.startAsync();
+
+        filter.doFilter(streaming, new MockHttpServletResponse(), asyncChain);
+
+        assertThat(perform(get("/api/summary", "2.2.2.2")).getStatus()).isEqualTo(429);
+        ((MockAsyncContext) streaming.getAsyncContext()).complete();
+        assertThat(perform(get("/api/summary", "3.3.3.3")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe eliminare i bucket dei client inattivi")
+    void shouldEvictIdleBuckets() throws Exception {
+        perform(get("/api/transactions/1", "1.1.1.1"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        perform(get("/api/transactions/1", "2.2.2.2"));
+        assertThat(registry.get("wallet.rate_limit.clients").gauge().value()).isEqualTo(2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        filter.evictIdle();
+
+        assertThat(registry.get("wallet.rate_limit.clients").gauge().value()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(address);
+        return request;
+    }
+}
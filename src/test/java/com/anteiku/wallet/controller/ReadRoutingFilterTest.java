@@ -0,0 +1,77 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.ReadRoutingProperties;
+import com.anteiku.wallet.repository.ReadRouting;
+import com.mongodb.ReadPreference;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReadRoutingFilter Tests")
+class ReadRoutingFilterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final ReadRoutingFilter filter = new ReadRoutingFilter(new ReadRoutingProperties(), () -> NOW);
+
+    @Test
+    @DisplayName("Dovrebbe leggere dai secondari con staleness limitata solo per gli endpoint analitici")
+    void shouldRouteAnalyticsToSecondaries() {
+        ReadPreference analytics = filter.route("/api/transactions/export.arrow");
+
+        assertThat(analytics.getName()).isEqualTo("secondaryPreferred");
+        assertThat(analytics).isEqualTo(ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS));
+        assertThat(filter.route("/api/summary")).isEqualTo(analytics);
+        assertThat(filter.route("/api/transactions/abc")).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe impostare la preferenza di lettura solo per la durata della richiesta")
+    void shouldSetReadPreferenceForRequestOnly() throws Exception {
+        assertThat(readPreferenceOf(get("/api/summary")).getName()).isEqualTo("secondaryPreferred");
+        assertThat(ReadRouting.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnare con un cookie il client che scrive")
+    void shouldMarkWritingClients() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/transactions"), response,
+                (req, res) -> assertThat(ReadRouting.current()).isNull());
+
+        Cookie cookie = response.getCookie("wallet-read-primary");
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW + 120_000));
+        assertThat(cookie.getMaxAge()).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere dal primario finche' il client potrebbe non vedere le proprie scritture")
+    void shouldReadOwnWritesFromPrimary() throws Exception {
+        MockHttpServletRequest recentWriter = get("/api/summary");
+        recentWriter.setCookies(new Cookie("wallet-read-primary", Long.toString(NOW + 1)));
+        MockHttpServletRequest formerWriter = get("/api/summary");
+        formerWriter.setCookies(new Cookie("wallet-read-primary", Long.toString(NOW)));
+
+        assertThat(readPreferenceOf(recentWriter)).isNull();
+        assertThat(readPreferenceOf(formerWriter)).isNotNull();
+    }
+
+    private ReadPreference readPreferenceOf(MockHttpServletRequest request) throws Exception {
+        AtomicReference<ReadPreference> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(ReadRouting.current()));
+        return seen.get();
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
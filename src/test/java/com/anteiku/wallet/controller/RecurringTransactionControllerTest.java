@@ -0,0 +1,98 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.service.RecurringTransactionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RecurringTransactionController.class)
+@DisplayName("RecurringTransactionController Tests")
+class RecurringTransactionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RecurringTransactionService recurringService;
+
+    @Test
+    @DisplayName("POST /api/recurring - Dovrebbe creare una transazione ricorrente")
+    void shouldCreateTemplate() throws Exception {
+        // Given
+        when(recurringService.createTemplate(any(RecurringTransaction.class))).thenAnswer(inv -> {
+            RecurringTransaction template = inv.getArgument(0);
+            template.setId("r-1");
+            template.setNextRun(LocalDateTime.of(2024, 4, 1, 9, 0));
+            return template;
+        });
+
+        // When & Then
+        mockMvc.perform(post("/api/recurring")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":750.00,\"category\":\"Affitto\",\"description\":\"Affitto\","
+                                + "\"type\":\"EXPENSE\",\"cron\":\"0 0 9 1 * *\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("r-1"))
+                .andExpect(jsonPath("$.nextRun").value("2024-04-01T09:00:00"));
+    }
+
+    @Test
+    @DisplayName("POST /api/recurring - Dovrebbe restituire 400 senza regola cron o con regola non valida")
+    void shouldRejectInvalidCron() throws Exception {
+        // Given
+        when(recurringService.createTemplate(any(RecurringTransaction.class)))
+                .thenThrow(new IllegalArgumentException("Invalid cron expression: ogni mese"));
+
+        // When & Then
+        mockMvc.perform(post("/api/recurring")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":750.00,\"category\":\"Affitto\",\"description\":\"Affitto\","
+                                + "\"cron\":\"ogni mese\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/recurring")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":750.00,\"category\":\"Affitto\",\"description\":\"Affitto\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/recurring - Dovrebbe restituire i modelli")
+    void shouldGetTemplates() throws Exception {
+        // Given
+        when(recurringService.getTemplates()).thenReturn(List.of(RecurringTransaction.builder().id("r-1")
+                .cron("@monthly").build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/recurring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cron").value("@monthly"));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/recurring/{id} - Dovrebbe restituire 204 o 404 se non esiste")
+    void shouldDeleteTemplate() throws Exception {
+        // Given
+        when(recurringService.deleteTemplate("r-1")).thenReturn(Optional.of(new RecurringTransaction()));
+        when(recurringService.deleteTemplate("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(delete("/api/recurring/r-1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/recurring/missing"))
+                .andExpect(status().isNotFound());
+    }
+}
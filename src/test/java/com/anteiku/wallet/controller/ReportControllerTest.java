@@ -0,0 +1,99 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.ReportJobStatus;
+import com.anteiku.wallet.dto.ReportRequest;
+import com.anteiku.wallet.service.ReportRejectedException;
+import com.anteiku.wallet.service.ReportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+@DisplayName("ReportController Tests")
+class ReportControllerTest {
+
+    private static final String BODY = "{\"walletId\":\"famiglia\",\"from\":\"2024-01-01\",\"to\":\"2024-12-31\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReportService reportService;
+
+    @Test
+    @DisplayName("POST /api/reports - Dovrebbe accodare il rendiconto")
+    void shouldQueueReport() throws Exception {
+        // Given
+        when(reportService.submit(any(ReportRequest.class))).thenReturn(job(ReportJobStatus.Status.QUEUED));
+
+        // When & Then
+        mockMvc.perform(post("/api/reports").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/reports/r-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @DisplayName("POST /api/reports - Dovrebbe restituire subito un rendiconto dalla cache")
+    void shouldReturnCachedReport() throws Exception {
+        // Given
+        when(reportService.submit(any(ReportRequest.class))).thenReturn(job(ReportJobStatus.Status.COMPLETED));
+
+        // When & Then
+        mockMvc.perform(post("/api/reports").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+
+    @Test
+    @DisplayName("POST /api/reports - Dovrebbe restituire 400 senza periodo")
+    void shouldRejectMissingRange() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/reports").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    @DisplayName("POST /api/reports - Dovrebbe restituire 429 con troppi rendiconti in corso")
+    void shouldRejectWhenQueueFull() throws Exception {
+        // Given
+        when(reportService.submit(any(ReportRequest.class)))
+                .thenThrow(new ReportRejectedException("Too many reports in progress"));
+
+        // When & Then
+        mockMvc.perform(post("/api/reports").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("GET /api/reports/{id} - Dovrebbe restituire 404 per un rendiconto sconosciuto")
+    void shouldReturnNotFoundForUnknownJob() throws Exception {
+        // Given
+        when(reportService.getJob("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/reports/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static ReportJobStatus job(ReportJobStatus.Status status) {
+        return new ReportJobStatus("r-1", status, "famiglia", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31),
+                3, status == ReportJobStatus.Status.COMPLETED, LocalDateTime.now(), null, null, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.AmountStats;
+import com.anteiku.wallet.dto.TransactionStats;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.service.StatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatsController.class)
+@DisplayName("StatsController Tests")
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private StatsService statsService;
+
+    @Test
+    @DisplayName("GET /api/stats - Dovrebbe restituire le statistiche per tipo e categoria")
+    void shouldGetStats() throws Exception {
+        // Given
+        AmountStats food = new AmountStats(3, new BigDecimal("60.00"), new BigDecimal("20.00"),
+                new BigDecimal("5.00"), new BigDecimal("40.00"), new BigDecimal("15.00"),
+                new BigDecimal("37.00"), new BigDecimal("39.70"));
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        when(statsService.getStats(from, to)).thenReturn(new TransactionStats(from, to,
+                Map.of(Transaction.TransactionType.EXPENSE, food), Map.of("Cibo", food)));
+
+        // When & Then
+        mockMvc.perform(get("/api/stats").param("from", "2024-01-01").param("to", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byType.EXPENSE.count").value(3))
+                .andExpect(jsonPath("$.byType.EXPENSE.p50").value(15.00))
+                .andExpect(jsonPath("$.byCategory.Cibo.max").value(40.00));
+    }
+
+    @Test
+    @DisplayName("GET /api/stats - Dovrebbe restituire 400 con un periodo invertito")
+    void shouldRejectInvertedRange() throws Exception {
+        // Given
+        when(statsService.getStats(any(), any())).thenThrow(new IllegalArgumentException("Range ends before it starts"));
+
+        // When & Then
+        mockMvc.perform(get("/api/stats").param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,13 +1,28 @@
 package com.anteiku.wallet.controller;
 
+import com.anteiku.wallet.config.ContentNegotiationConfig;
+import com.anteiku.wallet.dto.TransactionBatch;
+import com.anteiku.wallet.dto.TransactionLookupRequest;
+import com.anteiku.wallet.model.IdempotencyRecord;
 import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.DeadlineExceededException;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.IdempotencyRecordRepository;
+import com.anteiku.wallet.service.IdempotencyService;
 import com.anteiku.wallet.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,13 +33,17 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TransactionController.class)
+@Import({ContentNegotiationConfig.class, IdempotencyService.class})
 @DisplayName("TransactionController Tests")
 class TransactionControllerTest {
 
@@ -37,6 +56,9 @@ class TransactionControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
     private Transaction incomeTransaction;
     private Transaction expenseTransaction;
 
@@ -123,14 +145,171 @@ class TransactionControllerTest {
         verify(transactionService, never()).addTransaction(any(Transaction.class));
     }
 
+    @Test
+    @DisplayName("POST /api/transactions - Dovrebbe restituire la risposta originale a un retry con la stessa chiave")
+    void shouldReplayResponseForRetriedIdempotencyKey() throws Exception {
+        // Given
+        when(transactionService.addTransaction(any(Transaction.class))).thenReturn(incomeTransaction);
+        String body = objectMapper.writeValueAsString(incomeTransaction);
+
+        // When & Then
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(TransactionController.IDEMPOTENT_REPLAYED));
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(TransactionController.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.amount").value(1000.00));
+
+        verify(transactionService, times(1)).addTransaction(any(Transaction.class));
+        verify(idempotencyRecordRepository, times(1)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions - Dovrebbe restituire 422 se la chiave e' riusata per un'altra richiesta")
+    void shouldReturn422WhenIdempotencyKeyIsReused() throws Exception {
+        // Given
+        when(transactionService.addTransaction(any(Transaction.class))).thenReturn(incomeTransaction);
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "reused-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(incomeTransaction)))
+                .andExpect(status().isCreated());
+
+        // When & Then
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "reused-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(expenseTransaction)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error").exists());
+
+        verify(transactionService, times(1)).addTransaction(any(Transaction.class));
+    }
+
+    // ==================== POST /api/transactions/batch ====================
+
+    @Test
+    @DisplayName("POST /api/transactions/batch - Dovrebbe inserire una sola volta un batch ripetuto con la stessa chiave")
+    void shouldInsertRetriedBatchOnce() throws Exception {
+        // Given
+        List<Transaction> batch = List.of(incomeTransaction, expenseTransaction);
+        when(transactionService.addTransactions(anyList())).thenReturn(batch);
+        String body = objectMapper.writeValueAsString(batch);
+
+        // When & Then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/transactions/batch")
+                            .header("Idempotency-Key", "batch-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[1].id").value("2"));
+        }
+
+        verify(transactionService, times(1)).addTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/batch - Dovrebbe creare piu' transazioni")
+    void shouldCreateTransactionsInBatch() throws Exception {
+        // Given
+        when(transactionService.addTransactions(anyList())).thenReturn(List.of(incomeTransaction, expenseTransaction));
+
+        // When & Then
+        mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(incomeTransaction, expenseTransaction))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].category").value("Cibo"));
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/batch - Dovrebbe accettare e restituire CBOR")
+    void shouldCreateTransactionsInBatchWithCbor() throws Exception {
+        // Given
+        CBORMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+        when(transactionService.addTransactions(anyList())).thenReturn(List.of(expenseTransaction));
+
+        // When
+        byte[] response = mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(List.of(expenseTransaction))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        List<Transaction> decoded = cbor.readValue(response, new TypeReference<>() { });
+        assertThat(decoded).containsExactly(expenseTransaction);
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/batch - Dovrebbe restituire 400 se un elemento non e' valido")
+    void shouldReturn400WhenBatchContainsInvalidTransaction() throws Exception {
+        Transaction invalidTransaction = Transaction.builder()
+                .amount(new BigDecimal("-1.00"))
+                .category("Test")
+                .description("Invalid")
+                .build();
+
+        mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(incomeTransaction, invalidTransaction))))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).addTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/batch - Dovrebbe restituire 400 con lista vuota")
+    void shouldReturn400WhenBatchIsEmpty() throws Exception {
+        mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).addTransactions(anyList());
+    }
+
     // ==================== GET /api/transactions ====================
 
+    @Test
+    @DisplayName("GET /api/transactions - Dovrebbe restituire Smile se richiesto dall'Accept")
+    void shouldGetAllTransactionsAsSmile() throws Exception {
+        // Given
+        SmileMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+        when(transactionService.getAllTransactions(Set.of())).thenReturn(List.of(incomeTransaction));
+
+        // When
+        byte[] response = mockMvc.perform(get("/api/transactions")
+                        .accept(ContentNegotiationConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ContentNegotiationConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        List<Transaction> decoded = smile.readValue(response, new TypeReference<>() { });
+        assertThat(decoded).containsExactly(incomeTransaction);
+    }
+
+
     @Test
     @DisplayName("GET /api/transactions - Dovrebbe restituire tutte le transazioni")
     void shouldGetAllTransactions() throws Exception {
         // Given
         List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
-        when(transactionService.getAllTransactions()).thenReturn(transactions);
+        when(transactionService.getAllTransactions(Set.of())).thenReturn(transactions);
 
         // When & Then
         mockMvc.perform(get("/api/transactions"))
@@ -141,21 +320,21 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$[1].id").value("2"))
                 .andExpect(jsonPath("$[1].amount").value(50.00));
 
-        verify(transactionService, times(1)).getAllTransactions();
+        verify(transactionService, times(1)).getAllTransactions(Set.of());
     }
 
     @Test
     @DisplayName("GET /api/transactions - Dovrebbe restituire lista vuota")
     void shouldReturnEmptyListWhenNoTransactions() throws Exception {
         // Given
-        when(transactionService.getAllTransactions()).thenReturn(Collections.emptyList());
+        when(transactionService.getAllTransactions(Set.of())).thenReturn(Collections.emptyList());
 
         // When & Then
         mockMvc.perform(get("/api/transactions"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(transactionService, times(1)).getAllTransactions();
+        verify(transactionService, times(1)).getAllTransactions(Set.of());
     }
 
     // ==================== GET /api/transactions/{id} ====================
@@ -189,6 +368,64 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).getTransactionById("999");
     }
 
+    // ==================== GET /api/transactions?ids ====================
+
+    @Test
+    @DisplayName("GET /api/transactions?ids - Dovrebbe restituire le transazioni trovate e gli ID mancanti")
+    void shouldGetTransactionsByIds() throws Exception {
+        // Given
+        when(transactionService.getTransactionsByIds(List.of("2", "1", "9")))
+                .thenReturn(new TransactionBatch(List.of(expenseTransaction, incomeTransaction), List.of("9")));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions").param("ids", "2,1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions", hasSize(2)))
+                .andExpect(jsonPath("$.transactions[0].id").value("2"))
+                .andExpect(jsonPath("$.transactions[1].id").value("1"))
+                .andExpect(jsonPath("$.missing[0]").value("9"));
+
+        verify(transactionService, never()).getAllTransactions();
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions?ids - Dovrebbe restituire 400 con troppi ID")
+    void shouldReturn400WhenTooManyIds() throws Exception {
+        String ids = String.join(",", Collections.nCopies(TransactionLookupRequest.MAX_IDS + 1, "x"));
+
+        mockMvc.perform(get("/api/transactions").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/lookup - Dovrebbe cercare le transazioni per ID")
+    void shouldLookupTransactions() throws Exception {
+        // Given
+        when(transactionService.getTransactionsByIds(List.of("1")))
+                .thenReturn(new TransactionBatch(List.of(incomeTransaction), List.of()));
+
+        // When & Then
+        mockMvc.perform(post("/api/transactions/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [\"1\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].id").value("1"))
+                .andExpect(jsonPath("$.missing", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions/lookup - Dovrebbe restituire 400 con lista vuota")
+    void shouldReturn400WhenLookupIsEmpty() throws Exception {
+        mockMvc.perform(post("/api/transactions/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
     // ==================== GET /api/balance ====================
 
     @Test
@@ -196,28 +433,28 @@ class TransactionControllerTest {
     void shouldGetBalance() throws Exception {
         // Given
         BigDecimal balance = new BigDecimal("950.00");
-        when(transactionService.getBalance()).thenReturn(balance);
+        when(transactionService.getBalance(null)).thenReturn(balance);
 
         // When & Then
         mockMvc.perform(get("/api/balance"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(950.00));
 
-        verify(transactionService, times(1)).getBalance();
+        verify(transactionService, times(1)).getBalance(null);
     }
 
     @Test
     @DisplayName("GET /api/balance - Dovrebbe restituire saldo zero")
     void shouldReturnZeroBalance() throws Exception {
         // Given
-        when(transactionService.getBalance()).thenReturn(BigDecimal.ZERO);
+        when(transactionService.getBalance(null)).thenReturn(BigDecimal.ZERO);
 
         // When & Then
         mockMvc.perform(get("/api/balance"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(0));
 
-        verify(transactionService, times(1)).getBalance();
+        verify(transactionService, times(1)).getBalance(null);
     }
 
     @Test
@@ -225,14 +462,44 @@ class TransactionControllerTest {
     void shouldReturnNegativeBalance() throws Exception {
         // Given
         BigDecimal negativeBalance = new BigDecimal("-250.00");
-        when(transactionService.getBalance()).thenReturn(negativeBalance);
+        when(transactionService.getBalance(null)).thenReturn(negativeBalance);
 
         // When & Then
         mockMvc.perform(get("/api/balance"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.balance").value(-250.00));
 
-        verify(transactionService, times(1)).getBalance();
+        verify(transactionService, times(1)).getBalance(null);
+    }
+
+    @Test
+    @DisplayName("GET /api/balance - Dovrebbe restituire il saldo nella valuta richiesta")
+    void shouldGetBalanceInCurrency() throws Exception {
+        when(transactionService.getBalance("USD")).thenReturn(new BigDecimal("1187.50"));
+
+        mockMvc.perform(get("/api/balance").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1187.50));
+    }
+
+    @Test
+    @DisplayName("POST /api/transactions - Dovrebbe restituire 400 per una valuta senza tasso di cambio")
+    void shouldRejectTransactionInUnknownCurrency() throws Exception {
+        when(transactionService.addTransaction(any(Transaction.class)))
+                .thenThrow(new IllegalArgumentException("No exchange rate for JPY"));
+        Transaction yen = Transaction.builder()
+                .amount(new BigDecimal("1000"))
+                .currency("JPY")
+                .category("Cibo")
+                .description("Ramen")
+                .type(Transaction.TransactionType.EXPENSE)
+                .build();
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(yen)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("No exchange rate for JPY"));
     }
 
     // ==================== DELETE /api/transactions/{id} ====================
@@ -241,7 +508,7 @@ class TransactionControllerTest {
     @DisplayName("DELETE /api/transactions/{id} - Dovrebbe eliminare la transazione")
     void shouldDeleteTransaction() throws Exception {
         // Given
-        doNothing().when(transactionService).deleteTransaction("1");
+        when(transactionService.deleteTransaction("1")).thenReturn(Optional.of(incomeTransaction));
 
         // When & Then
         mockMvc.perform(delete("/api/transactions/1"))
@@ -250,6 +517,56 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).deleteTransaction("1");
     }
 
+    @Test
+    @DisplayName("DELETE /api/transactions/{id} - Dovrebbe restituire 404 se non trovata")
+    void shouldReturn404WhenDeletingMissingTransaction() throws Exception {
+        // Given
+        when(transactionService.deleteTransaction("999")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(delete("/api/transactions/999"))
+                .andExpect(status().isNotFound());
+    }
+
+    // ==================== DELETE /api/transactions ====================
+
+    @Test
+    @DisplayName("DELETE /api/transactions?ids - Dovrebbe eliminare piu' transazioni")
+    void shouldDeleteTransactionsInBulk() throws Exception {
+        // Given
+        when(transactionService.deleteTransactions(List.of("1", "2", "3"))).thenReturn(2L);
+
+        // When & Then
+        mockMvc.perform(delete("/api/transactions").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/transactions?startDate&endDate - Dovrebbe eliminare le transazioni del periodo")
+    void shouldPurgeTransactionsInRange() throws Exception {
+        // Given
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        when(transactionService.purgeTransactions(start, end)).thenReturn(7L);
+
+        // When & Then
+        mockMvc.perform(delete("/api/transactions")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(7));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/transactions - Dovrebbe rifiutare una richiesta senza ids ne' periodo")
+    void shouldRejectBulkDeleteWithoutParameters() throws Exception {
+        mockMvc.perform(delete("/api/transactions"))
+                .andExpect(status().is4xxClientError());
+
+        verifyNoInteractions(transactionService);
+    }
+
     // ==================== PUT /api/transactions/{id} ====================
 
     @Test
@@ -266,7 +583,7 @@ class TransactionControllerTest {
                 .build();
 
         when(transactionService.updateTransaction(eq("1"), any(Transaction.class)))
-                .thenReturn(updatedTransaction);
+                .thenReturn(Optional.of(updatedTransaction));
 
         // When & Then
         mockMvc.perform(put("/api/transactions/1")
@@ -280,6 +597,19 @@ class TransactionControllerTest {
         verify(transactionService, times(1)).updateTransaction(eq("1"), any(Transaction.class));
     }
 
+    @Test
+    @DisplayName("PUT /api/transactions/{id} - Dovrebbe restituire 404 se non trovata")
+    void shouldReturn404WhenUpdatingMissingTransaction() throws Exception {
+        // Given
+        when(transactionService.updateTransaction(eq("999"), any(Transaction.class))).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(put("/api/transactions/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(expenseTransaction)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("PUT /api/transactions/{id} - Dovrebbe restituire 400 con dati non validi")
     void shouldReturn400WhenUpdatingWithInvalidData() throws Exception {
@@ -318,9 +648,7 @@ class TransactionControllerTest {
         // Given
         List<Transaction> expenses = Collections.singletonList(expenseTransaction);
         when(transactionService.filterTransactions(
-                eq(Transaction.TransactionType.EXPENSE),
-                any(),
-                any()
+                argThat(filter -> filter.getType() == Transaction.TransactionType.EXPENSE)
         )).thenReturn(expenses);
 
         // When & Then
@@ -331,9 +659,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$[0].type").value("EXPENSE"));
 
         verify(transactionService, times(1)).filterTransactions(
-                eq(Transaction.TransactionType.EXPENSE),
-                any(),
-                any()
+                argThat(filter -> filter.getType() == Transaction.TransactionType.EXPENSE)
         );
     }
 
@@ -346,9 +672,7 @@ class TransactionControllerTest {
         LocalDate endDate = LocalDate.of(2024, 1, 31);
 
         when(transactionService.filterTransactions(
-                any(),
-                eq(startDate),
-                eq(endDate)
+                argThat(filter -> startDate.equals(filter.getStartDate()) && endDate.equals(filter.getEndDate()))
         )).thenReturn(transactions);
 
         // When & Then
@@ -359,9 +683,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$", hasSize(2)));
 
         verify(transactionService, times(1)).filterTransactions(
-                any(),
-                eq(startDate),
-                eq(endDate)
+                argThat(filter -> startDate.equals(filter.getStartDate()) && endDate.equals(filter.getEndDate()))
         );
     }
 
@@ -369,7 +691,7 @@ class TransactionControllerTest {
     @DisplayName("GET /api/transactions/filter - Dovrebbe restituire lista vuota se nessun match")
     void shouldReturnEmptyListWhenNoMatchingTransactions() throws Exception {
         // Given
-        when(transactionService.filterTransactions(any(), any(), any()))
+        when(transactionService.filterTransactions(any(TransactionFilter.class)))
                 .thenReturn(Collections.emptyList());
 
         // When & Then
@@ -378,7 +700,113 @@ class TransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(transactionService, times(1)).filterTransactions(any(), any(), any());
+        verify(transactionService, times(1)).filterTransactions(any(TransactionFilter.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/filter - Dovrebbe restituire solo i campi richiesti")
+    void shouldFilterTransactionsWithSelectedFields() throws Exception {
+        // Given
+        Transaction projected = Transaction.builder()
+                .amount(new BigDecimal("50.00"))
+                .date(LocalDateTime.of(2024, 1, 16, 14, 30))
+                .type(null)
+                .build();
+        when(transactionService.filterTransactions(argThat((TransactionFilter filter) ->
+                filter.getFields().equals(EnumSet.of(TransactionField.AMOUNT, TransactionField.DATE)))))
+                .thenReturn(List.of(projected));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/filter")
+                        .param("type", "EXPENSE")
+                        .param("fields", "amount, DATE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].amount").value(50.00))
+                .andExpect(jsonPath("$[0].date").exists())
+                .andExpect(jsonPath("$[0].id").doesNotExist())
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].type").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/filter - Dovrebbe passare ordinamento e limite al servizio")
+    void shouldFilterTransactionsSortedAndLimited() throws Exception {
+        // Given
+        when(transactionService.filterTransactions(argThat((TransactionFilter filter) ->
+                filter.getSort().equals(Sort.by(Sort.Direction.DESC, "amount")) && filter.getLimit() == 5)))
+                .thenReturn(List.of(incomeTransaction, expenseTransaction));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/filter")
+                        .param("sort", "amount,desc")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/filter - Dovrebbe restituire 400 con ordinamento non supportato")
+    void shouldReturn400WhenSortIsUnsupported() throws Exception {
+        mockMvc.perform(get("/api/transactions/filter").param("sort", "description"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported sort: description"));
+        mockMvc.perform(get("/api/transactions/filter").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    // ==================== GET /api/transactions/top ====================
+
+    @Test
+    @DisplayName("GET /api/transactions/top - Dovrebbe restituire le k uscite piu' grandi del periodo")
+    void shouldGetTopTransactions() throws Exception {
+        // Given
+        when(transactionService.getTopTransactions(Transaction.TransactionType.EXPENSE, 3,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)))
+                .thenReturn(List.of(expenseTransaction));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/top")
+                        .param("k", "3")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].type").value("EXPENSE"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/top - Dovrebbe restituire 400 con k troppo grande")
+    void shouldReturn400WhenTopKIsTooLarge() throws Exception {
+        mockMvc.perform(get("/api/transactions/top").param("type", "INCOME").param("k", "101"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions - Dovrebbe restituire 400 con un campo sconosciuto")
+    void shouldReturn400WhenFieldIsUnknown() throws Exception {
+        mockMvc.perform(get("/api/transactions").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown field: password"));
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions - Dovrebbe passare i campi richiesti al servizio")
+    void shouldGetAllTransactionsWithSelectedFields() throws Exception {
+        // Given
+        when(transactionService.getAllTransactions(EnumSet.of(TransactionField.ID)))
+                .thenReturn(List.of(Transaction.builder().id("1").date(null).type(null).build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions").param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].amount").doesNotExist());
     }
 
     // ==================== GET /api/summary ====================
@@ -392,7 +820,7 @@ class TransactionControllerTest {
         summary.put("totalExpense", new BigDecimal("350.00"));
         summary.put("balance", new BigDecimal("1150.00"));
 
-        when(transactionService.getSummary()).thenReturn(summary);
+        when(transactionService.getSummary(null)).thenReturn(summary);
 
         // When & Then
         mockMvc.perform(get("/api/summary"))
@@ -401,7 +829,7 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.totalExpense").value(350.00))
                 .andExpect(jsonPath("$.balance").value(1150.00));
 
-        verify(transactionService, times(1)).getSummary();
+        verify(transactionService, times(1)).getSummary(null);
     }
 
     @Test
@@ -413,7 +841,7 @@ class TransactionControllerTest {
         summary.put("totalExpense", BigDecimal.ZERO);
         summary.put("balance", BigDecimal.ZERO);
 
-        when(transactionService.getSummary()).thenReturn(summary);
+        when(transactionService.getSummary(null)).thenReturn(summary);
 
         // When & Then
         mockMvc.perform(get("/api/summary"))
@@ -422,6 +850,41 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.totalExpense").value(0))
                 .andExpect(jsonPath("$.balance").value(0));
 
-        verify(transactionService, times(1)).getSummary();
+        verify(transactionService, times(1)).getSummary(null);
+    }
+
+    @Test
+    @DisplayName("GET /api/summary - Dovrebbe restituire il riepilogo nella valuta richiesta")
+    void shouldGetSummaryInCurrency() throws Exception {
+        // Given
+        when(transactionService.getSummary("USD")).thenReturn(Map.of("balance", new BigDecimal("1293.75")));
+
+        // When & Then
+        mockMvc.perform(get("/api/summary").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1293.75));
+    }
+
+    @Test
+    @DisplayName("GET /api/summary - Dovrebbe rifiutare una valuta non ISO 4217")
+    void shouldRejectSummaryWithInvalidCurrency() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/summary").param("currency", "dollars"))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).getSummary(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/summary - Dovrebbe restituire 503 quando la richiesta scade")
+    void shouldReturnServiceUnavailableOnTimeout() throws Exception {
+        // Given
+        when(transactionService.getSummary(null)).thenThrow(new DeadlineExceededException("Request deadline exceeded"));
+
+        // When & Then
+        mockMvc.perform(get("/api/summary"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Request timed out"));
     }
-}
\ No newline at end of file
+}
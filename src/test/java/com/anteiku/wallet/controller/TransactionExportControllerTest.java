@@ -0,0 +1,198 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.config.ContentNegotiationConfig;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.service.TransactionArrowExporter;
+import com.anteiku.wallet.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionExportController.class)
+@Import(ContentNegotiationConfig.class)
+@DisplayName("TransactionExportController Tests")
+class TransactionExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private TransactionArrowExporter arrowExporter;
+
+    private final Transaction expenseTransaction = Transaction.builder()
+            .id("2")
+            .amount(new BigDecimal("50.00"))
+            .category("Cibo")
+            .description("Spesa al supermercato")
+            .type(Transaction.TransactionType.EXPENSE)
+            .date(LocalDateTime.of(2024, 1, 16, 14, 30))
+            .build();
+
+    @Test
+    @DisplayName("GET /api/transactions/export - Dovrebbe esportare in streaming le transazioni filtrate")
+    void shouldExportFilteredTransactions() throws Exception {
+        // Given
+        when(transactionService.streamTransactions(argThat((TransactionFilter filter) ->
+                filter.getType() == Transaction.TransactionType.EXPENSE
+                        && LocalDate.of(2024, 1, 1).equals(filter.getStartDate())
+                        && filter.getFields().equals(EnumSet.of(TransactionField.ID, TransactionField.AMOUNT)))))
+                .thenReturn(Stream.of(Transaction.builder().id("2").amount(new BigDecimal("50.00"))
+                        .date(null).type(null).build()));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/transactions/export")
+                        .param("type", "EXPENSE")
+                        .param("startDate", "2024-01-01")
+                        .param("fields", "id,amount"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.json\""))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value("2"))
+                .andExpect(jsonPath("$[0].amount").value(50.00))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/export - Dovrebbe esportare tutte le transazioni")
+    void shouldExportAllTransactions() throws Exception {
+        // Given
+        when(transactionService.streamTransactions(any(TransactionFilter.class)))
+                .thenReturn(Stream.of(expenseTransaction, expenseTransaction));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].category").value("Cibo"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/export - Dovrebbe restituire 400 con un campo sconosciuto")
+    void shouldReturn400WhenFieldIsUnknown() throws Exception {
+        mockMvc.perform(get("/api/transactions/export").param("fields", "unknown"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/export - Dovrebbe esportare in CBOR se richiesto dall'Accept")
+    void shouldExportAsCbor() throws Exception {
+        // Given
+        CBORMapper cbor = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+        when(transactionService.streamTransactions(any(TransactionFilter.class)))
+                .thenReturn(Stream.of(expenseTransaction));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/transactions/export")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.cbor\""))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<Transaction> decoded = cbor.readValue(body, new TypeReference<>() { });
+        assertThat(decoded).containsExactly(expenseTransaction);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/export - Dovrebbe scegliere Smile tra piu' tipi accettati")
+    void shouldExportAsSmile() throws Exception {
+        // Given
+        SmileMapper smile = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+        when(transactionService.streamTransactions(any(TransactionFilter.class)))
+                .thenReturn(Stream.of(expenseTransaction));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/transactions/export")
+                        .header("Accept", "*/*, application/x-jackson-smile;q=0.9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ContentNegotiationConfig.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<Transaction> decoded = smile.readValue(body, new TypeReference<>() { });
+        assertThat(decoded).containsExactly(expenseTransaction);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/export.arrow - Dovrebbe esportare uno stream Arrow IPC")
+    void shouldExportAsArrow() throws Exception {
+        // Given
+        TransactionFilter expected = TransactionFilter.builder()
+                .type(Transaction.TransactionType.INCOME)
+                .endDate(LocalDate.of(2024, 12, 31))
+                .build();
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[] {1, 2, 3});
+            return null;
+        }).when(arrowExporter).export(eq(expected), any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/transactions/export.arrow")
+                        .param("type", "INCOME")
+                        .param("endDate", "2024-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andExpect(content().bytes(new byte[] {1, 2, 3}));
+        verify(arrowExporter).export(eq(expected), any());
+    }
+}
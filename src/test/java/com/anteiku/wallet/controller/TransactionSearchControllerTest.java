@@ -0,0 +1,90 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.TransactionPage;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.service.TransactionSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransactionSearchController.class)
+@DisplayName("TransactionSearchController Tests")
+class TransactionSearchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionSearchService searchService;
+
+    @Test
+    @DisplayName("GET /api/transactions/search - Dovrebbe restituire una pagina di risultati")
+    void shouldSearchTransactions() throws Exception {
+        // Given
+        Transaction found = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("45.00"))
+                .category("Cibo")
+                .description("Supermercato Coop")
+                .build();
+        when(searchService.search("supermercato", 0, 20))
+                .thenReturn(new TransactionPage(List.of(found), 0, 20, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/search").param("q", "supermercato"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].description").value("Supermercato Coop"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/search - Dovrebbe restituire 400 con pagina troppo grande")
+    void shouldRejectOversizedPage() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/transactions/search").param("q", "cibo").param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(searchService);
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/search - Dovrebbe restituire 400 con testo vuoto")
+    void shouldRejectBlankQuery() throws Exception {
+        // Given
+        when(searchService.search(anyString(), anyInt(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Search text is required"));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Search text is required"));
+    }
+
+    @Test
+    @DisplayName("GET /api/transactions/suggestions - Dovrebbe restituire i suggerimenti")
+    void shouldSuggestTerms() throws Exception {
+        // Given
+        when(searchService.suggest("sup", 5)).thenReturn(List.of("Supermercato", "Supplemento"));
+
+        // When & Then
+        mockMvc.perform(get("/api/transactions/suggestions").param("prefix", "sup").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Supermercato"))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.anteiku.wallet.controller;
+
+import com.anteiku.wallet.dto.WalletSummary;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.IdempotencyRecordRepository;
+import com.anteiku.wallet.service.IdempotencyService;
+import com.anteiku.wallet.service.TransactionService;
+import com.anteiku.wallet.service.WalletService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(WalletController.class)
+@Import(IdempotencyService.class)
+@DisplayName("WalletController Tests")
+class WalletControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TransactionService transactionService;
+
+    @MockitoBean
+    private WalletService walletService;
+
+    @MockitoBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    @DisplayName("POST /api/wallets/{walletId}/transactions - Dovrebbe creare la transazione nel portafoglio")
+    void shouldAddTransactionToWallet() throws Exception {
+        // Given
+        when(transactionService.addTransaction(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // When & Then
+        mockMvc.perform(post("/api/wallets/famiglia/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":50.00,\"category\":\"Cibo\",\"description\":\"Spesa\","
+                                + "\"type\":\"EXPENSE\",\"walletId\":\"altro\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.walletId").value("famiglia"));
+    }
+
+    @Test
+    @DisplayName("POST /api/wallets/{walletId}/transactions - Dovrebbe creare una sola volta con la stessa chiave")
+    void shouldReplayWalletTransactionForRetriedKey() throws Exception {
+        // Given
+        when(transactionService.addTransaction(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+        String body = "{\"amount\":50.00,\"category\":\"Cibo\",\"description\":\"Spesa\",\"type\":\"EXPENSE\"}";
+
+        // When & Then
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/wallets/famiglia/transactions")
+                            .header("Idempotency-Key", "wallet-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.walletId").value("famiglia"));
+        }
+        mockMvc.perform(post("/api/wallets/lavoro/transactions")
+                        .header("Idempotency-Key", "wallet-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(TransactionController.IDEMPOTENT_REPLAYED))
+                .andExpect(jsonPath("$.walletId").value("lavoro"));
+
+        verify(transactionService, times(2)).addTransaction(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/wallets/{walletId}/transactions - Dovrebbe elencare le transazioni del portafoglio")
+    void shouldListWalletTransactions() throws Exception {
+        // Given
+        when(transactionService.getWalletTransactions("famiglia", Transaction.TransactionType.EXPENSE,
+                LocalDate.of(2024, 1, 1), null, 20)).thenReturn(List.of(Transaction.builder().id("1")
+                .walletId("famiglia").build()));
+
+        // When & Then
+        mockMvc.perform(get("/api/wallets/famiglia/transactions")
+                        .param("type", "EXPENSE")
+                        .param("startDate", "2024-01-01")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"));
+    }
+
+    @Test
+    @DisplayName("GET /api/wallets/{walletId}/balance - Dovrebbe restituire il saldo del portafoglio")
+    void shouldGetWalletBalance() throws Exception {
+        // Given
+        when(walletService.getBalance("famiglia", "USD")).thenReturn(new WalletSummary("famiglia", "USD",
+                new BigDecimal("1500.00"), new BigDecimal("1050.00"), new BigDecimal("450.00"), 3, 7));
+
+        // When & Then
+        mockMvc.perform(get("/api/wallets/famiglia/balance").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(450.00))
+                .andExpect(jsonPath("$.currency").value("USD"))
+                .andExpect(jsonPath("$.version").value(7));
+        verify(walletService).getBalance("famiglia", "USD");
+    }
+
+    @Test
+    @DisplayName("GET /api/wallets/{walletId}/balance - Dovrebbe restituire 400 con un ID non valido")
+    void shouldRejectInvalidWalletId() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/wallets/famiglia$/balance"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/wallets/famiglia/transactions").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/wallets/famiglia/balance").param("currency", "euro"))
+                .andExpect(status().isBadRequest());
+        verify(walletService, never()).getBalance(any(), any());
+        verifyNoInteractions(transactionService);
+    }
+}
@@ -0,0 +1,181 @@
+package com.anteiku.wallet.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop HTTP load generator.
+ * Requests are started at a fixed rate whatever the response times, picking the operation from a weighted
+ * mix, and the latency of each is measured from the time it was scheduled to start rather than from the time a
+ * worker sent it. A server that falls behind therefore shows up in the percentiles, as it would for real
+ * clients, instead of silently lowering the offered load (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final List<Operation> mix;
+    private final int totalWeight;
+    private final double rate;
+    private final int threads;
+
+    /**
+     * Creates a generator.
+     *
+     * @param client client sending the requests
+     * @param mix operations, with their weights
+     * @param rate requests started per second
+     * @param threads workers sending the requests
+     */
+    LoadGenerator(HttpClient client, List<Operation> mix, double rate, int threads) {
+        this.client = client;
+        this.mix = List.copyOf(mix);
+        this.totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        this.rate = rate;
+        this.threads = threads;
+    }
+
+    /**
+     * Offers the load for a time and waits for every request started to complete.
+     *
+     * @param duration time during which requests are started
+     * @return statistics of every operation of the mix, then of all of them
+     * @throws InterruptedException if interrupted while waiting for the requests
+     */
+    List<Stats> run(Duration duration) throws InterruptedException {
+        List<Recorder> recorders = mix.stream().map(operation -> new Recorder(operation.name())).toList();
+        Recorder all = new Recorder("total");
+        Random random = new Random(42);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try {
+            for (long scheduled = start; scheduled < end; scheduled += interval) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                int index = pick(random.nextInt(totalWeight));
+                long startAt = scheduled;
+                workers.execute(() -> send(mix.get(index), startAt, recorders.get(index), all));
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        List<Stats> stats = new ArrayList<>();
+        recorders.forEach(recorder -> stats.add(recorder.stats(seconds)));
+        stats.add(all.stats(seconds));
+        return stats;
+    }
+
+    private void send(Operation operation, long scheduled, Recorder recorder, Recorder all) {
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(operation.request().get(),
+                    HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            ok = false;
+        }
+        long latency = System.nanoTime() - scheduled;
+        recorder.record(latency, ok);
+        all.record(latency, ok);
+    }
+
+    private int pick(int ticket) {
+        int remaining = ticket;
+        for (int i = 0; i < mix.size(); i++) {
+            remaining -= mix.get(i).weight();
+            if (remaining < 0) {
+                return i;
+            }
+        }
+        return mix.size() - 1;
+    }
+
+    /**
+     * A kind of request of the mix.
+     *
+     * @param name name used in the report and in the SLO properties
+     * @param weight relative frequency in the mix
+     * @param request builds the next request, called on the worker threads
+     */
+    record Operation(String name, int weight, Supplier<HttpRequest> request) {
+    }
+
+    /**
+     * Latencies of the successful requests of an operation, in milliseconds, and its throughput.
+     *
+     * @param name operation name
+     * @param requests requests completed
+     * @param errors requests failed or answered with a 4xx or 5xx status
+     * @param p50 median latency
+     * @param p95 95th percentile latency
+     * @param p99 99th percentile latency
+     * @param max highest latency
+     * @param throughput successful requests per second
+     */
+    record Stats(String name, int requests, int errors, double p50, double p95, double p99, double max,
+                 double throughput) {
+    }
+
+    /**
+     * Collects the latencies of an operation from the worker threads.
+     */
+    private static final class Recorder {
+
+        private final String name;
+        private final AtomicInteger errors = new AtomicInteger();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        private Recorder(String name) {
+            this.name = name;
+        }
+
+        private void record(long latency, boolean ok) {
+            if (!ok) {
+                errors.incrementAndGet();
+                return;
+            }
+            synchronized (this) {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = latency;
+            }
+        }
+
+        private synchronized Stats stats(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new Stats(name, size + errors.get(), errors.get(), percentile(sorted, 0.50),
+                    percentile(sorted, 0.95), percentile(sorted, 0.99), percentile(sorted, 1.0), size / seconds);
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+}
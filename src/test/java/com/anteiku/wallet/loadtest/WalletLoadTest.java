@@ -0,0 +1,234 @@
+package com.anteiku.wallet.loadtest;
+
+import com.anteiku.wallet.config.MongoIndexInitializer;
+import com.anteiku.wallet.model.Transaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the running application with a mix of writes, lookups, filters and summaries at a fixed rate and
+ * checks latency and throughput against SLO budgets.
+ * The application is started on a random port against an in-memory MongoDB stand-in, so the test needs no
+ * network or database. The stand-in scans instead of using the compound indexes, so absolute numbers are its
+ * own and the budgets catch regressions in the application layers. It also ignores partial filters, so the
+ * partial unique index of the import fingerprints is dropped there; {@code -Dloadtest.mongodb.uri} runs the
+ * same load against a real database. Run with {@code mvn test -Ploadtest}; every parameter is a system
+ * property, e.g. {@code -Dloadtest.rate=100 -Dloadtest.slo.get.p99=20}.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "wallet.rate-limit.enabled=false")
+@DisplayName("Wallet Load Test")
+class WalletLoadTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    private static final int TRANSACTIONS = Integer.getInteger("loadtest.transactions", 2_000);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 25);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 32);
+    private static final String MIX = System.getProperty("loadtest.mix", "post:20,get:40,filter:25,summary:15");
+    private static final double MIN_THROUGHPUT = Double.parseDouble(
+            System.getProperty("loadtest.slo.throughput", "0.95"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(
+            System.getProperty("loadtest.slo.errors", "0"));
+    private static final int BATCH_SIZE = 1000;
+    private static final int HISTORY_DAYS = 365;
+    private static final String[] CATEGORIES = {"Cibo", "Affitto", "Svago", "Trasporti", "Salute", "Stipendio"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // replaced so that the indexes are created before the load starts, see createIndexes
+    @MockitoBean
+    private MongoIndexInitializer indexInitializer;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        String uri = System.getProperty("loadtest.mongodb.uri");
+        if (uri == null) {
+            InetSocketAddress address = MONGO.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort() + "/personal_wallet";
+        }
+        String mongoUri = uri;
+        registry.add("spring.data.mongodb.uri", () -> mongoUri);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rispettare gli SLO di latenza e throughput con il mix di richieste configurato")
+    void latencyAndThroughputWithinSlo() throws Exception {
+        awaitReadiness();
+        createIndexes();
+        List<String> ids = seed();
+        LoadGenerator generator = new LoadGenerator(client, mix(ids), RATE, THREADS);
+
+        generator.run(WARMUP);
+        List<LoadGenerator.Stats> results = generator.run(DURATION);
+
+        System.out.printf("%n%d transactions, %d req/s for %d s%n%-8s %8s %7s %9s %9s %9s %9s %9s%n",
+                TRANSACTIONS, RATE, DURATION.toSeconds(), "op", "requests", "errors", "p50 ms", "p95 ms", "p99 ms",
+                "max ms", "req/s");
+        results.forEach(stats -> System.out.printf("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.1f%n", stats.name(),
+                stats.requests(), stats.errors(), stats.p50(), stats.p95(), stats.p99(), stats.max(),
+                stats.throughput()));
+
+        SoftAssertions slo = new SoftAssertions();
+        for (LoadGenerator.Stats stats : results) {
+            slo.assertThat(stats.errors()).as("%s errors", stats.name())
+                    .isLessThanOrEqualTo((int) (MAX_ERROR_RATE * stats.requests()));
+            slo.assertThat(stats.p95()).as("%s p95 ms", stats.name())
+                    .isLessThanOrEqualTo(budget(stats.name(), "p95"));
+            slo.assertThat(stats.p99()).as("%s p99 ms", stats.name())
+                    .isLessThanOrEqualTo(budget(stats.name(), "p99"));
+        }
+        slo.assertThat(results.get(results.size() - 1).throughput()).as("total req/s")
+                .isGreaterThanOrEqualTo(MIN_THROUGHPUT * RATE * (1 - MAX_ERROR_RATE));
+        slo.assertAll();
+    }
+
+    /**
+     * Latency budget of an operation, or of the whole mix ({@code total}), from
+     * {@code loadtest.slo.<operation>.<percentile>} in milliseconds. The defaults are about three times the
+     * latencies of the default load on a developer machine, so that only a regression fails the test.
+     */
+    private static double budget(String operation, String percentile) {
+        String defaultBudget = switch (operation + "." + percentile) {
+            case "get.p95" -> "30";
+            case "get.p99" -> "50";
+            default -> "p95".equals(percentile) ? "75" : "150";
+        };
+        return Double.parseDouble(System.getProperty("loadtest.slo." + operation + "." + percentile,
+                defaultBudget));
+    }
+
+    private List<LoadGenerator.Operation> mix(List<String> ids) {
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        for (String entry : MIX.split(",")) {
+            String[] parts = entry.trim().split(":");
+            String name = parts[0];
+            int weight = Integer.parseInt(parts[1]);
+            operations.add(new LoadGenerator.Operation(name, weight, switch (name) {
+                case "post" -> () -> post("/api/transactions",
+                        transaction(ThreadLocalRandom.current()).toString());
+                case "get" -> () -> get("/api/transactions/" + ids.get(ThreadLocalRandom.current().nextInt(
+                        ids.size())));
+                case "filter" -> () -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    LocalDate end = LocalDate.now().minusDays(random.nextInt(HISTORY_DAYS));
+                    return get("/api/transactions/filter?type=" + (random.nextBoolean() ? "EXPENSE" : "INCOME")
+                            + "&startDate=" + end.minusDays(30) + "&endDate=" + end + "&sort=date,desc&limit=50");
+                };
+                case "summary" -> () -> get("/api/summary");
+                default -> throw new IllegalArgumentException("Unknown load test operation: " + name);
+            }));
+        }
+        return operations;
+    }
+
+    private List<String> seed() throws IOException, InterruptedException {
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>(TRANSACTIONS);
+        for (int seeded = 0; seeded < TRANSACTIONS; seeded += BATCH_SIZE) {
+            ArrayNode batch = objectMapper.createArrayNode();
+            for (int i = seeded; i < Math.min(seeded + BATCH_SIZE, TRANSACTIONS); i++) {
+                batch.add(transaction(random));
+            }
+            HttpResponse<String> response = client.send(post("/api/transactions/batch", batch.toString()),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).as(response.body()).isEqualTo(201);
+            for (JsonNode saved : objectMapper.readTree(response.body())) {
+                ids.add(saved.get("id").asText());
+            }
+        }
+        return ids;
+    }
+
+    private ObjectNode transaction(Random random) {
+        boolean income = random.nextInt(10) == 0;
+        return objectMapper.createObjectNode()
+                .put("amount", String.format("%d.%02d", 1 + random.nextInt(income ? 3000 : 200), random.nextInt(100)))
+                .put("category", income ? "Stipendio" : CATEGORIES[random.nextInt(CATEGORIES.length - 1)])
+                .put("description", "Transazione di prova " + random.nextInt(1000))
+                .put("date", LocalDate.now().minusDays(random.nextInt(HISTORY_DAYS)).atTime(12, 0).toString())
+                .put("type", income ? "INCOME" : "EXPENSE");
+    }
+
+    private void createIndexes() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes();
+        if (System.getProperty("loadtest.mongodb.uri") == null) {
+            mongoTemplate.indexOps(Transaction.class).dropIndex("wallet_fingerprint");
+        }
+    }
+
+    private void awaitReadiness() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (client.send(get("/actuator/health/readiness"), HttpResponse.BodyHandlers.discarding())
+                .statusCode() != 200) {
+            assertThat(System.nanoTime()).as("application ready").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,84 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.model.BudgetSpend;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@DisplayName("BudgetSpendRepository Test")
+class BudgetSpendRepositoryTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    @Autowired
+    private BudgetSpendRepository spendRepository;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/personal_wallet");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        spendRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sostituire il totale della spesa senza sommarlo")
+    void shouldSetCents() {
+        spendRepository.setCents("2024-03", "Cibo", "EUR", 1000);
+        spendRepository.setCents("2024-03", "Cibo", "EUR", 1250);
+
+        BudgetSpend spend = spendRepository.findById("2024-03|Cibo|EUR").orElseThrow();
+        assertThat(spend.getCents()).isEqualTo(1250);
+        assertThat(spend.getCurrency()).isEqualTo("EUR");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe registrare una soglia una sola volta finché non viene rimossa")
+    void shouldRecordAlertOnce() {
+        assertThat(spendRepository.addAlert("2024-01", "Cibo", "EUR", "b-1|2024|80")).isTrue();
+        assertThat(spendRepository.addAlert("2024-01", "Cibo", "EUR", "b-1|2024|80")).isFalse();
+        assertThat(spendRepository.addAlert("2024-01", "Cibo", "EUR", "b-1|2024|100")).isTrue();
+        spendRepository.setCents("2024-01", "Cibo", "EUR", 9000);
+
+        spendRepository.removeAlert("2024-01", "Cibo", "EUR", "b-1|2024|80");
+
+        BudgetSpend spend = spendRepository.findById("2024-01|Cibo|EUR").orElseThrow();
+        assertThat(spend.getAlerts()).containsExactly("b-1|2024|100");
+        assertThat(spend.getCents()).isEqualTo(9000);
+        assertThat(spendRepository.addAlert("2024-01", "Cibo", "EUR", "b-1|2024|80")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere solo i mesi e le categorie richiesti")
+    void shouldFindByMonthsAndCategories() {
+        spendRepository.setCents("2024-03", "Cibo", "EUR", 100);
+        spendRepository.setCents("2024-03", "Casa", "EUR", 200);
+        spendRepository.setCents("2024-02", "Cibo", "EUR", 300);
+
+        List<BudgetSpend> found = spendRepository.findByMonthInAndCategoryIn(List.of("2024-03"), List.of("Cibo"));
+
+        assertThat(found).extracting(BudgetSpend::getId).containsExactly("2024-03|Cibo|EUR");
+    }
+}
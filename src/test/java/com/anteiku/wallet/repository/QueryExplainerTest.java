@@ -0,0 +1,97 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.dto.QueryPlan;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("QueryExplainer Test")
+class QueryExplainerTest {
+
+    @Test
+    @DisplayName("Dovrebbe riconoscere un piano che usa un indice")
+    void shouldReadIndexScan() {
+        Document explain = explain(new Document("stage", "LIMIT").append("inputStage",
+                new Document("stage", "FETCH").append("inputStage",
+                        new Document("stage", "IXSCAN").append("indexName", "type_amount"))))
+                .append("executionStats", new Document("nReturned", 10).append("totalDocsExamined", 10)
+                        .append("totalKeysExamined", 10L).append("executionTimeMillis", 2));
+
+        QueryPlan plan = QueryExplainer.toPlan("top", "{}", Map.of("type", "EXPENSE"), Map.of("amount", -1),
+                explain);
+
+        assertThat(plan.stages()).containsExactly("LIMIT", "FETCH", "IXSCAN");
+        assertThat(plan.index()).isEqualTo("type_amount");
+        assertThat(plan.collectionScan()).isFalse();
+        assertThat(plan.missingIndex()).isFalse();
+        assertThat(plan.suggestedIndex()).isNull();
+        assertThat(plan.returned()).isEqualTo(10);
+        assertThat(plan.docsExamined()).isEqualTo(10);
+        assertThat(plan.keysExamined()).isEqualTo(10);
+        assertThat(plan.executionTimeMillis()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnalare una scansione della collezione e suggerire un indice")
+    void shouldFlagCollectionScan() {
+        Document explain = explain(new Document("stage", "SORT").append("inputStage",
+                new Document("stage", "COLLSCAN")));
+        Map<String, Object> filter = Map.of("category", "Cibo", "date", new Document("$gte", 1).append("$lt", 2));
+
+        QueryPlan plan = QueryExplainer.toPlan("filter", "{}", filter, new Document("date", -1), explain);
+
+        assertThat(plan.collectionScan()).isTrue();
+        assertThat(plan.inMemorySort()).isTrue();
+        assertThat(plan.missingIndex()).isTrue();
+        assertThat(plan.suggestedIndex()).isEqualTo("{\"category\": 1, \"date\": -1}");
+        assertThat(plan.docsExamined()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe accettare la scansione della collezione senza filtro")
+    void shouldAcceptCollectionScanWithoutFilter() {
+        QueryPlan plan = QueryExplainer.toPlan("findAll", "{}", Map.of(), Map.of(),
+                explain(new Document("stage", "COLLSCAN")));
+
+        assertThat(plan.collectionScan()).isTrue();
+        assertThat(plan.missingIndex()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere i piani del motore slot-based e delle aggregazioni")
+    void shouldReadSlotBasedAndAggregationPlans() {
+        Document slotBased = explain(new Document("queryPlan", new Document("stage", "IXSCAN")
+                .append("indexName", "wallet_date")));
+        Document aggregation = new Document("stages", List.of(new Document("$cursor",
+                new Document("queryPlanner", new Document("winningPlan", new Document("stage", "OR")
+                        .append("inputStages", List.of(new Document("stage", "IXSCAN").append("indexName", "a"),
+                                new Document("stage", "IXSCAN").append("indexName", "b"))))))));
+
+        assertThat(QueryExplainer.toPlan("find", "{}", Map.of(), Map.of(), slotBased).index())
+                .isEqualTo("wallet_date");
+        assertThat(QueryExplainer.toPlan("aggregate", "{}", Map.of(), Map.of(), aggregation).stages())
+                .containsExactly("OR", "IXSCAN", "IXSCAN");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ordinare le chiavi suggerite come uguaglianze, ordinamento, intervalli")
+    void shouldSuggestEqualitySortRange() {
+        BsonDocument filter = BsonDocument.parse(
+                "{'date': {'$gte': 1}, 'walletId': 'default', 'type': {'$in': ['EXPENSE']}}");
+
+        assertThat(QueryExplainer.suggestIndex(filter, BsonDocument.parse("{'amount': -1}")))
+                .isEqualTo("{\"walletId\": 1, \"type\": 1, \"amount\": -1, \"date\": 1}");
+        assertThat(QueryExplainer.suggestIndex(Map.of("$text", new Document("$search", "pizza")), Map.of()))
+                .isNull();
+    }
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
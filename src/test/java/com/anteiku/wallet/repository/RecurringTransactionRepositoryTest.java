@@ -0,0 +1,123 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.config.MongoIndexInitializer;
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.repository.RecurringTransactionRepositoryCustom.NextRunMove;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@DisplayName("RecurringTransactionRepository Test")
+class RecurringTransactionRepositoryTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    @Autowired
+    private RecurringTransactionRepository recurringRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/personal_wallet");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        recurringRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe creare l'indice sulla prossima occorrenza")
+    void shouldCreateNextRunIndex() {
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes();
+
+        assertThat(mongoTemplate.indexOps(RecurringTransaction.class).getIndexInfo())
+                .anySatisfy(index -> assertThat(index.isIndexForFields(List.of("nextRun"))).isTrue());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe trovare solo i modelli scaduti, dal piu' vecchio")
+    void shouldFindDueTemplates() {
+        recurringRepository.saveAll(List.of(template("later", NOW.plusDays(1)), template("late", NOW.minusDays(2)),
+                template("due", NOW), template("done", null)));
+
+        List<RecurringTransaction> due = recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(NOW,
+                Limit.of(10));
+
+        assertThat(due).extracting(RecurringTransaction::getDescription).containsExactly("late", "due");
+        assertThat(recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(NOW, Limit.of(1))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe spostare la prossima occorrenza solo se non e' cambiata nel frattempo")
+    void shouldAdvanceOnlyUnchangedTemplates() {
+        RecurringTransaction rent = recurringRepository.save(template("rent", NOW.minusDays(1)));
+        RecurringTransaction salary = recurringRepository.save(template("salary", NOW.minusDays(1)));
+
+        int moved = recurringRepository.advanceNextRuns(List.of(
+                new NextRunMove(rent.getId(), NOW.minusDays(1), NOW.plusMonths(1)),
+                new NextRunMove(salary.getId(), NOW.minusDays(5), NOW.plusMonths(1))));
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(recurringRepository.findById(rent.getId()).orElseThrow().getNextRun()).isEqualTo(NOW.plusMonths(1));
+        assertThat(recurringRepository.findById(salary.getId()).orElseThrow().getNextRun()).isEqualTo(NOW.minusDays(1));
+        assertThat(recurringRepository.advanceNextRuns(List.of())).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe concedere il lease a una sola replica finche' non scade")
+    void shouldGrantLeaseToOneReplica() {
+        Instant now = Instant.parse("2024-03-15T12:00:00Z");
+        Duration lease = Duration.ofMinutes(5);
+
+        assertThat(leaseRepository.tryAcquire("task", "a", now, lease)).isTrue();
+        assertThat(leaseRepository.tryAcquire("task", "b", now.plusSeconds(60), lease)).isFalse();
+        assertThat(leaseRepository.tryAcquire("task", "a", now.plusSeconds(60), lease)).isTrue();
+        assertThat(leaseRepository.tryAcquire("task", "b", now.plusSeconds(300), lease)).isFalse();
+        assertThat(leaseRepository.tryAcquire("task", "b", now.plusSeconds(360), lease)).isTrue();
+        assertThat(leaseRepository.findById("task").orElseThrow().getOwner()).isEqualTo("b");
+    }
+
+    private static RecurringTransaction template(String description, LocalDateTime nextRun) {
+        return RecurringTransaction.builder()
+                .amount(new BigDecimal("750.00"))
+                .category("Affitto")
+                .description(description)
+                .cron("@monthly")
+                .nextRun(nextRun)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.MongoOperationTimeoutException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RequestMongoDatabaseFactory Test")
+class RequestMongoDatabaseFactoryTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void startMongo() {
+        InetSocketAddress address = MONGO.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(new RequestMongoDatabaseFactory(
+                new SimpleMongoClientDatabaseFactory(client, "personal_wallet")));
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        client.close();
+        MONGO.shutdownNow();
+    }
+
+    @AfterEach
+    void clearRequestSettings() {
+        Deadline.clear();
+        ReadRouting.clear();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe limitare le operazioni al tempo rimasto prima della scadenza")
+    void shouldBoundOperationsByRemainingTime() {
+        Deadline.start(Duration.ofSeconds(5));
+
+        mongoTemplate.insert(new Document("_id", "a"), "deadlines");
+
+        assertThat(mongoTemplate.getDb().getTimeout(TimeUnit.MILLISECONDS)).isBetween(1L, 5000L);
+        assertThat(mongoTemplate.findAll(Document.class, "deadlines")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe limitare le operazioni dei thread senza scadenza")
+    void shouldNotBoundThreadsWithoutDeadline() {
+        assertThat(Deadline.isSet()).isFalse();
+        assertThat(mongoTemplate.getDb().getTimeout(TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe applicare la preferenza di lettura della richiesta")
+    void shouldApplyRequestReadPreference() {
+        ReadPreference analytics = ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS);
+        assertThat(mongoTemplate.getDb().getReadPreference()).isEqualTo(ReadPreference.primary());
+
+        ReadRouting.use(analytics);
+
+        assertThat(mongoTemplate.getDb().getReadPreference()).isEqualTo(analytics);
+        assertThat(mongoTemplate.findAll(Document.class, "deadlines")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare le operazioni dopo la scadenza")
+    void shouldRejectOperationsAfterDeadline() {
+        Deadline.start(Duration.ofMillis(-1));
+
+        assertThatThrownBy(() -> mongoTemplate.findAll(Document.class, "deadlines"))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe tradurre i timeout del driver in QueryTimeoutException")
+    void shouldTranslateDriverTimeouts() {
+        PersistenceExceptionTranslator translator = mongoTemplate.getMongoDatabaseFactory().getExceptionTranslator();
+
+        assertThat(translator.translateExceptionIfPossible(new MongoOperationTimeoutException("timeout")))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(translator.translateExceptionIfPossible(
+                new com.mongodb.DuplicateKeyException(new org.bson.BsonDocument(), null, null)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+}
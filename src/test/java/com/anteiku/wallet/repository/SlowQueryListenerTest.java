@@ -0,0 +1,104 @@
+package com.anteiku.wallet.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SlowQueryListener Test")
+class SlowQueryListenerTest {
+
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+    private MongoClient client;
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdown();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe conservare le query lente senza i campi di sessione")
+    void shouldKeepSlowQueriesWithoutSessionFields() {
+        SlowQueryListener listener = new SlowQueryListener(Duration.ZERO, 10);
+        MongoCollection<Document> transactions = connect(listener);
+
+        transactions.insertOne(new Document("category", "Cibo"));
+        transactions.find(Filters.eq("category", "Cibo")).first();
+
+        List<SlowQueryListener.SlowCommand> slowest = listener.slowest();
+        assertThat(slowest).extracting(SlowQueryListener.SlowCommand::name).containsExactly("find");
+        SlowQueryListener.SlowCommand find = slowest.get(0);
+        assertThat(find.collection()).isEqualTo("transactions");
+        assertThat(find.database()).isEqualTo("personal_wallet");
+        assertThat(find.command().getDocument("filter").getString("category").getValue()).isEqualTo("Cibo");
+        assertThat(find.command().keySet()).noneMatch(key -> key.startsWith("$")).doesNotContain("lsid");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare i comandi sotto la soglia")
+    void shouldIgnoreFastQueries() {
+        SlowQueryListener listener = new SlowQueryListener(Duration.ofMinutes(1), 10);
+        MongoCollection<Document> transactions = connect(listener);
+
+        transactions.find().first();
+
+        assertThat(listener.slowest()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe tenere solo le query lente più recenti, la più lenta per prima")
+    void shouldKeepMostRecentSlowQueries() {
+        SlowQueryListener listener = new SlowQueryListener(Duration.ZERO, 2);
+        MongoCollection<Document> transactions = connect(listener);
+
+        transactions.find(Filters.eq("category", "Cibo")).first();
+        transactions.find(Filters.eq("category", "Affitto")).first();
+        transactions.countDocuments(Filters.eq("category", "Svago"));
+
+        List<SlowQueryListener.SlowCommand> slowest = listener.slowest();
+        assertThat(slowest).hasSize(2);
+        assertThat(slowest).extracting(SlowQueryListener.SlowCommand::name).containsOnly("find", "aggregate");
+        assertThat(slowest.get(0).duration()).isGreaterThanOrEqualTo(slowest.get(1).duration());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare i comandi falliti")
+    void shouldForgetFailedCommands() {
+        SlowQueryListener listener = new SlowQueryListener(Duration.ZERO, 10);
+        MongoCollection<Document> transactions = connect(listener);
+        transactions.insertOne(new Document("category", "Cibo"));
+
+        try {
+            transactions.find(new Document("category", new Document("$unknownOperator", 1))).first();
+        } catch (RuntimeException ex) {
+            // expected: the server rejects the filter
+        }
+
+        assertThat(listener.slowest()).isEmpty();
+    }
+
+    private MongoCollection<Document> connect(SlowQueryListener listener) {
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://" + address.getHostString() + ":"
+                        + address.getPort()))
+                .addCommandListener(listener)
+                .build());
+        return client.getDatabase("personal_wallet").getCollection("transactions");
+    }
+}
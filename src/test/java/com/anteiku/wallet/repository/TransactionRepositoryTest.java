@@ -0,0 +1,822 @@
+package com.anteiku.wallet.repository;
+
+import com.anteiku.wallet.config.MongoIndexInitializer;
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.model.WalletBalance;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@DisplayName("TransactionRepository Test")
+class TransactionRepositoryTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private Transaction incomeTransaction;
+    private Transaction expenseTransaction;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        InetSocketAddress address = MONGO.bind();
+        registry.add("spring.data.mongodb.uri",
+                () -> "mongodb://" + address.getHostString() + ":" + address.getPort() + "/personal_wallet");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        MONGO.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+
+        incomeTransaction = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("1000.00"))
+                .category("Stipendio")
+                .description("Stipendio mensile")
+                .type(Transaction.TransactionType.INCOME)
+                .date(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .build();
+
+        expenseTransaction = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("50.00"))
+                .category("Cibo")
+                .description("Spesa al supermercato")
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 16, 14, 30))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire la transazione eliminata con findAndDelete")
+    void shouldFindAndDeleteById() {
+        transactionRepository.save(incomeTransaction);
+
+        Optional<Transaction> deleted = transactionRepository.findAndDeleteById("1");
+
+        assertThat(deleted).contains(incomeTransaction);
+        assertThat(transactionRepository.count()).isZero();
+        assertThat(transactionRepository.findAndDeleteById("1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sostituire una transazione esistente e restituire la versione precedente")
+    void shouldFindAndReplaceById() {
+        transactionRepository.save(incomeTransaction);
+        Transaction replacement = Transaction.builder()
+                .amount(new BigDecimal("1200.00"))
+                .category("Stipendio")
+                .description("Stipendio con bonus")
+                .type(Transaction.TransactionType.INCOME)
+                .date(incomeTransaction.getDate())
+                .build();
+
+        Optional<Transaction> previous = transactionRepository.findAndReplaceById("1", replacement);
+
+        assertThat(previous).contains(incomeTransaction);
+        assertThat(transactionRepository.findById("1")).contains(replacement);
+        assertThat(transactionRepository.findAndReplaceById("999", replacement)).isEmpty();
+        assertThat(transactionRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe eliminare per ID e per periodo con un conteggio")
+    void shouldDeleteByIdsAndDateRange() {
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction));
+
+        assertThat(transactionRepository.deleteByIdIn(List.of("1", "999"))).isEqualTo(1);
+        assertThat(transactionRepository.deleteByDateRange(LocalDate.of(2024, 1, 16).atStartOfDay(),
+                LocalDate.of(2024, 1, 17).atStartOfDay())).isEqualTo(1);
+        assertThat(transactionRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe proiettare solo i campi richiesti escludendo l'ID")
+    void shouldProjectSelectedFields() {
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction));
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .fields(EnumSet.of(TransactionField.AMOUNT, TransactionField.DATE))
+                .build());
+
+        assertThat(result).hasSize(1);
+        Transaction projected = result.get(0);
+        assertThat(projected.getAmount()).isEqualByComparingTo("50.00");
+        assertThat(projected.getDate()).isEqualTo(expenseTransaction.getDate());
+        assertThat(projected.getId()).isNull();
+        assertThat(projected.getDescription()).isNull();
+        assertThat(projected.getCategory()).isNull();
+        assertThat(projected.getType()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire l'ID quando richiesto tra i campi")
+    void shouldProjectIdWhenRequested() {
+        transactionRepository.save(incomeTransaction);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .fields(EnumSet.of(TransactionField.ID, TransactionField.AMOUNT))
+                .build());
+
+        assertThat(result).extracting(Transaction::getId).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe scorrere le transazioni filtrate con un cursore")
+    void shouldStreamFilteredTransactions() {
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction));
+
+        try (Stream<Transaction> stream = transactionRepository.streamFiltered(TransactionFilter.builder()
+                .startDate(LocalDate.of(2024, 1, 16))
+                .fields(EnumSet.of(TransactionField.ID))
+                .build())) {
+            assertThat(stream).extracting(Transaction::getId).containsExactly("2");
+        }
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni per tipo INCOME")
+    void shouldFilterTransactionsByTypeIncome() {
+        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.INCOME)
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni per tipo EXPENSE")
+    void shouldFilterTransactionsByTypeExpense() {
+        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni per periodo")
+    void shouldFilterTransactionsByDateRange() {
+        LocalDateTime today = LocalDateTime.now();
+        LocalDateTime yesterday = today.minusDays(1);
+        LocalDateTime tomorrow = today.plusDays(1);
+
+        Transaction pastTransaction = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("Past")
+                .type(Transaction.TransactionType.INCOME)
+                .date(yesterday)
+                .build();
+
+        Transaction currentTransaction = Transaction.builder()
+                .id("4")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("Current")
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(today)
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(pastTransaction, currentTransaction);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .startDate(today.toLocalDate())
+                .endDate(tomorrow.toLocalDate())
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo("4");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni per tipo e periodo")
+    void shouldFilterTransactionsByTypeAndDateRange() {
+        LocalDateTime today = LocalDateTime.now();
+
+        Transaction income1 = Transaction.builder()
+                .amount(new BigDecimal("1000.00"))
+                .type(Transaction.TransactionType.INCOME)
+                .date(today.minusDays(2))
+                .build();
+
+        Transaction income2 = Transaction.builder()
+                .amount(new BigDecimal("500.00"))
+                .type(Transaction.TransactionType.INCOME)
+                .date(today)
+                .build();
+
+        Transaction expense = Transaction.builder()
+                .amount(new BigDecimal("200.00"))
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(today)
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(income1, income2, expense);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.INCOME)
+                .startDate(today.toLocalDate().minusDays(1))
+                .endDate(today.toLocalDate())
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("500.00"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire tutte le transazioni quando tutti i filtri sono null")
+    void shouldReturnAllTransactionsWhenAllFiltersAreNull() {
+        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder().build());
+
+        assertThat(result).hasSize(2);
+        assertThat(result).containsExactlyInAnyOrder(incomeTransaction, expenseTransaction);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni con solo startDate (endDate null)")
+    void shouldFilterTransactionsWithOnlyStartDate() {
+        LocalDateTime baseDate = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+        Transaction beforeStart = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("Before start")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate.minusDays(5))
+                .build();
+
+        Transaction afterStart = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("After start")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate.plusDays(5))
+                .build();
+
+        Transaction onStartDate = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("300.00"))
+                .category("Test")
+                .description("On start date")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate)
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(beforeStart, afterStart, onStartDate);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .startDate(LocalDate.of(2024, 1, 15))
+                .build());
+
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(Transaction::getId)
+                .containsExactlyInAnyOrder("2", "3");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni con solo endDate (startDate null)")
+    void shouldFilterTransactionsWithOnlyEndDate() {
+        LocalDateTime baseDate = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+        Transaction beforeEnd = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("Before end")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate.minusDays(5))
+                .build();
+
+        Transaction afterEnd = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("After end")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate.plusDays(5))
+                .build();
+
+        Transaction onEndDate = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("300.00"))
+                .category("Test")
+                .description("On end date")
+                .type(Transaction.TransactionType.INCOME)
+                .date(baseDate)
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(beforeEnd, afterEnd, onEndDate);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .endDate(LocalDate.of(2024, 1, 15))
+                .build());
+
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(Transaction::getId)
+                .containsExactlyInAnyOrder("1", "3");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni all'inizio del range (boundary test)")
+    void shouldFilterTransactionsAtStartBoundary() {
+        LocalDate testDate = LocalDate.of(2024, 1, 15);
+        LocalDateTime exactStart = testDate.atStartOfDay();
+
+        Transaction atExactStart = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("At exact start")
+                .type(Transaction.TransactionType.INCOME)
+                .date(exactStart)
+                .build();
+
+        Transaction oneSecondBefore = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("One second before")
+                .type(Transaction.TransactionType.INCOME)
+                .date(exactStart.minusSeconds(1))
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(atExactStart, oneSecondBefore);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .startDate(testDate)
+                .endDate(testDate.plusDays(1))
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare transazioni alla fine del range (boundary test)")
+    void shouldFilterTransactionsAtEndBoundary() {
+        LocalDate testDate = LocalDate.of(2024, 1, 15);
+
+        Transaction atExactEnd = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("At exact end")
+                .type(Transaction.TransactionType.INCOME)
+                .date(testDate.atTime(23, 59, 59))
+                .build();
+
+        Transaction oneSecondAfter = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("One second after")
+                .type(Transaction.TransactionType.INCOME)
+                .date(testDate.plusDays(1).atStartOfDay())
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(atExactEnd, oneSecondAfter);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .startDate(testDate.minusDays(1))
+                .endDate(testDate)
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare per tipo con solo startDate")
+    void shouldFilterByTypeWithOnlyStartDate() {
+        LocalDate startDate = LocalDate.of(2024, 1, 10);
+
+        Transaction oldIncome = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("Old income")
+                .type(Transaction.TransactionType.INCOME)
+                .date(LocalDateTime.of(2024, 1, 5, 10, 0))
+                .build();
+
+        Transaction newIncome = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("New income")
+                .type(Transaction.TransactionType.INCOME)
+                .date(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .build();
+
+        Transaction newExpense = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("50.00"))
+                .category("Test")
+                .description("New expense")
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(oldIncome, newIncome, newExpense);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.INCOME)
+                .startDate(startDate)
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo("2");
+        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe filtrare per tipo con solo endDate")
+    void shouldFilterByTypeWithOnlyEndDate() {
+        LocalDate endDate = LocalDate.of(2024, 1, 15);
+
+        Transaction oldExpense = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("100.00"))
+                .category("Test")
+                .description("Old expense")
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 10, 10, 0))
+                .build();
+
+        Transaction newExpense = Transaction.builder()
+                .id("2")
+                .amount(new BigDecimal("200.00"))
+                .category("Test")
+                .description("New expense")
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 20, 10, 0))
+                .build();
+
+        Transaction oldIncome = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("50.00"))
+                .category("Test")
+                .description("Old income")
+                .type(Transaction.TransactionType.INCOME)
+                .date(LocalDateTime.of(2024, 1, 10, 10, 0))
+                .build();
+
+        List<Transaction> transactions = Arrays.asList(oldExpense, newExpense, oldIncome);
+        transactionRepository.saveAll(transactions);
+
+        List<Transaction> result = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .endDate(endDate)
+                .build());
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getId()).isEqualTo("1");
+        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe saltare le impronte gia' salvate nel portafoglio e inserire le altre")
+    void insertIgnoringDuplicates_ShouldSkipStoredFingerprints() {
+        mongoTemplate.indexOps(Transaction.class).ensureIndex(
+                new Index("fingerprint", Sort.Direction.ASC).named("fingerprint").unique().sparse());
+        new MongoIndexInitializer(mongoTemplate).ensureIndexes();
+        assertThat(mongoTemplate.indexOps(Transaction.class).getIndexInfo())
+                .extracting(IndexInfo::getName).contains("wallet_fingerprint").doesNotContain("fingerprint");
+        incomeTransaction.setId(null);
+        incomeTransaction.setWalletId(Transaction.DEFAULT_WALLET);
+        incomeTransaction.setFingerprint(TransactionFingerprint.of(incomeTransaction, 0));
+        expenseTransaction.setId(null);
+        expenseTransaction.setWalletId(Transaction.DEFAULT_WALLET);
+        expenseTransaction.setFingerprint(TransactionFingerprint.of(expenseTransaction, 0));
+        transactionRepository.insertIgnoringDuplicates(new ArrayList<>(List.of(incomeTransaction)));
+
+        Transaction again = Transaction.builder()
+                .walletId(Transaction.DEFAULT_WALLET)
+                .amount(incomeTransaction.getAmount())
+                .category(incomeTransaction.getCategory())
+                .description(incomeTransaction.getDescription())
+                .type(incomeTransaction.getType())
+                .date(incomeTransaction.getDate())
+                .fingerprint(incomeTransaction.getFingerprint())
+                .build();
+        Transaction otherWallet = Transaction.builder()
+                .walletId("famiglia")
+                .amount(incomeTransaction.getAmount())
+                .category(incomeTransaction.getCategory())
+                .description(incomeTransaction.getDescription())
+                .type(incomeTransaction.getType())
+                .date(incomeTransaction.getDate())
+                .fingerprint(incomeTransaction.getFingerprint())
+                .build();
+        List<Transaction> inserted = transactionRepository.insertIgnoringDuplicates(
+                new ArrayList<>(List.of(again, expenseTransaction, otherWallet)));
+
+        assertThat(inserted).containsExactly(expenseTransaction, otherWallet);
+        assertThat(expenseTransaction.getId()).isNotNull();
+        assertThat(transactionRepository.count()).isEqualTo(3);
+        assertThat(transactionRepository.findExistingFingerprints(Transaction.DEFAULT_WALLET,
+                List.of(incomeTransaction.getFingerprint(), "unknown")))
+                .containsExactly(incomeTransaction.getFingerprint());
+        assertThat(transactionRepository.findExistingFingerprints("viaggi", List.of(incomeTransaction.getFingerprint())))
+                .isEmpty();
+        try (Stream<String> fingerprints = transactionRepository.streamFingerprints()) {
+            assertThat(fingerprints).containsExactlyInAnyOrder(incomeTransaction.getFingerprint(),
+                    expenseTransaction.getFingerprint(), incomeTransaction.getFingerprint());
+        }
+        // the stand-in ignores partial filters, so the index would reject the transactions of other tests
+        mongoTemplate.indexOps(Transaction.class).dropIndex("wallet_fingerprint");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere le transazioni inserite da un istante")
+    void shouldStreamTransactionsInsertedSince() {
+        Instant now = Instant.now();
+        incomeTransaction.setId(new ObjectId(Date.from(now.minusSeconds(600))).toHexString());
+        expenseTransaction.setId(new ObjectId(Date.from(now)).toHexString());
+        Transaction custom = expense("custom-id", "1.00", LocalDateTime.of(2024, 1, 3, 12, 0));
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction, custom));
+
+        try (Stream<Transaction> newer = transactionRepository.streamInsertedSince(now.minusSeconds(60))) {
+            assertThat(newer).singleElement().satisfies(t -> {
+                assertThat(t.getId()).isEqualTo(expenseTransaction.getId());
+                assertThat(t.getDescription()).isEqualTo("Spesa al supermercato");
+                assertThat(t.getAmount()).isNull();
+            });
+        }
+        try (Stream<Transaction> all = transactionRepository.streamInsertedSince(null)) {
+            assertThat(all).hasSize(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Dovrebbe collegare le transazioni senza ID di categoria alla voce del dizionario")
+    void shouldAssignCategoryToLegacyTransactions() {
+        Transaction variant = Transaction.builder()
+                .id("3")
+                .amount(new BigDecimal("12.00"))
+                .category("CIBO")
+                .description("Pizza")
+                .build();
+        expenseTransaction.setCategoryId(7);
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction, variant));
+
+        assertThat(transactionRepository.findCategoriesWithoutId()).containsExactlyInAnyOrder("Stipendio", "CIBO");
+
+        long updated = transactionRepository.assignCategory("CIBO", new Category(7, "cibo", "Cibo"));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(transactionRepository.findByCategoryId(7)).extracting(Transaction::getId)
+                .containsExactlyInAnyOrder("2", "3");
+        assertThat(transactionRepository.findById("3")).get().extracting(Transaction::getCategory).isEqualTo("Cibo");
+        assertThat(transactionRepository.findCategoriesWithoutId()).containsExactly("Stipendio");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire le k transazioni piu' grandi ordinate numericamente per importo")
+    void shouldFindTopTransactionsByAmount() {
+        transactionRepository.saveAll(List.of(
+                expense("a", "9.00", LocalDateTime.of(2024, 1, 10, 9, 0)),
+                expense("b", "120.50", LocalDateTime.of(2024, 1, 11, 9, 0)),
+                expense("c", "15.00", LocalDateTime.of(2024, 1, 12, 9, 0)),
+                expense("d", "300.00", LocalDateTime.of(2024, 2, 1, 9, 0)),
+                incomeTransaction));
+
+        List<Transaction> top = transactionRepository.findFiltered(TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .endDate(LocalDate.of(2024, 1, 31))
+                .sort(TransactionQueries.parseSort("amount,desc"))
+                .limit(2)
+                .build());
+
+        assertThat(top).extracting(Transaction::getId).containsExactly("b", "c");
+        assertThat(mongoTemplate.getCollection("transactions").find(new Document("_id", "a")).first()
+                .get("amount")).isInstanceOf(Decimal128.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ordinare per data crescente")
+    void shouldSortByDateAscending() {
+        transactionRepository.saveAll(List.of(expenseTransaction, incomeTransaction));
+
+        List<Transaction> sorted = transactionRepository.findFiltered(TransactionFilter.builder()
+                .sort(TransactionQueries.parseSort("date"))
+                .build());
+
+        assertThat(sorted).extracting(Transaction::getId).containsExactly("1", "2");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere gli importi salvati come stringhe prima della conversione")
+    void shouldReadLegacyStringAmounts() {
+        mongoTemplate.getCollection("transactions").insertOne(new Document("_id", "legacy")
+                .append("amount", "19.90")
+                .append("category", "Cibo")
+                .append("description", "Pranzo")
+                .append("type", "EXPENSE"));
+
+        assertThat(transactionRepository.findById("legacy")).get()
+                .extracting(Transaction::getAmount).isEqualTo(new BigDecimal("19.90"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe limitare filtri e sostituzioni al portafoglio della transazione")
+    void shouldScopeQueriesToWallet() {
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction));
+        assertThat(transactionRepository.assignDefaultWallet()).isEqualTo(2);
+        Transaction other = expense("3", "5.00", LocalDateTime.of(2024, 1, 17, 9, 0));
+        other.setWalletId("famiglia");
+        transactionRepository.save(other);
+
+        List<Transaction> family = transactionRepository.findFiltered(TransactionFilter.builder()
+                .walletId("famiglia")
+                .build());
+        Transaction moved = expense("1", "1.00", incomeTransaction.getDate());
+        moved.setWalletId("famiglia");
+
+        assertThat(family).extracting(Transaction::getId).containsExactly("3");
+        assertThat(transactionRepository.findAndReplaceById("1", moved)).isEmpty();
+        assertThat(transactionRepository.findById("1")).get()
+                .extracting(Transaction::getWalletId).isEqualTo(Transaction.DEFAULT_WALLET);
+        assertThat(transactionRepository.assignDefaultWallet()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe mantenere il portafoglio salvato se la sostituzione non lo indica")
+    void shouldKeepStoredWalletOnReplace() {
+        Transaction family = expense("1", "1.00", incomeTransaction.getDate());
+        family.setWalletId("famiglia");
+        transactionRepository.save(family);
+        Transaction replacement = expense("1", "2.00", incomeTransaction.getDate());
+
+        assertThat(transactionRepository.findAndReplaceById("1", replacement)).isPresent();
+        assertThat(replacement.getWalletId()).isEqualTo("famiglia");
+        assertThat(transactionRepository.findById("1")).get()
+                .extracting(Transaction::getWalletId).isEqualTo("famiglia");
+        assertThat(transactionRepository.findAndReplaceById("999", expense("999", "1.00", null))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sommare gli incrementi dei totali di ogni portafoglio")
+    void shouldApplyWalletDeltas() {
+        walletBalanceRepository.deleteAll();
+        WalletBalance added = WalletBalance.builder().id("famiglia").count(2).build();
+        added.totals("EUR").setIncome(new BigDecimal("100.10"));
+        added.totals("USD").setExpense(new BigDecimal("5.00"));
+        WalletBalance removed = WalletBalance.builder().id("famiglia").count(-1).build();
+        removed.totals("EUR").setExpense(new BigDecimal("-0.10"));
+
+        walletBalanceRepository.applyDeltas(List.of(added));
+        walletBalanceRepository.applyDeltas(List.of(removed, WalletBalance.builder().id("lavoro").build()));
+        walletBalanceRepository.applyDeltas(List.of());
+
+        WalletBalance family = walletBalanceRepository.findById("famiglia").orElseThrow();
+        assertThat(family.getCurrencies()).containsOnlyKeys("EUR", "USD");
+        assertThat(family.totals("EUR").getIncome()).isEqualByComparingTo("100.10");
+        assertThat(family.totals("EUR").getExpense()).isEqualByComparingTo("-0.10");
+        assertThat(family.totals("USD").getExpense()).isEqualByComparingTo("5.00");
+        assertThat(family.getCount()).isEqualTo(1);
+        assertThat(family.getVersion()).isEqualTo(2);
+        assertThat(walletBalanceRepository.count()).isEqualTo(2);
+        assertThat(walletBalanceRepository.existsByCurrenciesExists(false)).isTrue();
+        mongoTemplate.getCollection("wallet_balances").deleteMany(new Document("_id", "lavoro"));
+        assertThat(walletBalanceRepository.existsByCurrenciesExists(false)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sommare gli importi per tipo e valuta")
+    void shouldSumByTypeAndCurrency() {
+        Transaction dollars = expense("usd", "20.50", LocalDateTime.of(2024, 1, 2, 12, 0));
+        dollars.setCurrency("USD");
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction, dollars,
+                expense("eur", "4.50", LocalDateTime.of(2024, 1, 3, 12, 0))));
+
+        Map<String, BigDecimal> totals = new HashMap<>();
+        transactionRepository.sumByTypeAndCurrency()
+                .forEach(total -> totals.put(total.type() + "|" + total.currency(), total.total()));
+
+        assertThat(totals).containsOnlyKeys("INCOME|EUR", "EXPENSE|EUR", "EXPENSE|USD");
+        assertThat(totals.get("EXPENSE|EUR"))
+                .isEqualByComparingTo(expenseTransaction.getAmount().add(new BigDecimal("4.50")));
+        assertThat(totals.get("EXPENSE|USD")).isEqualByComparingTo("20.50");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sommare e contare gli importi per portafoglio, tipo e valuta")
+    void shouldSumByWallet() {
+        Transaction family = expense("famiglia", "12.50", LocalDateTime.of(2024, 1, 2, 12, 0));
+        family.setWalletId("famiglia");
+        Transaction dollars = expense("usd", "20.50", LocalDateTime.of(2024, 1, 2, 12, 0));
+        dollars.setCurrency("USD");
+        transactionRepository.saveAll(List.of(incomeTransaction, expenseTransaction, family, dollars,
+                expense("eur", "4.50", LocalDateTime.of(2024, 1, 3, 12, 0))));
+
+        Map<String, TransactionRepositoryCustom.WalletTotal> totals = new HashMap<>();
+        transactionRepository.sumByWallet(null).forEach(total ->
+                totals.put(total.walletId() + "|" + total.type() + "|" + total.currency(), total));
+
+        assertThat(totals).containsOnlyKeys("default|INCOME|EUR", "default|EXPENSE|EUR", "default|EXPENSE|USD",
+                "famiglia|EXPENSE|EUR");
+        assertThat(totals.get("default|EXPENSE|EUR").count()).isEqualTo(2);
+        assertThat(totals.get("default|EXPENSE|EUR").total())
+                .isEqualByComparingTo(expenseTransaction.getAmount().add(new BigDecimal("4.50")));
+        assertThat(transactionRepository.sumByWallet("famiglia")).singleElement()
+                .satisfies(total -> assertThat(total.total()).isEqualByComparingTo("12.50"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sostituire i totali di un portafoglio solo alla versione letta")
+    void shouldReplaceBalanceIfVersion() {
+        walletBalanceRepository.deleteAll();
+        WalletBalance rebuilt = WalletBalance.builder().id("famiglia").count(1).build();
+        rebuilt.totals("EUR").setExpense(new BigDecimal("10.00"));
+
+        assertThat(walletBalanceRepository.replaceIfVersion(rebuilt, null)).isTrue();
+        assertThat(walletBalanceRepository.replaceIfVersion(rebuilt, null)).isFalse();
+        WalletBalance delta = WalletBalance.builder().id("famiglia").count(1).build();
+        delta.totals("EUR").setExpense(new BigDecimal("5.00"));
+        walletBalanceRepository.applyDeltas(List.of(delta));
+        rebuilt.setVersion(1);
+        assertThat(walletBalanceRepository.replaceIfVersion(rebuilt, 0L)).isFalse();
+        rebuilt.setVersion(2);
+        rebuilt.totals("EUR").setExpense(new BigDecimal("15.00"));
+        assertThat(walletBalanceRepository.replaceIfVersion(rebuilt, 1L)).isTrue();
+
+        WalletBalance stored = walletBalanceRepository.findById("famiglia").orElseThrow();
+        assertThat(stored.getVersion()).isEqualTo(2);
+        assertThat(stored.totals("EUR").getExpense()).isEqualByComparingTo("15.00");
+    }
+
+    private static Transaction expense(String id, String amount, LocalDateTime date) {
+        return Transaction.builder()
+                .id(id)
+                .amount(new BigDecimal(amount))
+                .category("Varie")
+                .description("Spesa " + id)
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(date)
+                .build();
+    }
+}
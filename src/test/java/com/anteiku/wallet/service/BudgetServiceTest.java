@@ -0,0 +1,407 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.BudgetStatus;
+import com.anteiku.wallet.model.Budget;
+import com.anteiku.wallet.model.BudgetSpend;
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.BudgetRepository;
+import com.anteiku.wallet.repository.BudgetSpendRepository;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.SchedulerLeaseRepository;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BudgetService Test")
+class BudgetServiceTest {
+
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+    private static final FxTable FX = new FxTable("EUR", Map.of("USD", new BigDecimal("1.25")), Instant.EPOCH);
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private BudgetSpendRepository spendRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @InjectMocks
+    private BudgetService budgetService;
+
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(fxRateService.current()).thenReturn(FX);
+        lenient().when(categoryDictionary.resolve(anyString()))
+                .thenAnswer(inv -> new Category(1, "key", inv.<String>getArgument(0).trim()));
+        lenient().when(budgetRepository.save(any(Budget.class))).thenAnswer(inv -> {
+            Budget budget = inv.getArgument(0);
+            budget.setId("b-" + budget.getCategory());
+            return budget;
+        });
+        lenient().when(spendRepository.addAlert(anyString(), anyString(), anyString(), anyString())).thenReturn(true);
+        lenient().when(transactionRepository.streamFiltered(any(TransactionFilter.class)))
+                .thenAnswer(inv -> matching(inv.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe aggiornare la spesa a ogni scrittura senza rileggere le transazioni")
+    void shouldTrackSpendingFromEvents() {
+        Budget budget = budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+        Transaction lunch = expense("Cibo", "12.50", MARCH.atDay(5));
+        Transaction dinner = expense("Cibo", "30.00", MARCH.atDay(6));
+
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(lunch, dinner,
+                income("Cibo", "500.00", MARCH.atDay(7)), expense("Affitto", "800.00", MARCH.atDay(1)))));
+        budgetService.onTransactionsChanged(new TransactionsChangedEvent(
+                List.of(expense("Cibo", "20.00", MARCH.atDay(6))), List.of(dinner)));
+
+        BudgetStatus status = budgetService.getStatus(MARCH).get(0);
+        assertThat(status.id()).isEqualTo(budget.getId());
+        assertThat(status.periodLabel()).isEqualTo("2024-03");
+        assertThat(status.spent()).isEqualByComparingTo("32.50");
+        assertThat(status.remaining()).isEqualByComparingTo("67.50");
+        assertThat(status.percentUsed()).isEqualByComparingTo("32.5");
+        assertThat(status.crossedThresholds()).isEmpty();
+        assertThat(budgetService.getStatus(MARCH.plusMonths(1)).get(0).spent()).isEqualByComparingTo("0");
+        verify(transactionRepository, never()).streamFiltered(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe pubblicare un solo evento per soglia e periodo")
+    void shouldPublishThresholdOncePerPeriod() {
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(expense("Cibo", "79.99", MARCH.atDay(1)))));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(expense("Cibo", "0.01", MARCH.atDay(2)))));
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(expense("Cibo", "5.00", MARCH.atDay(3)))));
+
+        ArgumentCaptor<BudgetThresholdCrossedEvent> event = ArgumentCaptor.forClass(BudgetThresholdCrossedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().threshold()).isEqualTo(80);
+        assertThat(event.getValue().period()).isEqualTo("2024-03");
+        assertThat(event.getValue().spent()).isEqualByComparingTo("80.00");
+        assertThat(budgetService.getStatus(MARCH).get(0).crossedThresholds()).containsExactly(80);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe pubblicare di nuovo la soglia se la spesa scende e poi la supera ancora")
+    void shouldRaiseThresholdAgainAfterDroppingBelow() {
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.YEARLY));
+        Transaction big = expense("Cibo", "90.00", MARCH.atDay(1));
+
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(big)));
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(big)));
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(expense("Cibo", "85.00", YearMonth.of(2024, 11).atDay(1)))));
+
+        ArgumentCaptor<BudgetThresholdCrossedEvent> event = ArgumentCaptor.forClass(BudgetThresholdCrossedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(event.capture());
+        assertThat(event.getAllValues()).allMatch(e -> e.period().equals("2024") && e.threshold() == 80);
+        verify(spendRepository, times(2)).addAlert("2024-01", "Cibo", "EUR", "b-Cibo|2024|80");
+        verify(spendRepository).removeAlert("2024-01", "Cibo", "EUR", "b-Cibo|2024|80");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe non pubblicare una soglia gia' registrata da un'altra replica")
+    void shouldNotRaiseAlertRecordedByOtherReplica() {
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+        when(spendRepository.addAlert("2024-03", "Cibo", "EUR", "b-Cibo|2024-03|80")).thenReturn(false);
+
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(expense("Cibo", "85.00", MARCH.atDay(1)))));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        assertThat(budgetService.getStatus(MARCH).get(0).crossedThresholds()).containsExactly(80);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare solo i mesi modificati, contandoli di nuovo dalle spese")
+    void shouldFlushOnlyChangedMonths() {
+        write(expense("Cibo", "10.00", MARCH.atDay(1)), expense("Cibo", "4.00", MARCH.plusMonths(1).atDay(1)));
+        budgetService.flush();
+        budgetService.flush();
+        write(expense("Cibo", "2.50", MARCH.atDay(2)));
+        budgetService.flush();
+
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 1000);
+        verify(spendRepository).setCents("2024-04", "Cibo", "EUR", 400);
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 1250);
+        verify(spendRepository, times(3)).setCents(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare la spesa alla chiusura entro un tempo massimo senza rileggerla")
+    void shouldPersistWithinDeadlineOnShutdown() {
+        write(expense("Cibo", "10.00", MARCH.atDay(1)));
+        doAnswer(invocation -> {
+            assertThat(Deadline.isSet()).isTrue();
+            return null;
+        }).when(spendRepository).setCents(anyString(), anyString(), anyString(), anyLong());
+
+        budgetService.onShutdown();
+
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 1000);
+        verify(spendRepository, never()).findByMonthInAndCategoryIn(any(), any());
+        assertThat(Deadline.isSet()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe caricare la spesa salvata senza ripubblicare le soglie gia' superate")
+    void shouldLoadPersistedSpending() {
+        Budget budget = budget("Cibo", "100.00", Budget.Period.MONTHLY);
+        budget.setId("b-1");
+        when(budgetRepository.findAll()).thenReturn(List.of(budget));
+        when(spendRepository.findAll()).thenReturn(List.of(
+                new BudgetSpend("2024-03|Cibo", "2024-03", "Cibo", null, 8000, null),
+                new BudgetSpend("2024-03|Cibo|USD", "2024-03", "Cibo", "USD", 1250, null)));
+
+        budgetService.load();
+
+        BudgetStatus status = budgetService.getStatus(MARCH).get(0);
+        assertThat(status.spent()).isEqualByComparingTo("90.00");
+        assertThat(status.crossedThresholds()).containsExactly(80);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 8000);
+        verify(spendRepository).deleteById("2024-03|Cibo");
+        // only the current month is read from the transactions
+        ArgumentCaptor<TransactionFilter> filter = ArgumentCaptor.forClass(TransactionFilter.class);
+        verify(transactionRepository).streamFiltered(filter.capture());
+        assertThat(filter.getValue().getStartDate()).isEqualTo(YearMonth.now().atDay(1));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricalcolare il mese corrente al riavvio invece di fidarsi della spesa salvata")
+    void shouldRecountCurrentMonthOnRestart() {
+        YearMonth current = YearMonth.now();
+        when(spendRepository.findAll()).thenReturn(List.of(
+                new BudgetSpend(current + "|Cibo|EUR", current.toString(), "Cibo", "EUR", 3000, null)));
+        // the second expense was written just before a crash, and never persisted
+        transactions.add(expense("Cibo", "30.00", current.atDay(1)));
+        transactions.add(expense("Cibo", "40.00", current.atDay(1)));
+
+        budgetService.load();
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+
+        assertThat(budgetService.getStatus(current).get(0).spent()).isEqualByComparingTo("70.00");
+        verify(spendRepository).setCents(current.toString(), "Cibo", "EUR", 7000);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe includere la spesa salvata dalle altre repliche dopo ogni flush")
+    void shouldReadSpendingOfOtherReplicas() {
+        YearMonth current = YearMonth.now();
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+        write(expense("Cibo", "50.00", current.atDay(1)));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        // another replica stored 35.00 of its own writes, read only for the budget categories in the current period
+        when(spendRepository.findByMonthInAndCategoryIn(Set.of(current.toString()), Set.of("Cibo")))
+                .thenReturn(List.of(new BudgetSpend(current + "|Cibo|EUR", current.toString(), "Cibo", "EUR", 8500,
+                        null)));
+
+        budgetService.flush();
+        budgetService.flush();
+
+        assertThat(budgetService.getStatus(current).get(0).spent()).isEqualByComparingTo("85.00");
+        verify(spendRepository).setCents(current.toString(), "Cibo", "EUR", 5000);
+        verify(spendRepository, times(1)).setCents(anyString(), anyString(), anyString(), anyLong());
+        ArgumentCaptor<BudgetThresholdCrossedEvent> event = ArgumentCaptor.forClass(BudgetThresholdCrossedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().threshold()).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe applicare le scritture ricevute durante il caricamento solo al suo termine")
+    void shouldApplyEventsAfterLoad() {
+        transactions.add(expense("Cibo", "10.00", MARCH.atDay(1)));
+        Transaction concurrent = expense("Cibo", "15.00", MARCH.atDay(2));
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(spendRepository.findAll()).thenReturn(List.of());
+        doAnswer(inv -> {
+            // a write lands while the expenses are scanned, and the scan reads it too
+            if (!transactions.contains(concurrent)) {
+                transactions.add(concurrent);
+                budgetService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(concurrent)));
+            }
+            return new ArrayList<>(transactions).stream();
+        }).when(transactionRepository).streamFiltered(any(TransactionFilter.class));
+
+        budgetService.holdEvents();
+        budgetService.flush();
+        budgetService.load();
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+
+        assertThat(budgetService.isReady()).isTrue();
+        assertThat(budgetService.getStatus(MARCH).get(0).spent()).isEqualByComparingTo("25.00");
+        // the skipped flush stored nothing, the month of the held write is stored once counted again
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 2500);
+        verify(spendRepository, times(1)).setCents(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe contare la spesa per valuta e convertirla nella valuta dei limiti")
+    void shouldConvertSpendingPerCurrency() {
+        budgetService.createBudget(budget("Viaggi", "100.00", Budget.Period.MONTHLY));
+        Transaction hotel = expense("Viaggi", "62.50", MARCH.atDay(4));
+        hotel.setCurrency("USD");
+
+        write(hotel, expense("Viaggi", "30.00", MARCH.atDay(5)));
+        budgetService.flush();
+
+        assertThat(budgetService.getStatus(MARCH).get(0).spent()).isEqualByComparingTo("80.00");
+        assertThat(budgetService.getStatus(MARCH).get(0).crossedThresholds()).containsExactly(80);
+        verify(spendRepository).setCents("2024-03", "Viaggi", "USD", 6250);
+        verify(spendRepository).setCents("2024-03", "Viaggi", "EUR", 3000);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe calcolare la spesa dalle transazioni al primo avvio")
+    void shouldComputeSpendingOnFirstLoad() {
+        transactions.add(expense("Cibo", "10.00", MARCH.atDay(1)));
+        transactions.add(expense("Cibo", "15.00", MARCH.atDay(2)));
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(spendRepository.findAll()).thenReturn(List.of());
+        when(leaseRepository.tryAcquire(eq(BudgetService.SEED_LEASE), anyString(), any(), any())).thenReturn(true);
+
+        budgetService.load();
+        budgetService.createBudget(budget("Cibo", "20.00", Budget.Period.MONTHLY));
+
+        assertThat(budgetService.getStatus(MARCH).get(0).spent()).isEqualByComparingTo("25.00");
+        assertThat(budgetService.getStatus(MARCH).get(0).crossedThresholds()).containsExactly(80, 100);
+        verify(spendRepository).setCents("2024-03", "Cibo", "EUR", 2500);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe lasciare il salvataggio della spesa iniziale alla replica che ha il lease")
+    void shouldSeedOnlyWithLease() {
+        transactions.add(expense("Cibo", "10.00", MARCH.atDay(1)));
+        when(budgetRepository.findAll()).thenReturn(List.of());
+        when(spendRepository.findAll()).thenReturn(List.of());
+        when(leaseRepository.tryAcquire(eq(BudgetService.SEED_LEASE), anyString(), any(), any())).thenReturn(false);
+
+        budgetService.load();
+        budgetService.createBudget(budget("Cibo", "20.00", Budget.Period.MONTHLY));
+
+        assertThat(budgetService.getStatus(MARCH).get(0).spent()).isEqualByComparingTo("10.00");
+        verify(spendRepository, never()).setCents(anyString(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricalcolare i mesi di un periodo eliminato")
+    void shouldRecomputePurgedMonths() {
+        budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+        Transaction kept = expense("Cibo", "5.00", MARCH.atDay(20));
+        transactions.add(kept);
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(kept, expense("Cibo", "90.00", MARCH.atDay(2)))));
+
+        budgetService.onTransactionsPurged(new TransactionsPurgedEvent(MARCH.atDay(1), LocalDate.of(2024, 3, 10)));
+
+        assertThat(budgetService.getStatus(MARCH).get(0).spent()).isEqualByComparingTo("5.00");
+        assertThat(budgetService.getStatus(MARCH).get(0).crossedThresholds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe eliminare un budget esistente")
+    void shouldDeleteBudget() {
+        Budget budget = budgetService.createBudget(budget("Cibo", "100.00", Budget.Period.MONTHLY));
+        when(budgetRepository.findById(budget.getId())).thenReturn(Optional.of(budget));
+        when(budgetRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThat(budgetService.deleteBudget(budget.getId())).contains(budget);
+        assertThat(budgetService.deleteBudget("missing")).isEmpty();
+        assertThat(budgetService.getBudgets()).isEmpty();
+        verify(budgetRepository).deleteById(budget.getId());
+    }
+
+    private void write(Transaction... written) {
+        transactions.addAll(List.of(written));
+        budgetService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(written)));
+    }
+
+    private Stream<Transaction> matching(TransactionFilter filter) {
+        return new ArrayList<>(transactions).stream()
+                .filter(t -> t.getType() == filter.getType())
+                .filter(t -> filter.getCategory() == null || t.getCategory().equals(filter.getCategory()))
+                .filter(t -> filter.getStartDate() == null || !t.getDate().toLocalDate().isBefore(filter.getStartDate()))
+                .filter(t -> filter.getEndDate() == null || !t.getDate().toLocalDate().isAfter(filter.getEndDate()));
+    }
+
+    private static Budget budget(String category, String limit, Budget.Period period) {
+        return Budget.builder().category(category).limit(new BigDecimal(limit)).period(period).build();
+    }
+
+    private static Transaction expense(String category, String amount, LocalDate date) {
+        return transaction(Transaction.TransactionType.EXPENSE, category, amount, date);
+    }
+
+    private static Transaction income(String category, String amount, LocalDate date) {
+        return transaction(Transaction.TransactionType.INCOME, category, amount, date);
+    }
+
+    private static Transaction transaction(Transaction.TransactionType type, String category, String amount,
+                                           LocalDate date) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .category(category)
+                .description(category)
+                .type(type)
+                .date(LocalDateTime.of(date, LocalTime.NOON))
+                .build();
+    }
+}
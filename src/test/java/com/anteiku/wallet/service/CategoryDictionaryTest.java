@@ -0,0 +1,154 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Category;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.CategoryRepository;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CategoryDictionary Test")
+class CategoryDictionaryTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionCache transactionCache;
+
+    @InjectMocks
+    private CategoryDictionary categoryDictionary;
+
+    private final Category food = new Category(1, "cibo", "Cibo");
+    private final Category coffee = new Category(2, "caffe", "Caffè");
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(categoryRepository.insert(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricondurre le varianti di un nome alla stessa categoria")
+    void shouldResolveVariantSpellingsToOneCategory() {
+        when(categoryRepository.findByKey("cibo")).thenReturn(Optional.empty());
+        when(categoryRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(coffee));
+
+        Category created = categoryDictionary.resolve("Cibo");
+
+        assertThat(created.getId()).isEqualTo(3);
+        assertThat(created.getName()).isEqualTo("Cibo");
+        assertThat(categoryDictionary.resolve("  CIBO ")).isSameAs(created);
+        assertThat(categoryDictionary.resolve("cibo")).isSameAs(created);
+        verify(categoryRepository, times(1)).insert(any(Category.class));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare accenti e spazi ripetuti nel confronto")
+    void shouldFoldAccentsAndWhitespace() {
+        when(categoryRepository.findByKey("caffe bar")).thenReturn(Optional.empty());
+        when(categoryRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+
+        Category created = categoryDictionary.resolve(" Caffè   Bar");
+
+        assertThat(created.getId()).isEqualTo(1);
+        assertThat(created.getName()).isEqualTo("Caffè Bar");
+        assertThat(categoryDictionary.resolve("caffe bar")).isSameAs(created);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe riusare la categoria registrata da un'altra richiesta concorrente")
+    void shouldReuseCategoryRegisteredConcurrently() {
+        when(categoryRepository.findByKey("cibo")).thenReturn(Optional.empty(), Optional.of(food));
+        when(categoryRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(categoryRepository.insert(any(Category.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThat(categoryDictionary.resolve("Cibo")).isEqualTo(food);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare un nome di categoria vuoto")
+    void shouldRejectBlankName() {
+        assertThatThrownBy(() -> categoryDictionary.resolve("  "))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(categoryRepository, never()).findByKey(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe assegnare ID e nome canonico alla transazione")
+    void shouldAssignCategoryToTransaction() {
+        when(categoryRepository.findAll()).thenReturn(List.of(food));
+        categoryDictionary.load();
+        Transaction transaction = Transaction.builder().amount(BigDecimal.TEN).category("cibo ").build();
+
+        categoryDictionary.assign(transaction);
+
+        assertThat(transaction.getCategory()).isEqualTo("Cibo");
+        assertThat(transaction.getCategoryId()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe collegare al dizionario le transazioni salvate senza ID di categoria")
+    void shouldLinkLegacyTransactionsOnLoad() {
+        when(categoryRepository.findAll()).thenReturn(List.of(food));
+        when(transactionRepository.findCategoriesWithoutId()).thenReturn(List.of("CIBO"));
+        when(transactionRepository.assignCategory("CIBO", food)).thenReturn(3L);
+
+        categoryDictionary.load();
+
+        verify(transactionRepository).assignCategory("CIBO", food);
+        verify(transactionCache).clear();
+        verify(categoryRepository, never()).insert(any(Category.class));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe completare un prefisso in ordine alfabetico")
+    void shouldCompletePrefix() {
+        when(categoryRepository.findAll()).thenReturn(List.of(food, coffee, new Category(3, "cinema", "Cinema")));
+        categoryDictionary.load();
+
+        assertThat(categoryDictionary.complete("Ci", 10)).extracting(Category::getName)
+                .containsExactly("Cibo", "Cinema");
+        assertThat(categoryDictionary.complete("c", 2)).extracting(Category::getName)
+                .containsExactly("Caffè", "Cibo");
+        assertThat(categoryDictionary.findAll()).hasSize(3);
+        assertThat(categoryDictionary.findById(2)).contains(coffee);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe condividere l'istanza del nome tra le transazioni lette")
+    void shouldInternCategoryNamesOnRead() {
+        when(categoryRepository.findAll()).thenReturn(List.of(food));
+        categoryDictionary.load();
+        Transaction read = Transaction.builder().category(new String("Cibo")).categoryId(1).build();
+
+        CategoryInterningCallback callback = new CategoryInterningCallback(() -> categoryDictionary);
+
+        callback.onAfterConvert(read, new Document(), "transactions");
+
+        assertThat(read.getCategory()).isSameAs(food.getName());
+    }
+}
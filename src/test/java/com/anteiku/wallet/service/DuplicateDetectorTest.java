@@ -0,0 +1,111 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.ImportProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DuplicateDetector Test")
+class DuplicateDetectorTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private DuplicateDetector duplicateDetector;
+    private Transaction coffee;
+    private Transaction rent;
+
+    @BeforeEach
+    void setUp() {
+        duplicateDetector = new DuplicateDetector(transactionRepository, new ImportProperties());
+        coffee = fingerprinted("1.50", "Caffe");
+        rent = fingerprinted("800.00", "Affitto");
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe interrogare il database per impronte mai viste")
+    void shouldNotQueryForUnseenFingerprints() {
+        List<Transaction> batch = List.of(coffee, rent);
+
+        assertThat(duplicateDetector.withoutDuplicates(batch)).isSameAs(batch);
+        verify(transactionRepository, never()).findExistingFingerprints(any(), any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe verificare nel database solo le impronte probabilmente gia' viste")
+    void shouldCheckOnlyLikelyDuplicates() {
+        duplicateDetector.record(List.of(coffee));
+        when(transactionRepository.findExistingFingerprints(Transaction.DEFAULT_WALLET, List.of(coffee.getFingerprint())))
+                .thenReturn(Set.of(coffee.getFingerprint()));
+
+        assertThat(duplicateDetector.withoutDuplicates(List.of(coffee, rent))).containsExactly(rent);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe caricare le impronte salvate all'avvio")
+    void shouldLoadStoredFingerprints() {
+        when(transactionRepository.streamFingerprints()).thenReturn(Stream.of(rent.getFingerprint()));
+        when(transactionRepository.findExistingFingerprints(Transaction.DEFAULT_WALLET, List.of(rent.getFingerprint()))).thenReturn(Set.of());
+
+        duplicateDetector.load();
+
+        List<Transaction> batch = List.of(coffee, rent);
+        assertThat(duplicateDetector.withoutDuplicates(batch)).isSameAs(batch);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe tollerare un database non raggiungibile durante il caricamento")
+    void shouldTolerateUnreachableDatabaseOnLoad() {
+        when(transactionRepository.streamFingerprints()).thenThrow(new IllegalStateException("timeout"));
+
+        duplicateDetector.load();
+
+        assertThat(duplicateDetector.withoutDuplicates(List.of(coffee))).containsExactly(coffee);
+    }
+
+    @Test
+    @DisplayName("L'impronta dovrebbe ignorare maiuscole, spazi e zeri decimali e distinguere occorrenze e portafogli")
+    void fingerprintShouldNormalizeContent() {
+        Transaction same = fingerprinted("1.5", "  CAFFE ");
+
+        assertThat(TransactionFingerprint.of(same, 0)).isEqualTo(coffee.getFingerprint()).hasSize(22);
+        assertThat(TransactionFingerprint.of(same, 1)).isNotEqualTo(coffee.getFingerprint());
+        same.setWalletId(Transaction.DEFAULT_WALLET);
+        // unchanged since before wallets were part of the fingerprint
+        assertThat(TransactionFingerprint.of(same, 0)).isEqualTo(coffee.getFingerprint())
+                .isEqualTo("M45Ef32ilIWmwoar7d89Gg");
+        same.setWalletId("famiglia");
+        assertThat(TransactionFingerprint.of(same, 0)).isNotEqualTo(coffee.getFingerprint());
+    }
+
+    private static Transaction fingerprinted(String amount, String description) {
+        Transaction transaction = Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .category("Varie")
+                .description(description)
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 15, 0, 0))
+                .build();
+        transaction.setFingerprint(TransactionFingerprint.of(transaction, 0));
+        return transaction;
+    }
+}
@@ -0,0 +1,94 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.FxProperties;
+import com.anteiku.wallet.model.FxRate;
+import com.anteiku.wallet.repository.FxRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FxRateService Test")
+class FxRateServiceTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    private FxRateService fxRateService;
+
+    @BeforeEach
+    void setUp() {
+        fxRateService = new FxRateService(fxRateRepository, new FxProperties());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe partire dai tassi del file locale")
+    void shouldStartFromRatesFile() {
+        FxTable table = fxRateService.current();
+
+        assertThat(table.baseCurrency()).isEqualTo("EUR");
+        assertThat(table.rate("EUR")).isEqualByComparingTo("1");
+        assertThat(table.rates()).containsKey("USD");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe sostituire la tabella con i tassi salvati")
+    void shouldSwapInStoredRates() {
+        FxTable before = fxRateService.current();
+        when(fxRateRepository.findAll()).thenReturn(List.of(new FxRate("CHF", new BigDecimal("0.95"))));
+
+        fxRateService.refresh();
+
+        assertThat(fxRateService.current()).isNotSameAs(before);
+        assertThat(fxRateService.current().rates()).containsOnlyKeys("CHF", "EUR");
+        assertThat(before.rates()).containsKey("USD");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe mantenere la tabella se non ci sono tassi salvati o il database non risponde")
+    void shouldKeepSnapshotWhenCollectionEmptyOrUnreachable() {
+        FxTable before = fxRateService.current();
+        when(fxRateRepository.findAll()).thenReturn(List.of()).thenThrow(new IllegalStateException("down"));
+
+        fxRateService.refresh();
+        fxRateService.refresh();
+
+        assertThat(fxRateService.current()).isSameAs(before);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare e pubblicare i nuovi tassi")
+    void shouldReplaceRates() {
+        FxTable table = fxRateService.replaceRates(Map.of("USD", new BigDecimal("1.10")));
+
+        assertThat(fxRateService.current()).isSameAs(table);
+        assertThat(table.convert(new BigDecimal("110.00"), "USD", "EUR")).isEqualByComparingTo("100.00");
+        verify(fxRateRepository).deleteAll();
+        verify(fxRateRepository).saveAll(List.of(new FxRate("EUR", BigDecimal.ONE),
+                new FxRate("USD", new BigDecimal("1.10"))));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare codici valuta o tassi non validi")
+    void shouldRejectInvalidRates() {
+        assertThatThrownBy(() -> fxRateService.replaceRates(Map.of("usd", BigDecimal.ONE)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> fxRateService.replaceRates(Map.of("USD", BigDecimal.ZERO)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(fxRateRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,180 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.IdempotencyRecord;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Test")
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "POST /api/transactions";
+    private static final String ID = SCOPE + " key-1";
+    private static final TypeReference<String> STRING = new TypeReference<>() { };
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), 100);
+    }
+
+    private String operation() {
+        return "result-" + executions.incrementAndGet();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe eseguire l'operazione senza chiave e senza registrare nulla")
+    void shouldRunWithoutKey() {
+        IdempotentResult<String> result = idempotencyService.execute(null, SCOPE, "", STRING, this::operation);
+
+        assertThat(result).isEqualTo(new IdempotentResult<>("result-1", false));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare la risposta e servire i retry dalla cache")
+    void shouldStoreResponseAndReplayFromCache() {
+        IdempotentResult<String> first = idempotencyService.execute("key-1", SCOPE, "h", STRING, this::operation);
+        IdempotentResult<String> retry = idempotencyService.execute("key-1", SCOPE, "h", STRING, this::operation);
+
+        assertThat(first).isEqualTo(new IdempotentResult<>("result-1", false));
+        assertThat(retry).isEqualTo(new IdempotentResult<>("result-1", true));
+        assertThat(executions).hasValue(1);
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getStatus()).isEqualTo(IdempotencyRecord.Status.COMPLETED);
+        assertThat(saved.getValue().getResponse()).isEqualTo("\"result-1\"");
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe riprodurre la risposta salvata da un'altra istanza")
+    void shouldReplayStoredResponse() {
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(ID, "h",
+                IdempotencyRecord.Status.COMPLETED, "\"stored\"", Instant.now())));
+
+        IdempotentResult<String> result = idempotencyService.execute("key-1", SCOPE, "h", STRING, this::operation);
+
+        assertThat(result).isEqualTo(new IdempotentResult<>("stored", true));
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire un conflitto se la richiesta originale e' ancora in corso")
+    void shouldConflictWhileInProgress() {
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("dup"));
+        when(repository.findById(ID)).thenReturn(Optional.of(new IdempotencyRecord(ID, "h",
+                IdempotencyRecord.Status.IN_PROGRESS, null, Instant.now())));
+
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", SCOPE, "h", STRING, this::operation))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", SCOPE, "other", STRING, this::operation))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe subentrare a una richiesta abbandonata")
+    void shouldTakeOverAbandonedClaim() {
+        when(repository.insert(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("dup"))
+                .thenReturn(null);
+        when(repository.deleteByIdAndStatusAndCreatedAtBefore(eq(ID), eq(IdempotencyRecord.Status.IN_PROGRESS),
+                any(Instant.class))).thenReturn(1L);
+
+        IdempotentResult<String> result = idempotencyService.execute("key-1", SCOPE, "h", STRING, this::operation);
+
+        assertThat(result).isEqualTo(new IdempotentResult<>("result-1", false));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe liberare la chiave se l'operazione fallisce")
+    void shouldReleaseKeyWhenOperationFails() {
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", SCOPE, "h", STRING, () -> {
+            throw new IllegalStateException("database down");
+        })).hasMessage("database down");
+
+        verify(repository).deleteById(ID);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare la risposta senza la scadenza della richiesta, riprovando se fallisce")
+    void shouldStoreCompletionWithoutDeadline() {
+        AtomicInteger saves = new AtomicInteger();
+        when(repository.save(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            assertThat(Deadline.isSet()).isFalse();
+            if (saves.incrementAndGet() == 1) {
+                throw new DataAccessResourceFailureException("timeout");
+            }
+            return invocation.getArgument(0);
+        });
+        Deadline.start(Duration.ofSeconds(5));
+        try {
+            IdempotentResult<String> result = idempotencyService.execute("key-1", SCOPE, "h", STRING,
+                    this::operation);
+
+            assertThat(result).isEqualTo(new IdempotentResult<>("result-1", false));
+            assertThat(Deadline.isSet()).isTrue();
+        } finally {
+            Deadline.clear();
+        }
+        verify(repository, times(2)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rilanciare l'errore dell'operazione anche se la chiave non viene liberata")
+    void shouldKeepOperationFailureWhenReleaseFails() {
+        DataAccessResourceFailureException cleanup = new DataAccessResourceFailureException("down");
+        doAnswer(invocation -> {
+            assertThat(Deadline.isSet()).isFalse();
+            throw cleanup;
+        }).when(repository).deleteById(ID);
+
+        assertThatThrownBy(() -> idempotencyService.execute("key-1", SCOPE, "h", STRING, () -> {
+            throw new IllegalStateException("deadline exceeded");
+        })).hasMessage("deadline exceeded").hasSuppressedException(cleanup);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare chiavi vuote o troppo lunghe")
+    void shouldRejectInvalidKeys() {
+        assertThatThrownBy(() -> idempotencyService.execute(" ", SCOPE, "h", STRING, this::operation))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> idempotencyService.execute("k".repeat(256), SCOPE, "h", STRING, this::operation))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,197 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.ImportProperties;
+import com.anteiku.wallet.dto.ImportJobStatus;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.service.statement.StatementFormat;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportService Test")
+class ImportServiceTest {
+
+    private static final String HEADER = "date,amount,category,description\n";
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private ImportProperties properties;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ImportProperties();
+        properties.setBatchSize(2);
+        properties.setQueueCapacity(1);
+        properties.setMaxConcurrent(1);
+        importService = new ImportService(transactionService, duplicateDetector, validator, properties);
+        lenient().when(duplicateDetector.withoutDuplicates(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe importare le righe valide in batch e riportare quelle scartate")
+    void shouldImportValidRowsInBatches() {
+        List<List<Transaction>> batches = new ArrayList<>();
+        when(transactionService.importTransactions(anyList())).thenAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            batches.add(batch);
+            return batch;
+        });
+        String csv = HEADER
+                + "2024-01-15,-10.00,Cibo,Spesa\n"
+                + "2024-01-16,abc,Cibo,Spesa\n"
+                + "2024-01-17,-20.00,Cibo,\n"
+                + "2024-01-18,-30.00,Cibo,Cena\n"
+                + "2024-01-19,1000.00,Stipendio,Gennaio\n";
+
+        ImportJobStatus status = importService.importStatement(stream(csv.getBytes(StandardCharsets.UTF_8)),
+                StatementFormat.CSV, StandardCharsets.UTF_8);
+
+        assertThat(status.status()).isEqualTo(ImportJobStatus.Status.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(5);
+        assertThat(status.rowsImported()).isEqualTo(3);
+        assertThat(status.rowsRejected()).isEqualTo(2);
+        assertThat(status.errors()).containsExactly(
+                new ImportJobStatus.ImportError(3, "Invalid amount: abc"),
+                new ImportJobStatus.ImportError(4, "Description is required"));
+        assertThat(batches).extracting(List::size).containsExactly(2, 1);
+        assertThat(batches.get(1).get(0).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+        assertThat(importService.getJob(status.id())).contains(status);
+        assertThat(importService.getJobs()).containsExactly(status);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe saltare le righe gia' importate e distinguere le righe identiche dello stesso giorno")
+    void shouldSkipDuplicatesAndNumberIdenticalRows() {
+        List<Transaction> checked = new ArrayList<>();
+        when(duplicateDetector.withoutDuplicates(anyList())).thenAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            checked.addAll(batch);
+            return batch.subList(1, batch.size());
+        });
+        when(transactionService.importTransactions(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String csv = HEADER
+                + "2024-01-15,-1.50,Cibo,Caffe\n"
+                + "2024-01-15,-1.50,Cibo,Caffe\n";
+
+        ImportJobStatus status = importService.importStatement(stream(csv.getBytes(StandardCharsets.UTF_8)),
+                StatementFormat.CSV, StandardCharsets.UTF_8);
+
+        assertThat(status.rowsImported()).isEqualTo(1);
+        assertThat(status.rowsDuplicated()).isEqualTo(1);
+        assertThat(checked).extracting(Transaction::getFingerprint).doesNotContainNull().doesNotHaveDuplicates();
+        verify(duplicateDetector).record(List.of(checked.get(1)));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe riconoscere e decomprimere un estratto conto gzip")
+    void shouldImportGzipStatement() throws IOException {
+        when(transactionService.importTransactions(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write((HEADER + "2024-01-15,-10.00,Cibo,Spesa\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportJobStatus status = importService.importStatement(stream(compressed.toByteArray()),
+                StatementFormat.CSV, StandardCharsets.UTF_8);
+
+        assertThat(status.status()).isEqualTo(ImportJobStatus.Status.COMPLETED);
+        assertThat(status.rowsImported()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe interrompere l'importazione se la scrittura fallisce")
+    void shouldFailWhenWriterFails() {
+        when(transactionService.importTransactions(anyList())).thenThrow(new IllegalStateException("database down"));
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 100; i++) {
+            csv.append("2024-01-15,-10.00,Cibo,Spesa ").append(i).append('\n');
+        }
+
+        ImportJobStatus status = importService.importStatement(
+                stream(csv.toString().getBytes(StandardCharsets.UTF_8)), StatementFormat.CSV, StandardCharsets.UTF_8);
+
+        assertThat(status.status()).isEqualTo(ImportJobStatus.Status.FAILED);
+        assertThat(status.finishedAt()).isNotNull();
+        assertThat(status.rowsRead()).isLessThan(100);
+        assertThat(status.errors()).extracting(ImportJobStatus.ImportError::message)
+                .containsExactly("Write failed: database down");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnalare un estratto conto illeggibile")
+    void shouldFailOnUnreadableStatement() {
+        ImportJobStatus status = importService.importStatement(stream(new byte[0]),
+                StatementFormat.CSV, StandardCharsets.UTF_8);
+
+        assertThat(status.status()).isEqualTo(ImportJobStatus.Status.FAILED);
+        assertThat(status.errors()).extracting(ImportJobStatus.ImportError::message)
+                .containsExactly("Unreadable statement: Empty CSV statement");
+        verify(transactionService, never()).addTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare un'importazione oltre il limite di concorrenza")
+    void shouldRejectImportsOverConcurrencyLimit() throws Exception {
+        PipedOutputStream upload = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(upload);
+        upload.write(HEADER.getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<ImportJobStatus> running = CompletableFuture.supplyAsync(
+                () -> importService.importStatement(body, StatementFormat.CSV, StandardCharsets.UTF_8));
+        for (int i = 0; i < 500 && importService.getJobs().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(importService.getJobs().get(0).status()).isEqualTo(ImportJobStatus.Status.RUNNING);
+        assertThatThrownBy(() -> importService.importStatement(stream(HEADER.getBytes(StandardCharsets.UTF_8)),
+                StatementFormat.CSV, StandardCharsets.UTF_8))
+                .isInstanceOf(ImportRejectedException.class);
+
+        upload.close();
+        assertThat(running.get(5, TimeUnit.SECONDS).status()).isEqualTo(ImportJobStatus.Status.COMPLETED);
+    }
+
+    private static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+}
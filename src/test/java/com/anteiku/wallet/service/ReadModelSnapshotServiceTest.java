@@ -0,0 +1,191 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.cache.SnapshotFile;
+import com.anteiku.wallet.config.ImportProperties;
+import com.anteiku.wallet.config.SnapshotProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReadModelSnapshotService Test")
+class ReadModelSnapshotServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    private Path directory;
+
+    private SnapshotProperties properties;
+    private Transaction groceries;
+    private Transaction cinema;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SnapshotProperties();
+        properties.setEnabled(true);
+        properties.setPath(directory.resolve("read-models.snapshot"));
+        groceries = transaction("Cibo", "Supermercato Coop");
+        cinema = transaction("Svago", "Cinema con amici");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i modelli da tutte le transazioni se lo snapshot e' disabilitato")
+    void shouldRebuildWhenDisabled() {
+        properties.setEnabled(false);
+        stubFullScan();
+        Models models = new Models();
+        assertThat(models.snapshots.isReady()).isFalse();
+
+        models.snapshots.load();
+        models.snapshots.write();
+
+        assertThat(models.snapshots.isReady()).isTrue();
+        assertThat(models.search.suggest("sup", 10)).containsExactly("Supermercato");
+        assertThat(Files.exists(properties.getPath())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ripartire dallo snapshot rileggendo solo le transazioni inserite dopo")
+    void shouldRestoreFromSnapshotAndReplayNewerTransactions() throws IOException {
+        stubFullScan();
+        Models first = new Models();
+        Instant before = Instant.now();
+        first.snapshots.load();
+        first.snapshots.write();
+        Instant replayFrom = Instant.parse(SnapshotFile.open(properties.getPath()).position());
+        assertThat(replayFrom).isBetween(before.minus(properties.getReplayWindow()), Instant.now());
+
+        // the window holds a transaction already in the snapshot and one inserted after it
+        when(transactionRepository.streamInsertedSince(replayFrom)).thenReturn(Stream.of(groceries, cinema));
+        when(transactionRepository.findExistingFingerprints(Transaction.DEFAULT_WALLET, List.of(groceries.getFingerprint())))
+                .thenReturn(Set.of(groceries.getFingerprint()));
+        Models restarted = new Models();
+        restarted.snapshots.load();
+
+        assertThat(restarted.search.suggest("sup", 10)).containsExactly("Supermercato");
+        assertThat(restarted.search.suggest("cin", 10)).containsExactly("Cinema");
+        assertThat(restarted.dedup.withoutDuplicates(List.of(groceries))).isEmpty();
+        verify(transactionRepository).streamFiltered(any());
+        restarted.search.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(groceries)));
+        assertThat(restarted.search.suggest("sup", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe elencare nello snapshot le transazioni aggiunte di recente")
+    void shouldListRecentInsertionsInSnapshot() throws IOException {
+        stubFullScan();
+        Models models = new Models();
+        models.snapshots.load();
+
+        TransactionsChangedEvent inserted = TransactionsChangedEvent.added(List.of(cinema));
+        models.search.onTransactionsChanged(inserted);
+        models.snapshots.onTransactionsChanged(inserted);
+        models.snapshots.onShutdown();
+
+        when(transactionRepository.streamInsertedSince(any())).thenReturn(Stream.of(groceries, cinema));
+        Models restarted = new Models();
+        restarted.snapshots.load();
+        assertThat(restarted.search.suggest("cin", 10)).containsExactly("Cinema");
+        restarted.search.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(groceries, cinema)));
+        assertThat(restarted.search.suggest("cin", 10)).isEmpty();
+        assertThat(restarted.search.suggest("sup", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i modelli da uno snapshot del formato precedente")
+    void shouldRebuildFromSnapshotWithObjectIdPosition() throws IOException {
+        SnapshotFile.write(properties.getPath(), Instant.now(), groceries.getId(), writer -> {
+        });
+        stubFullScan();
+        Models models = new Models();
+
+        models.snapshots.load();
+
+        assertThat(models.search.suggest("sup", 10)).containsExactly("Supermercato");
+        verify(transactionRepository).streamFiltered(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare uno snapshot troppo vecchio")
+    void shouldIgnoreExpiredSnapshot() throws IOException {
+        SnapshotFile.write(properties.getPath(), Instant.now().minus(Duration.ofDays(2)), null, writer -> {
+        });
+        stubFullScan();
+        Models models = new Models();
+
+        models.snapshots.load();
+
+        assertThat(models.search.suggest("sup", 10)).containsExactly("Supermercato");
+        verify(transactionRepository).streamFiltered(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i modelli se lo snapshot e' illeggibile")
+    void shouldRebuildWhenSnapshotIsUnreadable() throws IOException {
+        Files.writeString(properties.getPath(), "corrupted");
+        stubFullScan();
+        Models models = new Models();
+
+        models.snapshots.load();
+
+        assertThat(models.search.suggest("cib", 10)).containsExactly("Cibo");
+        verify(transactionRepository).streamFiltered(any());
+    }
+
+    private void stubFullScan() {
+        when(transactionRepository.streamInsertedSince(any())).thenAnswer(invocation -> Stream.of(groceries));
+        when(transactionRepository.streamFiltered(any())).thenReturn(Stream.of(groceries));
+        when(transactionRepository.streamFingerprints()).thenReturn(Stream.of(groceries.getFingerprint()));
+    }
+
+    private static Transaction transaction(String category, String description) {
+        Transaction transaction = Transaction.builder()
+                .amount(new BigDecimal("12.30"))
+                .category(category)
+                .description(description)
+                .type(Transaction.TransactionType.EXPENSE)
+                .date(LocalDateTime.of(2024, 1, 15, 0, 0))
+                .build();
+        transaction.setId(new ObjectId().toHexString());
+        transaction.setFingerprint(TransactionFingerprint.of(transaction, 0));
+        return transaction;
+    }
+
+    /**
+     * Read models of one application start, sharing the repository and the snapshot file.
+     */
+    private final class Models {
+
+        private final TransactionSearchService search = new TransactionSearchService(transactionRepository, 1000);
+        private final DuplicateDetector dedup = new DuplicateDetector(transactionRepository, new ImportProperties());
+        private final ReadModelSnapshotService snapshots = new ReadModelSnapshotService(transactionRepository,
+                search, dedup, properties);
+    }
+}
@@ -0,0 +1,168 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.RecurringProperties;
+import com.anteiku.wallet.model.RecurringTransaction;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionFingerprint;
+import com.anteiku.wallet.repository.RecurringTransactionRepository;
+import com.anteiku.wallet.repository.RecurringTransactionRepositoryCustom.NextRunMove;
+import com.anteiku.wallet.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RecurringTransactionService Test")
+class RecurringTransactionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    @Mock
+    private RecurringTransactionRepository recurringRepository;
+
+    @Mock
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private final RecurringProperties properties = new RecurringProperties();
+
+    private RecurringTransactionService recurringService;
+
+    @BeforeEach
+    void setUp() {
+        recurringService = new RecurringTransactionService(recurringRepository, leaseRepository, transactionService,
+                properties);
+        lenient().when(leaseRepository.tryAcquire(eq(RecurringTransactionService.LEASE), anyString(), any(), any()))
+                .thenReturn(true);
+        lenient().when(transactionService.importTransactions(any())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe registrare le occorrenze scadute con un solo inserimento")
+    void shouldMaterializeDueOccurrencesInOneInsert() {
+        properties.setCatchUp(Duration.ofDays(60));
+        RecurringTransaction rent = template("r-1", "0 0 9 1 * *", LocalDateTime.of(2024, 2, 1, 9, 0));
+        RecurringTransaction salary = template("r-2", "0 0 8 10 * *", LocalDateTime.of(2024, 3, 10, 8, 0));
+        when(recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(NOW, Limit.of(500)))
+                .thenReturn(List.of(rent, salary));
+
+        int saved = recurringService.materialize(NOW);
+
+        ArgumentCaptor<List<Transaction>> inserted = captureInsert();
+        assertThat(saved).isEqualTo(3);
+        assertThat(inserted.getValue()).extracting(Transaction::getDate).containsExactly(
+                LocalDateTime.of(2024, 2, 1, 9, 0), LocalDateTime.of(2024, 3, 1, 9, 0),
+                LocalDateTime.of(2024, 3, 10, 8, 0));
+        assertThat(inserted.getValue().get(0).getFingerprint())
+                .isEqualTo(TransactionFingerprint.ofOccurrence(null, "r-1", LocalDateTime.of(2024, 2, 1, 9, 0)));
+        verify(recurringRepository).advanceNextRuns(List.of(
+                new NextRunMove("r-1", LocalDateTime.of(2024, 2, 1, 9, 0), LocalDateTime.of(2024, 4, 1, 9, 0)),
+                new NextRunMove("r-2", LocalDateTime.of(2024, 3, 10, 8, 0), LocalDateTime.of(2024, 4, 10, 8, 0))));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe saltare le occorrenze precedenti alla finestra di recupero")
+    void shouldSkipOccurrencesBeforeCatchUpWindow() {
+        properties.setCatchUp(Duration.ofDays(20));
+        RecurringTransaction daily = template("r-1", "0 0 9 * * *", LocalDateTime.of(2023, 1, 1, 9, 0));
+        when(recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(any(), any()))
+                .thenReturn(List.of(daily));
+
+        int saved = recurringService.materialize(NOW);
+
+        assertThat(saved).isEqualTo(20);
+        assertThat(captureInsert().getValue().get(0).getDate()).isEqualTo(LocalDateTime.of(2024, 2, 25, 9, 0));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe lasciare al turno successivo le occorrenze oltre la dimensione del batch")
+    void shouldLeaveOccurrencesBeyondBatchToNextRun() {
+        properties.setBatchSize(2);
+        RecurringTransaction daily = template("r-1", "0 0 9 * * *", LocalDateTime.of(2024, 3, 10, 9, 0));
+        when(recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(NOW, Limit.of(2)))
+                .thenReturn(List.of(daily));
+
+        recurringService.materialize(NOW);
+
+        assertThat(captureInsert().getValue()).hasSize(2);
+        verify(recurringRepository).advanceNextRuns(List.of(new NextRunMove("r-1",
+                LocalDateTime.of(2024, 3, 10, 9, 0), LocalDateTime.of(2024, 3, 12, 9, 0))));
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe generare nulla senza il lease dello scheduler")
+    void shouldDoNothingWithoutLease() {
+        when(leaseRepository.tryAcquire(anyString(), anyString(), any(), any())).thenReturn(false);
+
+        assertThat(recurringService.materialize(NOW)).isZero();
+        verifyNoInteractions(recurringRepository, transactionService);
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe spostare le prossime occorrenze se l'inserimento fallisce")
+    void shouldNotAdvanceWhenInsertFails() {
+        when(recurringRepository.findByNextRunLessThanEqualOrderByNextRunAsc(any(), any()))
+                .thenReturn(List.of(template("r-1", "@monthly", LocalDateTime.of(2024, 3, 1, 0, 0))));
+        when(transactionService.importTransactions(any())).thenThrow(new IllegalStateException("down"));
+
+        recurringService.run();
+
+        verify(recurringRepository, never()).advanceNextRuns(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe pianificare un nuovo modello dalla prossima occorrenza")
+    void shouldScheduleNewTemplate() {
+        when(recurringRepository.save(any(RecurringTransaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        RecurringTransaction saved = recurringService.createTemplate(template("ignored", "@monthly", null));
+
+        assertThat(saved.getId()).isNull();
+        assertThat(saved.getNextRun()).isAfter(LocalDateTime.now()).matches(next -> next.getDayOfMonth() == 1);
+        assertThatThrownBy(() -> recurringService.createTemplate(template(null, "every month", null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(recurringRepository, times(1)).save(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<Transaction>> captureInsert() {
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(transactionService).importTransactions(inserted.capture());
+        return inserted;
+    }
+
+    private static RecurringTransaction template(String id, String cron, LocalDateTime nextRun) {
+        return RecurringTransaction.builder()
+                .id(id)
+                .amount(new BigDecimal("750.00"))
+                .category("Affitto")
+                .description("Affitto appartamento")
+                .cron(cron)
+                .nextRun(nextRun)
+                .build();
+    }
+}
@@ -0,0 +1,213 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.ReportProperties;
+import com.anteiku.wallet.dto.ReportJobStatus;
+import com.anteiku.wallet.dto.ReportRequest;
+import com.anteiku.wallet.dto.StatementReport;
+import com.anteiku.wallet.dto.WalletSummary;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReportService Test")
+class ReportServiceTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate DECEMBER = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private WalletService walletService;
+
+    private final AtomicLong version = new AtomicLong(1);
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        ReportProperties properties = new ReportProperties();
+        properties.setMaxConcurrent(1);
+        properties.setQueueCapacity(1);
+        reportService = new ReportService(transactionRepository, walletService, properties);
+        lenient().when(walletService.getBalance(anyString())).thenAnswer(inv -> new WalletSummary(
+                inv.getArgument(0), "EUR", BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0, version.get()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe calcolare in background i totali per mese e per categoria")
+    void shouldComputeReportInBackground() throws InterruptedException {
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class))).thenAnswer(inv -> Stream.of(
+                transaction(Transaction.TransactionType.INCOME, "Stipendio", "2000.00", 1),
+                transaction(Transaction.TransactionType.EXPENSE, "Cibo", "40.00", 1),
+                transaction(Transaction.TransactionType.EXPENSE, "Cibo", "60.00", 3)));
+
+        ReportJobStatus job = await(reportService.submit(new ReportRequest("famiglia", JANUARY, DECEMBER)));
+
+        assertThat(job.status()).isEqualTo(ReportJobStatus.Status.COMPLETED);
+        assertThat(job.cached()).isFalse();
+        StatementReport report = job.report();
+        assertThat(report.totals()).extracting(StatementReport.Totals::currency).containsExactly("EUR");
+        assertThat(report.totals().get(0).balance()).isEqualByComparingTo("1900.00");
+        assertThat(report.totals().get(0).count()).isEqualTo(3);
+        assertThat(report.months()).extracting(StatementReport.Breakdown::key).containsExactly("2024-01", "2024-03");
+        assertThat(report.categories()).extracting(StatementReport.Breakdown::key)
+                .containsExactly("Cibo", "Stipendio");
+        assertThat(report.categories().get(0).totals().get(0).expense()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe tenere separati i totali di ogni valuta")
+    void shouldKeepTotalsPerCurrency() throws InterruptedException {
+        Transaction hotel = transaction(Transaction.TransactionType.EXPENSE, "Viaggi", "125.00", 2);
+        hotel.setCurrency("USD");
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class))).thenAnswer(inv -> Stream.of(
+                transaction(Transaction.TransactionType.EXPENSE, "Viaggi", "40.00", 2), hotel));
+
+        StatementReport report = await(reportService.submit(new ReportRequest("famiglia", JANUARY, DECEMBER)))
+                .report();
+
+        assertThat(report.totals()).extracting(StatementReport.Totals::currency).containsExactly("EUR", "USD");
+        assertThat(report.totals().get(0).expense()).isEqualByComparingTo("40.00");
+        assertThat(report.totals().get(1).expense()).isEqualByComparingTo("125.00");
+        assertThat(report.totals().get(1).count()).isEqualTo(1);
+        assertThat(report.months().get(0).totals()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe raggruppare le transazioni senza data invece di fallire")
+    void shouldGroupUndatedTransactions() throws InterruptedException {
+        Transaction undated = transaction(Transaction.TransactionType.EXPENSE, "Cibo", "15.00", 1);
+        undated.setDate(null);
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class))).thenAnswer(inv -> Stream.of(
+                transaction(Transaction.TransactionType.EXPENSE, "Cibo", "10.00", 2), undated));
+
+        ReportJobStatus job = await(reportService.submit(new ReportRequest("famiglia", JANUARY, DECEMBER)));
+
+        assertThat(job.status()).isEqualTo(ReportJobStatus.Status.COMPLETED);
+        assertThat(job.report().months()).extracting(StatementReport.Breakdown::key)
+                .containsExactly("2024-02", ReportService.UNDATED);
+        assertThat(job.report().totals().get(0).expense()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire dalla cache il rendiconto di un portafoglio non modificato")
+    void shouldServeUnchangedLedgerFromCache() throws InterruptedException {
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class)))
+                .thenAnswer(inv -> Stream.of(transaction(Transaction.TransactionType.EXPENSE, "Cibo", "10.00", 1)));
+        ReportRequest request = new ReportRequest(null, JANUARY, DECEMBER);
+        await(reportService.submit(request));
+
+        ReportJobStatus cached = reportService.submit(request);
+
+        assertThat(cached.status()).isEqualTo(ReportJobStatus.Status.COMPLETED);
+        assertThat(cached.cached()).isTrue();
+        assertThat(cached.walletId()).isEqualTo(Transaction.DEFAULT_WALLET);
+        assertThat(reportService.getJob(cached.id())).isPresent();
+
+        version.incrementAndGet();
+        ReportJobStatus recomputed = await(reportService.submit(request));
+
+        assertThat(recomputed.cached()).isFalse();
+        assertThat(recomputed.ledgerVersion()).isEqualTo(2);
+        verify(transactionRepository, times(2)).streamFiltered(any(TransactionFilter.class));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe unire le richieste uguali e rifiutare quelle oltre la coda")
+    void shouldJoinRunningJobsAndRejectBeyondQueue() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class))).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.empty();
+        });
+        ReportJobStatus first = reportService.submit(new ReportRequest(null, JANUARY, DECEMBER));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        ReportJobStatus joined = reportService.submit(new ReportRequest(null, JANUARY, DECEMBER));
+        ReportJobStatus queued = reportService.submit(new ReportRequest(null, JANUARY, JANUARY));
+
+        assertThat(joined.id()).isEqualTo(first.id());
+        assertThat(queued.status()).isEqualTo(ReportJobStatus.Status.QUEUED);
+        assertThatThrownBy(() -> reportService.submit(new ReportRequest(null, DECEMBER, DECEMBER)))
+                .isInstanceOf(ReportRejectedException.class);
+
+        release.countDown();
+        assertThat(await(first).status()).isEqualTo(ReportJobStatus.Status.COMPLETED);
+        assertThat(await(queued).status()).isEqualTo(ReportJobStatus.Status.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnare come fallito un rendiconto non calcolabile")
+    void shouldFailJobWhenComputationFails() throws InterruptedException {
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class)))
+                .thenThrow(new IllegalStateException("timeout"));
+
+        ReportJobStatus job = await(reportService.submit(new ReportRequest(null, JANUARY, DECEMBER)));
+
+        assertThat(job.status()).isEqualTo(ReportJobStatus.Status.FAILED);
+        assertThat(job.error()).isEqualTo("timeout");
+        assertThat(job.report()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare un periodo invertito")
+    void shouldRejectInvertedRange() {
+        assertThatThrownBy(() -> reportService.submit(new ReportRequest(null, DECEMBER, JANUARY)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReportJobStatus await(ReportJobStatus submitted) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ReportJobStatus job = submitted;
+        while (job.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = reportService.getJob(submitted.id()).orElseThrow();
+        }
+        return job;
+    }
+
+    private static Transaction transaction(Transaction.TransactionType type, String category, String amount,
+                                           int month) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .category(category)
+                .type(type)
+                .date(LocalDateTime.of(2024, month, 10, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,285 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.AmountStats;
+import com.anteiku.wallet.dto.TransactionStats;
+import com.anteiku.wallet.model.StatsBucket;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.StatsBucketRepository;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Percentage.withPercentage;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StatsService Test")
+class StatsServiceTest {
+
+    private static final FxTable FX = new FxTable("EUR", Map.of("USD", new BigDecimal("1.25")), Instant.EPOCH);
+
+    @Mock
+    private StatsBucketRepository bucketRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @InjectMocks
+    private StatsService statsService;
+
+    // stand-ins for the two collections
+    private final Map<String, StatsBucket> buckets = new TreeMap<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(fxRateService.current()).thenReturn(FX);
+        lenient().when(bucketRepository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(buckets.get(inv.<String>getArgument(0))));
+        lenient().when(bucketRepository.save(any(StatsBucket.class))).thenAnswer(inv -> {
+            StatsBucket bucket = inv.getArgument(0);
+            bucket.setVersion(bucket.getVersion() == null ? 0 : bucket.getVersion() + 1);
+            buckets.put(bucket.getId(), bucket);
+            return bucket;
+        });
+        lenient().doAnswer(inv -> buckets.remove(inv.<StatsBucket>getArgument(0).getId()))
+                .when(bucketRepository).delete(any(StatsBucket.class));
+        lenient().when(bucketRepository.findByMonthRange(anyString(), anyString())).thenAnswer(inv ->
+                buckets.values().stream().filter(b -> inMonths(b, inv.getArgument(0), inv.getArgument(1))).toList());
+        lenient().when(transactionRepository.streamFiltered(any(TransactionFilter.class)))
+                .thenAnswer(inv -> matching(inv.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe calcolare le statistiche dai bucket dei mesi interi")
+    void shouldAnswerWholeMonthsFromBuckets() {
+        write(expense("Cibo", "10.00", 2024, 1, 5), expense("Cibo", "30.00", 2024, 1, 20),
+                expense("Affitto", "800.00", 2024, 2, 1), income("Stipendio", "2000.00", 2024, 2, 27));
+        transactions.clear();
+
+        TransactionStats stats = statsService.getStats(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+        AmountStats expenses = stats.byType().get(Transaction.TransactionType.EXPENSE);
+        assertThat(expenses.count()).isEqualTo(3);
+        assertThat(expenses.total()).isEqualByComparingTo("840.00");
+        assertThat(expenses.mean()).isEqualByComparingTo("280.00");
+        assertThat(expenses.min()).isEqualByComparingTo("10.00");
+        assertThat(expenses.max()).isEqualByComparingTo("800.00");
+        assertThat(stats.byType().get(Transaction.TransactionType.INCOME).count()).isEqualTo(1);
+        assertThat(stats.byCategory()).containsOnlyKeys("Affitto", "Cibo", "Stipendio");
+        assertThat(stats.byCategory().get("Cibo").p50()).isBetween(new BigDecimal("10.00"), new BigDecimal("30.00"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere dalle transazioni solo i giorni dei mesi parziali")
+    void shouldReadOnlyPartialMonthsFromTransactions() {
+        write(expense("Cibo", "10.00", 2024, 1, 5), expense("Cibo", "20.00", 2024, 1, 25),
+                expense("Cibo", "40.00", 2024, 2, 10), expense("Cibo", "80.00", 2024, 3, 2),
+                expense("Cibo", "160.00", 2024, 3, 28));
+
+        TransactionStats stats = statsService.getStats(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 3, 10));
+
+        assertThat(stats.byCategory().get("Cibo").count()).isEqualTo(3);
+        assertThat(stats.byCategory().get("Cibo").total()).isEqualByComparingTo("140.00");
+        verify(bucketRepository).findByMonthRange("2024-02", "2024-02");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe calcolare un intervallo interno a un mese senza usare i bucket")
+    void shouldAnswerRangeWithinOneMonthFromTransactions() {
+        write(expense("Cibo", "10.00", 2024, 1, 5), expense("Cibo", "20.00", 2024, 1, 25));
+
+        TransactionStats stats = statsService.getStats(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 31));
+
+        assertThat(stats.byCategory().get("Cibo").total()).isEqualByComparingTo("20.00");
+        verify(bucketRepository, never()).findByMonthRange(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire il bucket quando una transazione viene eliminata o modificata")
+    void shouldRebuildBucketOnRemoval() {
+        Transaction lunch = expense("Cibo", "10.00", 2024, 1, 5);
+        Transaction dinner = expense("Cibo", "30.00", 2024, 1, 6);
+        write(lunch, dinner);
+
+        transactions.remove(lunch);
+        Transaction biggerDinner = expense("Cibo", "50.00", 2024, 1, 6);
+        transactions.set(0, biggerDinner);
+        statsService.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(lunch)));
+        statsService.onTransactionsChanged(new TransactionsChangedEvent(List.of(biggerDinner), List.of(dinner)));
+
+        AmountStats food = statsService.getStats(null, null).byCategory().get("Cibo");
+        assertThat(food.count()).isEqualTo(1);
+        assertThat(food.total()).isEqualByComparingTo("50.00");
+
+        transactions.clear();
+        statsService.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(biggerDinner)));
+        assertThat(buckets).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe convertire gli importi nella valuta base prima di aggiungerli agli sketch")
+    void shouldConvertAmountsToBaseCurrency() {
+        Transaction hotel = expense("Viaggi", "125.00", 2024, 1, 5);
+        hotel.setCurrency("USD");
+        Transaction taxi = expense("Viaggi", "25.00", 2024, 1, 20);
+        taxi.setCurrency("USD");
+        write(hotel, expense("Viaggi", "50.00", 2024, 1, 6), taxi);
+
+        AmountStats bucketed = statsService.getStats(null, null).byCategory().get("Viaggi");
+        AmountStats read = statsService.getStats(LocalDate.of(2024, 1, 10), LocalDate.of(2024, 1, 31))
+                .byCategory().get("Viaggi");
+
+        assertThat(bucketed.total()).isEqualByComparingTo("170.00");
+        assertThat(bucketed.max()).isEqualByComparingTo("100.00");
+        assertThat(read.total()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i mesi di un periodo eliminato")
+    void shouldRebuildPurgedMonths() {
+        write(expense("Cibo", "10.00", 2024, 1, 5), expense("Cibo", "20.00", 2024, 2, 5));
+        transactions.remove(0);
+
+        statsService.onTransactionsPurged(new TransactionsPurgedEvent(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31)));
+
+        assertThat(buckets).containsOnlyKeys("2024-02|EXPENSE|Cibo");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire un bucket modificato in concorrenza senza svuotare gli altri mesi")
+    void shouldRebuildConflictingBucketAlone() {
+        write(expense("Cibo", "10.00", 2024, 1, 5), expense("Cibo", "20.00", 2024, 2, 5));
+        Transaction concurrent = expense("Cibo", "5.00", 2024, 1, 6);
+        AtomicBoolean conflicted = new AtomicBoolean();
+        doAnswer(inv -> {
+            StatsBucket bucket = inv.getArgument(0);
+            if (bucket.getMonth().equals("2024-01") && conflicted.compareAndSet(false, true)) {
+                // another replica merges a new transaction into the bucket first
+                transactions.add(concurrent);
+                throw new OptimisticLockingFailureException("concurrent update");
+            }
+            bucket.setVersion(bucket.getVersion() + 1);
+            buckets.put(bucket.getId(), bucket);
+            return bucket;
+        }).when(bucketRepository).save(any(StatsBucket.class));
+
+        statsService.rebuild(null, null);
+
+        assertThat(buckets).containsOnlyKeys("2024-01|EXPENSE|Cibo", "2024-02|EXPENSE|Cibo");
+        assertThat(buckets.get("2024-01|EXPENSE|Cibo").getCount()).isEqualTo(2);
+        assertThat(buckets.get("2024-01|EXPENSE|Cibo").getSum()).isEqualByComparingTo("15.00");
+        verify(bucketRepository, never()).delete(any(StatsBucket.class));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe costruire i bucket all'avvio se non ce ne sono")
+    void shouldBuildBucketsOnFirstLoad() {
+        transactions.add(expense("Cibo", "10.00", 2024, 1, 5));
+        transactions.add(expense("Cibo", "20.00", 2024, 1, 6));
+
+        assertThat(statsService.isReady()).isFalse();
+        statsService.load();
+
+        assertThat(statsService.isReady()).isTrue();
+        assertThat(buckets).containsOnlyKeys("2024-01|EXPENSE|Cibo");
+        assertThat(buckets.get("2024-01|EXPENSE|Cibo").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare un periodo invertito")
+    void shouldRejectInvertedRange() {
+        assertThatThrownBy(() -> statsService.getStats(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe stimare i percentili con errore sotto l'1% dopo la fusione degli sketch")
+    void shouldEstimatePercentilesAcrossMergedSketches() {
+        AmountSketch merged = new AmountSketch();
+        for (int month = 0; month < 12; month++) {
+            AmountSketch sketch = new AmountSketch();
+            for (int i = 1; i <= 1000; i++) {
+                sketch.add(BigDecimal.valueOf(month * 1000L + i));
+            }
+            StatsBucket stored = new StatsBucket();
+            sketch.writeTo(stored);
+            merged.merge(AmountSketch.of(stored));
+        }
+
+        AmountStats stats = merged.toStats();
+
+        assertThat(stats.count()).isEqualTo(12_000);
+        assertThat(stats.p50().doubleValue()).isCloseTo(6000, withPercentage(1));
+        assertThat(stats.p90().doubleValue()).isCloseTo(10800, withPercentage(1));
+        assertThat(stats.p99().doubleValue()).isCloseTo(11880, withPercentage(1));
+    }
+
+    private void write(Transaction... written) {
+        transactions.addAll(List.of(written));
+        statsService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(written)));
+    }
+
+    private Stream<Transaction> matching(TransactionFilter filter) {
+        return new ArrayList<>(transactions).stream()
+                .filter(t -> filter.getType() == null || t.getType() == filter.getType())
+                .filter(t -> filter.getCategory() == null || t.getCategory().equals(filter.getCategory()))
+                .filter(t -> filter.getStartDate() == null || !t.getDate().toLocalDate().isBefore(filter.getStartDate()))
+                .filter(t -> filter.getEndDate() == null || !t.getDate().toLocalDate().isAfter(filter.getEndDate()));
+    }
+
+    private static boolean inMonths(StatsBucket bucket, String from, String to) {
+        return bucket.getMonth().compareTo(from) >= 0 && bucket.getMonth().compareTo(to) <= 0;
+    }
+
+    private static Transaction expense(String category, String amount, int year, int month, int day) {
+        return transaction(Transaction.TransactionType.EXPENSE, category, amount, year, month, day);
+    }
+
+    private static Transaction income(String category, String amount, int year, int month, int day) {
+        return transaction(Transaction.TransactionType.INCOME, category, amount, year, month, day);
+    }
+
+    private static Transaction transaction(Transaction.TransactionType type, String category, String amount,
+                                           int year, int month, int day) {
+        return Transaction.builder()
+                .amount(new BigDecimal(amount))
+                .category(category)
+                .description(category)
+                .type(type)
+                .date(LocalDateTime.of(YearMonth.of(year, month).atDay(day), LocalTime.NOON))
+                .build();
+    }
+}
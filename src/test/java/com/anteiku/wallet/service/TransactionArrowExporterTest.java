@@ -0,0 +1,145 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionFilter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryEncoder;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionArrowExporter Test")
+class TransactionArrowExporterTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private BufferAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new RootAllocator();
+    }
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe scrivere le transazioni in record batch di dimensione fissa")
+    void shouldWriteFixedSizeRecordBatches() throws Exception {
+        TransactionFilter filter = TransactionFilter.builder().build();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            transactions.add(Transaction.builder()
+                    .walletId("w-" + i)
+                    .currency(i < 3 ? "EUR" : "USD")
+                    .amount(new BigDecimal("10.5").add(BigDecimal.valueOf(i)))
+                    .category("Cibo")
+                    .description("Spesa " + i)
+                    .type(Transaction.TransactionType.EXPENSE)
+                    .date(LocalDateTime.of(2024, 1, 15, 10, 0).plusDays(i))
+                    .build());
+        }
+        when(transactionService.streamTransactions(filter)).thenReturn(transactions.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new TransactionArrowExporter(transactionService, allocator, 2).export(filter, out);
+
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+        List<Object> currencies = new ArrayList<>();
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema()).isEqualTo(TransactionArrowExporter.SCHEMA);
+            boolean first = true;
+            while (reader.loadNextBatch()) {
+                batchSizes.add(root.getRowCount());
+                VarCharVector description = (VarCharVector) root.getVector("description");
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    descriptions.add(new String(description.get(row)));
+                }
+                try (VarCharVector currency = (VarCharVector) DictionaryEncoder.decode(root.getVector("currency"),
+                        reader.lookup(TransactionArrowExporter.CURRENCY_ENCODING.getId()))) {
+                    for (int row = 0; row < root.getRowCount(); row++) {
+                        currencies.add(currency.getObject(row).toString());
+                    }
+                }
+                if (first) {
+                    assertThat(((DecimalVector) root.getVector("amount")).getObject(0))
+                            .isEqualTo(new BigDecimal("10.50"));
+                    assertThat(((TimeStampMilliVector) root.getVector("date")).get(0))
+                            .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 0).toInstant(ZoneOffset.UTC).toEpochMilli());
+                    assertThat(new String(((VarCharVector) root.getVector("type")).get(0))).isEqualTo("EXPENSE");
+                    assertThat(new String(((VarCharVector) root.getVector("category")).get(0))).isEqualTo("Cibo");
+                    assertThat(new String(((VarCharVector) root.getVector("walletId")).get(1))).isEqualTo("w-1");
+                    assertThat(((IntVector) root.getVector("currency")).get(1)).isZero();
+                    first = false;
+                }
+            }
+        }
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        assertThat(descriptions).containsExactly("Spesa 0", "Spesa 1", "Spesa 2", "Spesa 3", "Spesa 4");
+        assertThat(currencies).containsExactly("EUR", "EUR", "EUR", "USD", "USD");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe scrivere valori nulli per i campi mancanti")
+    void shouldWriteNullsForMissingFields() throws Exception {
+        TransactionFilter filter = TransactionFilter.builder().build();
+        when(transactionService.streamTransactions(filter)).thenReturn(Stream.of(Transaction.builder()
+                .date(null)
+                .type(null)
+                .build()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new TransactionArrowExporter(transactionService, allocator, 10).export(filter, out);
+
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertThat(reader.loadNextBatch()).isTrue();
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getRowCount()).isEqualTo(1);
+            root.getFieldVectors().forEach(vector -> assertThat(vector.isNull(0)).isTrue());
+        }
+    }
+
+    @Test
+    @DisplayName("Dovrebbe scrivere solo lo schema quando non ci sono transazioni")
+    void shouldWriteOnlySchemaWhenEmpty() throws Exception {
+        TransactionFilter filter = TransactionFilter.builder().build();
+        when(transactionService.streamTransactions(filter)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new TransactionArrowExporter(transactionService, allocator, 10).export(filter, out);
+
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertThat(reader.getVectorSchemaRoot().getSchema()).isEqualTo(TransactionArrowExporter.SCHEMA);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TransactionCache Test")
+class TransactionCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final TransactionCache cache = new TransactionCache(10, Duration.ofSeconds(30), now::get);
+
+    @Test
+    @DisplayName("Dovrebbe smettere di servire una transazione scaduta")
+    void shouldExpireEntries() {
+        cache.put(transaction("1"), cache.stamp());
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertThat(cache.get("1")).isPresent();
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.get("1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe rimettere in cache una copia letta prima di un'eliminazione")
+    void shouldDropCopyReadBeforeEviction() {
+        long stamp = cache.stamp();
+        cache.evict("1");
+
+        cache.put(transaction("1"), stamp);
+        assertThat(cache.get("1")).isEmpty();
+
+        cache.put(transaction("1"), cache.stamp());
+        assertThat(cache.get("1")).isPresent();
+        long beforeClear = cache.stamp();
+        cache.clear();
+        cache.put(transaction("2"), beforeClear);
+        cache.evictAll(List.of("1"));
+        assertThat(cache.get("1")).isEmpty();
+        assertThat(cache.get("2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ignorare le transazioni senza ID")
+    void shouldIgnoreTransactionsWithoutId() {
+        cache.put(transaction(null), cache.stamp());
+        cache.put(null, cache.stamp());
+
+        assertThat(cache.get("1")).isEmpty();
+    }
+
+    private static Transaction transaction(String id) {
+        return Transaction.builder().id(id).description("Spesa").build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.TransactionPage;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.anteiku.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionSearchService Test")
+class TransactionSearchServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new TransactionSearchService(transactionRepository, 1000);
+    }
+
+    private static Transaction transaction(String category, String description) {
+        return Transaction.builder()
+                .amount(new BigDecimal("10.00"))
+                .category(category)
+                .description(description)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restituire una pagina di risultati e segnalare la pagina successiva")
+    void shouldReturnPageWithNextFlag() {
+        Transaction first = transaction("Cibo", "Supermercato Coop");
+        Transaction second = transaction("Cibo", "Supermercato Esselunga");
+        Transaction third = transaction("Cibo", "Supermercato Conad");
+        when(transactionRepository.search("supermercato", 2, 3)).thenReturn(List.of(first, second, third));
+
+        TransactionPage page = searchService.search(" supermercato ", 1, 2);
+
+        assertThat(page.content()).containsExactly(first, second);
+        assertThat(page.page()).isEqualTo(1);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare una ricerca vuota")
+    void shouldRejectBlankSearch() {
+        assertThatThrownBy(() -> searchService.search(" ", 0, 20)).isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare una pagina il cui offset supera il limite degli interi")
+    void shouldRejectOverflowingPage() {
+        assertThatThrownBy(() -> searchService.search("spesa", Integer.MAX_VALUE / 10, 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe caricare categorie e parole delle descrizioni all'avvio")
+    void shouldLoadTermsFromDatabase() {
+        TransactionFilter filter = TransactionFilter.builder()
+                .fields(EnumSet.of(TransactionField.CATEGORY, TransactionField.DESCRIPTION))
+                .build();
+        when(transactionRepository.streamFiltered(filter)).thenReturn(Stream.of(
+                transaction("Cibo", "Supermercato Coop"),
+                transaction("Svago", "Cinema 2024 con amici")));
+
+        searchService.load();
+
+        assertThat(searchService.suggest("s", 10)).containsExactly("Supermercato", "Svago");
+        assertThat(searchService.suggest("c", 10)).containsExactly("Cibo", "Cinema", "Coop", "con");
+        assertThat(searchService.suggest("20", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe aggiornare i suggerimenti alle modifiche delle transazioni")
+    void shouldUpdateSuggestionsOnChanges() {
+        Transaction rent = transaction("Affitto", "Affitto gennaio");
+        searchService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(rent)));
+        assertThat(searchService.suggest("aff", 10)).containsExactly("Affitto");
+
+        searchService.onTransactionsChanged(TransactionsChangedEvent.removed(List.of(rent)));
+
+        assertThat(searchService.suggest("aff", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricaricare i suggerimenti dopo un'eliminazione per periodo")
+    void shouldReloadSuggestionsOnPurge() {
+        searchService.onTransactionsChanged(TransactionsChangedEvent.added(List.of(
+                transaction("Affitto", "Affitto gennaio"), transaction("Cibo", "Pranzo"))));
+        when(transactionRepository.streamFiltered(any(TransactionFilter.class)))
+                .thenReturn(Stream.of(transaction("Cibo", "Pranzo")));
+
+        searchService.onTransactionsPurged(new TransactionsPurgedEvent(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31)));
+
+        assertThat(searchService.suggest("aff", 10)).isEmpty();
+        assertThat(searchService.suggest("pra", 10)).containsExactly("Pranzo");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe tollerare un database non raggiungibile durante il caricamento")
+    void shouldTolerateUnreachableDatabaseOnLoad() {
+        when(transactionRepository.streamFiltered(any()))
+                .thenThrow(new IllegalStateException("timeout"));
+
+        searchService.load();
+
+        assertThat(searchService.suggest("a", 10)).isEmpty();
+    }
+}
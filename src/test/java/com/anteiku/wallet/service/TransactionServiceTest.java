@@ -1,22 +1,35 @@
 package com.anteiku.wallet.service;
 
+import com.anteiku.wallet.dto.TransactionBatch;
 import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.TransactionField;
+import com.anteiku.wallet.repository.Deadline;
+import com.anteiku.wallet.repository.TransactionFilter;
 import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.repository.TransactionRepositoryCustom.CurrencyTotal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -24,9 +37,24 @@ import static org.mockito.Mockito.*;
 @DisplayName("TransactionService Test")
 class TransactionServiceTest {
 
+    private static final FxTable FX = new FxTable("EUR",
+            Map.of("USD", new BigDecimal("1.25"), "GBP", new BigDecimal("0.80")), Instant.EPOCH);
+
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionCache transactionCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    @Mock
+    private FxRateService fxRateService;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -52,6 +80,9 @@ class TransactionServiceTest {
                 .type(Transaction.TransactionType.EXPENSE)
                 .date(LocalDateTime.now())
                 .build();
+
+        lenient().when(categoryDictionary.assign(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+        lenient().when(fxRateService.current()).thenReturn(FX);
     }
 
     @Test
@@ -68,6 +99,98 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).save(incomeTransaction);
     }
 
+    @Test
+    @DisplayName("Dovrebbe aggiornare i dati derivati senza la scadenza della richiesta")
+    void shouldPublishEventsWithoutDeadline() {
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(incomeTransaction);
+        List<Boolean> deadlineSet = new ArrayList<>();
+        doAnswer(inv -> deadlineSet.add(Deadline.isSet())).when(eventPublisher).publishEvent(any(Object.class));
+        Deadline.start(Duration.ofSeconds(5));
+        try {
+            transactionService.addTransaction(incomeTransaction);
+
+            assertThat(deadlineSet).containsExactly(false);
+            assertThat(Deadline.isSet()).isTrue();
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare nel portafoglio predefinito le transazioni senza portafoglio")
+    void shouldAssignDefaultWallet() {
+        Transaction family = Transaction.builder().walletId("famiglia").amount(BigDecimal.ONE).build();
+        when(transactionRepository.insert(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<Transaction> saved = transactionService.addTransactions(List.of(expenseTransaction, family));
+
+        assertThat(saved).extracting(Transaction::getWalletId).containsExactly(Transaction.DEFAULT_WALLET, "famiglia");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe elencare le transazioni di un portafoglio dalla piu' recente")
+    void shouldFilterWalletTransactions() {
+        when(transactionRepository.findFiltered(any(TransactionFilter.class))).thenReturn(List.of(expenseTransaction));
+
+        transactionService.getWalletTransactions("famiglia", Transaction.TransactionType.EXPENSE, null, null, 20);
+
+        ArgumentCaptor<TransactionFilter> filter = ArgumentCaptor.forClass(TransactionFilter.class);
+        verify(transactionRepository).findFiltered(filter.capture());
+        assertThat(filter.getValue().getWalletId()).isEqualTo("famiglia");
+        assertThat(filter.getValue().getLimit()).isEqualTo(20);
+        assertThat(filter.getValue().getSort().getOrderFor("date").isDescending()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe salvare la transazione con la categoria del dizionario")
+    void shouldAssignDictionaryCategoryBeforeSaving() {
+        Transaction canonical = Transaction.builder()
+                .id("1")
+                .amount(new BigDecimal("1000.00"))
+                .category("Stipendio")
+                .categoryId(3)
+                .description("Stipendio mensile")
+                .type(Transaction.TransactionType.INCOME)
+                .build();
+        when(categoryDictionary.assign(incomeTransaction)).thenReturn(canonical);
+        when(transactionRepository.save(canonical)).thenReturn(canonical);
+
+        Transaction result = transactionService.addTransaction(incomeTransaction);
+
+        assertThat(result.getCategoryId()).isEqualTo(3);
+        verify(transactionRepository).save(canonical);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe aggiungere piu' transazioni con un unico inserimento")
+    void shouldAddTransactionsInBatch() {
+        List<Transaction> batch = List.of(incomeTransaction, expenseTransaction);
+        when(transactionRepository.insert(batch)).thenReturn(batch);
+
+        List<Transaction> result = transactionService.addTransactions(batch);
+
+        assertThat(result).containsExactly(incomeTransaction, expenseTransaction);
+        verify(transactionRepository, times(1)).insert(batch);
+        verify(categoryDictionary).assign(incomeTransaction);
+        verify(categoryDictionary).assign(expenseTransaction);
+        verify(transactionCache).put(incomeTransaction, 0L);
+        verify(transactionCache).put(expenseTransaction, 0L);
+        verify(eventPublisher).publishEvent(TransactionsChangedEvent.added(batch));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe importare le transazioni mettendo in cache solo quelle inserite")
+    void shouldImportTransactionsSkippingDuplicates() {
+        List<Transaction> batch = List.of(incomeTransaction, expenseTransaction);
+        when(transactionRepository.insertIgnoringDuplicates(batch)).thenReturn(List.of(expenseTransaction));
+
+        List<Transaction> result = transactionService.importTransactions(batch);
+
+        assertThat(result).containsExactly(expenseTransaction);
+        verify(transactionCache).put(expenseTransaction, 0L);
+        verify(transactionCache, never()).put(eq(incomeTransaction), anyLong());
+    }
+
     @Test
     @DisplayName("Dovrebbe restituire tutte le transazioni")
     void shouldGetAllTransactions() {
@@ -97,110 +220,82 @@ class TransactionServiceTest {
     @Test
     @DisplayName("Dovrebbe calcolare il saldo correttamente con entrate e uscite")
     void shouldCalculateBalanceCorrectly() {
-        Transaction income1 = Transaction.builder()
-                .amount(new BigDecimal("1000.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(
+                income("1500.00", "EUR"),
+                expense("350.00", "EUR")));
 
-        Transaction income2 = Transaction.builder()
-                .amount(new BigDecimal("500.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
-
-        Transaction expense1 = Transaction.builder()
-                .amount(new BigDecimal("200.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
-
-        Transaction expense2 = Transaction.builder()
-                .amount(new BigDecimal("150.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(income1, income2, expense1, expense2);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        BigDecimal balance = transactionService.getBalance();
+        BigDecimal balance = transactionService.getBalance(null);
 
         assertThat(balance).isEqualByComparingTo(new BigDecimal("1150.00"));
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionRepository, times(1)).sumByTypeAndCurrency();
     }
 
     @Test
     @DisplayName("Dovrebbe restituire saldo zero quando non ci sono transazioni")
     void shouldReturnZeroBalanceWhenNoTransactions() {
-        when(transactionRepository.findAll()).thenReturn(Collections.emptyList());
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(Collections.emptyList());
 
-        BigDecimal balance = transactionService.getBalance();
+        BigDecimal balance = transactionService.getBalance(null);
 
         assertThat(balance).isEqualByComparingTo(BigDecimal.ZERO);
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionRepository, times(1)).sumByTypeAndCurrency();
     }
 
     @Test
     @DisplayName("Dovrebbe calcolare saldo negativo quando le uscite superano le entrate")
     void shouldCalculateNegativeBalance() {
-        Transaction income = Transaction.builder()
-                .amount(new BigDecimal("100.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(
+                income("100.00", "EUR"),
+                expense("300.00", "EUR")));
 
-        Transaction expense = Transaction.builder()
-                .amount(new BigDecimal("300.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(income, expense);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        BigDecimal balance = transactionService.getBalance();
+        BigDecimal balance = transactionService.getBalance(null);
 
         assertThat(balance).isEqualByComparingTo(new BigDecimal("-200.00"));
-        verify(transactionRepository, times(1)).findAll();
     }
 
     @Test
     @DisplayName("Dovrebbe calcolare saldo correttamente con solo entrate")
     void shouldCalculateBalanceWithOnlyIncome() {
-        Transaction income1 = Transaction.builder()
-                .amount(new BigDecimal("500.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(income("800.00", "EUR")));
 
-        Transaction income2 = Transaction.builder()
-                .amount(new BigDecimal("300.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(income1, income2);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        BigDecimal balance = transactionService.getBalance();
+        BigDecimal balance = transactionService.getBalance(null);
 
         assertThat(balance).isEqualByComparingTo(new BigDecimal("800.00"));
-        verify(transactionRepository, times(1)).findAll();
     }
 
     @Test
     @DisplayName("Dovrebbe calcolare saldo correttamente con solo uscite")
     void shouldCalculateBalanceWithOnlyExpenses() {
-        Transaction expense1 = Transaction.builder()
-                .amount(new BigDecimal("100.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(expense("150.00", "EUR")));
 
-        Transaction expense2 = Transaction.builder()
-                .amount(new BigDecimal("50.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
+        BigDecimal balance = transactionService.getBalance(null);
 
-        List<Transaction> transactions = Arrays.asList(expense1, expense2);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        assertThat(balance).isEqualByComparingTo(new BigDecimal("-150.00"));
+    }
 
-        BigDecimal balance = transactionService.getBalance();
+    @Test
+    @DisplayName("Dovrebbe convertire il saldo di piu' valute come il summary")
+    void shouldConvertBalanceAcrossCurrencies() {
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(
+                income("1000.00", "EUR"),
+                income("125.00", "USD"),
+                expense("80.00", "GBP")));
+
+        assertThat(transactionService.getBalance(null)).isEqualByComparingTo("1000.00");
+        assertThat(transactionService.getBalance("USD")).isEqualByComparingTo("1250.00");
+    }
 
-        assertThat(balance).isEqualByComparingTo(new BigDecimal("-150.00"));
-        verify(transactionRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Dovrebbe rifiutare la scrittura di una transazione in una valuta senza tasso di cambio")
+    void shouldRejectTransactionInUnknownCurrency() {
+        expenseTransaction.setCurrency("JPY");
+
+        assertThatThrownBy(() -> transactionService.addTransaction(expenseTransaction))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("JPY");
+        assertThatThrownBy(() -> transactionService.addTransactions(List.of(incomeTransaction, expenseTransaction)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(transactionRepository, eventPublisher);
     }
 
     @Test
@@ -228,460 +323,306 @@ class TransactionServiceTest {
     }
 
     @Test
-    @DisplayName("Dovrebbe eliminare una transazione")
-    void shouldDeleteTransaction() {
-        doNothing().when(transactionRepository).deleteById("1");
+    @DisplayName("Dovrebbe servire dalla cache una transazione gia' letta")
+    void shouldGetTransactionByIdFromCache() {
+        when(transactionCache.get("1")).thenReturn(Optional.of(incomeTransaction));
 
-        transactionService.deleteTransaction("1");
+        Optional<Transaction> result = transactionService.getTransactionById("1");
 
-        verify(transactionRepository, times(1)).deleteById("1");
+        assertThat(result).contains(incomeTransaction);
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
-    @DisplayName("Dovrebbe aggiornare una transazione esistente")
-    void shouldUpdateTransaction() {
-        Transaction updatedTransaction = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("1500.00"))
-                .category("Stipendio")
-                .description("Stipendio mensile aggiornato")
-                .type(Transaction.TransactionType.INCOME)
-                .date(LocalDateTime.now())
-                .build();
-
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(updatedTransaction);
+    @DisplayName("Dovrebbe risolvere piu' ID con una sola query per i soli mancanti in cache")
+    void shouldGetTransactionsByIdsQueryingOnlyCacheMisses() {
+        when(transactionCache.get("2")).thenReturn(Optional.of(expenseTransaction));
+        when(transactionRepository.findAllById(List.of("1", "3"))).thenReturn(List.of(incomeTransaction));
 
-        Transaction result = transactionService.updateTransaction("1", updatedTransaction);
+        TransactionBatch result = transactionService.getTransactionsByIds(List.of("2", "1", "3", "2"));
 
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo("1");
-        assertThat(result.getAmount()).isEqualByComparingTo(new BigDecimal("1500.00"));
-        assertThat(result.getDescription()).isEqualTo("Stipendio mensile aggiornato");
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        assertThat(result.transactions()).containsExactly(expenseTransaction, incomeTransaction);
+        assertThat(result.missing()).containsExactly("3");
+        verify(transactionRepository, times(1)).findAllById(List.of("1", "3"));
+        verify(transactionCache).put(incomeTransaction, 0L);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni per tipo INCOME")
-    void shouldFilterTransactionsByTypeIncome() {
-        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+    @DisplayName("Non dovrebbe interrogare il database se tutti gli ID sono in cache")
+    void shouldGetTransactionsByIdsWithoutQueryWhenAllCached() {
+        when(transactionCache.get("1")).thenReturn(Optional.of(incomeTransaction));
 
-        List<Transaction> result = transactionService.filterTransactions(
-                Transaction.TransactionType.INCOME, null, null);
+        TransactionBatch result = transactionService.getTransactionsByIds(List.of("1"));
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.INCOME);
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result.transactions()).containsExactly(incomeTransaction);
+        assertThat(result.missing()).isEmpty();
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni per tipo EXPENSE")
-    void shouldFilterTransactionsByTypeExpense() {
-        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+    @DisplayName("Dovrebbe eliminare una transazione")
+    void shouldDeleteTransaction() {
+        when(transactionRepository.findAndDeleteById("1")).thenReturn(Optional.of(incomeTransaction));
 
-        List<Transaction> result = transactionService.filterTransactions(
-                Transaction.TransactionType.EXPENSE, null, null);
+        Optional<Transaction> result = transactionService.deleteTransaction("1");
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).contains(incomeTransaction);
+        verify(transactionRepository, times(1)).findAndDeleteById("1");
+        verify(transactionRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(TransactionsChangedEvent.removed(List.of(incomeTransaction)));
+        InOrder order = inOrder(transactionRepository, transactionCache);
+        order.verify(transactionRepository).findAndDeleteById("1");
+        order.verify(transactionCache).evict("1");
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni per periodo")
-    void shouldFilterTransactionsByDateRange() {
-        LocalDateTime today = LocalDateTime.now();
-        LocalDateTime yesterday = today.minusDays(1);
-        LocalDateTime tomorrow = today.plusDays(1);
-
-        Transaction pastTransaction = Transaction.builder()
-                .id("3")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("Past")
-                .type(Transaction.TransactionType.INCOME)
-                .date(yesterday)
-                .build();
-
-        Transaction currentTransaction = Transaction.builder()
-                .id("4")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("Current")
-                .type(Transaction.TransactionType.EXPENSE)
-                .date(today)
-                .build();
+    @DisplayName("Dovrebbe rimuovere dalla cache la transazione anche se la scrittura fallisce")
+    void shouldEvictAfterFailedWrite() {
+        when(transactionRepository.findAndReplaceById(eq("1"), any(Transaction.class)))
+                .thenThrow(new QueryTimeoutException("timeout"));
 
-        List<Transaction> transactions = Arrays.asList(pastTransaction, currentTransaction);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        List<Transaction> result = transactionService.filterTransactions(
-                null, today.toLocalDate(), tomorrow.toLocalDate());
+        assertThatThrownBy(() -> transactionService.updateTransaction("1", expenseTransaction))
+                .isInstanceOf(QueryTimeoutException.class);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("4");
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionCache).evict("1");
+        verify(transactionCache, never()).put(any(), anyLong());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni per tipo e periodo")
-    void shouldFilterTransactionsByTypeAndDateRange() {
-        LocalDateTime today = LocalDateTime.now();
+    @DisplayName("Dovrebbe restituire Optional vuoto eliminando una transazione inesistente")
+    void shouldReturnEmptyWhenDeletingMissingTransaction() {
+        when(transactionRepository.findAndDeleteById("999")).thenReturn(Optional.empty());
 
-        Transaction income1 = Transaction.builder()
-                .amount(new BigDecimal("1000.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .date(today.minusDays(2))
-                .build();
+        Optional<Transaction> result = transactionService.deleteTransaction("999");
 
-        Transaction income2 = Transaction.builder()
-                .amount(new BigDecimal("500.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .date(today)
-                .build();
-
-        Transaction expense = Transaction.builder()
-                .amount(new BigDecimal("200.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .date(today)
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(income1, income2, expense);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        List<Transaction> result = transactionService.filterTransactions(
-                Transaction.TransactionType.INCOME,
-                today.toLocalDate().minusDays(1),
-                today.toLocalDate());
+        assertThat(result).isEmpty();
+    }
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("500.00"));
-        verify(transactionRepository, times(1)).findAll();
+    @Test
+    @DisplayName("Dovrebbe eliminare piu' transazioni notificando solo quelle rimosse")
+    void shouldDeleteTransactionsInBulk() {
+        when(transactionRepository.findAndDeleteById("1")).thenReturn(Optional.of(incomeTransaction));
+        when(transactionRepository.findAndDeleteById("2")).thenReturn(Optional.of(expenseTransaction));
+        when(transactionRepository.findAndDeleteById("3")).thenReturn(Optional.empty());
+
+        long deleted = transactionService.deleteTransactions(List.of("1", "2", "3", "1"));
+
+        assertThat(deleted).isEqualTo(2L);
+        verify(transactionRepository, times(1)).findAndDeleteById("1");
+        verify(transactionRepository, never()).findAllById(any());
+        verify(transactionCache).evictAll(List.of("1", "2", "3", "1"));
+        verify(eventPublisher).publishEvent(
+                TransactionsChangedEvent.removed(List.of(incomeTransaction, expenseTransaction)));
     }
 
     @Test
-    @DisplayName("Dovrebbe restituire tutte le transazioni quando tutti i filtri sono null")
-    void shouldReturnAllTransactionsWhenAllFiltersAreNull() {
-        List<Transaction> transactions = Arrays.asList(incomeTransaction, expenseTransaction);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+    @DisplayName("Dovrebbe notificare le transazioni rimosse prima di un errore")
+    void shouldPublishDeletedBeforeFailure() {
+        when(transactionRepository.findAndDeleteById("1")).thenReturn(Optional.of(incomeTransaction));
+        when(transactionRepository.findAndDeleteById("2")).thenThrow(new QueryTimeoutException("timeout"));
 
-        List<Transaction> result = transactionService.filterTransactions(null, null, null);
+        assertThatThrownBy(() -> transactionService.deleteTransactions(List.of("1", "2")))
+                .isInstanceOf(QueryTimeoutException.class);
 
-        assertThat(result).hasSize(2);
-        assertThat(result).containsExactlyInAnyOrder(incomeTransaction, expenseTransaction);
-        verify(transactionRepository, times(1)).findAll();
+        verify(eventPublisher).publishEvent(TransactionsChangedEvent.removed(List.of(incomeTransaction)));
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni con solo startDate (endDate null)")
-    void shouldFilterTransactionsWithOnlyStartDate() {
-        LocalDateTime baseDate = LocalDateTime.of(2024, 1, 15, 10, 0);
+    @DisplayName("Non dovrebbe interrogare il database per una lista di ID vuota")
+    void shouldSkipBulkDeleteForEmptyIds() {
+        long deleted = transactionService.deleteTransactions(List.of());
 
-        Transaction beforeStart = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("Before start")
-                .type(Transaction.TransactionType.INCOME)
-                .date(baseDate.minusDays(5))
-                .build();
+        assertThat(deleted).isZero();
+        verifyNoInteractions(transactionRepository);
+    }
 
-        Transaction afterStart = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("After start")
-                .type(Transaction.TransactionType.INCOME)
-                .date(baseDate.plusDays(5))
-                .build();
+    @Test
+    @DisplayName("Dovrebbe eliminare le transazioni di un periodo con estremi inclusi")
+    void shouldPurgeTransactionsInRange() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        when(transactionRepository.deleteByDateRange(start.atStartOfDay(), LocalDate.of(2024, 2, 1).atStartOfDay()))
+                .thenReturn(5L);
 
-        Transaction onStartDate = Transaction.builder()
-                .id("3")
-                .amount(new BigDecimal("300.00"))
-                .category("Test")
-                .description("On start date")
-                .type(Transaction.TransactionType.INCOME)
-                .date(baseDate)
-                .build();
+        long deleted = transactionService.purgeTransactions(start, end);
 
-        List<Transaction> transactions = Arrays.asList(beforeStart, afterStart, onStartDate);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        assertThat(deleted).isEqualTo(5L);
+        verify(eventPublisher).publishEvent(new TransactionsPurgedEvent(start, end));
+    }
 
-        List<Transaction> result = transactionService.filterTransactions(
-                null,
-                LocalDate.of(2024, 1, 15),
-                null
-        );
+    @Test
+    @DisplayName("Non dovrebbe eliminare nulla con un periodo invertito")
+    void shouldNotPurgeWithInvertedRange() {
+        long deleted = transactionService.purgeTransactions(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1));
 
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(Transaction::getId)
-                .containsExactlyInAnyOrder("2", "3");
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(deleted).isZero();
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni con solo endDate (startDate null)")
-    void shouldFilterTransactionsWithOnlyEndDate() {
-        LocalDateTime baseDate = LocalDateTime.of(2024, 1, 15, 10, 0);
-
-        Transaction beforeEnd = Transaction.builder()
+    @DisplayName("Dovrebbe aggiornare una transazione esistente")
+    void shouldUpdateTransaction() {
+        Transaction updatedTransaction = Transaction.builder()
                 .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("Before end")
-                .type(Transaction.TransactionType.INCOME)
-                .date(baseDate.minusDays(5))
-                .build();
-
-        Transaction afterEnd = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("After end")
-                .type(Transaction.TransactionType.INCOME)
-                .date(baseDate.plusDays(5))
-                .build();
-
-        Transaction onEndDate = Transaction.builder()
-                .id("3")
-                .amount(new BigDecimal("300.00"))
-                .category("Test")
-                .description("On end date")
+                .amount(new BigDecimal("1500.00"))
+                .category("Stipendio")
+                .description("Stipendio mensile aggiornato")
                 .type(Transaction.TransactionType.INCOME)
-                .date(baseDate)
+                .date(LocalDateTime.now())
                 .build();
 
-        List<Transaction> transactions = Arrays.asList(beforeEnd, afterEnd, onEndDate);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        when(transactionRepository.findAndReplaceById("1", updatedTransaction))
+                .thenReturn(Optional.of(incomeTransaction));
 
-        List<Transaction> result = transactionService.filterTransactions(
-                null,
-                null,
-                LocalDate.of(2024, 1, 15)
-        );
+        Optional<Transaction> result = transactionService.updateTransaction("1", updatedTransaction);
 
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(Transaction::getId)
-                .containsExactlyInAnyOrder("1", "3");
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo("1");
+        assertThat(result.get().getAmount()).isEqualByComparingTo(new BigDecimal("1500.00"));
+        assertThat(result.get().getDescription()).isEqualTo("Stipendio mensile aggiornato");
+        assertThat(updatedTransaction.getWalletId()).isNull();
+        verify(transactionRepository, times(1)).findAndReplaceById("1", updatedTransaction);
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(eventPublisher).publishEvent(
+                new TransactionsChangedEvent(List.of(updatedTransaction), List.of(incomeTransaction)));
+        InOrder order = inOrder(transactionRepository, transactionCache);
+        order.verify(transactionRepository).findAndReplaceById("1", updatedTransaction);
+        order.verify(transactionCache).evict("1");
+        verify(transactionCache, never()).put(any(), anyLong());
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni all'inizio del range (boundary test)")
-    void shouldFilterTransactionsAtStartBoundary() {
-        LocalDate testDate = LocalDate.of(2024, 1, 15);
-        LocalDateTime exactStart = testDate.atStartOfDay();
-
-        Transaction atExactStart = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("At exact start")
-                .type(Transaction.TransactionType.INCOME)
-                .date(exactStart)
-                .build();
-
-        Transaction oneSecondBefore = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("One second before")
-                .type(Transaction.TransactionType.INCOME)
-                .date(exactStart.minusSeconds(1))
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(atExactStart, oneSecondBefore);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+    @DisplayName("Dovrebbe restituire Optional vuoto aggiornando una transazione inesistente")
+    void shouldReturnEmptyWhenUpdatingMissingTransaction() {
+        when(transactionRepository.findAndReplaceById("999", expenseTransaction)).thenReturn(Optional.empty());
 
-        List<Transaction> result = transactionService.filterTransactions(
-                null,
-                testDate,
-                testDate.plusDays(1)
-        );
+        Optional<Transaction> result = transactionService.updateTransaction("999", expenseTransaction);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("1");
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).isEmpty();
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare transazioni alla fine del range (boundary test)")
-    void shouldFilterTransactionsAtEndBoundary() {
-        LocalDate testDate = LocalDate.of(2024, 1, 15);
-
-        Transaction atExactEnd = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("At exact end")
-                .type(Transaction.TransactionType.INCOME)
-                .date(testDate.atTime(23, 59, 59))
-                .build();
-
-        Transaction oneSecondAfter = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("One second after")
-                .type(Transaction.TransactionType.INCOME)
-                .date(testDate.plusDays(1).atStartOfDay())
+    @DisplayName("Dovrebbe delegare il filtro al database con tipo e periodo")
+    void shouldDelegateFilterToRepository() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        TransactionFilter expected = TransactionFilter.builder()
+                .type(Transaction.TransactionType.EXPENSE)
+                .startDate(start)
+                .endDate(end)
                 .build();
-
-        List<Transaction> transactions = Arrays.asList(atExactEnd, oneSecondAfter);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        when(transactionRepository.findFiltered(expected)).thenReturn(List.of(expenseTransaction));
 
         List<Transaction> result = transactionService.filterTransactions(
-                null,
-                testDate.minusDays(1),
-                testDate
-        );
+                Transaction.TransactionType.EXPENSE, start, end);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("1");
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).containsExactly(expenseTransaction);
+        verify(transactionRepository, never()).findAll();
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare per tipo con solo startDate")
-    void shouldFilterByTypeWithOnlyStartDate() {
-        LocalDate startDate = LocalDate.of(2024, 1, 10);
-
-        Transaction oldIncome = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("Old income")
-                .type(Transaction.TransactionType.INCOME)
-                .date(LocalDateTime.of(2024, 1, 5, 10, 0))
-                .build();
-
-        Transaction newIncome = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("New income")
-                .type(Transaction.TransactionType.INCOME)
-                .date(LocalDateTime.of(2024, 1, 15, 10, 0))
-                .build();
-
-        Transaction newExpense = Transaction.builder()
-                .id("3")
-                .amount(new BigDecimal("50.00"))
-                .category("Test")
-                .description("New expense")
+    @DisplayName("Dovrebbe cercare le transazioni piu' grandi con una query ordinata e limitata")
+    void shouldGetTopTransactions() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        TransactionFilter expected = TransactionFilter.builder()
                 .type(Transaction.TransactionType.EXPENSE)
-                .date(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .startDate(start)
+                .sort(Sort.by(Sort.Direction.DESC, "amount"))
+                .limit(10)
                 .build();
+        when(transactionRepository.findFiltered(expected)).thenReturn(List.of(expenseTransaction));
 
-        List<Transaction> transactions = Arrays.asList(oldIncome, newIncome, newExpense);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        List<Transaction> result = transactionService.getTopTransactions(
+                Transaction.TransactionType.EXPENSE, 10, start, null);
 
-        List<Transaction> result = transactionService.filterTransactions(
-                Transaction.TransactionType.INCOME,
-                startDate,
-                null
-        );
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("2");
-        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.INCOME);
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).containsExactly(expenseTransaction);
     }
 
     @Test
-    @DisplayName("Dovrebbe filtrare per tipo con solo endDate")
-    void shouldFilterByTypeWithOnlyEndDate() {
-        LocalDate endDate = LocalDate.of(2024, 1, 15);
+    @DisplayName("Dovrebbe restituire tutte le transazioni con i soli campi richiesti")
+    void shouldGetAllTransactionsWithSelectedFields() {
+        Set<TransactionField> fields = EnumSet.of(TransactionField.AMOUNT, TransactionField.DATE);
+        TransactionFilter expected = TransactionFilter.builder().fields(fields).build();
+        when(transactionRepository.findFiltered(expected)).thenReturn(List.of(incomeTransaction));
 
-        Transaction oldExpense = Transaction.builder()
-                .id("1")
-                .amount(new BigDecimal("100.00"))
-                .category("Test")
-                .description("Old expense")
-                .type(Transaction.TransactionType.EXPENSE)
-                .date(LocalDateTime.of(2024, 1, 10, 10, 0))
-                .build();
+        List<Transaction> result = transactionService.getAllTransactions(fields);
 
-        Transaction newExpense = Transaction.builder()
-                .id("2")
-                .amount(new BigDecimal("200.00"))
-                .category("Test")
-                .description("New expense")
-                .type(Transaction.TransactionType.EXPENSE)
-                .date(LocalDateTime.of(2024, 1, 20, 10, 0))
-                .build();
+        assertThat(result).containsExactly(incomeTransaction);
+    }
 
-        Transaction oldIncome = Transaction.builder()
-                .id("3")
-                .amount(new BigDecimal("50.00"))
-                .category("Test")
-                .description("Old income")
-                .type(Transaction.TransactionType.INCOME)
-                .date(LocalDateTime.of(2024, 1, 10, 10, 0))
-                .build();
+    @Test
+    @DisplayName("Dovrebbe leggere tutte le transazioni senza proiezione se non sono richiesti campi")
+    void shouldGetAllTransactionsWithoutProjection() {
+        when(transactionRepository.findAll()).thenReturn(List.of(incomeTransaction));
 
-        List<Transaction> transactions = Arrays.asList(oldExpense, newExpense, oldIncome);
-        when(transactionRepository.findAll()).thenReturn(transactions);
+        List<Transaction> result = transactionService.getAllTransactions(Set.of());
 
-        List<Transaction> result = transactionService.filterTransactions(
-                Transaction.TransactionType.EXPENSE,
-                null,
-                endDate
-        );
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("1");
-        assertThat(result.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
-        verify(transactionRepository, times(1)).findAll();
+        assertThat(result).containsExactly(incomeTransaction);
+        verify(transactionRepository, never()).findFiltered(any());
     }
 
     @Test
     @DisplayName("Dovrebbe restituire summary completo con entrate, uscite e saldo")
     void shouldGetCompleteSummary() {
-        Transaction income1 = Transaction.builder()
-                .amount(new BigDecimal("1000.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(
+                new CurrencyTotal(Transaction.TransactionType.INCOME, "EUR", new BigDecimal("1500.00")),
+                new CurrencyTotal(Transaction.TransactionType.EXPENSE, "EUR", new BigDecimal("350.00"))));
 
-        Transaction income2 = Transaction.builder()
-                .amount(new BigDecimal("500.00"))
-                .type(Transaction.TransactionType.INCOME)
-                .build();
-
-        Transaction expense1 = Transaction.builder()
-                .amount(new BigDecimal("200.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
-
-        Transaction expense2 = Transaction.builder()
-                .amount(new BigDecimal("150.00"))
-                .type(Transaction.TransactionType.EXPENSE)
-                .build();
-
-        List<Transaction> transactions = Arrays.asList(income1, income2, expense1, expense2);
-        when(transactionRepository.findAll()).thenReturn(transactions);
-
-        Map<String, BigDecimal> summary = transactionService.getSummary();
+        Map<String, BigDecimal> summary = transactionService.getSummary(null);
 
         assertThat(summary).containsKeys("totalIncome", "totalExpense", "balance");
         assertThat(summary.get("totalIncome")).isEqualByComparingTo(new BigDecimal("1500.00"));
         assertThat(summary.get("totalExpense")).isEqualByComparingTo(new BigDecimal("350.00"));
         assertThat(summary.get("balance")).isEqualByComparingTo(new BigDecimal("1150.00"));
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionRepository, times(1)).sumByTypeAndCurrency();
     }
 
     @Test
     @DisplayName("Dovrebbe restituire summary con valori zero quando non ci sono transazioni")
     void shouldReturnZeroSummaryWhenNoTransactions() {
-        when(transactionRepository.findAll()).thenReturn(Collections.emptyList());
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(Collections.emptyList());
 
-        Map<String, BigDecimal> summary = transactionService.getSummary();
+        Map<String, BigDecimal> summary = transactionService.getSummary(null);
 
         assertThat(summary).containsKeys("totalIncome", "totalExpense", "balance");
         assertThat(summary.get("totalIncome")).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(summary.get("totalExpense")).isEqualByComparingTo(BigDecimal.ZERO);
         assertThat(summary.get("balance")).isEqualByComparingTo(BigDecimal.ZERO);
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionRepository, times(1)).sumByTypeAndCurrency();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe convertire nella valuta richiesta solo i totali per valuta")
+    void shouldConvertCurrencyTotalsToRequestedCurrency() {
+        when(transactionRepository.sumByTypeAndCurrency()).thenReturn(List.of(
+                new CurrencyTotal(Transaction.TransactionType.INCOME, "EUR", new BigDecimal("1000.00")),
+                new CurrencyTotal(Transaction.TransactionType.INCOME, "USD", new BigDecimal("200.00")),
+                new CurrencyTotal(Transaction.TransactionType.EXPENSE, "GBP", new BigDecimal("100.00"))));
+
+        Map<String, BigDecimal> summary = transactionService.getSummary("USD");
+
+        assertThat(summary.get("totalIncome")).isEqualByComparingTo("1450.00");
+        assertThat(summary.get("totalExpense")).isEqualByComparingTo("156.25");
+        assertThat(summary.get("balance")).isEqualByComparingTo("1293.75");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare una valuta senza tasso di cambio")
+    void shouldRejectSummaryInUnknownCurrency() {
+
+        assertThatThrownBy(() -> transactionService.getSummary("JPY"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("JPY");
+        verify(transactionRepository, never()).sumByTypeAndCurrency();
+    }
+
+    private static CurrencyTotal income(String total, String currency) {
+        return new CurrencyTotal(Transaction.TransactionType.INCOME, currency, new BigDecimal(total));
+    }
+
+    private static CurrencyTotal expense(String total, String currency) {
+        return new CurrencyTotal(Transaction.TransactionType.EXPENSE, currency, new BigDecimal(total));
     }
-}
\ No newline at end of file
+}
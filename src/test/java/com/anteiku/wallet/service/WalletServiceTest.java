@@ -0,0 +1,280 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.dto.WalletSummary;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.model.WalletBalance;
+import com.anteiku.wallet.repository.TransactionRepository;
+import com.anteiku.wallet.repository.TransactionRepositoryCustom;
+import com.anteiku.wallet.repository.WalletBalanceRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletService Test")
+class WalletServiceTest {
+
+    private static final FxTable FX = new FxTable("EUR",
+            Map.of("USD", new BigDecimal("1.25"), "GBP", new BigDecimal("0.80")), Instant.EPOCH);
+
+    @Mock
+    private WalletBalanceRepository balanceRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private TransactionCache transactionCache;
+
+    @InjectMocks
+    private WalletService walletService;
+
+    @Test
+    @DisplayName("Dovrebbe trasformare ogni scrittura in un incremento per portafoglio")
+    void shouldApplyDeltasPerWallet() {
+        Transaction old = transaction("famiglia", Transaction.TransactionType.EXPENSE, "30.00");
+        Transaction replacement = transaction("famiglia", Transaction.TransactionType.EXPENSE, "45.50");
+        Transaction salary = transaction("lavoro", Transaction.TransactionType.INCOME, "2000.00");
+
+        walletService.onTransactionsChanged(new TransactionsChangedEvent(List.of(replacement, salary), List.of(old)));
+
+        List<WalletBalance> deltas = captureDeltas();
+        WalletBalance family = deltas.get(0);
+        assertThat(family.getId()).isEqualTo("famiglia");
+        assertThat(family.totals("EUR").getExpense()).isEqualByComparingTo("15.50");
+        assertThat(family.getCount()).isZero();
+        assertThat(deltas.get(1).totals("EUR").getIncome()).isEqualByComparingTo("2000.00");
+        assertThat(deltas.get(1).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe far fallire la scrittura se i totali non si aggiornano")
+    void shouldSwallowUpdateFailures() {
+        doThrow(new IllegalStateException("down")).when(balanceRepository).applyDeltas(any());
+
+        walletService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(transaction("famiglia", Transaction.TransactionType.EXPENSE, "1.00"))));
+
+        verify(balanceRepository).applyDeltas(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere il saldo da un solo documento, a zero per un portafoglio nuovo")
+    void shouldReadBalanceFromAggregate() {
+        when(fxRateService.current()).thenReturn(FX);
+        WalletBalance stored = WalletBalance.builder().id("famiglia").count(3).version(7).build();
+        stored.totals("EUR").setIncome(new BigDecimal("1500.00"));
+        stored.totals("EUR").setExpense(new BigDecimal("1050.00"));
+        when(balanceRepository.findById("famiglia")).thenReturn(Optional.of(stored));
+        when(balanceRepository.findById("nuovo")).thenReturn(Optional.empty());
+
+        WalletSummary family = walletService.getBalance("famiglia");
+        WalletSummary fresh = walletService.getBalance("nuovo");
+
+        assertThat(family.balance()).isEqualByComparingTo("450.00");
+        assertThat(family.currency()).isEqualTo("EUR");
+        assertThat(family.version()).isEqualTo(7);
+        assertThat(fresh.balance()).isEqualByComparingTo("0");
+        assertThat(fresh.transactionCount()).isZero();
+        verify(transactionRepository, never()).streamFiltered(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe convertire i totali di ogni valuta nella valuta richiesta")
+    void shouldConvertCurrencyTotals() {
+        when(fxRateService.current()).thenReturn(FX);
+        WalletBalance stored = WalletBalance.builder().id("viaggi").count(3).build();
+        stored.totals("EUR").setIncome(new BigDecimal("1000.00"));
+        stored.totals("USD").setExpense(new BigDecimal("250.00"));
+        stored.totals("GBP").setExpense(new BigDecimal("40.00"));
+        when(balanceRepository.findById("viaggi")).thenReturn(Optional.of(stored));
+
+        WalletSummary euros = walletService.getBalance("viaggi");
+        WalletSummary dollars = walletService.getBalance("viaggi", "USD");
+
+        assertThat(euros.totalExpense()).isEqualByComparingTo("250.00");
+        assertThat(euros.balance()).isEqualByComparingTo("750.00");
+        assertThat(dollars.currency()).isEqualTo("USD");
+        assertThat(dollars.balance()).isEqualByComparingTo("937.50");
+        assertThatThrownBy(() -> walletService.getBalance("viaggi", "JPY"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i totali all'avvio spostando le transazioni senza portafoglio")
+    void shouldRebuildOnLoad() {
+        when(transactionRepository.assignDefaultWallet()).thenReturn(2L);
+        when(transactionRepository.sumByWallet(null)).thenReturn(List.of(
+                total(Transaction.DEFAULT_WALLET, Transaction.TransactionType.INCOME, "EUR", "100.00", 1),
+                total(Transaction.DEFAULT_WALLET, Transaction.TransactionType.EXPENSE, "EUR", "40.00", 1),
+                total("famiglia", Transaction.TransactionType.EXPENSE, "EUR", "10.00", 1)));
+        when(balanceRepository.findAll()).thenReturn(List.of(WalletBalance.builder().id("famiglia").version(4).build(),
+                WalletBalance.builder().id("vuoto").version(9).build()));
+        when(balanceRepository.replaceIfVersion(any(), any())).thenReturn(true);
+
+        walletService.load();
+
+        verify(transactionCache).clear();
+        Map<String, Long> expected = new HashMap<>();
+        List<WalletBalance> saved = captureReplaced(expected);
+        assertThat(saved).extracting(WalletBalance::getId).containsExactly("default", "famiglia", "vuoto");
+        assertThat(saved.get(0).totals("EUR").getIncome()).isEqualByComparingTo("100.00");
+        assertThat(saved.get(0).totals("EUR").getExpense()).isEqualByComparingTo("40.00");
+        assertThat(saved.get(0).getCount()).isEqualTo(2);
+        assertThat(saved.get(0).getVersion()).isZero();
+        assertThat(saved.get(1).getVersion()).isEqualTo(5);
+        assertThat(saved.get(2).getCount()).isZero();
+        assertThat(saved.get(2).getVersion()).isEqualTo(10);
+        assertThat(expected).containsEntry("default", null).containsEntry("famiglia", 4L).containsEntry("vuoto", 9L);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire da solo il portafoglio incrementato durante la ricostruzione")
+    void shouldRebuildConflictingWalletAlone() {
+        when(transactionRepository.sumByWallet(null)).thenReturn(List.of(
+                total("famiglia", Transaction.TransactionType.EXPENSE, "EUR", "10.00", 1)));
+        when(transactionRepository.sumByWallet("famiglia")).thenReturn(List.of(
+                total("famiglia", Transaction.TransactionType.EXPENSE, "EUR", "25.00", 2)));
+        when(balanceRepository.findAll()).thenReturn(List.of(WalletBalance.builder().id("famiglia").version(4).build()));
+        when(balanceRepository.findById("famiglia"))
+                .thenReturn(Optional.of(WalletBalance.builder().id("famiglia").version(5).build()));
+        when(balanceRepository.replaceIfVersion(any(), eq(4L))).thenReturn(false);
+        when(balanceRepository.replaceIfVersion(any(), eq(5L))).thenReturn(true);
+
+        walletService.rebuild();
+
+        ArgumentCaptor<WalletBalance> saved = ArgumentCaptor.forClass(WalletBalance.class);
+        verify(balanceRepository).replaceIfVersion(saved.capture(), eq(5L));
+        assertThat(saved.getValue().totals("EUR").getExpense()).isEqualByComparingTo("25.00");
+        assertThat(saved.getValue().getVersion()).isEqualTo(6);
+        walletService.reconcile();
+        verify(transactionRepository).sumByWallet("famiglia");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i portafogli il cui incremento non e' riuscito")
+    void shouldReconcileFailedIncrements() {
+        doThrow(new IllegalStateException("down")).when(balanceRepository).applyDeltas(any());
+        walletService.onTransactionsChanged(TransactionsChangedEvent.added(
+                List.of(transaction("famiglia", Transaction.TransactionType.EXPENSE, "1.00"))));
+        when(balanceRepository.findById("famiglia")).thenThrow(new IllegalStateException("down"))
+                .thenReturn(Optional.empty());
+        when(transactionRepository.sumByWallet("famiglia")).thenReturn(List.of(
+                total("famiglia", Transaction.TransactionType.EXPENSE, "EUR", "1.00", 1)));
+        when(balanceRepository.replaceIfVersion(any(), any())).thenReturn(true);
+
+        walletService.reconcile();
+        walletService.reconcile();
+        walletService.reconcile();
+
+        verify(balanceRepository).replaceIfVersion(any(), isNull());
+        verify(transactionRepository, times(1)).sumByWallet("famiglia");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i totali salvati prima che fossero tenuti per valuta")
+    void shouldRebuildTotalsWithoutCurrencies() {
+        when(transactionRepository.assignDefaultWallet()).thenReturn(0L);
+        when(balanceRepository.count()).thenReturn(3L);
+        when(balanceRepository.existsByCurrenciesExists(false)).thenReturn(true);
+        when(transactionRepository.sumByWallet(null)).thenReturn(List.of(
+                total("famiglia", Transaction.TransactionType.EXPENSE, "USD", "12.00", 1)));
+        when(balanceRepository.findAll()).thenReturn(List.of());
+        when(balanceRepository.replaceIfVersion(any(), any())).thenReturn(true);
+
+        walletService.load();
+
+        assertThat(captureReplaced(new HashMap<>()).get(0).totals("USD").getExpense())
+                .isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    @DisplayName("Non dovrebbe ricostruire i totali gia' presenti e completi")
+    void shouldSkipRebuildWhenUpToDate() {
+        when(transactionRepository.assignDefaultWallet()).thenReturn(0L);
+        when(balanceRepository.count()).thenReturn(3L);
+
+        walletService.load();
+
+        verify(transactionRepository, never()).sumByWallet(any());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe ricostruire i totali dopo l'eliminazione di un periodo")
+    void shouldRebuildAfterPurge() {
+        when(transactionRepository.sumByWallet(null)).thenReturn(List.of());
+        when(balanceRepository.findAll()).thenReturn(List.of(WalletBalance.builder().id("famiglia").build()));
+        when(balanceRepository.replaceIfVersion(any(), any())).thenReturn(true);
+
+        walletService.onTransactionsPurged(new TransactionsPurgedEvent(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31)));
+
+        assertThat(captureReplaced(new HashMap<>()).get(0).getCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WalletBalance> captureDeltas() {
+        ArgumentCaptor<Collection<WalletBalance>> deltas = ArgumentCaptor.forClass(Collection.class);
+        verify(balanceRepository).applyDeltas(deltas.capture());
+        return sorted(deltas.getValue());
+    }
+
+    private List<WalletBalance> captureReplaced(Map<String, Long> expected) {
+        ArgumentCaptor<WalletBalance> saved = ArgumentCaptor.forClass(WalletBalance.class);
+        ArgumentCaptor<Long> versions = ArgumentCaptor.forClass(Long.class);
+        verify(balanceRepository, atLeastOnce()).replaceIfVersion(saved.capture(), versions.capture());
+        for (int i = 0; i < saved.getAllValues().size(); i++) {
+            expected.put(saved.getAllValues().get(i).getId(), versions.getAllValues().get(i));
+        }
+        return sorted(saved.getAllValues());
+    }
+
+    private static List<WalletBalance> sorted(Collection<WalletBalance> balances) {
+        return balances.stream().sorted(Comparator.comparing(WalletBalance::getId)).toList();
+    }
+
+    private static TransactionRepositoryCustom.WalletTotal total(String walletId,
+                                                                 Transaction.TransactionType type, String currency,
+                                                                 String amount, long count) {
+        return new TransactionRepositoryCustom.WalletTotal(walletId, type, currency, new BigDecimal(amount), count);
+    }
+
+    private static Transaction transaction(String walletId, Transaction.TransactionType type, String amount) {
+        return Transaction.builder()
+                .walletId(walletId)
+                .amount(new BigDecimal(amount))
+                .category("Varie")
+                .description("Varie")
+                .type(type)
+                .build();
+    }
+}
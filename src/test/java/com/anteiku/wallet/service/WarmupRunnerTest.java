@@ -0,0 +1,183 @@
+package com.anteiku.wallet.service;
+
+import com.anteiku.wallet.config.DecimalAmountMigration;
+import com.anteiku.wallet.config.WarmupProperties;
+import com.anteiku.wallet.model.Transaction;
+import com.anteiku.wallet.repository.TransactionFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmupRunner Test")
+class WarmupRunnerTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private BudgetService budgetService;
+
+    @Mock
+    private StatsService statsService;
+
+    @Mock
+    private ReadModelSnapshotService readModelSnapshotService;
+
+    @Mock
+    private DecimalAmountMigration decimalAmountMigration;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final WarmupProperties properties = new WarmupProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setIterations(3);
+        properties.setSampleSize(2);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restare fuori servizio fino alla fine del riscaldamento")
+    void shouldBeOutOfServiceUntilDone() {
+        List<Transaction> recent = WarmupRunner.synthetic(2);
+        recent.get(0).setId("t1");
+        recent.get(1).setId("t2");
+        when(transactionService.filterTransactions(any(TransactionFilter.class))).thenReturn(recent);
+        allLoaded();
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+        WarmupHealthIndicator health = health(runner);
+
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        runner.run();
+
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(health.health().getDetails()).containsEntry("iterations", 3);
+        verify(transactionService, times(3)).getTransactionById("t1");
+        verify(transactionService, times(3)).getTransactionsByIds(List.of("t1", "t2"));
+        verify(transactionService, times(2)).getSummary(null);
+        assertThat(registry.get("wallet.warmup.duration").timer().count()).isEqualTo(1);
+        assertThat(registry.get("wallet.warmup.iteration").tag("phase", "first").timer().count()).isEqualTo(1);
+        assertThat(registry.get("wallet.warmup.iteration").tag("phase", "last").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restare fuori servizio finché i modelli in memoria non sono caricati")
+    void shouldBeOutOfServiceUntilModelsLoaded() {
+        when(transactionService.filterTransactions(any(TransactionFilter.class))).thenReturn(List.of());
+        when(decimalAmountMigration.isDone()).thenReturn(true);
+        when(budgetService.isReady()).thenReturn(true);
+        when(statsService.isReady()).thenReturn(false, false, true);
+        when(readModelSnapshotService.isReady()).thenReturn(true);
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+        runner.run();
+
+        Health loading = health(runner).health();
+        Health loaded = health(runner).health();
+
+        assertThat(loading.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(loading.getDetails()).containsEntry("stats", false).containsEntry("budgets", true);
+        assertThat(loaded.getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe restare fuori servizio finché gli importi non sono convertiti")
+    void shouldBeOutOfServiceUntilAmountsConverted() {
+        when(transactionService.filterTransactions(any(TransactionFilter.class))).thenReturn(List.of());
+        when(decimalAmountMigration.isDone()).thenReturn(false);
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+        runner.run();
+
+        Health health = health(runner).health();
+
+        assertThat(health.getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(health.getDetails()).containsEntry("amounts", false);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe usare transazioni sintetiche se il database è vuoto")
+    void shouldUseSyntheticTransactionsWhenEmpty() {
+        when(transactionService.filterTransactions(any(TransactionFilter.class))).thenReturn(List.of());
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+
+        runner.run();
+
+        assertThat(runner.isDone()).isTrue();
+        assertThat(runner.getIterationsDone()).isEqualTo(3);
+        verify(transactionService, never()).getTransactionById(anyString());
+        verify(transactionService, never()).getTransactionsByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Dovrebbe fermarsi al limite di tempo")
+    void shouldStopAtTimeLimit() {
+        properties.setMaxDuration(Duration.ZERO);
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+        when(transactionService.filterTransactions(any(TransactionFilter.class))).thenReturn(List.of());
+
+        runner.run();
+
+        assertThat(runner.isDone()).isTrue();
+        assertThat(runner.getIterationsDone()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnare l'istanza pronta se il riscaldamento fallisce")
+    void shouldBeReadyWhenWarmupFails() {
+        when(transactionService.filterTransactions(any(TransactionFilter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+
+        runner.run();
+
+        assertThat(runner.isDone()).isTrue();
+        assertThat(runner.getIterationsDone()).isZero();
+        assertThat(registry.get("wallet.warmup.duration").timer().count()).isEqualTo(1);
+        assertThat(registry.find("wallet.warmup.iteration").timer()).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe essere pronta subito se il riscaldamento è disabilitato")
+    void shouldBeReadyWhenDisabled() {
+        properties.setEnabled(false);
+        allLoaded();
+        WarmupRunner runner = new WarmupRunner(transactionService, objectMapper, properties, registry);
+
+        runner.onApplicationReady();
+
+        assertThat(health(runner).health().getStatus()).isEqualTo(Status.UP);
+        verify(transactionService, never()).filterTransactions(any(TransactionFilter.class));
+    }
+
+    private WarmupHealthIndicator health(WarmupRunner runner) {
+        return new WarmupHealthIndicator(runner, budgetService, statsService, readModelSnapshotService,
+                decimalAmountMigration);
+    }
+
+    private void allLoaded() {
+        when(decimalAmountMigration.isDone()).thenReturn(true);
+        when(budgetService.isReady()).thenReturn(true);
+        when(statsService.isReady()).thenReturn(true);
+        when(readModelSnapshotService.isReady()).thenReturn(true);
+    }
+}
@@ -0,0 +1,153 @@
+package com.anteiku.wallet.service.statement;
+
+import com.anteiku.wallet.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Statement readers Test")
+class StatementReadersTest {
+
+    private final StatementRecordMapper mapper = new StatementRecordMapper("Da classificare");
+
+    @Test
+    @DisplayName("Dovrebbe leggere un CSV con separatore punto e virgola e intestazioni in italiano")
+    void shouldReadSemicolonCsvWithItalianHeader() throws IOException {
+        String csv = "﻿Data;Importo;Descrizione;Categoria\n"
+                + "15/01/2024;-12,50;\"Bar; colazione\";Cibo\r\n"
+                + "\n"
+                + "31/01/2024;1.500,00;\"Stipendio\n\"\"gennaio\"\"\";\n";
+
+        List<StatementRecord> records = readAll(StatementFormat.CSV, csv);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).line()).isEqualTo(2);
+        assertThat(records.get(0).fields()).containsEntry("date", "15/01/2024")
+                .containsEntry("amount", "-12,50")
+                .containsEntry("description", "Bar; colazione")
+                .containsEntry("category", "Cibo");
+        assertThat(records.get(1).line()).isEqualTo(4);
+        assertThat(records.get(1).get("description")).isEqualTo("Stipendio\n\"gennaio\"");
+        assertThat(records.get(1).get("category")).isNull();
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere un CSV con separatore virgola e colonna del tipo")
+    void shouldReadCommaCsvWithTypeColumn() throws IOException {
+        String csv = "date,amount,type,category,description\n"
+                + "2024-01-15T10:30:00,50.00,EXPENSE,Cibo,Spesa\n";
+
+        Transaction transaction = mapper.map(readAll(StatementFormat.CSV, csv).get(0));
+
+        assertThat(transaction.getAmount()).isEqualByComparingTo("50.00");
+        assertThat(transaction.getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+        assertThat(transaction.getDate()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere un OFX 1.x SGML con tag non chiusi")
+    void shouldReadSgmlOfx() throws IOException {
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20240115120000.000[+1:CET]\n<TRNAMT>-12.50\n"
+                + "<FITID>1\n<NAME>Bar Centrale\n<MEMO>Colazione\n</STMTTRN>\n"
+                + "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20240131\n<TRNAMT>1500.00\n<NAME>Stipendio &amp; bonus\n"
+                + "</STMTTRN>\n</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+
+        List<Transaction> transactions = readAll(StatementFormat.OFX, ofx).stream().map(mapper::map).toList();
+
+        assertThat(transactions).hasSize(2);
+        assertThat(transactions.get(0).getDate()).isEqualTo(LocalDateTime.of(2024, 1, 15, 12, 0));
+        assertThat(transactions.get(0).getAmount()).isEqualByComparingTo("12.50");
+        assertThat(transactions.get(0).getType()).isEqualTo(Transaction.TransactionType.EXPENSE);
+        assertThat(transactions.get(0).getDescription()).isEqualTo("Bar Centrale - Colazione");
+        assertThat(transactions.get(0).getCategory()).isEqualTo("Da classificare");
+        assertThat(transactions.get(1).getDate()).isEqualTo(LocalDateTime.of(2024, 1, 31, 0, 0));
+        assertThat(transactions.get(1).getType()).isEqualTo(Transaction.TransactionType.INCOME);
+        assertThat(transactions.get(1).getDescription()).isEqualTo("Stipendio & bonus");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe leggere un OFX 2.x XML")
+    void shouldReadXmlOfx() throws IOException {
+        String ofx = "<?xml version=\"1.0\"?><OFX><STMTTRN><TRNAMT>-9.90</TRNAMT><DTPOSTED>20240201</DTPOSTED>"
+                + "<NAME>Abbonamento</NAME></STMTTRN></OFX>";
+
+        List<StatementRecord> records = readAll(StatementFormat.OFX, ofx);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).fields()).containsEntry("amount", "-9.90")
+                .containsEntry("date", "2024-02-01")
+                .containsEntry("description", "Abbonamento");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe segnalare un OFX troncato")
+    void shouldFailOnTruncatedOfx() {
+        String ofx = "<OFX><STMTTRN><TRNAMT>-9.90";
+
+        assertThatThrownBy(() -> readAll(StatementFormat.OFX, ofx)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Dovrebbe rifiutare importi, date e tipi non validi")
+    void shouldRejectInvalidValues() {
+        assertThatThrownBy(() -> mapper.map(record("abc", "2024-01-15", null)))
+                .hasMessage("Invalid amount: abc");
+        assertThatThrownBy(() -> mapper.map(record("10", "15.01.2024", null)))
+                .hasMessage("Invalid date: 15.01.2024");
+        assertThatThrownBy(() -> mapper.map(record("10", "2024-01-15", "BONIFICO")))
+                .hasMessage("Invalid type: BONIFICO");
+        assertThatThrownBy(() -> mapper.map(record(null, "2024-01-15", null)))
+                .hasMessage("Missing amount");
+    }
+
+    @Test
+    @DisplayName("Dovrebbe interpretare separatori decimali e delle migliaia")
+    void shouldParseAmountSeparators() {
+        assertThat(StatementRecordMapper.parseAmount("1,234.56")).isEqualTo(new BigDecimal("1234.56"));
+        assertThat(StatementRecordMapper.parseAmount("1.234,56")).isEqualTo(new BigDecimal("1234.56"));
+        assertThat(StatementRecordMapper.parseAmount("-12,5 €")).isEqualTo(new BigDecimal("-12.5"));
+        assertThat(StatementRecordMapper.parseAmount("+7")).isEqualTo(new BigDecimal("7"));
+    }
+
+    @Test
+    @DisplayName("Dovrebbe dedurre il formato dal parametro o dal Content-Type")
+    void shouldResolveFormat() {
+        assertThat(StatementFormat.resolve("ofx", "text/csv")).isEqualTo(StatementFormat.OFX);
+        assertThat(StatementFormat.resolve(null, "application/x-ofx")).isEqualTo(StatementFormat.OFX);
+        assertThat(StatementFormat.resolve(null, null)).isEqualTo(StatementFormat.CSV);
+        assertThatThrownBy(() -> StatementFormat.resolve("qif", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static StatementRecord record(String amount, String date, String type) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("amount", amount);
+        fields.put("date", date);
+        fields.put("type", type);
+        fields.put("description", "Test");
+        return new StatementRecord(2, fields);
+    }
+
+    private static List<StatementRecord> readAll(StatementFormat format, String text) throws IOException {
+        List<StatementRecord> records = new ArrayList<>();
+        try (StatementReader reader = format.open(new BufferedReader(new StringReader(text)))) {
+            for (StatementRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}